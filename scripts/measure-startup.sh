@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# Porównanie trybów startu obrazu: standard vs fast-start (AOT + CDS).
+# Dla każdego trybu uruchamia kontener RUNS razy i mierzy:
+#   - startup: od "docker run" do pierwszego 200 z /azure/health/liveness,
+#   - first request: czas pierwszego GET /greeting (zimny JIT i ścieżka żądania).
+# Kontener startuje bez dostępu do Azure (bez prefetchu sekretów i prewarmu tokenów).
+#
+# Użycie: scripts/measure-startup.sh [RUNS]    (wymaga docker, curl)
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT=18080
+cd "$(dirname "$0")/.."
+
+for mode in standard fast-start; do
+  docker build -q --build-arg START_MODE="$mode" -t "greeting-service:$mode" . >/dev/null
+done
+
+now_ms() { date +%s%3N; }
+
+measure() {
+  local mode="$1" start ready first_start first_end
+  local id
+  start=$(now_ms)
+  id=$(docker run -d --rm -p "$PORT:8080" \
+    -e AZURE_KEYVAULT_PREFETCH_SECRETS= \
+    -e AZURE_CREDENTIAL_PREWARM_SCOPES= \
+    "greeting-service:$mode")
+  until curl -sf -o /dev/null "http://localhost:$PORT/azure/health/liveness"; do
+    sleep 0.02
+  done
+  ready=$(now_ms)
+  first_start=$(now_ms)
+  curl -sf -o /dev/null "http://localhost:$PORT/greeting?name=World"
+  first_end=$(now_ms)
+  docker stop -t 5 "$id" >/dev/null
+  echo "$((ready - start)) $((first_end - first_start))"
+}
+
+printf '%-12s %12s %18s\n' mode startup_ms first_request_ms
+for mode in standard fast-start; do
+  measure "$mode" >/dev/null # rozgrzewka (cache warstw, page cache)
+  total_startup=0
+  total_first=0
+  for _ in $(seq "$RUNS"); do
+    read -r startup first < <(measure "$mode")
+    total_startup=$((total_startup + startup))
+    total_first=$((total_first + first))
+  done
+  printf '%-12s %12d %18d\n' "$mode" $((total_startup / RUNS)) $((total_first / RUNS))
+done
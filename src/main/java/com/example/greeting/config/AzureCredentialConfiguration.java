@@ -0,0 +1,38 @@
+package com.example.greeting.config;
+
+import com.azure.core.http.HttpClient;
+import com.azure.identity.DefaultAzureCredentialBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Jeden credential (Workload Identity / DefaultAzureCredential) dla Key Vault i Blob Storage.
+ * Tokeny dla {@code azure.credential.prewarm-scopes} są pobierane w tle od razu po utworzeniu beana,
+ * równolegle z resztą startu kontekstu. Żądania tokenów idą przez wspólny transport HTTP ({@link AzureHttpTransport}).
+ */
+@Configuration(proxyBeanMethods = false)
+public class AzureCredentialConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(AzureCredentialConfiguration.class);
+
+    @Bean
+    public CachingTokenCredential azureCredential(
+            @Value("${azure.credential.tenant-id:${AZURE_TENANT_ID:}}") String tenantId,
+            @Value("${azure.credential.refresh-before:5m}") Duration refreshBefore,
+            @Value("${azure.credential.prewarm-scopes:https://vault.azure.net/.default,https://storage.azure.com/.default}")
+            List<String> prewarmScopes,
+            HttpClient azureHttpClient) {
+        log.info("Inicjalizacja wspólnego credentiala Azure (refresh-before={}, prewarm={})", refreshBefore, prewarmScopes);
+        CachingTokenCredential credential = new CachingTokenCredential(
+                new DefaultAzureCredentialBuilder().httpClient(azureHttpClient).build(), Clock.systemUTC(), refreshBefore, tenantId);
+        credential.prewarm(prewarmScopes);
+        return credential;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.greeting.config;
+
+import com.azure.core.http.HttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Jeden transport HTTP ({@link AzureHttpTransport}) dla wszystkich klientów Azure SDK.
+ * Połączenia do {@code azure.http.prewarm-endpoints} są otwierane w tle od razu po utworzeniu beana,
+ * równolegle z resztą startu kontekstu - pierwsze żądanie nie płaci za TCP i TLS.
+ */
+@Configuration(proxyBeanMethods = false)
+public class AzureHttpConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(AzureHttpConfiguration.class);
+
+    @Bean
+    public AzureHttpTransport azureHttpTransport(
+            @Value("${azure.http.max-connections:128}") int maxConnections,
+            @Value("${azure.http.max-pending-acquires:1000}") int maxPendingAcquires,
+            @Value("${azure.http.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${azure.http.max-idle-time:60s}") Duration maxIdleTime,
+            @Value("${azure.http.max-life-time:10m}") Duration maxLifeTime,
+            @Value("${azure.http.eviction-interval:30s}") Duration evictionInterval,
+            @Value("${azure.http.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${azure.http.write-timeout:30s}") Duration writeTimeout,
+            @Value("${azure.http.response-timeout:30s}") Duration responseTimeout,
+            @Value("${azure.http.read-timeout:30s}") Duration readTimeout,
+            @Value("${azure.http.http2:false}") boolean http2,
+            @Value("${azure.http.prewarm-endpoints:}") List<String> prewarmEndpoints,
+            @Value("${azure.http.prewarm-connections:2}") int prewarmConnections) {
+        AzureHttpTransport transport = new AzureHttpTransport("azure", new AzureHttpTransport.Settings(
+                maxConnections, maxPendingAcquires, pendingAcquireTimeout, maxIdleTime, maxLifeTime, evictionInterval,
+                connectTimeout, writeTimeout, responseTimeout, readTimeout, http2));
+        if (prewarmConnections > 0 && prewarmEndpoints.stream().anyMatch(endpoint -> !endpoint.isBlank())) {
+            long started = System.nanoTime();
+            transport.prewarm(prewarmEndpoints, prewarmConnections).subscribe(warmed ->
+                    log.info("✅ Otwarto {} połączeń do Azure w tle ({} ms)", warmed,
+                            Duration.ofNanos(System.nanoTime() - started).toMillis()));
+        }
+        return transport;
+    }
+
+    @Bean
+    public HttpClient azureHttpClient(AzureHttpTransport transport) {
+        return transport.httpClient();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.greeting.config;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.netty.NettyAsyncHttpClientBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Wspólny transport HTTP klientów Azure SDK (Key Vault, Blob Storage, credential) - jeden klient Netty
+ * i jedna pula połączeń zamiast osobnego domyślnego klienta w każdym builderze.
+ * <p>
+ * Pula ma limit połączeń na host, kolejkę oczekujących z timeoutem i usuwanie bezczynnych połączeń w tle
+ * (przed tym, jak zamknie je load balancer Azure). Stan puli trafia do Micrometera jako
+ * {@code reactor.netty.connection.provider.*} (tag {@code name} = nazwa puli, {@code remote.address} = host).
+ * {@link #prewarm(List, int)} otwiera połączenia (TCP + TLS) jeszcze przed pierwszym żądaniem.
+ */
+public class AzureHttpTransport implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AzureHttpTransport.class);
+
+    /**
+     * Ustawienia transportu ({@code azure.http.*}).
+     * @param maxConnections        limit połączeń na host
+     * @param maxPendingAcquires    żądania czekające na wolne połączenie; nadmiar kończy się błędem od razu
+     * @param maxIdleTime           bezczynne dłużej połączenie jest zamykane
+     * @param evictionInterval      co ile sprzątanie bezczynnych połączeń w tle
+     * @param responseTimeout       od wysłania żądania do nagłówków odpowiedzi
+     * @param readTimeout           przerwa między kolejnymi porcjami body
+     * @param http2                 negocjacja HTTP/2 przez ALPN (serwer bez HTTP/2 zostaje przy HTTP/1.1)
+     */
+    public record Settings(int maxConnections, int maxPendingAcquires, Duration pendingAcquireTimeout,
+                           Duration maxIdleTime, Duration maxLifeTime, Duration evictionInterval,
+                           Duration connectTimeout, Duration writeTimeout, Duration responseTimeout,
+                           Duration readTimeout, boolean http2) {
+
+        public Settings {
+            if (maxConnections < 1 || maxPendingAcquires < 1) {
+                throw new IllegalArgumentException("max-connections i max-pending-acquires muszą być >= 1");
+            }
+        }
+    }
+
+    private final String name;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient httpClient;
+
+    public AzureHttpTransport(String name, Settings settings) {
+        this.name = name;
+        this.connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(settings.maxConnections())
+                .pendingAcquireMaxCount(settings.maxPendingAcquires())
+                .pendingAcquireTimeout(settings.pendingAcquireTimeout())
+                .maxIdleTime(settings.maxIdleTime())
+                .maxLifeTime(settings.maxLifeTime())
+                .evictInBackground(settings.evictionInterval())
+                .metrics(true)
+                .build();
+        reactor.netty.http.client.HttpClient netty = reactor.netty.http.client.HttpClient.create(connectionProvider);
+        if (settings.http2()) {
+            netty = netty.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        this.httpClient = new NettyAsyncHttpClientBuilder(netty)
+                .connectTimeout(settings.connectTimeout())
+                .writeTimeout(settings.writeTimeout())
+                .responseTimeout(settings.responseTimeout())
+                .readTimeout(settings.readTimeout())
+                .build();
+        log.info("Transport HTTP Azure '{}': max-connections={}/host, max-idle-time={}, response-timeout={}, http2={}",
+                name, settings.maxConnections(), settings.maxIdleTime(), settings.responseTimeout(), settings.http2());
+    }
+
+    /**
+     * Klient do przekazania builderom Azure SDK ({@code .httpClient(...)}).
+     */
+    public HttpClient httpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Otwiera {@code connectionsPerEndpoint} połączeń do każdego endpointu równoległymi żądaniami {@code HEAD}.
+     * Status odpowiedzi nie ma znaczenia (bez tokenu Azure odpowiada 4xx) - liczy się gotowe połączenie w puli.
+     * @return liczba udanych żądań; błędy są logowane i nie przerywają pozostałych
+     */
+    public Mono<Integer> prewarm(List<String> endpoints, int connectionsPerEndpoint) {
+        return Flux.fromIterable(endpoints)
+                .map(String::trim)
+                .filter(endpoint -> !endpoint.isEmpty())
+                .flatMap(endpoint -> Flux.range(0, connectionsPerEndpoint).flatMap(i -> warm(endpoint)))
+                .reduce(0, Integer::sum);
+    }
+
+    private Mono<Integer> warm(String endpoint) {
+        return httpClient.send(new HttpRequest(HttpMethod.HEAD, endpoint))
+                .flatMap(response -> response.getBodyAsByteArray()
+                        .then(Mono.just(1))
+                        .doFinally(signal -> response.close()))
+                .onErrorResume(e -> {
+                    log.warn("Wstępne połączenie z '{}' nie powiodło się: {}", endpoint, e.getMessage());
+                    return Mono.just(0);
+                });
+    }
+
+    @Override
+    public void close() {
+        log.info("Zamykanie puli połączeń Azure '{}'", name);
+        connectionProvider.dispose();
+    }
+}
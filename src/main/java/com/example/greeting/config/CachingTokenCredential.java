@@ -0,0 +1,160 @@
+package com.example.greeting.config;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Wspólny {@link TokenCredential} dla wszystkich klientów Azure SDK z cache tokenów:
+ * <ul>
+ *     <li>jeden token na zestaw scope'ów (i tenant) dla całego procesu, nie per klient,</li>
+ *     <li>równoległe pobrania tego samego tokenu łączone w jedno (single-flight),</li>
+ *     <li>odświeżanie w tle na {@code refresh-before} przed wygaśnięciem - żądania nie czekają na Entra ID,</li>
+ *     <li>{@link #prewarm(List)} pobiera tokeny w tle już przy starcie kontekstu.</li>
+ * </ul>
+ * Żądanie z {@code claims} (challenge CAE) zawsze idzie do delegata i podmienia wpis w cache.
+ */
+public class CachingTokenCredential implements TokenCredential, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingTokenCredential.class);
+
+    /** Token bliżej wygaśnięcia niż margines nie jest już wydawany - klient dostałby 401 w trakcie żądania. */
+    private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(30);
+
+    private record Entry(AccessToken token, Instant refreshAt, Instant expiresAt) {}
+
+    private final TokenCredential delegate;
+    private final Clock clock;
+    private final Duration refreshBefore;
+    private final String defaultTenantId;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("azure-credential-", 0).factory());
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<AccessToken>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param defaultTenantId tenant, którego używa delegat bez jawnego tenantu (może być null) -
+     *                        żądania bez tenantu i z tym tenantem dzielą jeden token
+     */
+    public CachingTokenCredential(TokenCredential delegate, Clock clock, Duration refreshBefore, String defaultTenantId) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.clock = Objects.requireNonNull(clock);
+        this.refreshBefore = refreshBefore;
+        this.defaultTenantId = defaultTenantId == null || defaultTenantId.isBlank() ? null : defaultTenantId;
+    }
+
+    @Override
+    public Mono<AccessToken> getToken(TokenRequestContext request) {
+        return Mono.defer(() -> {
+            String key = keyOf(request);
+            if (request.getClaims() != null) {
+                return Mono.fromFuture(fetch(key, request));
+            }
+            Instant now = clock.instant();
+            Entry entry = tokens.get(key);
+            if (entry != null && now.isBefore(entry.expiresAt().minus(EXPIRY_MARGIN))) {
+                if (!now.isBefore(entry.refreshAt())) {
+                    refreshAsync(key, request);
+                }
+                return Mono.just(entry.token());
+            }
+            // kopia - anulowanie subskrypcji jednego klienta nie anuluje wspólnego pobrania
+            return Mono.fromFuture(load(key, request).copy());
+        });
+    }
+
+    /**
+     * Pobiera w tle tokeny dla podanych scope'ów (np. {@code https://vault.azure.net/.default}),
+     * żeby pierwsze wywołania klientów Azure nie czekały na łańcuch credentiali.
+     * Błąd jest tylko logowany - token zostanie pobrany ponownie przy pierwszym użyciu.
+     */
+    public void prewarm(List<String> scopes) {
+        for (String scope : scopes) {
+            if (scope.isBlank()) {
+                continue;
+            }
+            TokenRequestContext request = new TokenRequestContext().addScopes(scope.trim()).setTenantId(defaultTenantId);
+            String key = keyOf(request);
+            executor.execute(() -> load(key, request).whenComplete((token, error) -> {
+                if (error != null) {
+                    log.warn("Wstępne pobranie tokenu dla '{}' nie powiodło się: {}", scope, error.getMessage());
+                } else {
+                    log.info("✅ Token dla '{}' pobrany w tle (ważny do {})", scope, token.getExpiresAt());
+                }
+            }));
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<AccessToken> load(String key, TokenRequestContext request) {
+        CompletableFuture<AccessToken> own = new CompletableFuture<>();
+        CompletableFuture<AccessToken> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            return existing;
+        }
+        fetch(key, request).whenComplete((token, error) -> {
+            inFlight.remove(key, own);
+            if (error != null) {
+                own.completeExceptionally(error);
+            } else {
+                own.complete(token);
+            }
+        });
+        return own;
+    }
+
+    private void refreshAsync(String key, TokenRequestContext request) {
+        if (inFlight.containsKey(key)) {
+            return; // odświeżenie (albo pobranie) tego tokenu już trwa
+        }
+        try {
+            executor.execute(() -> load(key, request).whenComplete((token, error) -> {
+                if (error != null) {
+                    log.warn("Odświeżenie tokenu {} w tle nie powiodło się: {}", request.getScopes(), error.getMessage());
+                }
+            }));
+        } catch (RuntimeException e) {
+            // executor zamknięty - obecny token nadal jest ważny
+        }
+    }
+
+    private CompletableFuture<AccessToken> fetch(String key, TokenRequestContext request) {
+        CompletableFuture<AccessToken> result = new CompletableFuture<>();
+        Mono.defer(() -> delegate.getToken(request)).subscribe(token -> {
+            Instant expiresAt = token.getExpiresAt().toInstant();
+            tokens.put(key, new Entry(token, expiresAt.minus(refreshBefore), expiresAt));
+            log.debug("Token {} pobrany (ważny do {})", request.getScopes(), token.getExpiresAt());
+            result.complete(token);
+        }, result::completeExceptionally, () -> {
+            if (!result.isDone()) {
+                result.completeExceptionally(new IllegalStateException("Credential nie zwrócił tokenu dla "
+                        + request.getScopes()));
+            }
+        });
+        return result;
+    }
+
+    private String keyOf(TokenRequestContext request) {
+        String tenant = request.getTenantId() != null ? request.getTenantId() : defaultTenantId;
+        return tenant + "|" + String.join(" ", request.getScopes());
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.greeting.config;
+
+import com.example.greeting.exception.CoarseClock;
+import com.example.greeting.exception.ErrorType;
+import com.example.greeting.exception.ProblemResponses;
+import com.example.greeting.service.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Adaptacyjne limity równoległych żądań per grupa endpointów ({@code greeting.concurrency-limit.*}):
+ * {@code greeting} (/greeting, /greetings), {@code blobs} (/azure/blob*) i {@code secrets} (/azure/secrets).
+ * <p>
+ * Żądanie ponad limit grupy dostaje od razu 503 z Retry-After - nie czeka w kolejce.
+ * Każda grupa ma własny {@link AdaptiveConcurrencyLimit}, więc wolne Azure obcina tylko swoje grupy,
+ * a /greeting (najwyższe limity) nie konkuruje z nimi o miejsca. Limit maleje, gdy średnie opóźnienie udanych
+ * odpowiedzi przekracza {@code tolerance} × opóźnienie bez obciążenia zmierzone dla grupy.
+ * Żądania asynchroniczne (streaming) zajmują miejsce do zakończenia odpowiedzi, ale ich czas nie jest
+ * próbką opóźnienia - długi transfer (/stream, odpowiedzi NDJSON) to rozmiar danych, nie przeciążenie.
+ * Metryki: {@code greeting.concurrency.limit}, {@code greeting.concurrency.in-flight}
+ * i {@code greeting.concurrency.rejected} z tagiem {@code group}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "greeting.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    public static final String LIMIT = "greeting.concurrency.limit";
+    public static final String IN_FLIGHT = "greeting.concurrency.in-flight";
+    public static final String REJECTED = "greeting.concurrency.rejected";
+
+    private record Group(String pathPrefix, AdaptiveConcurrencyLimit limit) {}
+
+    private final List<Group> groups;
+    private final ProblemResponses problems = new ProblemResponses(CoarseClock.SYSTEM);
+
+    public ConcurrencyLimitFilter(
+            @Value("${greeting.concurrency-limit.tolerance:2.0}") double tolerance,
+            @Value("${greeting.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${greeting.concurrency-limit.sample-window:100ms}") Duration sampleWindow,
+            @Value("${greeting.concurrency-limit.baseline-window:1m}") Duration baselineWindow,
+            @Value("${greeting.concurrency-limit.greeting.min-limit:256}") int greetingMin,
+            @Value("${greeting.concurrency-limit.greeting.max-limit:4096}") int greetingMax,
+            @Value("${greeting.concurrency-limit.greeting.latency-threshold:100ms}") Duration greetingThreshold,
+            @Value("${greeting.concurrency-limit.blobs.min-limit:8}") int blobsMin,
+            @Value("${greeting.concurrency-limit.blobs.max-limit:256}") int blobsMax,
+            @Value("${greeting.concurrency-limit.blobs.latency-threshold:200ms}") Duration blobsThreshold,
+            @Value("${greeting.concurrency-limit.secrets.min-limit:4}") int secretsMin,
+            @Value("${greeting.concurrency-limit.secrets.max-limit:128}") int secretsMax,
+            @Value("${greeting.concurrency-limit.secrets.latency-threshold:200ms}") Duration secretsThreshold,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.groups = List.of(
+                new Group("/greeting",
+                        new AdaptiveConcurrencyLimit("greeting", greetingMin, greetingMax, greetingThreshold, tolerance,
+                                backoffRatio, sampleWindow, baselineWindow)),
+                new Group("/azure/blob",
+                        new AdaptiveConcurrencyLimit("blobs", blobsMin, blobsMax, blobsThreshold, tolerance,
+                                backoffRatio, sampleWindow, baselineWindow)),
+                new Group("/azure/secrets",
+                        new AdaptiveConcurrencyLimit("secrets", secretsMin, secretsMax, secretsThreshold, tolerance,
+                                backoffRatio, sampleWindow, baselineWindow)));
+        // bez rejestru metryk (testy wycinkowe MVC) gauge trafiają do lokalnego rejestru
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        for (Group group : groups) {
+            registerMeters(group.limit(), registry);
+            log.info("Limit równoległych żądań '{}' ({}*): {}", group.limit().getName(), group.pathPrefix(),
+                    group.limit().stats().limit());
+        }
+    }
+
+    /**
+     * Migawki wszystkich grup - do diagnostyki i testów.
+     */
+    public List<AdaptiveConcurrencyLimit.Stats> stats() {
+        return groups.stream().map(group -> group.limit().stats()).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimit limit = limitFor(request);
+        if (limit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            reject(limit, request, response);
+            return;
+        }
+        long started = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit, started, request, response));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                release(limit, started, request, response);
+            }
+        }
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Group group : groups) {
+            if (path.startsWith(group.pathPrefix())) {
+                return group.limit();
+            }
+        }
+        return null;
+    }
+
+    private static void release(AdaptiveConcurrencyLimit limit, long started, HttpServletRequest request,
+                                HttpServletResponse response) {
+        // 503 z niższej warstwy (bulkhead zależności) to sygnał przeciążenia jak kolejka w zależności;
+        // czasy błędów (szybkie 404, limity czasu) nie mówią nic o opóźnieniu bez obciążenia
+        int status = response.getStatus();
+        if (status >= 400 || isStreaming(request, response)) {
+            limit.releaseUnsampled(status == HttpStatus.SERVICE_UNAVAILABLE.value());
+        } else {
+            limit.release(System.nanoTime() - started);
+        }
+    }
+
+    private static boolean isStreaming(HttpServletRequest request, HttpServletResponse response) {
+        String contentType = response.getContentType();
+        return request.getRequestURI().endsWith("/stream")
+                || (contentType != null && contentType.startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+    }
+
+    private void reject(AdaptiveConcurrencyLimit limit, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        problems.write(response, ErrorType.OVERLOADED,
+                "Limit równoległych żądań '" + limit.getName() + "' wyczerpany", request.getRequestURI());
+    }
+
+    private static void registerMeters(AdaptiveConcurrencyLimit limit, MeterRegistry registry) {
+        Gauge.builder(LIMIT, limit, l -> l.stats().limit())
+                .description("Bieżący adaptacyjny limit równoległych żądań")
+                .tag("group", limit.getName())
+                .register(registry);
+        Gauge.builder(IN_FLIGHT, limit, l -> l.stats().inFlight())
+                .description("Żądania w trakcie obsługi")
+                .tag("group", limit.getName())
+                .register(registry);
+        FunctionCounter.builder(REJECTED, limit, l -> l.stats().rejected())
+                .description("Żądania odrzucone przez limit równoległych żądań")
+                .tag("group", limit.getName())
+                .register(registry);
+    }
+
+    private static final class ReleaseOnComplete implements AsyncListener {
+        private final AdaptiveConcurrencyLimit limit;
+        private final long started;
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+
+        ReleaseOnComplete(AdaptiveConcurrencyLimit limit, long started, HttpServletRequest request,
+                          HttpServletResponse response) {
+            this.limit = limit;
+            this.started = started;
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(limit, started, request, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // po timeoucie kontener i tak wywoła onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // j.w. - onComplete przychodzi zawsze, zwalniamy tylko tam
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
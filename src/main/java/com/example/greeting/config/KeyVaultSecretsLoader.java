@@ -3,46 +3,75 @@ package com.example.greeting.config;
 import com.example.greeting.service.AzureKeyVaultService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Loads secrets from Key Vault on application startup.
  * Runs after application context is fully initialized.
+ * Secrets from {@code azure.keyvault.prefetch-secrets} are fetched in parallel (one virtual thread each)
+ * and land in the secret cache, so startup takes one Key Vault round trip instead of one per secret.
  */
 @Component
 public class KeyVaultSecretsLoader implements ApplicationRunner {
-    
+
     private static final Logger log = LoggerFactory.getLogger(KeyVaultSecretsLoader.class);
-    
+
     private final AzureKeyVaultService keyVaultService;
-    
-    public KeyVaultSecretsLoader(AzureKeyVaultService keyVaultService) {
+    private final List<String> secretNames;
+    private final Duration timeout;
+
+    public KeyVaultSecretsLoader(
+            AzureKeyVaultService keyVaultService,
+            @Value("${azure.keyvault.prefetch-secrets:greeting-db-username,greeting-db-password}") List<String> secretNames,
+            @Value("${azure.keyvault.prefetch-timeout:30s}") Duration timeout) {
         this.keyVaultService = keyVaultService;
+        this.secretNames = secretNames.stream().map(String::trim).filter(name -> !name.isEmpty()).toList();
+        this.timeout = timeout;
     }
-    
+
     @Override
     public void run(ApplicationArguments args) {
-        log.info("=== Loading secrets from Key Vault ===");
-        
+        log.info("=== Loading {} secrets from Key Vault ===", secretNames.size());
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
         try {
-            // Read greeting-db-username
-            String dbUsername = keyVaultService.getSecret("greeting-db-username");
-            log.debug("greeting-db-username: {}", dbUsername);
-            log.info("✅ greeting-db-username loaded successfully (length: {})", dbUsername.length());
-            
-            // Read greeting-db-password
-            String dbPassword = keyVaultService.getSecret("greeting-db-password");
-            log.debug("greeting-db-password: {}", dbPassword);
-            log.info("✅ greeting-db-password loaded successfully (length: {})", dbPassword.length());
-            
+            List<CompletableFuture<String>> loads = new ArrayList<>();
+            for (String name : secretNames) {
+                loads.add(CompletableFuture.supplyAsync(() -> keyVaultService.getSecret(name), executor));
+            }
+            CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new)).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+            for (int i = 0; i < secretNames.size(); i++) {
+                String value = loads.get(i).join();
+                log.info("✅ {} loaded successfully (length: {})", secretNames.get(i), value.length());
+            }
+
             log.info("=== All secrets loaded successfully ===");
-            
-        } catch (Exception e) {
-            log.error("❌ Failed to load secrets from Key Vault: {}", e.getMessage(), e);
+
+        } catch (ExecutionException e) {
+            log.error("❌ Failed to load secrets from Key Vault: {}", e.getCause().getMessage(), e.getCause());
+            throw new RuntimeException("Cannot start application - Key Vault secrets are not accessible", e.getCause());
+        } catch (TimeoutException e) {
+            log.error("❌ Secrets not loaded from Key Vault within {}", timeout);
             throw new RuntimeException("Cannot start application - Key Vault secrets are not accessible", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Cannot start application - interrupted while loading Key Vault secrets", e);
+        } finally {
+            executor.shutdownNow(); // do not wait for hung fetches after a timeout
         }
     }
 }
-
@@ -0,0 +1,83 @@
+package com.example.greeting.config;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.example.greeting.logging.RingBufferAppender;
+import com.example.greeting.logging.SampledLog;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Próbkowanie logów udanych operacji ({@link SampledLog}) i metryki asynchronicznych appenderów
+ * ({@link RingBufferAppender} z {@code logback-spring.xml}, profil {@code json-logs}).
+ */
+@Configuration(proxyBeanMethods = false)
+public class LoggingConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingConfiguration.class);
+
+    public LoggingConfiguration(
+            @Value("${greeting.logging.sampling.default-rate:1.0}") double defaultRate,
+            @Value("${greeting.logging.sampling.rates:}") List<String> rates) {
+        Map<String, Double> parsed = SampledLog.parseRates(rates);
+        SampledLog.configure(defaultRate, parsed);
+        if (defaultRate < 1.0 || !parsed.isEmpty()) {
+            log.info("Próbkowanie logów udanych operacji: default-rate={}, rates={}", defaultRate, parsed);
+        }
+    }
+
+    /**
+     * {@code greeting.log.dropped}, {@code greeting.log.written.sync} i {@code greeting.log.queued} per appender.
+     * Appendery szukane przy rejestracji metryk - po przeładowaniu konfiguracji Logbacka przez Spring Boota.
+     */
+    @Bean
+    public MeterBinder logBufferMetrics() {
+        return registry -> {
+            for (RingBufferAppender appender : ringBufferAppenders()) {
+                FunctionCounter.builder("greeting.log.dropped", appender, RingBufferAppender::droppedCount)
+                        .description("Wpisy logu porzucone przy pełnym buforze")
+                        .tag("appender", appender.getName())
+                        .register(registry);
+                FunctionCounter.builder("greeting.log.written.sync", appender,
+                                RingBufferAppender::writtenSynchronouslyCount)
+                        .description("WARN/ERROR zapisane synchronicznie przy pełnym buforze")
+                        .tag("appender", appender.getName())
+                        .register(registry);
+                Gauge.builder("greeting.log.queued", appender, RingBufferAppender::queued)
+                        .description("Wpisy czekające w buforze logu")
+                        .tag("appender", appender.getName())
+                        .register(registry);
+            }
+        };
+    }
+
+    private static List<RingBufferAppender> ringBufferAppenders() {
+        List<RingBufferAppender> found = new ArrayList<>();
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (!(factory instanceof LoggerContext context)) {
+            return found;
+        }
+        for (ch.qos.logback.classic.Logger logger : context.getLoggerList()) {
+            Iterator<Appender<ILoggingEvent>> appenders = logger.iteratorForAppenders();
+            while (appenders.hasNext()) {
+                if (appenders.next() instanceof RingBufferAppender appender && !found.contains(appender)) {
+                    found.add(appender);
+                }
+            }
+        }
+        return found;
+    }
+}
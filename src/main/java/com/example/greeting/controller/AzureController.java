@@ -1,60 +1,114 @@
 package com.example.greeting.controller;
 
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.example.greeting.dto.BlobBatchItem;
+import com.example.greeting.dto.BlobBatchRequest;
+import com.example.greeting.dto.BlobInfo;
+import com.example.greeting.dto.BlobPage;
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.GlobalExceptionHandler;
+import com.example.greeting.service.AsyncBlobWriter;
 import com.example.greeting.service.AzureBlobStorageService;
+import com.example.greeting.service.AzureHealthMonitor;
 import com.example.greeting.service.AzureKeyVaultService;
+import com.example.greeting.service.BlobBatchOperations;
+import com.example.greeting.service.BlobCompression;
+import com.example.greeting.service.BlobContentCache;
+import com.example.greeting.service.BlobInventory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Kontroler do testowania integracji z Azure (Key Vault i Blob Storage).
+ * Stos servletowy; przy {@code spring.main.web-application-type=reactive} te same endpointy
+ * obsługuje {@link ReactiveAzureController}. Błędy (brak bloba, przeciążenie, awaria Azure) nie są łapane
+ * lokalnie - body RFC 7807 i status składa {@link GlobalExceptionHandler}.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/azure")
 public class AzureController {
     
+    /** Limit Blob Storage dla jednej strony listingu. */
+    static final int MAX_LIST_RESULTS = 5000;
+    static final int MAX_BATCH_ITEMS = 1000;
+    
     private final AzureKeyVaultService keyVaultService;
     private final AzureBlobStorageService blobStorageService;
+    private final AzureHealthMonitor healthMonitor;
+    private final AsyncBlobWriter asyncBlobWriter;
+    private final BlobContentCache blobContentCache;
+    private final BlobBatchOperations blobBatchOperations;
+    private final BlobInventory blobInventory;
+    private final ObjectMapper objectMapper;
     
     public AzureController(
             AzureKeyVaultService keyVaultService,
-            AzureBlobStorageService blobStorageService) {
+            AzureBlobStorageService blobStorageService,
+            AzureHealthMonitor healthMonitor,
+            AsyncBlobWriter asyncBlobWriter,
+            BlobContentCache blobContentCache,
+            BlobBatchOperations blobBatchOperations,
+            BlobInventory blobInventory,
+            ObjectMapper objectMapper) {
         this.keyVaultService = keyVaultService;
         this.blobStorageService = blobStorageService;
+        this.healthMonitor = healthMonitor;
+        this.asyncBlobWriter = asyncBlobWriter;
+        this.blobContentCache = blobContentCache;
+        this.blobBatchOperations = blobBatchOperations;
+        this.blobInventory = blobInventory;
+        this.objectMapper = objectMapper;
     }
     
     /**
-     * Health check - sprawdza połączenie z Key Vault i Blob Storage.
+     * Health check - stan połączenia z Key Vault i Blob Storage.
+     * Wynik pochodzi z {@link AzureHealthMonitor} (odświeżany w tle), więc wywołanie nie robi round tripów do Azure.
      * GET /azure/health
      */
     @GetMapping(value = "/health", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, Object>> health() {
-        Map<String, Object> health = new HashMap<>();
-        health.put("timestamp", LocalDateTime.now().toString());
-        health.put("service", "greeting-service");
-        
-        // Key Vault status
-        Map<String, Object> kvStatus = new HashMap<>();
-        kvStatus.put("url", keyVaultService.getKeyVaultUrl());
-        kvStatus.put("healthy", keyVaultService.isHealthy());
-        health.put("keyVault", kvStatus);
-        
-        // Blob Storage status
-        Map<String, Object> blobStatus = new HashMap<>();
-        blobStatus.put("accountName", blobStorageService.getAccountName());
-        blobStatus.put("containerName", blobStorageService.getContainerName());
-        blobStatus.put("healthy", blobStorageService.isHealthy());
-        health.put("blobStorage", blobStatus);
-        
-        boolean allHealthy = keyVaultService.isHealthy() && blobStorageService.isHealthy();
-        health.put("status", allHealthy ? "UP" : "DEGRADED");
-        
-        return allHealthy ? ResponseEntity.ok(health) : ResponseEntity.status(503).body(health);
+        return AzureHealthResponses.health(healthMonitor, keyVaultService, blobStorageService, blobContentCache);
+    }
+    
+    /**
+     * Liveness - proces odpowiada; celowo nie zależy od Azure (restart poda nie naprawi Key Vault).
+     * GET /azure/health/liveness
+     */
+    @GetMapping(value = "/health/liveness", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> liveness() {
+        return AzureHealthResponses.liveness();
+    }
+    
+    /**
+     * Readiness - czy pod może przyjmować ruch (ostatni wynik probe'ów Azure z cache).
+     * GET /azure/health/readiness
+     */
+    @GetMapping(value = "/health/readiness", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> readiness() {
+        return AzureHealthResponses.readiness(healthMonitor);
     }
     
     /**
@@ -63,19 +117,12 @@ public class AzureController {
      */
     @GetMapping(value = "/secrets/{secretName}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, String>> getSecret(@PathVariable String secretName) {
-        try {
-            String secretValue = keyVaultService.getSecret(secretName);
-            Map<String, String> response = new HashMap<>();
-            response.put("secretName", secretName);
-            response.put("value", secretValue);
-            response.put("message", "Sekret pobrany pomyślnie");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("secretName", secretName);
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(500).body(error);
-        }
+        String secretValue = keyVaultService.getSecret(secretName);
+        Map<String, String> response = new HashMap<>();
+        response.put("secretName", secretName);
+        response.put("value", secretValue);
+        response.put("message", "Sekret pobrany pomyślnie");
+        return ResponseEntity.ok(response);
     }
     
     /**
@@ -84,78 +131,239 @@ public class AzureController {
      */
     @GetMapping(value = "/config", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, String>> getConfig() {
-        try {
-            String dbUser = keyVaultService.getSecret("greeting-db-user");
-            String dbPassword = keyVaultService.getSecret("greeting-db-password");
-            
-            Map<String, String> config = new HashMap<>();
-            config.put("dbUser", dbUser);
-            config.put("dbPassword", maskPassword(dbPassword)); // Maskowanie hasła
-            config.put("message", "Konfiguracja pobrana z Key Vault");
-            return ResponseEntity.ok(config);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(500).body(error);
-        }
+        String dbUser = keyVaultService.getSecret("greeting-db-user");
+        String dbPassword = keyVaultService.getSecret("greeting-db-password");
+        
+        Map<String, String> config = new HashMap<>();
+        config.put("dbUser", dbUser);
+        config.put("dbPassword", maskPassword(dbPassword)); // Maskowanie hasła
+        config.put("message", "Konfiguracja pobrana z Key Vault");
+        return ResponseEntity.ok(config);
     }
     
     /**
      * Upload tekstu do Blob Storage.
      * POST /azure/blobs/{blobName}
      * Body: plain text content
+     * Przy {@code azure.storage.async-writes.enabled=true} zapis trafia do kolejki - 202 z tracking id,
+     * 503 gdy kolejka jest pełna.
      */
     @PostMapping(value = "/blobs/{blobName}", consumes = MediaType.TEXT_PLAIN_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, String>> uploadBlob(
             @PathVariable String blobName,
             @RequestBody String content) {
-        try {
-            blobStorageService.uploadBlob(blobName, content);
+        if (asyncBlobWriter.isEnabled()) {
+            AsyncBlobWriter.WriteStatus accepted = asyncBlobWriter.submit(blobName, content);
+            // odczyt przed końcem zapisu może zapisać w cache starą treść - wyrówna ją rewalidacja ETagiem
+            blobContentCache.invalidate(blobName);
+            String statusUrl = "/azure/blob-writes/" + accepted.trackingId();
             Map<String, String> response = new HashMap<>();
             response.put("blobName", blobName);
-            response.put("size", String.valueOf(content.length()));
-            response.put("message", "Blob uploaded pomyślnie");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("blobName", blobName);
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(500).body(error);
+            response.put("trackingId", accepted.trackingId());
+            response.put("status", accepted.state().name());
+            response.put("statusUrl", statusUrl);
+            return ResponseEntity.accepted().header(HttpHeaders.LOCATION, statusUrl).body(response);
         }
+        blobStorageService.uploadBlob(blobName, content);
+        blobContentCache.invalidate(blobName);
+        Map<String, String> response = new HashMap<>();
+        response.put("blobName", blobName);
+        response.put("size", String.valueOf(content.length()));
+        response.put("message", "Blob uploaded pomyślnie");
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Stan asynchronicznego zapisu bloba.
+     * GET /azure/blob-writes/{trackingId}
+     */
+    @GetMapping(value = "/blob-writes/{trackingId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AsyncBlobWriter.WriteStatus> getBlobWriteStatus(@PathVariable String trackingId) {
+        AsyncBlobWriter.WriteStatus status = asyncBlobWriter.getStatus(trackingId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
     }
     
     /**
      * Download blob z Blob Storage.
      * GET /azure/blobs/{blobName}
+     * Przy włączonym {@link BlobContentCache} treść pochodzi z cache, odpowiedź ma ETag bloba,
+     * a If-None-Match z aktualnym ETagiem daje 304 bez body. Skompresowany blob z cache idzie do klienta
+     * z gzip w Accept-Encoding bez dekompresji (Content-Encoding: gzip), pozostałym - rozpakowywany w locie.
+     * Blob za duży na cache ({@link BlobContentCache.Tier#NONE}) jest streamowany prosto z Blob Storage.
      */
     @GetMapping(value = "/blobs/{blobName}", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> downloadBlob(@PathVariable String blobName) {
+    public ResponseEntity<?> downloadBlob(@PathVariable String blobName, WebRequest request) throws IOException {
+        if (blobContentCache.isEnabled()) {
+            BlobContentCache.CachedBlob blob = blobContentCache.get(blobName);
+            if (request.checkNotModified(blob.eTag())) {
+                return null; // 304 - nagłówki ustawione przez checkNotModified
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .eTag(blob.eTag());
+            InputStream content = blob.tier() == BlobContentCache.Tier.NONE
+                    ? blobStorageService.openBlob(blobName, blob.eTag())
+                    : blob.openStream();
+            if (!BlobCompression.isGzip(blob.contentEncoding())) {
+                return response.contentLength(blob.size()).body(new InputStreamResource(content));
+            }
+            response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+                return response.contentLength(blob.size())
+                        .header(HttpHeaders.CONTENT_ENCODING, BlobCompression.GZIP)
+                        .body(new InputStreamResource(content));
+            }
+            InputStream decoded = new GZIPInputStream(content);
+            return response.body(new InputStreamResource(decoded));
+        }
+        String content = blobStorageService.downloadBlob(blobName);
+        return ResponseEntity.ok(content);
+    }
+    
+    /**
+     * Strumieniowy upload binarny (dowolny rozmiar) - body żądania trafia prosto do Blob Storage.
+     * POST /azure/blobs/{blobName}/stream
+     * Body: dowolne bajty, Content-Type jest zapisywany w blobie
+     */
+    @PostMapping(value = "/blobs/{blobName}/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, String>> uploadBlobStream(
+            @PathVariable String blobName,
+            HttpServletRequest request) throws IOException {
+        long size = blobStorageService.uploadBlob(blobName, request.getInputStream(), request.getContentType());
+        blobContentCache.invalidate(blobName);
+        Map<String, String> response = new HashMap<>();
+        response.put("blobName", blobName);
+        response.put("size", String.valueOf(size));
+        response.put("message", "Blob uploaded pomyślnie");
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Strumieniowy download binarny z obsługą nagłówka Range (pojedynczy zakres).
+     * Skompresowany blob: bez Range, surowe bajty gzip dla klienta akceptującego gzip, inaczej dekompresja w locie.
+     * GET /azure/blobs/{blobName}/stream
+     */
+    @GetMapping("/blobs/{blobName}/stream")
+    public ResponseEntity<StreamingResponseBody> downloadBlobStream(
+            @PathVariable String blobName,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        BlobProperties properties = blobStorageService.getBlobProperties(blobName);
+        
+        long size = properties.getBlobSize();
+        String eTag = properties.getETag();
+        MediaType contentType = properties.getContentType() != null
+                ? MediaType.parseMediaType(properties.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+        
+        if (BlobCompression.isGzip(properties.getContentEncoding())) {
+            // zakres bajtów postaci skompresowanej nie ma sensu dla klienta - zawsze całość (RFC 9110 na to pozwala)
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(contentType)
+                    .eTag(eTag)
+                    .header(HttpHeaders.ACCEPT_RANGES, "none")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(acceptEncoding)) {
+                return response.contentLength(size)
+                        .header(HttpHeaders.CONTENT_ENCODING, BlobCompression.GZIP)
+                        .body(out -> blobStorageService.downloadBlob(blobName, out, null, eTag));
+            }
+            return response.body(out -> blobStorageService.downloadBlobDecoded(blobName, out, eTag));
+        }
+        
+        List<HttpRange> ranges;
         try {
-            String content = blobStorageService.downloadBlob(blobName);
-            return ResponseEntity.ok(content);
-        } catch (Exception e) {
-            return ResponseEntity.status(404).body("Blob not found: " + e.getMessage());
+            ranges = rangeHeader != null ? HttpRange.parseRanges(rangeHeader) : List.of();
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
         }
+        
+        // Wiele zakresów (multipart/byteranges) nie jest wspierane - RFC 9110 pozwala wtedy zwrócić całość
+        if (ranges.size() != 1) {
+            StreamingResponseBody body = out -> blobStorageService.downloadBlob(
+                    blobName, out, size > 0 ? new BlobRange(0, size) : null, eTag);
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .contentLength(size)
+                    .eTag(eTag)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .body(body);
+        }
+        
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(size);
+            end = ranges.get(0).getRangeEnd(size);
+        } catch (IllegalArgumentException e) {
+            start = size;
+            end = size - 1;
+        }
+        if (start >= size || end < start) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                    .build();
+        }
+        
+        long count = end - start + 1;
+        BlobRange blobRange = new BlobRange(start, count);
+        StreamingResponseBody body = out -> blobStorageService.downloadBlob(blobName, out, blobRange, eTag);
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .contentType(contentType)
+                .contentLength(count)
+                .eTag(eTag)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size)
+                .body(body);
     }
     
     /**
-     * Lista wszystkich blobów w kontenerze.
-     * GET /azure/blobs
+     * Stronicowana lista blobów w kontenerze.
+     * GET /azure/blobs?prefix=...&maxResults=...&continuationToken=...
      */
     @GetMapping(value = "/blobs", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Map<String, Object>> listBlobs() {
-        try {
-            List<String> blobs = blobStorageService.listBlobs();
-            Map<String, Object> response = new HashMap<>();
-            response.put("containerName", blobStorageService.getContainerName());
-            response.put("count", blobs.size());
-            response.put("blobs", blobs);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(500).body(error);
+    public ResponseEntity<Map<String, Object>> listBlobs(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "1000") int maxResults,
+            @RequestParam(required = false) String continuationToken) {
+        if (maxResults < 1 || maxResults > MAX_LIST_RESULTS) {
+            throw ApiException.badRequest("maxResults musi być w przedziale 1.." + MAX_LIST_RESULTS);
         }
+        BlobPage page = blobStorageService.listBlobs(prefix, maxResults, continuationToken);
+        Map<String, Object> response = new HashMap<>();
+        response.put("containerName", blobStorageService.getContainerName());
+        response.put("count", page.blobs().size());
+        response.put("blobs", page.blobs());
+        response.put("continuationToken", page.continuationToken());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Streaming całego kontenera jako NDJSON (jeden blob na linię, flush po każdej stronie z SDK).
+     * GET /azure/blobs?prefix=...  (Accept: application/x-ndjson)
+     */
+    @GetMapping(value = "/blobs", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBlobs(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "1000") int maxResults) {
+        int pageSize = Math.max(1, Math.min(maxResults, MAX_LIST_RESULTS));
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null); // separator linii dopisujemy sami: '\n' po każdym obiekcie
+            blobStorageService.forEachBlobPage(prefix, pageSize, page -> {
+                try {
+                    for (BlobInfo blob : page) {
+                        generator.writeObject(blob);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
     
     /**
@@ -164,28 +372,195 @@ public class AzureController {
      */
     @DeleteMapping(value = "/blobs/{blobName}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, String>> deleteBlob(@PathVariable String blobName) {
-        try {
-            blobStorageService.deleteBlob(blobName);
-            Map<String, String> response = new HashMap<>();
-            response.put("blobName", blobName);
-            response.put("message", "Blob usunięty pomyślnie");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("blobName", blobName);
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(500).body(error);
+        blobStorageService.deleteBlob(blobName);
+        blobContentCache.invalidate(blobName);
+        Map<String, String> response = new HashMap<>();
+        response.put("blobName", blobName);
+        response.put("message", "Blob usunięty pomyślnie");
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Usuwa wiele blobów (Blob Batch API, do 256 na żądanie do Storage). Wynik per blob - 202 usunięty,
+     * 404 nie istniał - więc częściowy błąd nie psuje całej partii.
+     * POST /azure/blob-batch/delete
+     * Body: {"names": ["a.txt", "b.txt"]}
+     */
+    @PostMapping(value = "/blob-batch/delete", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> deleteBlobs(@RequestBody BlobBatchRequest request) {
+        validateBatch(request);
+        List<BlobBatchItem> results = blobBatchOperations.deleteBlobs(request.names());
+        for (BlobBatchItem item : results) {
+            if (item.succeeded()) {
+                blobContentCache.invalidate(item.name());
+            }
+        }
+        return ResponseEntity.ok(batchResponse(results));
+    }
+    
+    /**
+     * Istnienie i właściwości wielu blobów (równolegle, {@code azure.storage.batch.max-parallelism}).
+     * POST /azure/blob-batch/properties
+     * Body: {"names": ["a.txt", "b.txt"]}
+     */
+    @PostMapping(value = "/blob-batch/properties", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getBlobsProperties(@RequestBody BlobBatchRequest request) {
+        validateBatch(request);
+        return ResponseEntity.ok(batchResponse(blobBatchOperations.getProperties(request.names())));
+    }
+    
+    /**
+     * Multi-get: treść wielu blobów jako NDJSON - linia na blob (treść w base64), w kolejności pobrania.
+     * Błąd bloba to linia ze statusem i opisem błędu, nie przerwanie strumienia.
+     * POST /azure/blob-batch/get
+     * Body: {"names": ["a.txt", "b.txt"]}
+     */
+    @PostMapping(value = "/blob-batch/get", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getBlobs(@RequestBody BlobBatchRequest request) {
+        validateBatch(request);
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            blobBatchOperations.download(request.names(), item -> {
+                try {
+                    generator.writeObject(item);
+                    generator.writeRaw('\n');
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    /**
+     * Bloby z lokalnego indeksu ({@link BlobInventory}) - prefiks i/lub zakres nazw [from, to), bez listingu Storage.
+     * Kolejna strona: {@code from} = {@code next} z odpowiedzi.
+     * GET /azure/blob-index?prefix=...&from=...&to=...&maxResults=...
+     */
+    @GetMapping(value = "/blob-index", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> findIndexedBlobs(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "1000") int maxResults) {
+        if (maxResults < 1 || maxResults > MAX_LIST_RESULTS) {
+            throw ApiException.badRequest("maxResults musi być w przedziale 1.." + MAX_LIST_RESULTS);
         }
+        return ResponseEntity.ok(indexPageResponse(blobInventory.find(prefix, from, to, maxResults)));
+    }
+    
+    /**
+     * Liczba i łączny rozmiar blobów (z prefiksem) z indeksu oraz stan indeksu.
+     * GET /azure/blob-index/stats?prefix=...
+     */
+    @GetMapping(value = "/blob-index/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> indexStats(@RequestParam(required = false) String prefix) {
+        return ResponseEntity.ok(indexStatsResponse(blobInventory.totals(prefix), blobInventory.status()));
+    }
+    
+    /**
+     * Pełna przebudowa indeksu z listingu, w tle - 202, stan w {@code /azure/blob-index/stats}.
+     * POST /azure/blob-index/rebuild
+     */
+    @PostMapping(value = "/blob-index/rebuild", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> rebuildIndex() {
+        return ResponseEntity.accepted().body(rebuildResponse(blobInventory.requestRebuild()));
+    }
+    
+    /**
+     * Porównanie indeksu z pełnym listingiem (prefiksu); {@code repair=true} poprawia różnice.
+     * POST /azure/blob-index/check?prefix=...&repair=...
+     */
+    @PostMapping(value = "/blob-index/check", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BlobInventory.ConsistencyReport> checkIndex(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(blobInventory.check(prefix, repair));
+    }
+    
+    static Map<String, Object> indexPageResponse(BlobPage page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", page.blobs().size());
+        response.put("blobs", page.blobs());
+        response.put("next", page.continuationToken());
+        return response;
+    }
+    
+    static Map<String, Object> indexStatsResponse(BlobInventory.Totals totals, BlobInventory.Status status) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("prefix", totals.prefix());
+        response.put("count", totals.count());
+        response.put("totalSize", totals.totalSize());
+        response.put("index", status);
+        return response;
+    }
+    
+    static Map<String, Object> rebuildResponse(boolean started) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("started", started);
+        response.put("message", started ? "Przebudowa indeksu zlecona" : "Przebudowa indeksu już trwa");
+        return response;
+    }
+    
+    /**
+     * @throws ApiException 400 gdy lista nazw jest pusta albo dłuższa niż {@link #MAX_BATCH_ITEMS}
+     */
+    static void validateBatch(BlobBatchRequest request) {
+        if (request == null || request.names() == null || request.names().isEmpty()
+                || request.names().size() > MAX_BATCH_ITEMS) {
+            throw ApiException.badRequest("names musi zawierać od 1 do " + MAX_BATCH_ITEMS + " nazw blobów");
+        }
+    }
+    
+    static Map<String, Object> batchResponse(List<BlobBatchItem> results) {
+        long succeeded = results.stream().filter(BlobBatchItem::succeeded).count();
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", results.size());
+        response.put("succeeded", succeeded);
+        response.put("failed", results.size() - succeeded);
+        response.put("results", results);
+        return response;
+    }
+    
+    /**
+     * Czy klient przyjmie treść gzip - token {@code gzip} albo {@code *} w Accept-Encoding bez {@code q=0}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals(BlobCompression.GZIP) && !coding.equals("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().toLowerCase(Locale.ROOT).replace(" ", "");
+                if (param.matches("q=0(\\.0{0,3})?")) {
+                    rejected = true;
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
      * Maskuje hasło (pokazuje tylko pierwsze 2 znaki).
      */
-    private String maskPassword(String password) {
+    static String maskPassword(String password) {
         if (password == null || password.length() <= 2) {
             return "***";
         }
         return password.substring(0, 2) + "***";
     }
 }
-
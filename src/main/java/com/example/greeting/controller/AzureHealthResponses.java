@@ -0,0 +1,90 @@
+package com.example.greeting.controller;
+
+import com.example.greeting.service.AzureBlobStorageService;
+import com.example.greeting.service.AzureHealthMonitor;
+import com.example.greeting.service.AzureKeyVaultService;
+import com.example.greeting.service.BlobContentCache;
+import com.example.greeting.service.LatencyHistogram;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Odpowiedzi endpointów /azure/health* - wspólne dla {@link AzureController} i {@link ReactiveAzureController}.
+ * Wszystko pochodzi z pamięci ({@link AzureHealthMonitor} odświeżany w tle), bez round tripów do Azure.
+ */
+final class AzureHealthResponses {
+
+    private AzureHealthResponses() {
+    }
+
+    static ResponseEntity<Map<String, Object>> health(AzureHealthMonitor healthMonitor,
+                                                      AzureKeyVaultService keyVaultService,
+                                                      AzureBlobStorageService blobStorageService,
+                                                      BlobContentCache blobContentCache) {
+        AzureHealthMonitor.HealthSnapshot snapshot = healthMonitor.current();
+        Map<String, LatencyHistogram.Snapshot> latencies = healthMonitor.latencies();
+        
+        Map<String, Object> health = new HashMap<>();
+        health.put("timestamp", LocalDateTime.now().toString());
+        health.put("service", "greeting-service");
+        health.put("checkedAt", snapshot.checkedAt().toString());
+        
+        // Key Vault status
+        Map<String, Object> kvStatus = new HashMap<>();
+        kvStatus.put("url", keyVaultService.getKeyVaultUrl());
+        putProbe(kvStatus, snapshot.probe("keyVault"), latencies.get("keyVault"));
+        kvStatus.put("cache", keyVaultService.getCacheStats());
+        kvStatus.put("bulkhead", keyVaultService.getBulkheadStats());
+        kvStatus.put("circuitBreaker", keyVaultService.getCircuitBreakerStats());
+        kvStatus.put("deadlines", keyVaultService.getTimeLimiterStats());
+        health.put("keyVault", kvStatus);
+        
+        // Blob Storage status
+        Map<String, Object> blobStatus = new HashMap<>();
+        blobStatus.put("accountName", blobStorageService.getAccountName());
+        blobStatus.put("containerName", blobStorageService.getContainerName());
+        putProbe(blobStatus, snapshot.probe("blobStorage"), latencies.get("blobStorage"));
+        blobStatus.put("bulkhead", blobStorageService.getBulkheadStats());
+        blobStatus.put("circuitBreaker", blobStorageService.getCircuitBreakerStats());
+        blobStatus.put("deadlines", blobStorageService.getTimeLimiterStats());
+        if (blobContentCache != null && blobContentCache.isEnabled()) {
+            blobStatus.put("cache", blobContentCache.stats());
+        }
+        health.put("blobStorage", blobStatus);
+        
+        boolean allHealthy = snapshot.healthy();
+        health.put("status", allHealthy ? "UP" : "DEGRADED");
+        
+        return allHealthy ? ResponseEntity.ok(health) : ResponseEntity.status(503).body(health);
+    }
+    
+    static ResponseEntity<Map<String, Object>> liveness() {
+        Map<String, Object> liveness = new HashMap<>();
+        liveness.put("status", "UP");
+        return ResponseEntity.ok(liveness);
+    }
+    
+    static ResponseEntity<Map<String, Object>> readiness(AzureHealthMonitor healthMonitor) {
+        AzureHealthMonitor.HealthSnapshot snapshot = healthMonitor.current();
+        Map<String, Object> readiness = new HashMap<>();
+        Map<String, Boolean> probes = new HashMap<>();
+        snapshot.probes().forEach((name, result) -> probes.put(name, result.healthy()));
+        readiness.put("status", snapshot.healthy() ? "UP" : "DOWN");
+        readiness.put("checkedAt", snapshot.checkedAt().toString());
+        readiness.put("probes", probes);
+        return snapshot.healthy() ? ResponseEntity.ok(readiness) : ResponseEntity.status(503).body(readiness);
+    }
+    
+    private static void putProbe(Map<String, Object> status, AzureHealthMonitor.ProbeResult probe,
+                                 LatencyHistogram.Snapshot latency) {
+        status.put("healthy", probe != null && probe.healthy());
+        if (probe != null && probe.error() != null) {
+            status.put("error", probe.error());
+        }
+        status.put("probeDurationMs", probe != null ? probe.durationMs() : null);
+        status.put("probeLatency", latency);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.greeting.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * {@code POST /greetings} - strumieniowe powitania na blokującym I/O servletów, więc tylko na stosie servletowym.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BulkGreetingController {
+
+    private final GreetingJsonEncoder encoder;
+    private final ObjectMapper objectMapper;
+
+    public BulkGreetingController(
+            @Value("${greeting.response-cache.size:1024}") int responseCacheSize,
+            @Value("${greeting.response-cache.max-name-length:64}") int maxCachedNameLength,
+            ObjectMapper objectMapper) {
+        this.encoder = new GreetingJsonEncoder(responseCacheSize, maxCachedNameLength);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Powitania dla wielu imion w jednym żądaniu - body to tablica JSON ({@code ["a","b"]})
+     * albo NDJSON (jedno imię w cudzysłowie na linię). Odpowiedź to NDJSON: na każde imię linia
+     * identyczna z odpowiedzią {@code GET /greeting}, w kolejności wejścia.
+     * <p>
+     * Imiona są czytane parserem strumieniowym i od razu zapisywane do odpowiedzi, więc zużycie
+     * pamięci nie zależy od liczby imion. Zebrane linie są wypychane do klienta, zanim odczyt
+     * kolejnych danych musiałby czekać na sieć. Błędne wejście przed pierwszym wypchnięciem daje 400;
+     * później odpowiedź kończy się linią {@code {"error":"..."}}.
+     */
+    @PostMapping(value = "/greetings",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void greetings(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        GreetingStream stream = new GreetingStream(response.getOutputStream());
+        InputStream body = new FlushBeforeWaitInputStream(request.getInputStream(), stream);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            writeGreetings(parser, !ndjson, stream);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            String message = "Niepoprawna lista imion: "
+                    + (e instanceof JsonProcessingException jpe ? jpe.getOriginalMessage() : e.getMessage());
+            if (!response.isCommitted()) {
+                response.reset();
+                throw new IllegalArgumentException(message, e);
+            }
+            stream.write(objectMapper.writeValueAsBytes(Map.of("error", message)));
+        }
+        stream.flush();
+    }
+
+    private void writeGreetings(JsonParser parser, boolean array, GreetingStream stream) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (array) {
+            if (token != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("oczekiwano tablicy JSON");
+            }
+            token = parser.nextToken();
+        }
+        while (token != null && token != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_STRING) {
+                throw new IllegalArgumentException("oczekiwano imienia jako stringa JSON, jest " + token);
+            }
+            stream.write(encoder.encode(parser.getText()));
+            token = parser.nextToken();
+        }
+        if (array && (token == null || parser.nextToken() != null)) {
+            throw new IllegalArgumentException("niedomknięta tablica albo dane po tablicy");
+        }
+    }
+
+    /**
+     * Linie NDJSON zapisywane wprost do strumienia odpowiedzi (buforowanego przez kontener).
+     */
+    private static final class GreetingStream {
+        private final OutputStream out;
+        private boolean pending;
+
+        GreetingStream(OutputStream out) {
+            this.out = out;
+        }
+
+        void write(byte[] line) throws IOException {
+            out.write(line);
+            out.write('\n');
+            pending = true;
+        }
+
+        void flush() throws IOException {
+            if (pending) {
+                out.flush();
+                pending = false;
+            }
+        }
+    }
+
+    /**
+     * Przed odczytem, który zablokowałby się w oczekiwaniu na dane od klienta, wypycha gotowe linie -
+     * klient wysyłający imiona stopniowo dostaje powitania na bieżąco, a duże body idzie pełnymi buforami.
+     */
+    private static final class FlushBeforeWaitInputStream extends FilterInputStream {
+        private final GreetingStream stream;
+
+        FlushBeforeWaitInputStream(InputStream in, GreetingStream stream) {
+            super(in);
+            this.stream = stream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            flushIfWaiting();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            flushIfWaiting();
+            return super.read(b, off, len);
+        }
+
+        private void flushIfWaiting() throws IOException {
+            if (in.available() == 0) {
+                stream.flush();
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.greeting.controller;
 
-import com.example.greeting.dto.Greeting;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -9,12 +9,24 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class GreetingController {
 
+    private final GreetingJsonEncoder encoder;
+
+    public GreetingController(
+            @Value("${greeting.response-cache.size:1024}") int responseCacheSize,
+            @Value("${greeting.response-cache.max-name-length:64}") int maxCachedNameLength) {
+        this.encoder = new GreetingJsonEncoder(responseCacheSize, maxCachedNameLength);
+    }
+
+    /**
+     * Najczęściej wołany endpoint - odpowiedź jest gotowym JSON-em w UTF-8
+     * (zapisywana przez ByteArrayHttpMessageConverter, bez Jacksona).
+     */
     @GetMapping(value = "/greeting", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Greeting greeting(@RequestParam(name = "name", defaultValue = "world") String name) {
+    public byte[] greeting(@RequestParam(name = "name", defaultValue = GreetingJsonEncoder.DEFAULT_NAME) String name) {
         if (name == null) {
             throw new IllegalArgumentException("Param 'name' nie może być null");
         }
         // prosty przykład - można tu dodać walidację długości, znaki itp.
-        return new Greeting("hello you " + name);
+        return encoder.encode(name);
     }
 }
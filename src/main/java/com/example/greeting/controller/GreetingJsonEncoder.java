@@ -0,0 +1,151 @@
+package com.example.greeting.controller;
+
+import org.springframework.util.ConcurrentLruCache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Koduje odpowiedź {@code {"greeting":"hello you <name>"}} prosto do bajtów UTF-8,
+ * z pominięciem konkatenacji, rekordu {@link com.example.greeting.dto.Greeting} i Jacksona.
+ * <p>
+ * Wynik jest bajt w bajt taki sam jak serializacja {@code Greeting} przez Jacksona
+ * (te same sekwencje escape). Odpowiedź dla {@code world} jest liczona raz, a dla krótkich
+ * imion trzymana w ograniczonym cache LRU - trafienie nie alokuje nic poza lookupem.
+ * Zwracane tablice są współdzielone i nie mogą być modyfikowane przez wywołującego.
+ */
+public final class GreetingJsonEncoder {
+
+    public static final String DEFAULT_NAME = "world";
+
+    private static final byte[] PREFIX = "{\"greeting\":\"hello you ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] defaultResponse = encodeUncached(DEFAULT_NAME);
+    private final int maxCachedNameLength;
+    private final ConcurrentLruCache<String, byte[]> cache;
+
+    /**
+     * @param cacheSize liczba imion trzymanych w cache LRU (0 wyłącza cache)
+     * @param maxCachedNameLength dłuższe imiona nie trafiają do cache (ochrona przed zaśmieceniem)
+     */
+    public GreetingJsonEncoder(int cacheSize, int maxCachedNameLength) {
+        this.maxCachedNameLength = maxCachedNameLength;
+        this.cache = cacheSize > 0 ? new ConcurrentLruCache<>(cacheSize, GreetingJsonEncoder::encodeUncached) : null;
+    }
+
+    /**
+     * Zakodowana odpowiedź JSON dla podanego imienia (tablica współdzielona - tylko do odczytu).
+     */
+    public byte[] encode(String name) {
+        if (DEFAULT_NAME.equals(name)) {
+            return defaultResponse;
+        }
+        if (cache != null && name.length() <= maxCachedNameLength) {
+            return cache.get(name);
+        }
+        return encodeUncached(name);
+    }
+
+    int cachedNames() {
+        return cache != null ? cache.size() : 0;
+    }
+
+    static byte[] encodeUncached(String name) {
+        byte[] out = new byte[PREFIX.length + encodedLength(name) + SUFFIX.length];
+        System.arraycopy(PREFIX, 0, out, 0, PREFIX.length);
+        int pos = writeEscaped(name, out, PREFIX.length);
+        System.arraycopy(SUFFIX, 0, out, pos, SUFFIX.length);
+        return out;
+    }
+
+    /**
+     * Długość imienia po escapowaniu JSON i zakodowaniu w UTF-8.
+     */
+    private static int encodedLength(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += escapeLength(c);
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 12; // para surogatów -> dwie sekwencje escape po 6 bajtów, tak jak domyślnie robi Jackson
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1; // niesparowany surogat -> '?' (jak String.getBytes)
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int escapeLength(char c) {
+        if (c == '"' || c == '\\' || c == '\b' || c == '\f' || c == '\n' || c == '\r' || c == '\t') {
+            return 2;
+        }
+        return c < 0x20 ? 6 : 1;
+    }
+
+    private static int writeEscaped(String s, byte[] out, int pos) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                pos = writeAscii(c, out, pos);
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                pos = writeUnicodeEscape(c, out, pos);
+                pos = writeUnicodeEscape(s.charAt(++i), out, pos);
+            } else if (Character.isSurrogate(c)) {
+                out[pos++] = '?';
+            } else {
+                out[pos++] = (byte) (0xE0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    private static int writeAscii(char c, byte[] out, int pos) {
+        switch (c) {
+            case '"', '\\' -> {
+                out[pos++] = '\\';
+                out[pos++] = (byte) c;
+            }
+            case '\b' -> pos = writeShortEscape('b', out, pos);
+            case '\f' -> pos = writeShortEscape('f', out, pos);
+            case '\n' -> pos = writeShortEscape('n', out, pos);
+            case '\r' -> pos = writeShortEscape('r', out, pos);
+            case '\t' -> pos = writeShortEscape('t', out, pos);
+            default -> {
+                if (c < 0x20) {
+                    pos = writeUnicodeEscape(c, out, pos);
+                } else {
+                    out[pos++] = (byte) c;
+                }
+            }
+        }
+        return pos;
+    }
+
+    private static int writeUnicodeEscape(char c, byte[] out, int pos) {
+        out[pos++] = '\\';
+        out[pos++] = 'u';
+        out[pos++] = HEX[(c >> 12) & 0xF];
+        out[pos++] = HEX[(c >> 8) & 0xF];
+        out[pos++] = HEX[(c >> 4) & 0xF];
+        out[pos++] = HEX[c & 0xF];
+        return pos;
+    }
+
+    private static int writeShortEscape(char escape, byte[] out, int pos) {
+        out[pos++] = '\\';
+        out[pos++] = (byte) escape;
+        return pos;
+    }
+}
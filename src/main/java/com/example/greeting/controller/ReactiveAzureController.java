@@ -0,0 +1,439 @@
+package com.example.greeting.controller;
+
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.example.greeting.dto.BlobBatchItem;
+import com.example.greeting.dto.BlobBatchRequest;
+import com.example.greeting.dto.BlobInfo;
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.service.AsyncBlobWriter;
+import com.example.greeting.service.AzureBlobStorageService;
+import com.example.greeting.service.AzureHealthMonitor;
+import com.example.greeting.service.AzureKeyVaultService;
+import com.example.greeting.service.BlobBatchOperations;
+import com.example.greeting.service.BlobCompression;
+import com.example.greeting.service.BlobInventory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpointy /azure/** na stosie reaktywnym (WebFlux + Netty, {@code spring.main.web-application-type=reactive}).
+ * Kontrakt HTTP jak w {@link AzureController}, ale wywołania idą przez {@code SecretAsyncClient}
+ * i {@code BlobContainerAsyncClient}, a treść blobów płynie jako strumień buforów od SDK do klienta -
+ * oczekiwanie na Azure nie zajmuje wątku.
+ * <p>
+ * Różnice: {@code GET /azure/blobs/{blobName}} czyta z Blob Storage bez {@code BlobContentCache}
+ * (cache jest blokujący), a {@code POST /azure/blob-batch/delete} wykonuje blokujące Blob Batch API
+ * na puli boundedElastic. Błędy przechodzą do {@code ReactiveExceptionHandler} (RFC 7807, jak na servletach).
+ */
+@RestController
+@RequestMapping("/azure")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAzureController {
+
+    private final AzureKeyVaultService keyVaultService;
+    private final AzureBlobStorageService blobStorageService;
+    private final AzureHealthMonitor healthMonitor;
+    private final AsyncBlobWriter asyncBlobWriter;
+    private final BlobBatchOperations blobBatchOperations;
+    private final BlobInventory blobInventory;
+
+    public ReactiveAzureController(
+            AzureKeyVaultService keyVaultService,
+            AzureBlobStorageService blobStorageService,
+            AzureHealthMonitor healthMonitor,
+            AsyncBlobWriter asyncBlobWriter,
+            BlobBatchOperations blobBatchOperations,
+            BlobInventory blobInventory) {
+        this.keyVaultService = keyVaultService;
+        this.blobStorageService = blobStorageService;
+        this.healthMonitor = healthMonitor;
+        this.asyncBlobWriter = asyncBlobWriter;
+        this.blobBatchOperations = blobBatchOperations;
+        this.blobInventory = blobInventory;
+    }
+
+    /**
+     * GET /azure/health
+     */
+    @GetMapping(value = "/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> health() {
+        return AzureHealthResponses.health(healthMonitor, keyVaultService, blobStorageService, null);
+    }
+
+    /**
+     * GET /azure/health/liveness
+     */
+    @GetMapping(value = "/health/liveness", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> liveness() {
+        return AzureHealthResponses.liveness();
+    }
+
+    /**
+     * GET /azure/health/readiness
+     */
+    @GetMapping(value = "/health/readiness", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> readiness() {
+        return AzureHealthResponses.readiness(healthMonitor);
+    }
+
+    /**
+     * GET /azure/secrets/{secretName}
+     */
+    @GetMapping(value = "/secrets/{secretName}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, String>>> getSecret(@PathVariable String secretName) {
+        return keyVaultService.getSecretAsync(secretName)
+                .map(secretValue -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("secretName", secretName);
+                    response.put("value", secretValue);
+                    response.put("message", "Sekret pobrany pomyślnie");
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * GET /azure/config
+     */
+    @GetMapping(value = "/config", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, String>>> getConfig() {
+        return Mono.zip(keyVaultService.getSecretAsync("greeting-db-user"),
+                        keyVaultService.getSecretAsync("greeting-db-password"))
+                .map(secrets -> {
+                    Map<String, String> config = new HashMap<>();
+                    config.put("dbUser", secrets.getT1());
+                    config.put("dbPassword", AzureController.maskPassword(secrets.getT2()));
+                    config.put("message", "Konfiguracja pobrana z Key Vault");
+                    return ResponseEntity.ok(config);
+                });
+    }
+
+    /**
+     * POST /azure/blobs/{blobName}
+     * Body: plain text content
+     */
+    @PostMapping(value = "/blobs/{blobName}", consumes = MediaType.TEXT_PLAIN_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, String>>> uploadBlob(
+            @PathVariable String blobName,
+            @RequestBody String content) {
+        if (asyncBlobWriter.isEnabled()) {
+            // przyjęcie do kolejki nie blokuje - pełna kolejka to BulkheadFullException (503)
+            AsyncBlobWriter.WriteStatus accepted = asyncBlobWriter.submit(blobName, content);
+            String statusUrl = "/azure/blob-writes/" + accepted.trackingId();
+            Map<String, String> response = new HashMap<>();
+            response.put("blobName", blobName);
+            response.put("trackingId", accepted.trackingId());
+            response.put("status", accepted.state().name());
+            response.put("statusUrl", statusUrl);
+            return Mono.just(ResponseEntity.accepted().header(HttpHeaders.LOCATION, statusUrl).body(response));
+        }
+        return blobStorageService.uploadBlobAsync(blobName, content)
+                .then(Mono.fromSupplier(() -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("blobName", blobName);
+                    response.put("size", String.valueOf(content.length()));
+                    response.put("message", "Blob uploaded pomyślnie");
+                    return ResponseEntity.ok(response);
+                }));
+    }
+
+    /**
+     * GET /azure/blob-writes/{trackingId}
+     */
+    @GetMapping(value = "/blob-writes/{trackingId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AsyncBlobWriter.WriteStatus> getBlobWriteStatus(@PathVariable String trackingId) {
+        AsyncBlobWriter.WriteStatus status = asyncBlobWriter.getStatus(trackingId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * GET /azure/blobs/{blobName}
+     */
+    @GetMapping(value = "/blobs/{blobName}", produces = MediaType.TEXT_PLAIN_VALUE)
+    public Mono<ResponseEntity<String>> downloadBlob(@PathVariable String blobName) {
+        return blobStorageService.downloadBlobAsync(blobName)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Strumieniowy upload binarny - bufory żądania płyną prosto do Blob Storage.
+     * POST /azure/blobs/{blobName}/stream
+     */
+    @PostMapping(value = "/blobs/{blobName}/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, String>>> uploadBlobStream(
+            @PathVariable String blobName,
+            ServerHttpRequest request) {
+        MediaType contentType = request.getHeaders().getContentType();
+        Flux<ByteBuffer> data = request.getBody().map(ReactiveAzureController::copyAndRelease);
+        return blobStorageService.uploadBlobAsync(blobName, data, contentType != null ? contentType.toString() : null)
+                .map(size -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("blobName", blobName);
+                    response.put("size", String.valueOf(size));
+                    response.put("message", "Blob uploaded pomyślnie");
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * Strumieniowy download binarny z obsługą nagłówka Range (pojedynczy zakres).
+     * Bufory z SDK trafiają do odpowiedzi bez kopiowania. Skompresowany blob - jak w {@link AzureController}.
+     * GET /azure/blobs/{blobName}/stream
+     */
+    @GetMapping("/blobs/{blobName}/stream")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> downloadBlobStream(
+            @PathVariable String blobName,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return blobStorageService.getBlobPropertiesAsync(blobName)
+                .map(properties -> BlobCompression.isGzip(properties.getContentEncoding())
+                        ? compressedResponse(blobName, properties, acceptEncoding)
+                        : streamResponse(blobName, properties, rangeHeader));
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> streamResponse(String blobName, BlobProperties properties,
+                                                            String rangeHeader) {
+        long size = properties.getBlobSize();
+        String eTag = properties.getETag();
+        MediaType contentType = properties.getContentType() != null
+                ? MediaType.parseMediaType(properties.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+
+        List<HttpRange> ranges;
+        try {
+            ranges = rangeHeader != null ? HttpRange.parseRanges(rangeHeader) : List.of();
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
+        }
+
+        // Wiele zakresów (multipart/byteranges) nie jest wspierane - RFC 9110 pozwala wtedy zwrócić całość
+        if (ranges.size() != 1) {
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .contentLength(size)
+                    .eTag(eTag)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .body(body(blobName, size > 0 ? new BlobRange(0, size) : null, eTag));
+        }
+
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(size);
+            end = ranges.get(0).getRangeEnd(size);
+        } catch (IllegalArgumentException e) {
+            start = size;
+            end = size - 1;
+        }
+        if (start >= size || end < start) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                    .build();
+        }
+
+        long count = end - start + 1;
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .contentType(contentType)
+                .contentLength(count)
+                .eTag(eTag)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size)
+                .body(body(blobName, new BlobRange(start, count), eTag));
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> compressedResponse(String blobName, BlobProperties properties,
+                                                                String acceptEncoding) {
+        String eTag = properties.getETag();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(properties.getContentType() != null
+                        ? MediaType.parseMediaType(properties.getContentType())
+                        : MediaType.APPLICATION_OCTET_STREAM)
+                .eTag(eTag)
+                .header(HttpHeaders.ACCEPT_RANGES, "none")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (AzureController.acceptsGzip(acceptEncoding)) {
+            return response.contentLength(properties.getBlobSize())
+                    .header(HttpHeaders.CONTENT_ENCODING, BlobCompression.GZIP)
+                    .body(body(blobName, null, eTag));
+        }
+        // GZIPInputStream jest blokujący - dekompresja na boundedElastic, do odpowiedzi kolejne bufory
+        Flux<DataBuffer> decoded = Flux.from(DataBufferUtils.outputStreamPublisher(
+                out -> blobStorageService.downloadBlobDecoded(blobName, out, eTag),
+                DefaultDataBufferFactory.sharedInstance,
+                Schedulers.boundedElastic()::schedule));
+        return response.body(decoded);
+    }
+
+    private Flux<DataBuffer> body(String blobName, BlobRange range, String eTag) {
+        return blobStorageService.downloadBlobAsync(blobName, range, eTag)
+                .<DataBuffer>map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+
+    /**
+     * GET /azure/blobs?prefix=...&maxResults=...&continuationToken=...
+     */
+    @GetMapping(value = "/blobs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> listBlobs(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "1000") int maxResults,
+            @RequestParam(required = false) String continuationToken) {
+        if (maxResults < 1 || maxResults > AzureController.MAX_LIST_RESULTS) {
+            return Mono.error(ApiException.badRequest(
+                    "maxResults musi być w przedziale 1.." + AzureController.MAX_LIST_RESULTS));
+        }
+        return blobStorageService.listBlobsAsync(prefix, maxResults, continuationToken)
+                .map(page -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("containerName", blobStorageService.getContainerName());
+                    response.put("count", page.blobs().size());
+                    response.put("blobs", page.blobs());
+                    response.put("continuationToken", page.continuationToken());
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * Streaming całego kontenera jako NDJSON - kolejna strona z Blob Storage dopiero po wysłaniu poprzedniej.
+     * GET /azure/blobs?prefix=...  (Accept: application/x-ndjson)
+     */
+    @GetMapping(value = "/blobs", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BlobInfo> streamBlobs(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "1000") int maxResults) {
+        int pageSize = Math.max(1, Math.min(maxResults, AzureController.MAX_LIST_RESULTS));
+        return blobStorageService.streamBlobsAsync(prefix, pageSize);
+    }
+
+    /**
+     * DELETE /azure/blobs/{blobName}
+     */
+    @DeleteMapping(value = "/blobs/{blobName}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, String>>> deleteBlob(@PathVariable String blobName) {
+        return blobStorageService.deleteBlobAsync(blobName)
+                .then(Mono.fromSupplier(() -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("blobName", blobName);
+                    response.put("message", "Blob usunięty pomyślnie");
+                    return ResponseEntity.ok(response);
+                }));
+    }
+
+    /**
+     * POST /azure/blob-batch/delete
+     * Body: {"names": ["a.txt", "b.txt"]}
+     */
+    @PostMapping(value = "/blob-batch/delete", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> deleteBlobs(@RequestBody BlobBatchRequest request) {
+        AzureController.validateBatch(request);
+        return Mono.fromCallable(() -> blobBatchOperations.deleteBlobs(request.names()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(results -> ResponseEntity.ok(AzureController.batchResponse(results)));
+    }
+
+    /**
+     * POST /azure/blob-batch/properties
+     * Body: {"names": ["a.txt", "b.txt"]}
+     */
+    @PostMapping(value = "/blob-batch/properties", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> getBlobsProperties(@RequestBody BlobBatchRequest request) {
+        AzureController.validateBatch(request);
+        return blobBatchOperations.getPropertiesAsync(request.names())
+                .collectList()
+                .map(results -> ResponseEntity.ok(AzureController.batchResponse(results)));
+    }
+
+    /**
+     * Multi-get jako NDJSON - linia na blob, w kolejności pobrania.
+     * POST /azure/blob-batch/get
+     * Body: {"names": ["a.txt", "b.txt"]}
+     */
+    @PostMapping(value = "/blob-batch/get", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Flux<BlobBatchItem>> getBlobs(@RequestBody BlobBatchRequest request) {
+        AzureController.validateBatch(request);
+        Flux<BlobBatchItem> items = blobBatchOperations.downloadAsync(request.names());
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(items);
+    }
+
+    /**
+     * Zapytania do indeksu czytają lokalny plik mmap - bez round tripów, ale z możliwym page faultem,
+     * więc poza event loopem.
+     * GET /azure/blob-index?prefix=...&from=...&to=...&maxResults=...
+     */
+    @GetMapping(value = "/blob-index", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> findIndexedBlobs(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "1000") int maxResults) {
+        if (maxResults < 1 || maxResults > AzureController.MAX_LIST_RESULTS) {
+            return Mono.error(ApiException.badRequest(
+                    "maxResults musi być w przedziale 1.." + AzureController.MAX_LIST_RESULTS));
+        }
+        return Mono.fromCallable(() -> blobInventory.find(prefix, from, to, maxResults))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(page -> ResponseEntity.ok(AzureController.indexPageResponse(page)));
+    }
+
+    /**
+     * GET /azure/blob-index/stats?prefix=...
+     */
+    @GetMapping(value = "/blob-index/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> indexStats(@RequestParam(required = false) String prefix) {
+        return Mono.fromCallable(() -> AzureController.indexStatsResponse(blobInventory.totals(prefix), blobInventory.status()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * POST /azure/blob-index/rebuild
+     */
+    @PostMapping(value = "/blob-index/rebuild", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> rebuildIndex() {
+        return ResponseEntity.accepted().body(AzureController.rebuildResponse(blobInventory.requestRebuild()));
+    }
+
+    /**
+     * Pełny listing jest blokujący - na puli boundedElastic.
+     * POST /azure/blob-index/check?prefix=...&repair=...
+     */
+    @PostMapping(value = "/blob-index/check", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<BlobInventory.ConsistencyReport>> checkIndex(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return Mono.fromCallable(() -> blobInventory.check(prefix, repair))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Bufor Netty wraca do puli zaraz po odczycie, a SDK składa bloki asynchronicznie - stąd kopia.
+     */
+    private static ByteBuffer copyAndRelease(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return ByteBuffer.wrap(bytes);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
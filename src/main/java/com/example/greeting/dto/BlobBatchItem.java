@@ -0,0 +1,26 @@
+package com.example.greeting.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Wynik jednej pozycji operacji zbiorczej na blobach - błąd pozycji nie przerywa całej partii.
+ * @param status kod HTTP operacji na tym blobie (np. 202 usunięty, 200 odczytany, 404 brak bloba)
+ * @param blob metadane bloba (odczyt właściwości i multi-get)
+ * @param content treść bloba (multi-get, w JSON jako base64)
+ * @param error opis błędu, gdy {@code status >= 400}
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BlobBatchItem(String name, int status, BlobInfo blob, byte[] content, String error) {
+
+    public static BlobBatchItem ok(String name, int status, BlobInfo blob, byte[] content) {
+        return new BlobBatchItem(name, status, blob, content, null);
+    }
+
+    public static BlobBatchItem failed(String name, int status, String error) {
+        return new BlobBatchItem(name, status, null, null, error);
+    }
+
+    public boolean succeeded() {
+        return status < 400;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.greeting.dto;
+
+import java.util.List;
+
+/**
+ * Body operacji zbiorczych na blobach ({@code /azure/blob-batch/*}).
+ */
+public record BlobBatchRequest(List<String> names) {}
@@ -0,0 +1,17 @@
+package com.example.greeting.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.OffsetDateTime;
+
+/**
+ * @param size rozmiar w Blob Storage (dla skompresowanego bloba - po kompresji)
+ * @param contentEncoding kodek kompresji treści ({@code gzip}) albo null - wtedy pomijany w JSON
+ */
+public record BlobInfo(String name, long size, String eTag, OffsetDateTime lastModified, String contentType,
+                       @JsonInclude(JsonInclude.Include.NON_NULL) String contentEncoding) {
+
+    public BlobInfo(String name, long size, String eTag, OffsetDateTime lastModified, String contentType) {
+        this(name, size, eTag, lastModified, contentType, null);
+    }
+}
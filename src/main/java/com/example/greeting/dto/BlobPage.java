@@ -0,0 +1,8 @@
+package com.example.greeting.dto;
+
+import java.util.List;
+
+/**
+ * Jedna strona listingu blobów; {@code continuationToken == null} oznacza ostatnią stronę.
+ */
+public record BlobPage(List<BlobInfo> blobs, String continuationToken) {}
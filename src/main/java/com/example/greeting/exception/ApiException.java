@@ -0,0 +1,36 @@
+package com.example.greeting.exception;
+
+/**
+ * Oczekiwany błąd (brak bloba, przeciążenie, błędne wejście, awaria zależności) - bez stack trace'u.
+ * <p>
+ * Przy awarii Azure takie wyjątki powstają przy każdym żądaniu, a zrzut stosu przez filtry, MVC
+ * i serwisy kosztowałby więcej niż reszta ścieżki błędu. Miejsce awarii jest w przyczynie (wyjątku SDK).
+ */
+public class ApiException extends RuntimeException {
+
+    private final ErrorType type;
+
+    public ApiException(ErrorType type, String message) {
+        this(type, message, null);
+    }
+
+    public ApiException(ErrorType type, String message, Throwable cause) {
+        super(message, cause, false, false);
+        this.type = type;
+    }
+
+    /**
+     * Opakowuje błąd wywołania zależności - rodzaj ({@code 404}, {@code 503}, ...) wynika z przyczyny.
+     */
+    public static ApiException wrap(String message, Throwable cause) {
+        return new ApiException(ErrorType.of(cause), message, cause);
+    }
+
+    public static ApiException badRequest(String message) {
+        return new ApiException(ErrorType.BAD_REQUEST, message);
+    }
+
+    public ErrorType getType() {
+        return type;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.greeting.exception;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+/**
+ * Znacznik czasu z dokładnością do {@code resolution} (domyślnie 1 s) - formatowany raz na okres,
+ * a nie przy każdym błędzie. Bez wątku w tle: pierwszy odczyt w nowym okresie przelicza wartość.
+ */
+public final class CoarseClock {
+
+    /** Zegar systemowy z dokładnością do sekundy. */
+    public static final CoarseClock SYSTEM = new CoarseClock(Clock.systemDefaultZone(), Duration.ofSeconds(1));
+
+    private record Tick(long period, String formatted) {}
+
+    private final Clock clock;
+    private final long resolutionMillis;
+    private volatile Tick tick = new Tick(Long.MIN_VALUE, "");
+
+    public CoarseClock(Clock clock, Duration resolution) {
+        if (resolution.toMillis() < 1) {
+            throw new IllegalArgumentException("resolution musi wynosić co najmniej 1 ms");
+        }
+        this.clock = clock;
+        this.resolutionMillis = resolution.toMillis();
+    }
+
+    /**
+     * Bieżący czas w ISO-8601 z przesunięciem strefy, zaokrąglony w dół do {@code resolution}.
+     */
+    public String timestamp() {
+        long period = clock.millis() / resolutionMillis;
+        Tick current = tick;
+        if (current.period() != period) {
+            // wyścig kilku wątków na granicy okresu tylko powtarza to samo formatowanie
+            Instant start = Instant.ofEpochMilli(period * resolutionMillis);
+            current = new Tick(period, OffsetDateTime.ofInstant(start, clock.getZone()).toString());
+            tick = current;
+        }
+        return current.formatted();
+    }
+}
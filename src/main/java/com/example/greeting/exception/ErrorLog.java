@@ -0,0 +1,123 @@
+package com.example.greeting.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logowanie błędów z limitem - przy awarii zależności ten sam komunikat nie zalewa logów.
+ * <p>
+ * Dla każdego komunikatu (kluczem jest stały wzorzec formatu) w oknie {@code window} wychodzi
+ * pierwszych {@code burst} wpisów, a dalej co {@code sampleEvery}-ty. Wpis po przerwie mówi, ile
+ * podobnych pominięto; wszystkie pominięcia liczy {@value #SUPPRESSED} (tag {@code logger}).
+ */
+public final class ErrorLog {
+
+    public static final String SUPPRESSED = "greeting.errors.log.suppressed";
+
+    private static final int DEFAULT_BURST = 5;
+    private static final int DEFAULT_SAMPLE_EVERY = 100;
+    private static final Duration DEFAULT_WINDOW = Duration.ofSeconds(10);
+
+    private final Logger logger;
+    private final int burst;
+    private final int sampleEvery;
+    private final long windowNanos;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final Counter suppressed;
+    private final LongAdder suppressedTotal = new LongAdder();
+
+    public ErrorLog(Logger logger, int burst, int sampleEvery, Duration window) {
+        if (burst < 0 || sampleEvery < 1) {
+            throw new IllegalArgumentException("Wymagane burst >= 0 i sample-every >= 1");
+        }
+        this.logger = logger;
+        this.burst = burst;
+        this.sampleEvery = sampleEvery;
+        this.windowNanos = window.toNanos();
+        // rejestr globalny - Spring Boot dopina do niego rejestr aplikacji (Prometheus)
+        this.suppressed = Counter.builder(SUPPRESSED)
+                .description("Wpisy błędów pominięte przez limit logowania")
+                .tag("logger", logger.getName())
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Domyślnie: 5 wpisów na komunikat w oknie 10 s, potem co setny.
+     */
+    public static ErrorLog of(Logger logger) {
+        return new ErrorLog(logger, DEFAULT_BURST, DEFAULT_SAMPLE_EVERY, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Jak {@link Logger#error(String, Object...)}; {@code format} musi być stałą (jest kluczem limitu).
+     */
+    public void error(String format, Object... args) {
+        log(Level.ERROR, format, args);
+    }
+
+    public void warn(String format, Object... args) {
+        log(Level.WARN, format, args);
+    }
+
+    /**
+     * Liczba wpisów pominiętych przez tę instancję od początku działania.
+     */
+    public long suppressedCount() {
+        return suppressedTotal.sum();
+    }
+
+    private void log(Level level, String format, Object... args) {
+        if (!logger.isEnabledForLevel(level)) {
+            return;
+        }
+        Window window = windows.computeIfAbsent(format, key -> new Window());
+        long now = System.nanoTime();
+        long start = window.start.get();
+        if (now - start >= windowNanos && window.start.compareAndSet(start, now)) {
+            window.count.set(0);
+        }
+        int n = window.count.incrementAndGet();
+        if (n > burst && (n - burst) % sampleEvery != 0) {
+            window.skipped.incrementAndGet();
+            suppressedTotal.increment();
+            suppressed.increment();
+            return;
+        }
+        long skipped = window.skipped.getAndSet(0);
+        if (skipped == 0) {
+            logger.atLevel(level).log(format, args);
+        } else {
+            logger.atLevel(level).log(format + " (pominięto {} podobnych wpisów)", withSkipped(args, skipped));
+        }
+    }
+
+    /**
+     * Licznik pominięć trafia przed ewentualny wyjątek - SLF4J traktuje ostatni Throwable jako wyjątek wpisu.
+     */
+    private static Object[] withSkipped(Object[] args, long skipped) {
+        Object[] result = Arrays.copyOf(args, args.length + 1);
+        if (args.length > 0 && args[args.length - 1] instanceof Throwable throwable) {
+            result[args.length - 1] = skipped;
+            result[args.length] = throwable;
+        } else {
+            result[args.length] = skipped;
+        }
+        return result;
+    }
+
+    private static final class Window {
+        final AtomicLong start = new AtomicLong(System.nanoTime());
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicLong skipped = new AtomicLong();
+    }
+}
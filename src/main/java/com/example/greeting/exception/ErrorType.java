@@ -0,0 +1,147 @@
+package com.example.greeting.exception;
+
+import com.azure.core.exception.HttpResponseException;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+/**
+ * Rodzaje błędów API (RFC 7807) - status, {@code type} i {@code title} są stałe dla rodzaju,
+ * więc początek body jest liczony raz ({@link ProblemResponses}).
+ * <p>
+ * Poza nazwanymi rodzajami każdy inny status 4xx ma własny rodzaj ogólny ({@code urn:greeting:problem:http-4xx})
+ * z zachowanym kodem - klient nie dostaje 400 ani 500 zamiast np. 411 (4xx z Azure - patrz {@link #of}). Instancje są jedyne dla statusu,
+ * więc porównanie przez {@code ==} działa jak dla enuma.
+ */
+public final class ErrorType {
+
+    private static final String TYPE_PREFIX = "urn:greeting:problem:";
+
+    public static final ErrorType BAD_REQUEST = new ErrorType(400, "bad-request", "Niepoprawne żądanie");
+    public static final ErrorType UNAUTHORIZED = new ErrorType(401, "unauthorized", "Brak uwierzytelnienia");
+    public static final ErrorType FORBIDDEN = new ErrorType(403, "forbidden", "Brak uprawnień");
+    public static final ErrorType NOT_FOUND = new ErrorType(404, "not-found", "Nie znaleziono");
+    public static final ErrorType METHOD_NOT_ALLOWED = new ErrorType(405, "method-not-allowed", "Metoda niedozwolona");
+    public static final ErrorType NOT_ACCEPTABLE = new ErrorType(406, "not-acceptable", "Nieobsługiwany format odpowiedzi");
+    public static final ErrorType CONFLICT = new ErrorType(409, "conflict", "Konflikt ze stanem zasobu");
+    public static final ErrorType PRECONDITION_FAILED = new ErrorType(412, "precondition-failed", "Niespełniony warunek żądania");
+    public static final ErrorType PAYLOAD_TOO_LARGE = new ErrorType(413, "payload-too-large", "Za duże żądanie");
+    public static final ErrorType UNSUPPORTED_MEDIA_TYPE = new ErrorType(415, "unsupported-media-type", "Nieobsługiwany typ treści");
+    public static final ErrorType RANGE_NOT_SATISFIABLE = new ErrorType(416, "range-not-satisfiable", "Niepoprawny zakres");
+    public static final ErrorType TOO_MANY_REQUESTS = new ErrorType(429, "too-many-requests", "Za dużo żądań");
+    public static final ErrorType INTERNAL = new ErrorType(500, "internal", "Błąd serwera");
+    public static final ErrorType BAD_GATEWAY = new ErrorType(502, "bad-gateway", "Zależność odrzuciła wywołanie");
+    public static final ErrorType OVERLOADED = new ErrorType(503, "overloaded", "Usługa przeciążona");
+    public static final ErrorType GATEWAY_TIMEOUT = new ErrorType(504, "gateway-timeout", "Zależność nie odpowiedziała w czasie");
+
+    private static final ErrorType[] CLIENT_ERRORS = new ErrorType[100];
+
+    static {
+        for (ErrorType type : new ErrorType[]{BAD_REQUEST, UNAUTHORIZED, FORBIDDEN, NOT_FOUND, METHOD_NOT_ALLOWED,
+                NOT_ACCEPTABLE, CONFLICT, PRECONDITION_FAILED, PAYLOAD_TOO_LARGE, UNSUPPORTED_MEDIA_TYPE,
+                RANGE_NOT_SATISFIABLE, TOO_MANY_REQUESTS}) {
+            CLIENT_ERRORS[type.status - 400] = type;
+        }
+        for (int i = 0; i < CLIENT_ERRORS.length; i++) {
+            if (CLIENT_ERRORS[i] == null) {
+                int status = 400 + i;
+                CLIENT_ERRORS[i] = new ErrorType(status, "http-" + status, "Błąd żądania (HTTP " + status + ")");
+            }
+        }
+    }
+
+    private final int status;
+    private final String type;
+    private final String title;
+    /** Początek body RFC 7807 - do {@code "detail":"} włącznie. */
+    final String problemHead;
+
+    private ErrorType(int status, String slug, String title) {
+        this.status = status;
+        this.type = TYPE_PREFIX + slug;
+        this.title = title;
+        this.problemHead = ProblemResponses.head(this);
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public String title() {
+        return title;
+    }
+
+    @Override
+    public String toString() {
+        return type + " (" + status + ")";
+    }
+
+    /**
+     * Rodzaj błędu dla wyjątku: {@link ApiException} niesie go sam, a jego rodzaj (przeciążenie, limit czasu)
+     * i odpowiedzi 4xx z Azure są szukane w łańcuchu przyczyn (serwisy opakowują błędy SDK), błędy wejścia Springa to 4xx.
+     * Z Azure przechodzą tylko 404, 409 i 412 - opisują zasób, o który pytał klient. Dławienie Azure (429) to
+     * przeciążenie zależności, 408 - jej limit czasu, a pozostałe 4xx to {@link #BAD_GATEWAY}: np. 401/403 znaczy,
+     * że to tożsamość usługi nie ma uprawnień (RBAC), a nie że klient się źle uwierzytelnił.
+     */
+    public static ErrorType of(Throwable ex) {
+        if (ex instanceof ApiException api) {
+            return api.getType();
+        }
+        if (ex instanceof IllegalArgumentException || ex instanceof MethodArgumentNotValidException
+                || ex instanceof TypeMismatchException || ex instanceof HttpMessageNotReadableException) {
+            return BAD_REQUEST;
+        }
+        if (ex instanceof ErrorResponse response) {
+            return forStatus(response.getStatusCode().value());
+        }
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException api) {
+                return api.getType();
+            }
+            if (cause instanceof HttpResponseException azure && azure.getResponse() != null) {
+                int status = azure.getResponse().getStatusCode();
+                if (status >= 400 && status < 500) {
+                    return forDependencyClientError(status);
+                }
+            }
+        }
+        return INTERNAL;
+    }
+
+    /**
+     * Rodzaj dla odpowiedzi 4xx zależności (Azure) - zasady jak w {@link #of}.
+     */
+    public static ErrorType forDependencyClientError(int status) {
+        return switch (status) {
+            case 404, 409, 412 -> forStatus(status);
+            case 408 -> GATEWAY_TIMEOUT;
+            case 429 -> OVERLOADED;
+            default -> BAD_GATEWAY;
+        };
+    }
+
+    /**
+     * Rodzaj dla kodu HTTP - każde 4xx zachowuje swój status (nazwany albo ogólny rodzaj),
+     * 502, 503 i 504 to odrzucenie przez zależność, przeciążenie i limit czasu, pozostałe {@link #INTERNAL}.
+     */
+    public static ErrorType forStatus(int status) {
+        if (status >= 400 && status < 500) {
+            return CLIENT_ERRORS[status - 400];
+        }
+        if (status == BAD_GATEWAY.status) {
+            return BAD_GATEWAY;
+        }
+        if (status == OVERLOADED.status) {
+            return OVERLOADED;
+        }
+        if (status == GATEWAY_TIMEOUT.status) {
+            return GATEWAY_TIMEOUT;
+        }
+        return INTERNAL;
+    }
+}
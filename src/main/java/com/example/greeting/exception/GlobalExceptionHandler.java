@@ -1,33 +1,101 @@
 package com.example.greeting.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.time.OffsetDateTime;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Jedna ścieżka błędów API: każdy wyjątek kończy się body RFC 7807 ({@link ProblemResponses}),
+ * licznikiem {@value #ERRORS} i - dla nieoczekiwanych 500 - wpisem w logu z limitem ({@link ErrorLog}).
+ * Ścieżka jest tania także przy 100% błędów: liczniki są cache'owane, body składane z gotowego szablonu.
+ */
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
+    /** Licznik błędów obsłużonych przez handler - tagi {@code exception} i {@code status}. */
+    public static final String ERRORS = "greeting.errors";
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final ErrorLog errorLog = ErrorLog.of(log);
+
+    private record CounterKey(Class<?> exception, ErrorType type) {}
+
+    private final MeterRegistry meterRegistry;
+    private final ProblemResponses problems;
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Bez rejestru metryk (np. w testach wycinkowych MVC) licznik trafia do lokalnego rejestru.
+     */
+    @Autowired
+    public GlobalExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this(meterRegistry, new ProblemResponses(CoarseClock.SYSTEM));
+    }
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry, ProblemResponses problems) {
+        this.meterRegistry = meterRegistry;
+        this.problems = problems;
+    }
+
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleAny(Exception ex, HttpServletRequest req) {
-        HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
-        if (ex instanceof IllegalArgumentException || ex instanceof MethodArgumentNotValidException) {
-            status = HttpStatus.BAD_REQUEST;
+    public ResponseEntity<byte[]> handleAny(Exception ex, HttpServletRequest req) {
+        return handle(ex, req.getRequestURI());
+    }
+
+    /**
+     * Body błędu i licznik - wspólne dla stosu servletowego i reaktywnego ({@link ReactiveExceptionHandler}).
+     */
+    public ResponseEntity<byte[]> handle(Exception ex, String path) {
+        ErrorType type = ErrorType.of(ex);
+        counter(ex.getClass(), type).increment();
+
+        String detail = ex.getMessage();
+        if (type == ErrorType.OVERLOADED || type == ErrorType.GATEWAY_TIMEOUT) {
+            // opakowane odrzucenie albo limit czasu - klient dostaje nazwę zależności, a nie komunikat serwisu
+            detail = innermost(ex, type).getMessage();
+        } else if ((type == ErrorType.INTERNAL || type == ErrorType.BAD_GATEWAY) && !(ex instanceof ApiException)) {
+            // ApiException zalogował już serwis; tu trafiają nieprzewidziane wyjątki i odrzucenia przez Azure
+            // (np. 403 przy złej konfiguracji RBAC) - wymagają reakcji operatora
+            errorLog.error("❌ Nieobsłużony błąd {}: {}", path, ex.toString(), ex);
         }
+        return problems.entity(type, detail, path);
+    }
 
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", OffsetDateTime.now().toString());
-        body.put("status", status.value());
-        body.put("error", status.getReasonPhrase());
-        body.put("message", ex.getMessage());
-        body.put("path", req.getRequestURI());
+    /**
+     * Najgłębszy {@link ApiException} danego rodzaju w łańcuchu przyczyn (albo sam {@code ex}).
+     */
+    private static Throwable innermost(Throwable ex, ErrorType type) {
+        Throwable found = ex;
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException api && api.getType() == type) {
+                found = cause;
+            }
+        }
+        return found;
+    }
 
-        return ResponseEntity.status(status).body(body);
+    private Counter counter(Class<?> exception, ErrorType type) {
+        return counters.computeIfAbsent(new CounterKey(exception, type), key -> Counter.builder(ERRORS)
+                .description("Błędy zwrócone przez GlobalExceptionHandler")
+                .tag("exception", key.exception().getSimpleName())
+                .tag("status", String.valueOf(key.type().status()))
+                .register(meterRegistry));
     }
 }
@@ -0,0 +1,102 @@
+package com.example.greeting.exception;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Body błędów w formacie RFC 7807 ({@code application/problem+json}) składane z gotowych kawałków:
+ * początek z {@code type}, {@code title} i {@code status} jest policzony raz dla każdego {@link ErrorType},
+ * a przy błędzie dopisywane są tylko {@code detail}, {@code instance} i znacznik czasu z {@link CoarseClock}.
+ * Bez mapy, Jacksona i formatowania daty na każde żądanie.
+ */
+public final class ProblemResponses {
+
+    /** Sekundy dla Retry-After przy przeciążeniu. */
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private final CoarseClock clock;
+
+    public ProblemResponses(CoarseClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Stały początek body dla rodzaju - liczony raz, przy tworzeniu {@link ErrorType}.
+     */
+    static String head(ErrorType type) {
+        StringBuilder head = new StringBuilder("{\"type\":\"");
+        escape(type.type(), head);
+        head.append("\",\"title\":\"");
+        escape(type.title(), head);
+        head.append("\",\"status\":").append(type.status()).append(",\"detail\":\"");
+        return head.toString();
+    }
+
+    /**
+     * @param detail opis konkretnego błędu (null - tytuł rodzaju)
+     * @param instance ścieżka żądania
+     */
+    public byte[] body(ErrorType type, String detail, String instance) {
+        String head = type.problemHead;
+        String timestamp = clock.timestamp();
+        String safeDetail = detail != null ? detail : type.title();
+        String safeInstance = instance != null ? instance : "";
+        StringBuilder json = new StringBuilder(head.length() + safeDetail.length() + safeInstance.length()
+                + timestamp.length() + 40);
+        json.append(head);
+        escape(safeDetail, json);
+        json.append("\",\"instance\":\"");
+        escape(safeInstance, json);
+        json.append("\",\"timestamp\":\"").append(timestamp).append("\"}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public ResponseEntity<byte[]> entity(ErrorType type, String detail, String instance) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(type.status())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON);
+        if (type == ErrorType.OVERLOADED) {
+            response.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        }
+        return response.body(body(type, detail, instance));
+    }
+
+    /**
+     * Zapis wprost do odpowiedzi servletu - dla filtrów, które odrzucają żądanie przed MVC.
+     */
+    public void write(HttpServletResponse response, ErrorType type, String detail, String instance)
+            throws IOException {
+        byte[] body = body(type, detail, instance);
+        response.setStatus(type.status());
+        if (type == ErrorType.OVERLOADED) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        }
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static void escape(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
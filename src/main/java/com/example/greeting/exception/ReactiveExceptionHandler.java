@@ -0,0 +1,29 @@
+package com.example.greeting.exception;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * {@link GlobalExceptionHandler} dla stosu reaktywnego - te same statusy, body i licznik {@code greeting.errors}.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    private final GlobalExceptionHandler delegate;
+
+    public ReactiveExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.delegate = new GlobalExceptionHandler(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<byte[]> handleAny(Exception ex, ServerHttpRequest req) {
+        return delegate.handle(ex, req.getPath().value());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.greeting.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.event.KeyValuePair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Jeden wpis = jedna linia JSON: {@code @timestamp}, {@code level}, {@code logger}, {@code thread},
+ * {@code message}, pola z MDC i par klucz-wartość SLF4J (np. {@code operation} z {@link SampledLog})
+ * oraz {@code error} z typem, komunikatem i stack trace'em. Komunikat, wartości pól i stack trace
+ * przechodzą przez {@link LogRedaction}; pola o wrażliwych nazwach mają wartość {@value LogRedaction#MASK}.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private String service;
+
+    /** Nazwa usługi w polu {@code service} (np. {@code spring.application.name}); brak - bez pola. */
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("@timestamp", event.getInstant().toString());
+            json.writeStringField("level", event.getLevel().toString());
+            json.writeStringField("logger", event.getLoggerName());
+            json.writeStringField("thread", event.getThreadName());
+            if (service != null && !service.isBlank()) {
+                json.writeStringField("service", service);
+            }
+            json.writeStringField("message", LogRedaction.redact(event.getFormattedMessage()));
+            for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+                writeField(json, entry.getKey(), entry.getValue());
+            }
+            if (event.getKeyValuePairs() != null) {
+                for (KeyValuePair pair : event.getKeyValuePairs()) {
+                    writeField(json, pair.key, pair.value != null ? String.valueOf(pair.value) : null);
+                }
+            }
+            IThrowableProxy throwable = event.getThrowableProxy();
+            if (throwable != null) {
+                json.writeObjectFieldStart("error");
+                json.writeStringField("type", throwable.getClassName());
+                json.writeStringField("message", LogRedaction.redact(throwable.getMessage()));
+                json.writeStringField("stack_trace", LogRedaction.redact(ThrowableProxyUtil.asString(throwable)));
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.write('\n');
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private static void writeField(JsonGenerator json, String key, String value) throws IOException {
+        if (value == null) {
+            json.writeNullField(key);
+        } else {
+            json.writeStringField(key, LogRedaction.isSensitiveKey(key) ? LogRedaction.MASK : LogRedaction.redact(value));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.greeting.logging;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Maskowanie sekretów w logach - ostatnia linia obrony, gdy wartość mimo wszystko trafi do komunikatu:
+ * <ul>
+ *     <li>pary {@code klucz=wartość}, {@code klucz: wartość} i {@code "klucz":"wartość"} z wrażliwym kluczem
+ *     (hasło, token, sygnatura SAS, klucz konta, nagłówek Authorization) - wartość zamieniana na {@value #MASK},</li>
+ *     <li>wartości sekretów pobranych z Key Vault ({@link #registerSecret}) - od {@value #MIN_SECRET_LENGTH} znaków,
+ *     krótsze zbyt łatwo pokrywają się ze zwykłymi słowami (np. nazwą użytkownika).</li>
+ * </ul>
+ * Używane przez {@link JsonLogEncoder} i {@link RedactingMessageConverter} (tekstowy {@code %m}).
+ */
+public final class LogRedaction {
+
+    public static final String MASK = "***";
+
+    static final int MIN_SECRET_LENGTH = 12;
+    private static final int MAX_SECRETS = 1024;
+
+    private static final Pattern SENSITIVE_PAIR = Pattern.compile("(?i)(\"?(?:password|passwd|pwd|secret|"
+            + "client_secret|token|access_token|refresh_token|sig|signature|accountkey|sharedaccesskey|apikey|"
+            + "api[-_]key|authorization)\"?\\s*[=:]\\s*\"?)(?:bearer\\s+)?[^\\s\"&;,]+");
+
+    private static final Set<String> SENSITIVE_KEY_SUFFIXES = Set.of("password", "passwd", "pwd", "secret",
+            "secretvalue", "token", "sig", "signature", "accountkey", "sharedaccesskey", "apikey", "credential",
+            "credentials", "authorization");
+
+    private static final Set<String> secrets = ConcurrentHashMap.newKeySet();
+
+    private LogRedaction() {
+    }
+
+    /**
+     * Zapamiętuje wartość sekretu - od teraz każde jej wystąpienie w logu jest maskowane.
+     * Lista jest ograniczona ({@value #MAX_SECRETS}); po jej zapełnieniu zostaje maskowanie par klucz=wartość.
+     */
+    public static void registerSecret(String value) {
+        if (value != null && value.length() >= MIN_SECRET_LENGTH && secrets.size() < MAX_SECRETS) {
+            secrets.add(value);
+        }
+    }
+
+    public static String redact(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        String result = text;
+        if (result.indexOf('=') >= 0 || result.indexOf(':') >= 0) {
+            result = SENSITIVE_PAIR.matcher(result).replaceAll("$1" + MASK);
+        }
+        for (String secret : secrets) {
+            if (result.contains(secret)) {
+                result = result.replace(secret, MASK);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Czy pole (MDC, para klucz-wartość) z tą nazwą niesie sekret: {@code dbPassword}, {@code sas-token} tak,
+     * {@code secretName} nie - liczy się końcówka nazwy.
+     */
+    public static boolean isSensitiveKey(String key) {
+        String normalized = key.toLowerCase(Locale.ROOT).replace("-", "").replace("_", "").replace(".", "");
+        for (String suffix : SENSITIVE_KEY_SUFFIXES) {
+            if (normalized.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.greeting.logging;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * {@code %m} / {@code %msg} w logach tekstowych z maskowaniem sekretów ({@link LogRedaction}).
+ */
+public class RedactingMessageConverter extends MessageConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return LogRedaction.redact(event.getFormattedMessage());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.greeting.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchroniczny appender na {@link RingBuffer}: wątek logujący tylko wstawia wpis do bufora (bez blokad),
+ * formatowanie i I/O robią dołączone appendery w jednym wątku {@code log-writer-<nazwa>}.
+ * <p>
+ * Pełny bufor nie spowalnia żądań - wpis jest porzucany i liczony ({@link #droppedCount()}, metryka
+ * {@code greeting.log.dropped}). Wyjątek: przy {@code neverDropWarnings} (domyślnie) WARN i ERROR idą wtedy
+ * synchronicznie z wątku wołającego - błędy zawsze trafiają do logu. Przy zamykaniu bufor jest opróżniany
+ * najwyżej przez {@code maxFlushTime} ms.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder writtenSynchronously = new LongAdder();
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private boolean neverDropWarnings = true;
+    private int maxFlushTime = 1000;
+
+    private RingBuffer<ILoggingEvent> buffer;
+    private Thread worker;
+    private volatile boolean running;
+    private volatile boolean workerIdle;
+    private volatile boolean prepareFailureReported;
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setNeverDropWarnings(boolean neverDropWarnings) {
+        this.neverDropWarnings = neverDropWarnings;
+    }
+
+    /** Milisekundy na opróżnienie bufora przy zamykaniu. */
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("Brak dołączonych appenderów w " + getName());
+            return;
+        }
+        buffer = new RingBuffer<>(bufferSize);
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("log-writer-" + getName()).start(this::drain);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Bufor " + getName() + " nie opróżniony w " + maxFlushTime + " ms, zostało " + buffer.size());
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        prepareForDeferredProcessing(event);
+        if (buffer.offer(event)) {
+            if (workerIdle) {
+                LockSupport.unpark(worker);
+            }
+            return;
+        }
+        if (neverDropWarnings && event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            writtenSynchronously.increment();
+            appenders.appendLoopOnAppenders(event);
+            return;
+        }
+        dropped.increment();
+    }
+
+    /**
+     * Wątek, MDC i komunikat zapamiętane teraz - wątek zapisujący nie ma do nich dostępu. Błąd (np. kontekst
+     * bez adaptera MDC) nie porzuca wpisu - idzie dalej z tym, co zdążyło się zapamiętać, a status dostaje
+     * jeden błąd zamiast jednego na wpis.
+     */
+    private void prepareForDeferredProcessing(ILoggingEvent event) {
+        try {
+            event.prepareForDeferredProcessing();
+        } catch (RuntimeException e) {
+            if (!prepareFailureReported) {
+                prepareFailureReported = true;
+                addError("Nie udało się przygotować wpisu do zapisu asynchronicznego w " + getName(), e);
+            }
+        }
+    }
+
+    private void drain() {
+        while (running || !buffer.isEmpty()) {
+            ILoggingEvent event = buffer.poll();
+            if (event != null) {
+                appenders.appendLoopOnAppenders(event);
+                continue;
+            }
+            if (!running) {
+                if (buffer.isEmpty()) {
+                    return;
+                }
+                Thread.onSpinWait(); // producent zajął slot, ale jeszcze go nie wypełnił
+                continue;
+            }
+            workerIdle = true;
+            if (buffer.isEmpty() && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            workerIdle = false;
+        }
+    }
+
+    /** Wpisy porzucone przy pełnym buforze. */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /** WARN/ERROR zapisane z wątku wołającego, bo bufor był pełny. */
+    public long writtenSynchronouslyCount() {
+        return writtenSynchronously.sum();
+    }
+
+    /** Wpisy czekające w buforze. */
+    public int queued() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    public int capacity() {
+        return buffer != null ? buffer.capacity() : bufferSize;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
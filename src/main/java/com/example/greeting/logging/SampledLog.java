@@ -0,0 +1,102 @@
+package com.example.greeting.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logi udanych operacji z próbkowaniem - na gorącej ścieżce wychodzi tylko ułamek wpisów.
+ * <p>
+ * Odsetek dla operacji (nazwa jak w metryce {@code azure.client.requests}) ustawia {@link #configure};
+ * domyślnie 1.0, czyli bez próbkowania. Wpis dostaje parę {@code operation=<nazwa>} (pole w JSON).
+ * Pominięte wpisy liczy {@value #SAMPLED_OUT} (tagi {@code logger}, {@code operation}). Błędy nie przechodzą
+ * tędy - idą wprost do loggera albo przez {@code ErrorLog} i nie są próbkowane.
+ */
+public final class SampledLog {
+
+    public static final String SAMPLED_OUT = "greeting.log.sampled.out";
+
+    private static volatile Rates rates = new Rates(1.0, Map.of());
+
+    private final Logger logger;
+    private final Map<String, Counter> sampledOut = new ConcurrentHashMap<>();
+
+    private SampledLog(Logger logger) {
+        this.logger = logger;
+    }
+
+    public static SampledLog of(Logger logger) {
+        return new SampledLog(logger);
+    }
+
+    /**
+     * Odsetki dla wszystkich instancji w procesie (0 - nic, 1 - wszystko).
+     * @param rates odsetki według operacji; pozostałe operacje dostają {@code defaultRate}
+     */
+    public static void configure(double defaultRate, Map<String, Double> rates) {
+        SampledLog.rates = new Rates(defaultRate, Map.copyOf(rates));
+    }
+
+    /**
+     * Wpisy postaci {@code operacja=odsetek}, np. {@code download=0.01}.
+     */
+    public static Map<String, Double> parseRates(List<String> entries) {
+        Map<String, Double> parsed = new LinkedHashMap<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Odsetek próbkowania musi mieć postać operacja=odsetek: " + entry);
+            }
+            double rate = Double.parseDouble(entry.substring(separator + 1).trim());
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Odsetek próbkowania musi być w przedziale 0..1: " + entry);
+            }
+            parsed.put(entry.substring(0, separator).trim(), rate);
+        }
+        return parsed;
+    }
+
+    /**
+     * Jak {@link Logger#debug(String, Object...)}; przy wyłączonym DEBUG nic nie kosztuje poza sprawdzeniem poziomu.
+     */
+    public void debug(String operation, String format, Object... args) {
+        log(Level.DEBUG, operation, format, args);
+    }
+
+    public void info(String operation, String format, Object... args) {
+        log(Level.INFO, operation, format, args);
+    }
+
+    private void log(Level level, String operation, String format, Object... args) {
+        if (!logger.isEnabledForLevel(level)) {
+            return;
+        }
+        double rate = rates.rate(operation);
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            sampledOut.computeIfAbsent(operation, op -> Counter.builder(SAMPLED_OUT)
+                    .description("Logi udanych operacji pominięte przez próbkowanie")
+                    .tag("logger", logger.getName())
+                    .tag("operation", op)
+                    .register(Metrics.globalRegistry)).increment();
+            return;
+        }
+        logger.atLevel(level).addKeyValue("operation", operation).log(format, args);
+    }
+
+    private record Rates(double defaultRate, Map<String, Double> byOperation) {
+
+        double rate(String operation) {
+            return byOperation.getOrDefault(operation, defaultRate);
+        }
+    }
+}
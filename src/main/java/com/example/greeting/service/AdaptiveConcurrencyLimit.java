@@ -0,0 +1,193 @@
+package com.example.greeting.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptacyjny limit równoległych żądań jednej grupy endpointów (AIMD względem opóźnienia bez obciążenia).
+ * <p>
+ * Żądanie ponad bieżący limit jest odrzucane od razu - bez kolejki. Opóźnienie bez obciążenia to najkrótsza
+ * próbka z ostatniego {@code baselineWindow}; limit zmienia się raz na {@code sampleWindow} na podstawie
+ * średniej próbek z okna:
+ * <ul>
+ *   <li>średnia powyżej {@code tolerance} × opóźnienie bez obciążenia i powyżej {@code latencyThreshold}
+ *       (próg chroni przed szumem bardzo szybkich żądań) albo odrzucenie niżej, np. przez {@link Bulkhead}
+ *       - żądania czekają w kolejce zależności, limit × {@code backoffRatio},</li>
+ *   <li>inaczej, przy wykorzystaniu co najmniej połowy limitu - limit + 1, ale gdy w oknie były odrzucenia,
+ *       tylko przy średniej w dolnej połowie tolerancji: zwolnione miejsce od razu zajmuje odrzucony klient,
+ *       więc wzrost na granicy tolerancji tylko wydłużałby kolejkę w zależności.</li>
+ * </ul>
+ * Zmniejszenie liczy się od szczytu żądań w oknie, jeśli był niższy od limitu - limit ponad faktyczne
+ * obciążenie niczego nie ogranicza. Po fali wolnych odpowiedzi limit może spaść niżej niż trzeba, ale przy
+ * opóźnieniu bliskim bazowemu szybko wraca (+1 na okno).
+ * Limit zostaje w przedziale {@code [minLimit, maxLimit]}, startuje od {@code maxLimit}.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    /**
+     * Migawka stanu limitu.
+     */
+    public record Stats(String name, int limit, int inFlight, long rejected) {}
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final long sampleWindowNanos;
+    private final long baselineWindowNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+
+    // stan okien - pod synchronized(this)
+    private long windowStart;
+    private long windowRejectedBase;
+    private long sampleSum;
+    private int sampleCount;
+    private int peakInFlight;
+    private boolean overloaded;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long nextBaselineNanos = Long.MAX_VALUE;
+    private long baselineWindowStart;
+
+    public AdaptiveConcurrencyLimit(String name, int minLimit, int maxLimit, Duration latencyThreshold,
+                                    double tolerance, double backoffRatio, Duration sampleWindow,
+                                    Duration baselineWindow) {
+        this(name, minLimit, maxLimit, latencyThreshold, tolerance, backoffRatio, sampleWindow, baselineWindow,
+                System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(String name, int minLimit, int maxLimit, Duration latencyThreshold, double tolerance,
+                             double backoffRatio, Duration sampleWindow, Duration baselineWindow,
+                             LongSupplier nanoTime) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Wymagane 1 <= min-limit <= max-limit dla '" + name + "'");
+        }
+        if (tolerance <= 1) {
+            throw new IllegalArgumentException("tolerance musi być większe od 1");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoff-ratio musi być w przedziale (0, 1)");
+        }
+        if (sampleWindow.isNegative() || baselineWindow.compareTo(sampleWindow) < 0) {
+            throw new IllegalArgumentException("Wymagane 0 <= sample-window <= baseline-window");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.sampleWindowNanos = sampleWindow.toNanos();
+        this.baselineWindowNanos = baselineWindow.toNanos();
+        this.nanoTime = nanoTime;
+        this.limit = maxLimit;
+        long now = nanoTime.getAsLong();
+        this.windowStart = now;
+        this.baselineWindowStart = now;
+    }
+
+    /**
+     * @return true gdy żądanie mieści się w limicie - wtedy wywołujący musi później wywołać {@link #release}
+     *         albo {@link #releaseUnsampled}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Zwalnia miejsce udanego żądania i dolicza jego czas obsługi do próbek okna.
+     * @param latencyNanos czas obsługi żądania
+     */
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        long now = nanoTime.getAsLong();
+        synchronized (this) {
+            updateBaseline(latencyNanos, now);
+            sampleSum += latencyNanos;
+            sampleCount++;
+            peakInFlight = Math.max(peakInFlight, current);
+            closeWindowIfDue(now);
+        }
+    }
+
+    /**
+     * Zwalnia miejsce bez próbki opóźnienia - dla transferów strumieniowych, których czas zależy
+     * od rozmiaru danych i klienta, a nie od obciążenia, oraz dla odpowiedzi błędów.
+     * @param overloaded żądanie zostało odrzucone przez przeciążoną zależność - okno zmniejsza limit
+     */
+    public void releaseUnsampled(boolean overloaded) {
+        int current = inFlight.getAndDecrement();
+        if (overloaded) {
+            long now = nanoTime.getAsLong();
+            synchronized (this) {
+                this.overloaded = true;
+                peakInFlight = Math.max(peakInFlight, current);
+                closeWindowIfDue(now);
+            }
+        }
+    }
+
+    private void updateBaseline(long latencyNanos, long now) {
+        baselineNanos = Math.min(baselineNanos, latencyNanos);
+        nextBaselineNanos = Math.min(nextBaselineNanos, latencyNanos);
+        if (now - baselineWindowStart >= baselineWindowNanos) {
+            // minimum z ostatniego okna - nadąża za trwałą zmianą zależności, a pod stałym obciążeniem
+            // w całym oknie i tak trafi się żądanie obsłużone bez kolejki
+            baselineNanos = nextBaselineNanos;
+            nextBaselineNanos = Long.MAX_VALUE;
+            baselineWindowStart = now;
+        }
+    }
+
+    private void closeWindowIfDue(long now) {
+        if (now - windowStart < sampleWindowNanos) {
+            return;
+        }
+        boolean rejecting = rejected.get() != windowRejectedBase;
+        if (overloaded) {
+            decrease();
+        } else if (sampleCount > 0) {
+            long average = sampleSum / sampleCount;
+            double congestedAbove = Math.max(latencyThresholdNanos, tolerance * baselineNanos);
+            double growBelow = rejecting ? (baselineNanos + congestedAbove) / 2 : congestedAbove;
+            if (average > congestedAbove) {
+                decrease();
+            } else if (peakInFlight * 2 >= limit && average <= growBelow) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+        windowStart = now;
+        windowRejectedBase = rejected.get();
+        sampleSum = 0;
+        sampleCount = 0;
+        peakInFlight = 0;
+        overloaded = false;
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, Math.min(limit, peakInFlight) * backoffRatio);
+    }
+
+    public Stats stats() {
+        return new Stats(name, (int) limit, inFlight.get(), rejected.get());
+    }
+
+    public String getName() {
+        return name;
+    }
+}
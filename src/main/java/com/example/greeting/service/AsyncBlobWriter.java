@@ -0,0 +1,313 @@
+package com.example.greeting.service;
+
+import com.example.greeting.exception.ErrorLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchroniczny zapis tekstowych blobów (write-behind) - opcjonalny tryb {@code POST /azure/blobs/{blobName}}.
+ * <ul>
+ *     <li>zapis jest przyjmowany do ograniczonej kolejki w pamięci i od razu dostaje tracking id,</li>
+ *     <li>pełna kolejka (liczba zapisów albo bajtów) odrzuca zapis - {@link BulkheadFullException}, HTTP 503,</li>
+ *     <li>kolejne zapisy tej samej nazwy czekające w kolejce są łączone - wysyłana jest tylko ostatnia treść,</li>
+ *     <li>nazwa bloba zawsze trafia do tego samego workera, więc zapisy jednej nazwy nie wyprzedzają się,</li>
+ *     <li>przy zamykaniu aplikacji oczekujące zapisy są dopychane do Blob Storage.</li>
+ * </ul>
+ */
+@Service
+public class AsyncBlobWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncBlobWriter.class);
+    private static final ErrorLog errorLog = ErrorLog.of(log);
+
+    public enum State { QUEUED, IN_PROGRESS, SUCCEEDED, FAILED }
+
+    /**
+     * Stan zapisu dla jednego tracking id.
+     * @param coalesced true gdy treść została nadpisana późniejszym zapisem tej samej nazwy przed wysłaniem
+     */
+    public record WriteStatus(String trackingId, String blobName, State state, boolean coalesced,
+                              long size, String error, Instant acceptedAt, Instant completedAt) {
+
+        WriteStatus withState(State newState, String newError, Instant at) {
+            return new WriteStatus(trackingId, blobName, newState, coalesced, size, newError, acceptedAt, at);
+        }
+
+        WriteStatus asCoalesced() {
+            return new WriteStatus(trackingId, blobName, state, true, size, error, acceptedAt, completedAt);
+        }
+    }
+
+    private final AzureBlobStorageService blobStorageService;
+    private final boolean enabled;
+    private final int maxQueuedWrites;
+    private final long maxQueuedBytes;
+    private final int maxTrackedStatuses;
+    private final Duration shutdownTimeout;
+    private final Clock clock;
+
+    private final List<BlockingQueue<String>> partitions = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<String, PendingWrite> pendingByName = new ConcurrentHashMap<>();
+    private final Map<String, WriteStatus> statuses = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> completedOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedWrites = new AtomicInteger();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final Counter coalescedWrites;
+    private volatile boolean accepting = true;
+
+    @Autowired
+    public AsyncBlobWriter(
+            AzureBlobStorageService blobStorageService,
+            @Value("${azure.storage.async-writes.enabled:false}") boolean enabled,
+            @Value("${azure.storage.async-writes.workers:4}") int workers,
+            @Value("${azure.storage.async-writes.max-queued-writes:1000}") int maxQueuedWrites,
+            @Value("${azure.storage.async-writes.max-queued-bytes:64MB}") DataSize maxQueuedBytes,
+            @Value("${azure.storage.async-writes.max-tracked-statuses:10000}") int maxTrackedStatuses,
+            @Value("${azure.storage.async-writes.shutdown-timeout:30s}") Duration shutdownTimeout,
+            MeterRegistry meterRegistry) {
+        this(blobStorageService, enabled, workers, maxQueuedWrites, maxQueuedBytes, maxTrackedStatuses,
+                shutdownTimeout, Clock.systemUTC(), meterRegistry);
+    }
+
+    public AsyncBlobWriter(AzureBlobStorageService blobStorageService, boolean enabled, int workers,
+                           int maxQueuedWrites, DataSize maxQueuedBytes, int maxTrackedStatuses,
+                           Duration shutdownTimeout, Clock clock, MeterRegistry meterRegistry) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers musi być >= 1");
+        }
+        this.blobStorageService = blobStorageService;
+        this.enabled = enabled;
+        this.maxQueuedWrites = maxQueuedWrites;
+        this.maxQueuedBytes = maxQueuedBytes.toBytes();
+        this.maxTrackedStatuses = maxTrackedStatuses;
+        this.shutdownTimeout = shutdownTimeout;
+        this.clock = clock;
+        Gauge.builder("azure.blob.writes.queued", queuedWrites, AtomicInteger::get)
+                .description("Zapisy czekające w kolejce zapisu asynchronicznego")
+                .register(meterRegistry);
+        Gauge.builder("azure.blob.writes.queued.bytes", queuedBytes, AtomicLong::get)
+                .description("Bajty czekające na asynchroniczny zapis")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.coalescedWrites = Counter.builder("azure.blob.writes.coalesced")
+                .description("Zapisy nadpisane przez późniejszy zapis tej samej nazwy przed wysłaniem")
+                .register(meterRegistry);
+
+        if (enabled) {
+            for (int i = 0; i < workers; i++) {
+                BlockingQueue<String> partition = new LinkedBlockingQueue<>();
+                partitions.add(partition);
+                this.workers.add(Thread.ofVirtual().name("blob-writer-" + i).start(() -> drain(partition)));
+            }
+            log.info("Asynchroniczny zapis blobów: workers={}, max-queued-writes={}, max-queued-bytes={}",
+                    workers, maxQueuedWrites, maxQueuedBytes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Przyjmuje zapis do kolejki.
+     * @return stan zapisu (QUEUED) z tracking id
+     * @throws BulkheadFullException gdy kolejka jest pełna albo aplikacja się zamyka
+     */
+    public WriteStatus submit(String blobName, String content) {
+        if (!enabled) {
+            throw new IllegalStateException("Asynchroniczny zapis blobów jest wyłączony (azure.storage.async-writes.enabled)");
+        }
+        long size = content.getBytes(StandardCharsets.UTF_8).length;
+        WriteStatus accepted = new WriteStatus(UUID.randomUUID().toString(), blobName, State.QUEUED, false,
+                size, null, clock.instant(), null);
+        statuses.put(accepted.trackingId(), accepted);
+
+        PendingWrite[] replaced = {null};
+        RuntimeException[] rejected = {null};
+        // compute jest atomowy per nazwa - łączenie i przyjęcie nowego wpisu nie ścigają się z workerem
+        PendingWrite queued = pendingByName.compute(blobName, (name, pending) -> {
+            if (!accepting) {
+                rejected[0] = new BulkheadFullException("blob-write-queue", "aplikacja jest zamykana");
+                return pending;
+            }
+            long delta = size - (pending != null ? pending.size : 0);
+            int writes = queuedWrites.incrementAndGet();
+            long bytes = queuedBytes.addAndGet(delta);
+            if (writes > maxQueuedWrites || (delta > 0 && bytes > maxQueuedBytes)) {
+                queuedWrites.decrementAndGet();
+                queuedBytes.addAndGet(-delta);
+                rejected[0] = new BulkheadFullException("blob-write-queue",
+                        "kolejka zapisów pełna (" + (writes - 1) + " zapisów, " + (bytes - delta) + " B)");
+                return pending;
+            }
+            replaced[0] = pending;
+            return pending == null
+                    ? new PendingWrite(content, size, accepted.trackingId())
+                    : pending.replacedBy(content, size, accepted.trackingId());
+        });
+        if (rejected[0] != null) {
+            statuses.remove(accepted.trackingId());
+            throw rejected[0];
+        }
+        if (replaced[0] == null) {
+            partitionFor(blobName).add(blobName);
+        } else {
+            coalescedWrites.increment();
+            for (String trackingId : replaced[0].trackingIds) {
+                statuses.computeIfPresent(trackingId, (id, status) -> status.asCoalesced());
+            }
+        }
+        log.debug("Zapis blob '{}' przyjęty do kolejki: {} (oczekuje: {})",
+                blobName, accepted.trackingId(), queued.trackingIds.size());
+        return accepted;
+    }
+
+    /**
+     * @return stan zapisu albo null dla nieznanego (lub już zapomnianego) tracking id
+     */
+    public WriteStatus getStatus(String trackingId) {
+        return statuses.get(trackingId);
+    }
+
+    public int getQueuedWrites() {
+        return queuedWrites.get();
+    }
+
+    /**
+     * Przestaje przyjmować zapisy i czeka (najwyżej {@code shutdown-timeout}) aż kolejka zostanie wysłana.
+     */
+    @PreDestroy
+    public void shutdown() {
+        accepting = false;
+        if (!enabled) {
+            return;
+        }
+        log.info("Zamykanie zapisu asynchronicznego - oczekujące bloby: {}", queuedWrites.get());
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (Thread worker : workers) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !worker.join(Duration.ofNanos(remaining))) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.forEach(Thread::interrupt);
+        if (queuedWrites.get() > 0) {
+            log.error("❌ Nie zdążono zapisać {} blobów przed zamknięciem: {}", queuedWrites.get(), pendingByName.keySet());
+        } else {
+            log.info("✅ Wszystkie oczekujące zapisy blobów wysłane");
+        }
+    }
+
+    private BlockingQueue<String> partitionFor(String blobName) {
+        return partitions.get(Math.floorMod(blobName.hashCode(), partitions.size()));
+    }
+
+    private void drain(BlockingQueue<String> partition) {
+        while (true) {
+            String blobName;
+            try {
+                blobName = partition.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (blobName == null) {
+                if (!accepting && partition.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            write(blobName);
+        }
+    }
+
+    private void write(String blobName) {
+        PendingWrite pending = pendingByName.remove(blobName);
+        if (pending == null) {
+            return;
+        }
+        queuedWrites.addAndGet(-pending.trackingIds.size());
+        queuedBytes.addAndGet(-pending.size);
+        update(pending, State.IN_PROGRESS, null, null);
+        try {
+            blobStorageService.uploadBlob(blobName, pending.content);
+            complete(pending, State.SUCCEEDED, null);
+        } catch (Exception e) {
+            errorLog.error("❌ Asynchroniczny zapis blob '{}' nie powiódł się: {}", blobName, e.getMessage());
+            complete(pending, State.FAILED, e.getMessage());
+        }
+    }
+
+    private void complete(PendingWrite pending, State state, String error) {
+        update(pending, state, error, clock.instant());
+        completedOrder.addAll(pending.trackingIds);
+        while (statuses.size() > maxTrackedStatuses) {
+            String oldest = completedOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            statuses.remove(oldest);
+        }
+    }
+
+    private void update(PendingWrite pending, State state, String error, Instant completedAt) {
+        for (String trackingId : pending.trackingIds) {
+            statuses.computeIfPresent(trackingId, (id, status) -> status.withState(state, error, completedAt));
+        }
+    }
+
+    /**
+     * Treść czekająca na wysłanie + wszystkie tracking id, które zostały w niej połączone.
+     */
+    private static final class PendingWrite {
+        private final String content;
+        private final long size;
+        private final List<String> trackingIds;
+
+        PendingWrite(String content, long size, String trackingId) {
+            this(content, size, List.of(trackingId));
+        }
+
+        private PendingWrite(String content, long size, List<String> trackingIds) {
+            this.content = content;
+            this.size = size;
+            this.trackingIds = trackingIds;
+        }
+
+        PendingWrite replacedBy(String newContent, long newSize, String trackingId) {
+            List<String> ids = new ArrayList<>(trackingIds.size() + 1);
+            ids.addAll(trackingIds);
+            ids.add(trackingId);
+            return new PendingWrite(newContent, newSize, List.copyOf(ids));
+        }
+    }
+}
@@ -1,52 +1,222 @@
 package com.example.greeting.service;
 
-import com.azure.identity.DefaultAzureCredentialBuilder;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.rest.PagedFlux;
+import com.azure.core.http.rest.PagedResponse;
+import com.azure.core.http.rest.Response;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerAsyncClient;
 import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
 import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
+import com.azure.storage.blob.batch.BlobBatch;
+import com.azure.storage.blob.batch.BlobBatchClient;
+import com.azure.storage.blob.batch.BlobBatchClientBuilder;
+import com.azure.storage.blob.models.BlobHttpHeaders;
 import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobItemProperties;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobDownloadAsyncResponse;
+import com.azure.storage.blob.models.BlobDownloadContentResponse;
+import com.azure.storage.blob.models.BlobDownloadHeaders;
+import com.azure.storage.blob.models.BlobDownloadResponse;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.BlockBlobItem;
+import com.azure.storage.blob.models.ListBlobsOptions;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.example.greeting.dto.BlobBatchItem;
+import com.example.greeting.dto.BlobInfo;
+import com.example.greeting.dto.BlobPage;
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.ErrorLog;
+import com.example.greeting.exception.ErrorType;
+import com.example.greeting.logging.SampledLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Serwis do obsługi Azure Blob Storage.
- * Używa Workload Identity (DefaultAzureCredential) do autoryzacji.
+ * Używa wspólnego credentiala (Workload Identity, {@code AzureCredentialConfiguration}) do autoryzacji
+ * i wspólnego transportu HTTP ({@code AzureHttpTransport}).
+ * Wywołania SDK są ograniczone przez {@link Bulkhead} ({@code azure.storage.bulkhead.*}),
+ * więc wolny Storage nie zajmie wszystkich wątków obsługujących żądania, i mierzone przez {@link AzureMetrics}.
+ * Metody {@code *Async} (stos reaktywny) używają {@link BlobContainerAsyncClient} na tym samym pipeline HTTP
+ * i tym samym bulkheadzie.
+ * Awaria Storage otwiera {@link CircuitBreaker} ({@code azure.storage.resilience.circuit-breaker.*}); odczyty
+ * tekstu, właściwości, listing i usuwanie mają limity czasu, a odczyt tekstu i {@code exists} - hedging
+ * ({@link TimeLimiter}, {@code azure.storage.resilience.*}).
+ * Przy {@code azure.storage.compression.enabled=true} zapis kompresuje treść ({@link BlobCompression});
+ * odczyty tekstu dekodują ją przezroczyście, a strumieniowe zwracają surowe bajty razem z kodekiem.
+ * Udane zapisy i usunięcia są zgłaszane do {@link BlobChangeListener} (np. {@link BlobInventory}).
  */
 @Service
 public class AzureBlobStorageService {
     
     private static final Logger log = LoggerFactory.getLogger(AzureBlobStorageService.class);
+    private static final ErrorLog errorLog = ErrorLog.of(log);
+    private static final SampledLog opLog = SampledLog.of(log);
+    
+    /** Limit operacji w jednym żądaniu Blob Batch API. */
+    public static final int MAX_BATCH_SIZE = 256;
+    
+    /** Typ treści tekstu z {@link #uploadBlob(String, String)} - zapisywany przy kompresji. */
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+    
+    /** Typ treści nadawany przez Blob Storage, gdy zapis go nie podaje. */
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
     
     private final BlobContainerClient containerClient;
+    private final BlobContainerAsyncClient asyncContainerClient;
+    private final BlobBatchClient batchClient;
     private final String accountName;
     private final String containerName;
     
+    private final ParallelTransferOptions transferOptions;
+    private final BlobCompression compression;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final TimeLimiter timeLimiter;
+    private final AzureMetrics metrics;
+    private final List<BlobChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    
+    @Autowired
     public AzureBlobStorageService(
             @Value("${azure.storage.account-name:hycomcminternal}") String accountName,
-            @Value("${azure.storage.container-name:test-container-dev}") String containerName) {
-        
+            @Value("${azure.storage.container-name:test-container-dev}") String containerName,
+            @Value("${azure.storage.transfer.block-size:8MB}") DataSize blockSize,
+            @Value("${azure.storage.transfer.max-concurrency:4}") int maxConcurrency,
+            @Value("${azure.storage.transfer.max-single-upload-size:8MB}") DataSize maxSingleUploadSize,
+            @Value("${azure.storage.bulkhead.max-concurrent-calls:64}") int maxConcurrentCalls,
+            @Value("${azure.storage.bulkhead.max-wait:100ms}") Duration maxWait,
+            @Value("${azure.storage.compression.enabled:false}") boolean compressionEnabled,
+            @Value("${azure.storage.compression.min-size:1KB}") DataSize compressionMinSize,
+            @Value("${azure.storage.compression.content-types:text/*,application/json,application/x-ndjson,application/xml}")
+            List<String> compressedContentTypes,
+            @Value("${azure.storage.resilience.circuit-breaker.enabled:true}") boolean breakerEnabled,
+            @Value("${azure.storage.resilience.circuit-breaker.window-size:50}") int breakerWindowSize,
+            @Value("${azure.storage.resilience.circuit-breaker.minimum-calls:20}") int breakerMinimumCalls,
+            @Value("${azure.storage.resilience.circuit-breaker.failure-rate-threshold:50}") int breakerFailureRate,
+            @Value("${azure.storage.resilience.circuit-breaker.open-duration:10s}") Duration breakerOpenDuration,
+            @Value("${azure.storage.resilience.circuit-breaker.half-open-calls:3}") int breakerHalfOpenCalls,
+            @Value("${azure.storage.resilience.deadlines:download=5s,exists=2s,getProperties=2s,list=5s,delete=5s}")
+            List<String> deadlines,
+            @Value("${azure.storage.resilience.hedging.enabled:true}") boolean hedgingEnabled,
+            @Value("${azure.storage.resilience.hedging.min-delay:10ms}") Duration hedgeMinDelay,
+            @Value("${azure.storage.resilience.hedging.budget:0.1}") double hedgeBudget,
+            TokenCredential credential,
+            HttpClient azureHttpClient,
+            MeterRegistry meterRegistry) {
+        this(buildContainerClient(accountName, containerName, credential, azureHttpClient), accountName, containerName,
+                blockSize, maxConcurrency, maxSingleUploadSize,
+                new Bulkhead("blob-storage", maxConcurrentCalls, maxWait),
+                new BlobCompression(compressionEnabled, compressionMinSize, compressedContentTypes),
+                breakerEnabled
+                        ? new CircuitBreaker("blob-storage", breakerWindowSize, breakerMinimumCalls, breakerFailureRate,
+                                breakerOpenDuration, breakerHalfOpenCalls)
+                        : CircuitBreaker.disabled("blob-storage"),
+                new TimeLimiter("blob-storage", TimeLimiter.parseDeadlines(deadlines), hedgingEnabled,
+                        hedgeMinDelay, hedgeBudget),
+                meterRegistry);
+    }
+    
+    public AzureBlobStorageService(BlobContainerClient containerClient, String accountName, String containerName,
+                            DataSize blockSize, int maxConcurrency, DataSize maxSingleUploadSize) {
+        this(containerClient, accountName, containerName, blockSize, maxConcurrency, maxSingleUploadSize,
+                Bulkhead.unbounded("blob-storage"), new SimpleMeterRegistry());
+    }
+    
+    public AzureBlobStorageService(BlobContainerClient containerClient, String accountName, String containerName,
+                            DataSize blockSize, int maxConcurrency, DataSize maxSingleUploadSize,
+                            Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        this(containerClient, accountName, containerName, blockSize, maxConcurrency, maxSingleUploadSize,
+                bulkhead, BlobCompression.disabled(), meterRegistry);
+    }
+    
+    public AzureBlobStorageService(BlobContainerClient containerClient, String accountName, String containerName,
+                            DataSize blockSize, int maxConcurrency, DataSize maxSingleUploadSize,
+                            Bulkhead bulkhead, BlobCompression compression, MeterRegistry meterRegistry) {
+        this(containerClient, accountName, containerName, blockSize, maxConcurrency, maxSingleUploadSize,
+                bulkhead, compression, CircuitBreaker.disabled("blob-storage"), TimeLimiter.disabled("blob-storage"),
+                meterRegistry);
+    }
+    
+    public AzureBlobStorageService(BlobContainerClient containerClient, String accountName, String containerName,
+                            DataSize blockSize, int maxConcurrency, DataSize maxSingleUploadSize,
+                            Bulkhead bulkhead, BlobCompression compression, CircuitBreaker circuitBreaker,
+                            TimeLimiter timeLimiter, MeterRegistry meterRegistry) {
+        this.containerClient = containerClient;
+        // ten sam pipeline (credential, retry, klient HTTP) - bez drugiego zestawu połączeń
+        this.asyncContainerClient = new BlobContainerClientBuilder()
+                .endpoint(containerClient.getBlobContainerUrl())
+                .pipeline(containerClient.getHttpPipeline())
+                .serviceVersion(containerClient.getServiceVersion())
+                .buildAsyncClient();
+        this.batchClient = new BlobBatchClientBuilder(containerClient).buildClient();
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.timeLimiter = timeLimiter;
+        this.compression = compression;
+        this.metrics = new AzureMetrics(meterRegistry, "blob-storage");
         this.accountName = accountName;
         this.containerName = containerName;
-        
+        this.transferOptions = new ParallelTransferOptions()
+                .setBlockSizeLong(blockSize.toBytes())
+                .setMaxConcurrency(maxConcurrency)
+                .setMaxSingleUploadSizeLong(maxSingleUploadSize.toBytes());
+        log.info("Transfer strumieniowy: block-size={}, max-concurrency={}, max-single-upload-size={}",
+                blockSize, maxConcurrency, maxSingleUploadSize);
+        if (compression.isEnabled()) {
+            log.info("Kompresja blobów przy zapisie włączona (gzip)");
+        }
+    }
+    
+    private static BlobContainerClient buildContainerClient(String accountName, String containerName,
+                                                            TokenCredential credential, HttpClient httpClient) {
         String endpoint = String.format("https://%s.blob.core.windows.net", accountName);
         log.info("Inicjalizacja AzureBlobStorageService - endpoint: {}, container: {}", endpoint, containerName);
         
         try {
             BlobServiceClient blobServiceClient = new BlobServiceClientBuilder()
                     .endpoint(endpoint)
-                    .credential(new DefaultAzureCredentialBuilder().build())
+                    .credential(credential)
+                    .httpClient(httpClient)
                     .buildClient();
             
-            this.containerClient = blobServiceClient.getBlobContainerClient(containerName);
+            BlobContainerClient client = blobServiceClient.getBlobContainerClient(containerName);
             log.info("✅ BlobContainerClient zainicjalizowany pomyślnie");
+            return client;
         } catch (Exception e) {
             log.error("❌ Błąd inicjalizacji BlobContainerClient: {}", e.getMessage());
             throw new RuntimeException("Nie można zainicjalizować Blob Storage client", e);
@@ -60,52 +230,280 @@ public class AzureBlobStorageService {
      */
     public void uploadBlob(String blobName, String content) {
         try {
-            log.debug("Uploading blob: {}", blobName);
             BlobClient blobClient = containerClient.getBlobClient(blobName);
             byte[] data = content.getBytes(StandardCharsets.UTF_8);
-            blobClient.upload(new ByteArrayInputStream(data), data.length, true);
-            log.info("✅ Blob '{}' uploaded pomyślnie ({} bytes)", blobName, data.length);
+            byte[] compressed = compressText(data);
+            if (compressed != null) {
+                BlobParallelUploadOptions options = new BlobParallelUploadOptions(BinaryData.fromBytes(compressed))
+                        .setHeaders(compressedTextHeaders());
+                BlockBlobItem item = call("upload", () -> blobClient.uploadWithResponse(options, null, Context.NONE)).getValue();
+                metrics.recordBytes("upload", "upload", compressed.length);
+                notifyUpserted(blobName, compressed.length, TEXT_CONTENT_TYPE, BlobCompression.GZIP, item);
+                opLog.debug("upload", "✅ Blob '{}' uploaded pomyślnie ({} bytes, gzip {} bytes)", blobName, data.length, compressed.length);
+                return;
+            }
+            BlockBlobItem item = call("upload", () -> blobClient.uploadWithResponse(
+                    new BlobParallelUploadOptions(BinaryData.fromBytes(data)), null, Context.NONE)).getValue();
+            metrics.recordBytes("upload", "upload", data.length);
+            notifyUpserted(blobName, data.length, null, null, item);
+            opLog.debug("upload", "✅ Blob '{}' uploaded pomyślnie ({} bytes)", blobName, data.length);
         } catch (Exception e) {
-            log.error("❌ Błąd uploadu blob '{}': {}", blobName, e.getMessage());
-            throw new RuntimeException("Nie można uploadować blob: " + blobName, e);
+            errorLog.error("❌ Błąd uploadu blob '{}': {}", blobName, e.getMessage());
+            throw ApiException.wrap("Nie można uploadować blob: " + blobName, e);
         }
     }
     
     /**
-     * Download blob jako tekst.
+     * Download blob jako tekst (skompresowany blob jest dekodowany).
      * @param blobName nazwa pliku blob
      * @return zawartość tekstowa
      */
     public String downloadBlob(String blobName) {
         try {
-            log.debug("Downloading blob: {}", blobName);
             BlobClient blobClient = containerClient.getBlobClient(blobName);
-            String content = blobClient.downloadContent().toString();
-            log.info("✅ Blob '{}' downloaded pomyślnie ({} bytes)", blobName, content.length());
-            return content;
+            BlobDownloadContentResponse response = hedgedCall("download", () ->
+                    blobClient.downloadContentWithResponse(null, null, null, Context.NONE));
+            byte[] bytes = response.getValue().toBytes();
+            metrics.recordBytes("download", "download", bytes.length);
+            opLog.debug("download", "✅ Blob '{}' downloaded pomyślnie ({} bytes)", blobName, bytes.length);
+            return decodeText(bytes, response.getDeserializedHeaders().getContentEncoding());
+        } catch (Exception e) {
+            errorLog.error("❌ Błąd downloadu blob '{}': {}", blobName, e.getMessage());
+            throw ApiException.wrap("Nie można pobrać blob: " + blobName, e);
+        }
+    }
+    
+    /**
+     * Strumieniowy upload binarny - dane są przepychane z {@code data} do Blob Storage
+     * blokami ({@code azure.storage.transfer.block-size}) wysyłanymi równolegle,
+     * więc zużycie pamięci nie zależy od rozmiaru bloba. Typy kompresowane są kompresowane w locie.
+     * @param blobName nazwa pliku blob
+     * @param data strumień źródłowy (nie jest zamykany)
+     * @param contentType typ zawartości zapisywany w blobie (może być null)
+     * @return liczba przesłanych bajtów (przed kompresją)
+     */
+    public long uploadBlob(String blobName, InputStream data, String contentType) {
+        try {
+            CountingInputStream counting = new CountingInputStream(CallerStreams.guard(data));
+            boolean compress = compression.appliesTo(contentType, -1);
+            CountingInputStream stored = compress ? new CountingInputStream(BlobCompression.gzip(counting)) : counting;
+            BlobParallelUploadOptions options = new BlobParallelUploadOptions(stored)
+                    .setParallelTransferOptions(transferOptions)
+                    .setHeaders(new BlobHttpHeaders().setContentType(contentType)
+                            .setContentEncoding(compress ? BlobCompression.GZIP : null));
+            BlockBlobItem item = call("upload", () -> containerClient.getBlobClient(blobName)
+                    .uploadWithResponse(options, null, Context.NONE)).getValue();
+            metrics.recordBytes("upload", "upload", stored.count);
+            notifyUpserted(blobName, stored.count, contentType, compress ? BlobCompression.GZIP : null, item);
+            opLog.debug("upload", "✅ Blob '{}' uploaded strumieniowo ({} bytes, zapisane {} bytes)", blobName, counting.count, stored.count);
+            return counting.count;
+        } catch (Exception e) {
+            errorLog.error("❌ Błąd strumieniowego uploadu blob '{}': {}", blobName, e.getMessage());
+            throw ApiException.wrap("Nie można uploadować blob: " + blobName, e);
+        }
+    }
+    
+    /**
+     * Właściwości bloba (rozmiar, content-type, ETag) - jedno zapytanie HEAD.
+     * @param blobName nazwa pliku blob
+     */
+    public BlobProperties getBlobProperties(String blobName) {
+        try {
+            return timedCall("getProperties", () -> containerClient.getBlobClient(blobName).getProperties());
+        } catch (Exception e) {
+            errorLog.error("❌ Błąd pobierania właściwości blob '{}': {}", blobName, e.getMessage());
+            throw ApiException.wrap("Nie można pobrać właściwości blob: " + blobName, e);
+        }
+    }
+    
+    /**
+     * Strumieniowy download (całość albo zakres) bezpośrednio do {@code out} - bajty tak, jak leżą
+     * w Blob Storage, także skompresowane (kodek w {@link BlobProperties#getContentEncoding()}).
+     * @param blobName nazwa pliku blob
+     * @param out strumień docelowy (nie jest zamykany)
+     * @param range zakres bajtów albo null dla całego bloba
+     * @param eTag jeśli podany - download tylko gdy blob nie zmienił się od odczytu właściwości
+     */
+    public void downloadBlob(String blobName, OutputStream out, BlobRange range, String eTag) {
+        try {
+            opLog.debug("download", "Strumieniowy download blob: {} (range: {})", blobName, range);
+            BlobRequestConditions conditions = eTag != null ? new BlobRequestConditions().setIfMatch(eTag) : null;
+            BlobDownloadResponse response = call("download", () -> containerClient.getBlobClient(blobName)
+                    .downloadStreamWithResponse(CallerStreams.guard(out), range, null, conditions, false, null,
+                            Context.NONE));
+            long size = response.getDeserializedHeaders().getContentLength() != null
+                    ? response.getDeserializedHeaders().getContentLength() : 0;
+            metrics.recordBytes("download", "download", size);
+            opLog.debug("download", "✅ Blob '{}' downloaded strumieniowo ({} bytes)", blobName, size);
+        } catch (Exception e) {
+            errorLog.error("❌ Błąd strumieniowego downloadu blob '{}': {}", blobName, e.getMessage());
+            throw ApiException.wrap("Nie można pobrać blob: " + blobName, e);
+        }
+    }
+    
+    /**
+     * Strumieniowy download całego skompresowanego bloba z dekompresją w locie - dla klientów bez gzip
+     * w Accept-Encoding. Treść jest czytana fragmentami ({@code BlobInputStream}), nie w całości.
+     * @param eTag jeśli podany - download tylko gdy blob nie zmienił się od odczytu właściwości
+     * @return liczba bajtów po dekompresji
+     */
+    public long downloadBlobDecoded(String blobName, OutputStream out, String eTag) {
+        try {
+            BlobInputStreamOptions options = new BlobInputStreamOptions()
+                    .setRequestConditions(eTag != null ? new BlobRequestConditions().setIfMatch(eTag) : null);
+            long size = call("download", () -> {
+                try (InputStream in = new GZIPInputStream(
+                        containerClient.getBlobClient(blobName).openInputStream(options), 64 * 1024)) {
+                    return in.transferTo(CallerStreams.guard(out));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            opLog.debug("download", "✅ Blob '{}' downloaded z dekompresją ({} bytes)", blobName, size);
+            return size;
+        } catch (Exception e) {
+            errorLog.error("❌ Błąd strumieniowego downloadu blob '{}': {}", blobName, e.getMessage());
+            throw ApiException.wrap("Nie można pobrać blob: " + blobName, e);
+        }
+    }
+    
+    /**
+     * Strumień całego bloba (bajty tak, jak leżą w Blob Storage) czytany fragmentami ({@code BlobInputStream})
+     * - dla blobów za dużych na {@link BlobContentCache}. Zamyka wywołujący.
+     * @param eTag jeśli podany - odczyt tylko tej wersji (If-Match), zmiana w trakcie kończy się błędem
+     */
+    public InputStream openBlob(String blobName, String eTag) {
+        try {
+            BlobInputStreamOptions options = new BlobInputStreamOptions()
+                    .setRequestConditions(eTag != null ? new BlobRequestConditions().setIfMatch(eTag) : null);
+            InputStream in = call("download", () -> containerClient.getBlobClient(blobName).openInputStream(options));
+            opLog.debug("download", "Strumień blob '{}' otwarty bez cache", blobName);
+            return in;
         } catch (Exception e) {
-            log.error("❌ Błąd downloadu blob '{}': {}", blobName, e.getMessage());
-            throw new RuntimeException("Nie można pobrać blob: " + blobName, e);
+            errorLog.error("❌ Błąd strumieniowego downloadu blob '{}': {}", blobName, e.getMessage());
+            throw ApiException.wrap("Nie można pobrać blob: " + blobName, e);
         }
     }
     
     /**
-     * Lista wszystkich blobów w kontenerze.
-     * @return lista nazw blobów
+     * Warunkowy download całego bloba do {@code out} (If-None-Match) - dla cache treści.
+     * Treść nie jest dekodowana - kodek jest w {@link BlobInfo#contentEncoding()}.
+     * @param blobName nazwa pliku blob
+     * @param out strumień docelowy (nie jest zamykany, przy 304 nic do niego nie trafia)
+     * @param eTag ETag posiadanej wersji albo null dla bezwarunkowego pobrania
+     * @return metadane pobranej wersji albo null, gdy blob nie zmienił się od {@code eTag} (304)
      */
-    public List<String> listBlobs() {
+    public BlobInfo downloadBlobIfNoneMatch(String blobName, OutputStream out, String eTag) {
         try {
-            log.debug("Listowanie blobów w kontenerze: {}", containerName);
-            List<String> blobNames = new ArrayList<>();
-            for (BlobItem blobItem : containerClient.listBlobs()) {
-                blobNames.add(blobItem.getName());
+            BlobRequestConditions conditions = eTag != null ? new BlobRequestConditions().setIfNoneMatch(eTag) : null;
+            BlobDownloadResponse response = call("download", () -> {
+                try {
+                    return containerClient.getBlobClient(blobName)
+                            .downloadStreamWithResponse(CallerStreams.guard(out), null, null, conditions, false, null,
+                                    Context.NONE);
+                } catch (BlobStorageException e) {
+                    if (e.getStatusCode() == 304) {
+                        return null; // 304 to oczekiwany wynik, nie błąd wywołania
+                    }
+                    throw e;
+                }
+            });
+            if (response == null) {
+                opLog.debug("download", "Blob '{}' bez zmian (ETag {})", blobName, eTag);
+                return null;
             }
-            log.info("✅ Znaleziono {} blobów w kontenerze", blobNames.size());
-            return blobNames;
+            BlobDownloadHeaders headers = response.getDeserializedHeaders();
+            long size = headers.getContentLength() != null ? headers.getContentLength() : 0;
+            metrics.recordBytes("download", "download", size);
+            opLog.debug("download", "Blob '{}' pobrany do cache ({} bytes, ETag {})", blobName, size, headers.getETag());
+            return new BlobInfo(blobName, size, headers.getETag(), headers.getLastModified(), headers.getContentType(),
+                    headers.getContentEncoding());
+        } catch (Exception e) {
+            errorLog.error("❌ Błąd warunkowego downloadu blob '{}': {}", blobName, e.getMessage());
+            throw ApiException.wrap("Nie można pobrać blob: " + blobName, e);
+        }
+    }
+    
+    /**
+     * Jedna strona listingu blobów (continuation token z Blob Storage).
+     * @param prefix prefiks nazwy (może być null)
+     * @param maxResults maksymalna liczba wyników na stronie
+     * @param continuationToken token z poprzedniej strony albo null dla pierwszej
+     * @return strona blobów + token następnej strony (null jeśli to ostatnia)
+     */
+    public BlobPage listBlobs(String prefix, int maxResults, String continuationToken) {
+        try {
+            opLog.debug("list", "Listowanie blobów w kontenerze: {} (prefix: {}, maxResults: {})", containerName, prefix, maxResults);
+            ListBlobsOptions options = new ListBlobsOptions().setPrefix(prefix).setMaxResultsPerPage(maxResults);
+            PagedResponse<BlobItem> page = timedCall("list", () -> containerClient.listBlobs(options, null)
+                    .iterableByPage(continuationToken, maxResults)
+                    .iterator()
+                    .next());
+            BlobPage blobPage = toBlobPage(page);
+            opLog.debug("list", "Strona listingu: {} blobów, kolejna strona: {}",
+                    blobPage.blobs().size(), blobPage.continuationToken() != null);
+            return blobPage;
+        } catch (Exception e) {
+            errorLog.error("❌ Błąd listowania blobów: {}", e.getMessage());
+            throw ApiException.wrap("Nie można wylistować blobów", e);
+        }
+    }
+    
+    /**
+     * Przechodzi cały kontener (z prefiksem) strona po stronie - w pamięci jest
+     * najwyżej jedna strona, więc nadaje się do streamingu bardzo dużych kontenerów.
+     * @param prefix prefiks nazwy (może być null)
+     * @param pageSize rozmiar strony żądanej od Blob Storage
+     * @param pageConsumer wołany dla każdej strony zaraz po jej odebraniu
+     * @return łączna liczba blobów
+     */
+    public long forEachBlobPage(String prefix, int pageSize, Consumer<List<BlobInfo>> pageConsumer) {
+        try {
+            ListBlobsOptions options = new ListBlobsOptions().setPrefix(prefix).setMaxResultsPerPage(pageSize);
+            long total = call("list", () -> {
+                long count = 0;
+                for (PagedResponse<BlobItem> page : containerClient.listBlobs(options, null).iterableByPage(pageSize)) {
+                    List<BlobInfo> blobs = new ArrayList<>(page.getValue().size());
+                    for (BlobItem blobItem : page.getValue()) {
+                        blobs.add(toBlobInfo(blobItem));
+                    }
+                    count += blobs.size();
+                    pageConsumer.accept(blobs);
+                }
+                return count;
+            });
+            opLog.debug("list", "✅ Wylistowano {} blobów w kontenerze", total);
+            return total;
         } catch (Exception e) {
-            log.error("❌ Błąd listowania blobów: {}", e.getMessage());
-            throw new RuntimeException("Nie można wylistować blobów", e);
+            errorLog.error("❌ Błąd listowania blobów: {}", e.getMessage());
+            throw ApiException.wrap("Nie można wylistować blobów", e);
+        }
+    }
+    
+    private static BlobPage toBlobPage(PagedResponse<BlobItem> page) {
+        List<BlobInfo> blobs = new ArrayList<>(page.getValue().size());
+        for (BlobItem blobItem : page.getValue()) {
+            blobs.add(toBlobInfo(blobItem));
+        }
+        // Blob Storage zwraca pusty <NextMarker/> na ostatniej stronie
+        String nextToken = page.getContinuationToken();
+        if (nextToken != null && nextToken.isEmpty()) {
+            nextToken = null;
+        }
+        return new BlobPage(blobs, nextToken);
+    }
+    
+    private static BlobInfo toBlobInfo(BlobItem blobItem) {
+        BlobItemProperties properties = blobItem.getProperties();
+        if (properties == null) {
+            return new BlobInfo(blobItem.getName(), 0, null, null, null);
         }
+        return new BlobInfo(blobItem.getName(),
+                properties.getContentLength() != null ? properties.getContentLength() : 0,
+                properties.getETag(),
+                properties.getLastModified(),
+                properties.getContentType(),
+                properties.getContentEncoding());
     }
     
     /**
@@ -116,11 +514,13 @@ public class AzureBlobStorageService {
     public boolean blobExists(String blobName) {
         try {
             BlobClient blobClient = containerClient.getBlobClient(blobName);
-            boolean exists = blobClient.exists();
-            log.debug("Blob '{}' exists: {}", blobName, exists);
+            boolean exists = hedgedCall("exists", blobClient::exists);
+            opLog.debug("exists", "Blob '{}' exists: {}", blobName, exists);
             return exists;
+        } catch (ApiException e) {
+            throw e; // przeciążenie, otwarty obwód i limit czasu to nie "blob nie istnieje"
         } catch (Exception e) {
-            log.error("❌ Błąd sprawdzania istnienia blob '{}': {}", blobName, e.getMessage());
+            errorLog.error("❌ Błąd sprawdzania istnienia blob '{}': {}", blobName, e.getMessage());
             return false;
         }
     }
@@ -131,14 +531,264 @@ public class AzureBlobStorageService {
      */
     public void deleteBlob(String blobName) {
         try {
-            log.debug("Usuwanie blob: {}", blobName);
             BlobClient blobClient = containerClient.getBlobClient(blobName);
-            blobClient.delete();
-            log.info("✅ Blob '{}' usunięty pomyślnie", blobName);
+            timedCall("delete", () -> {
+                blobClient.delete();
+                return null;
+            });
+            notifyDeleted(blobName);
+            opLog.debug("delete", "✅ Blob '{}' usunięty pomyślnie", blobName);
         } catch (Exception e) {
-            log.error("❌ Błąd usuwania blob '{}': {}", blobName, e.getMessage());
-            throw new RuntimeException("Nie można usunąć blob: " + blobName, e);
+            errorLog.error("❌ Błąd usuwania blob '{}': {}", blobName, e.getMessage());
+            throw ApiException.wrap("Nie można usunąć blob: " + blobName, e);
+        }
+    }
+    
+    /**
+     * Upload tekstu bez blokowania wątku.
+     * @param blobName nazwa pliku blob
+     * @param content zawartość tekstowa
+     */
+    public Mono<Void> uploadBlobAsync(String blobName, String content) {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compressText(data);
+        if (compressed != null) {
+            BlobParallelUploadOptions options = new BlobParallelUploadOptions(BinaryData.fromBytes(compressed))
+                    .setHeaders(compressedTextHeaders());
+            return callAsync("upload", () -> asyncContainerClient.getBlobAsyncClient(blobName).uploadWithResponse(options))
+                    .doOnSuccess(response -> {
+                        metrics.recordBytes("upload", "upload", compressed.length);
+                        notifyUpserted(blobName, compressed.length, TEXT_CONTENT_TYPE, BlobCompression.GZIP,
+                                response.getValue());
+                    })
+                    .onErrorMap(e -> failure("Nie można uploadować blob: " + blobName, e))
+                    .then();
+        }
+        return callAsync("upload", () -> asyncContainerClient.getBlobAsyncClient(blobName)
+                        .upload(BinaryData.fromBytes(data), true))
+                .doOnSuccess(item -> {
+                    metrics.recordBytes("upload", "upload", data.length);
+                    notifyUpserted(blobName, data.length, null, null, item);
+                })
+                .onErrorMap(e -> failure("Nie można uploadować blob: " + blobName, e))
+                .then();
+    }
+    
+    /**
+     * Download tekstu bez blokowania wątku (skompresowany blob jest dekodowany).
+     * @param blobName nazwa pliku blob
+     * @return zawartość tekstowa
+     */
+    public Mono<String> downloadBlobAsync(String blobName) {
+        return hedgedCallAsync("download", () -> asyncContainerClient.getBlobAsyncClient(blobName)
+                        .downloadContentWithResponse(null, null))
+                .map(response -> {
+                    byte[] bytes = response.getValue().toBytes();
+                    metrics.recordBytes("download", "download", bytes.length);
+                    return decodeText(bytes, response.getDeserializedHeaders().getContentEncoding());
+                })
+                .onErrorMap(e -> failure("Nie można pobrać blob: " + blobName, e));
+    }
+    
+    /**
+     * Strumieniowy upload reaktywny - bufory z {@code data} trafiają do Blob Storage blokami
+     * ({@code azure.storage.transfer.*}), w pamięci jest najwyżej {@code max-concurrency} bloków.
+     * Typy kompresowane są kompresowane w locie.
+     * @param contentType typ zawartości zapisywany w blobie (może być null)
+     * @return liczba przesłanych bajtów (przed kompresją)
+     */
+    public Mono<Long> uploadBlobAsync(String blobName, Flux<ByteBuffer> data, String contentType) {
+        return Mono.defer(() -> {
+            AtomicLong count = new AtomicLong();
+            AtomicLong stored = new AtomicLong();
+            boolean compress = compression.appliesTo(contentType, -1);
+            Flux<ByteBuffer> counted = data.doOnNext(buffer -> count.addAndGet(buffer.remaining()));
+            BlobParallelUploadOptions options = new BlobParallelUploadOptions(
+                    (compress ? BlobCompression.gzip(counted) : counted)
+                            .doOnNext(buffer -> stored.addAndGet(buffer.remaining())))
+                    .setParallelTransferOptions(transferOptions)
+                    .setHeaders(new BlobHttpHeaders().setContentType(contentType)
+                            .setContentEncoding(compress ? BlobCompression.GZIP : null));
+            return callAsync("upload", () -> asyncContainerClient.getBlobAsyncClient(blobName).uploadWithResponse(options))
+                    .map(response -> {
+                        metrics.recordBytes("upload", "upload", stored.get());
+                        notifyUpserted(blobName, stored.get(), contentType, compress ? BlobCompression.GZIP : null,
+                                response.getValue());
+                        opLog.debug("upload", "✅ Blob '{}' uploaded strumieniowo ({} bytes, zapisane {} bytes)",
+                                blobName, count.get(), stored.get());
+                        return count.get();
+                    });
+        }).onErrorMap(e -> failure("Nie można uploadować blob: " + blobName, e));
+    }
+    
+    /**
+     * Właściwości bloba bez blokowania wątku.
+     */
+    public Mono<BlobProperties> getBlobPropertiesAsync(String blobName) {
+        return callAsync("getProperties", () -> asyncContainerClient.getBlobAsyncClient(blobName).getProperties())
+                .onErrorMap(e -> failure("Nie można pobrać właściwości blob: " + blobName, e));
+    }
+    
+    /**
+     * Strumieniowy download reaktywny - bufory z SDK (Netty) przekazywane dalej bez kopiowania
+     * do strumienia pośredniego; pozwolenie bulkheadu jest zajęte do końca strumienia.
+     * Bajty jak w Blob Storage, także skompresowane (jak {@link #downloadBlob(String, OutputStream, BlobRange, String)}).
+     * @param range zakres bajtów albo null dla całego bloba
+     * @param eTag jeśli podany - download tylko gdy blob nie zmienił się od odczytu właściwości
+     */
+    public Flux<ByteBuffer> downloadBlobAsync(String blobName, BlobRange range, String eTag) {
+        BlobRequestConditions conditions = eTag != null ? new BlobRequestConditions().setIfMatch(eTag) : null;
+        return Flux.defer(() -> {
+            AtomicLong count = new AtomicLong();
+            return streamAsync("download", () -> asyncContainerClient.getBlobAsyncClient(blobName)
+                            .downloadStreamWithResponse(range, null, conditions, false)
+                            .flatMapMany(BlobDownloadAsyncResponse::getValue))
+                    .doOnNext(buffer -> count.addAndGet(buffer.remaining()))
+                    .doOnComplete(() -> metrics.recordBytes("download", "download", count.get()));
+        }).onErrorMap(e -> failure("Nie można pobrać blob: " + blobName, e));
+    }
+    
+    /**
+     * Jedna strona listingu bez blokowania wątku (jak {@link #listBlobs(String, int, String)}).
+     */
+    public Mono<BlobPage> listBlobsAsync(String prefix, int maxResults, String continuationToken) {
+        ListBlobsOptions options = new ListBlobsOptions().setPrefix(prefix).setMaxResultsPerPage(maxResults);
+        // byPage(null, n) w azure-core daje pusty strumień - pierwsza strona tylko bez tokenu
+        PagedFlux<BlobItem> blobs = asyncContainerClient.listBlobs(options);
+        return callAsync("list", () -> (continuationToken == null
+                        ? blobs.byPage(maxResults)
+                        : blobs.byPage(continuationToken, maxResults))
+                        .next())
+                .map(AzureBlobStorageService::toBlobPage)
+                .onErrorMap(e -> failure("Nie można wylistować blobów", e));
+    }
+    
+    /**
+     * Cały kontener (z prefiksem) jako strumień - kolejna strona jest pobierana dopiero,
+     * gdy odbiorca przetworzył poprzednią (backpressure zamiast bufora).
+     */
+    public Flux<BlobInfo> streamBlobsAsync(String prefix, int pageSize) {
+        ListBlobsOptions options = new ListBlobsOptions().setPrefix(prefix).setMaxResultsPerPage(pageSize);
+        return streamAsync("list", () -> asyncContainerClient.listBlobs(options).byPage(pageSize)
+                        .concatMapIterable(PagedResponse::getValue))
+                .map(AzureBlobStorageService::toBlobInfo)
+                .onErrorMap(e -> failure("Nie można wylistować blobów", e));
+    }
+    
+    /**
+     * Usuwa blob bez blokowania wątku.
+     */
+    public Mono<Void> deleteBlobAsync(String blobName) {
+        return callAsync("delete", () -> asyncContainerClient.getBlobAsyncClient(blobName).delete())
+                .doOnSuccess(ignored -> notifyDeleted(blobName))
+                .onErrorMap(e -> failure("Nie można usunąć blob: " + blobName, e));
+    }
+    
+    /**
+     * Usuwa wiele blobów przez Blob Batch API - jedno żądanie na każde {@value #MAX_BATCH_SIZE} nazw.
+     * Błąd pojedynczego bloba (np. 404) nie przerywa partii; błąd całego żądania oznacza
+     * jako nieudane tylko pozycje z tej partii.
+     * @param blobNames nazwy blobów
+     * @return wynik dla każdej nazwy, w kolejności wejścia (status 202 = usunięty)
+     */
+    public List<BlobBatchItem> deleteBlobs(List<String> blobNames) {
+        List<BlobBatchItem> results = new ArrayList<>(blobNames.size());
+        for (int from = 0; from < blobNames.size(); from += MAX_BATCH_SIZE) {
+            List<String> chunk = blobNames.subList(from, Math.min(from + MAX_BATCH_SIZE, blobNames.size()));
+            BlobBatch batch = batchClient.getBlobBatch();
+            List<Response<Void>> responses = new ArrayList<>(chunk.size());
+            for (String blobName : chunk) {
+                responses.add(batch.deleteBlob(containerName, blobName));
+            }
+            try {
+                opLog.debug("batchDelete", "Usuwanie {} blobów jednym żądaniem batch", chunk.size());
+                run("batchDelete", () -> batchClient.submitBatchWithResponse(batch, false, null, Context.NONE));
+            } catch (Exception e) {
+                errorLog.error("❌ Błąd usuwania partii {} blobów: {}", chunk.size(), e.getMessage());
+                int status = statusOf(e);
+                chunk.forEach(blobName -> results.add(BlobBatchItem.failed(blobName, status, e.getMessage())));
+                continue;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                BlobBatchItem result = toDeleteResult(chunk.get(i), responses.get(i));
+                if (result.status() < 400) {
+                    notifyDeleted(result.name());
+                }
+                results.add(result);
+            }
+        }
+        return results;
+    }
+    
+    private static BlobBatchItem toDeleteResult(String blobName, Response<Void> response) {
+        int status;
+        try {
+            status = response.getStatusCode();
+        } catch (BlobStorageException e) {
+            status = e.getStatusCode();
+        }
+        return status < 400
+                ? BlobBatchItem.ok(blobName, status, null, null)
+                : BlobBatchItem.failed(blobName, clientStatus(status),
+                        "Nie można usunąć blob: " + blobName + " (HTTP " + status + ")");
+    }
+    
+    /**
+     * Rejestruje odbiorcę powiadomień o zapisach i usunięciach wykonanych przez ten serwis.
+     */
+    public void addChangeListener(BlobChangeListener listener) {
+        changeListeners.add(listener);
+    }
+    
+    private void notifyUpserted(String blobName, long size, String contentType, String contentEncoding, BlockBlobItem item) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        BlobInfo blob = new BlobInfo(blobName, size, item != null ? item.getETag() : null,
+                item != null ? item.getLastModified() : null,
+                contentType != null ? contentType : DEFAULT_CONTENT_TYPE, contentEncoding);
+        for (BlobChangeListener listener : changeListeners) {
+            try {
+                listener.blobUpserted(blob);
+            } catch (RuntimeException e) {
+                log.warn("Odbiorca zmian blobów zgłosił błąd dla '{}': {}", blobName, e.getMessage());
+            }
+        }
+    }
+    
+    private void notifyDeleted(String blobName) {
+        for (BlobChangeListener listener : changeListeners) {
+            try {
+                listener.blobDeleted(blobName);
+            } catch (RuntimeException e) {
+                log.warn("Odbiorca zmian blobów zgłosił błąd dla '{}': {}", blobName, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Kod HTTP dla błędu operacji: status z Blob Storage (4xx jak w {@link ErrorType#of}), 503 dla przeciążenia
+     * i otwartego obwodu, 504 dla limitu czasu, w pozostałych przypadkach 500.
+     */
+    static int statusOf(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BlobStorageException storage) {
+                return clientStatus(storage.getStatusCode());
+            }
+            if (cause instanceof ApiException api) {
+                return api.getType().status();
+            }
         }
+        return 500;
+    }
+
+    /**
+     * Status Blob Storage widziany przez klienta - 401/403 i inne 4xx poza 404/409/412 to 502.
+     */
+    private static int clientStatus(int storageStatus) {
+        return storageStatus >= 400 && storageStatus < 500
+                ? ErrorType.forDependencyClientError(storageStatus).status()
+                : storageStatus;
     }
     
     /**
@@ -148,8 +798,8 @@ public class AzureBlobStorageService {
     public boolean isHealthy() {
         try {
             // Próba pobrania properties kontenera
-            containerClient.getProperties();
-            log.info("✅ Blob Storage health check OK");
+            call("health", containerClient::getProperties);
+            opLog.debug("health", "✅ Blob Storage health check OK");
             return true;
         } catch (Exception e) {
             log.error("❌ Blob Storage health check FAILED: {}", e.getMessage());
@@ -157,6 +807,27 @@ public class AzureBlobStorageService {
         }
     }
     
+    /**
+     * Stan limitu równoległych wywołań Blob Storage.
+     */
+    public Bulkhead.Stats getBulkheadStats() {
+        return bulkhead.stats();
+    }
+    
+    /**
+     * Stan circuit breakera Blob Storage.
+     */
+    public CircuitBreaker.Stats getCircuitBreakerStats() {
+        return circuitBreaker.stats();
+    }
+    
+    /**
+     * Limity czasu i hedging operacji Blob Storage.
+     */
+    public List<TimeLimiter.Stats> getTimeLimiterStats() {
+        return timeLimiter.stats();
+    }
+    
     public String getAccountName() {
         return accountName;
     }
@@ -164,5 +835,103 @@ public class AzureBlobStorageService {
     public String getContainerName() {
         return containerName;
     }
+    
+    /**
+     * Skompresowany tekst albo null, gdy kompresja jest wyłączona, tekst jest za krótki lub się nie kurczy.
+     */
+    private byte[] compressText(byte[] data) {
+        if (!compression.appliesTo(TEXT_CONTENT_TYPE, data.length)) {
+            return null;
+        }
+        byte[] compressed = BlobCompression.gzip(data);
+        return compressed.length < data.length ? compressed : null;
+    }
+    
+    private static BlobHttpHeaders compressedTextHeaders() {
+        return new BlobHttpHeaders().setContentType(TEXT_CONTENT_TYPE).setContentEncoding(BlobCompression.GZIP);
+    }
+    
+    private static String decodeText(byte[] bytes, String contentEncoding) {
+        byte[] text = BlobCompression.isGzip(contentEncoding) ? BlobCompression.gunzip(bytes, Integer.MAX_VALUE - 8) : bytes;
+        return new String(text, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Wywołanie bez limitu czasu - transfery strumieniowe i zapisy piszą do strumieni wątku wołającego.
+     */
+    private <T> T call(String operation, Supplier<T> call) {
+        return metrics.call(operation, () -> bulkhead.call(() -> circuitBreaker.call(call)));
+    }
+    
+    private void run(String operation, Runnable call) {
+        metrics.run(operation, () -> bulkhead.run(() -> circuitBreaker.run(call)));
+    }
+    
+    /**
+     * Wywołanie z limitem czasu operacji ({@code azure.storage.resilience.deadlines}).
+     */
+    private <T> T timedCall(String operation, Supplier<T> call) {
+        return call(operation, () -> timeLimiter.call(operation, call, false));
+    }
+    
+    /**
+     * Idempotentny odczyt - z limitem czasu i drugą próbą po p95.
+     */
+    private <T> T hedgedCall(String operation, Supplier<T> call) {
+        return call(operation, () -> timeLimiter.call(operation, call, true));
+    }
+    
+    private <T> Mono<T> callAsync(String operation, Supplier<Mono<T>> call) {
+        return metrics.callAsync(operation, () -> bulkhead.callAsync(() -> circuitBreaker.callAsync(
+                () -> timeLimiter.callAsync(operation, call, false))));
+    }
+    
+    private <T> Mono<T> hedgedCallAsync(String operation, Supplier<Mono<T>> call) {
+        return metrics.callAsync(operation, () -> bulkhead.callAsync(() -> circuitBreaker.callAsync(
+                () -> timeLimiter.callAsync(operation, call, true))));
+    }
+    
+    private <T> Flux<T> streamAsync(String operation, Supplier<Flux<T>> call) {
+        return metrics.streamAsync(operation, () -> bulkhead.streamAsync(() -> circuitBreaker.streamAsync(call)));
+    }
+    
+    /**
+     * Błąd ścieżki reaktywnej opakowany jak w metodach blokujących (przyczyna zostaje w łańcuchu).
+     */
+    private static RuntimeException failure(String message, Throwable e) {
+        errorLog.error("❌ {}: {}", message, e.getMessage());
+        return ApiException.wrap(message, e);
+    }
+    
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+        
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+        
+        @Override
+        public void close() {
+            // strumień należy do wywołującego (np. wejście żądania HTTP)
+        }
+    }
 }
 
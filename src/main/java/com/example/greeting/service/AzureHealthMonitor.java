@@ -0,0 +1,232 @@
+package com.example.greeting.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Health check zależności Azure (Key Vault, Blob Storage) liczony w tle.
+ * <ul>
+ *     <li>probe'y wykonują się równolegle, każdy z własnym timeoutem,</li>
+ *     <li>wynik jest cache'owany i odświeżany co {@code azure.health.refresh-interval} -
+ *     zapytania o health (np. probe'y Kubernetesa) nie generują ruchu do Azure,</li>
+ *     <li>probe, który wciąż trwa, nie jest uruchamiany drugi raz,</li>
+ *     <li>czasy probe'ów trafiają do {@link LatencyHistogram}.</li>
+ * </ul>
+ */
+@Service
+public class AzureHealthMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(AzureHealthMonitor.class);
+
+    /**
+     * Wynik pojedynczego probe'a.
+     * @param error powód niepowodzenia (null gdy healthy)
+     */
+    public record ProbeResult(boolean healthy, String error, long durationMs, Instant checkedAt) {}
+
+    /**
+     * Wyniki wszystkich probe'ów z jednej rundy.
+     */
+    public record HealthSnapshot(Instant checkedAt, Map<String, ProbeResult> probes) {
+
+        public boolean healthy() {
+            return probes.values().stream().allMatch(ProbeResult::healthy);
+        }
+
+        public ProbeResult probe(String name) {
+            return probes.get(name);
+        }
+    }
+
+    private final Map<String, Probe> probes = new LinkedHashMap<>();
+    private final Duration refreshInterval;
+    private final Duration probeTimeout;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    private final ExecutorService probeExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("azure-health-probe-", 0).factory());
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("azure-health-refresh").daemon(true).factory());
+
+    private volatile HealthSnapshot snapshot;
+
+    @Autowired
+    public AzureHealthMonitor(
+            AzureKeyVaultService keyVaultService,
+            AzureBlobStorageService blobStorageService,
+            @Value("${azure.health.refresh-interval:15s}") Duration refreshInterval,
+            @Value("${azure.health.probe-timeout:2s}") Duration probeTimeout) {
+        this(orderedProbes(keyVaultService, blobStorageService), refreshInterval, probeTimeout, Clock.systemUTC());
+    }
+
+    /**
+     * @param checks probe'y w kolejności prezentacji; probe zwraca false albo rzuca wyjątek gdy zależność nie działa
+     */
+    public AzureHealthMonitor(Map<String, BooleanSupplier> checks, Duration refreshInterval,
+                              Duration probeTimeout, Clock clock) {
+        if (refreshInterval.isNegative() || refreshInterval.isZero()) {
+            throw new IllegalArgumentException("refresh-interval musi być dodatni");
+        }
+        checks.forEach((name, check) -> probes.put(name, new Probe(name, check)));
+        this.refreshInterval = refreshInterval;
+        this.probeTimeout = probeTimeout;
+        // wynik starszy niż dwie rundy oznacza, że odświeżanie w tle stoi - liczymy wtedy na żądanie
+        this.maxAge = refreshInterval.multipliedBy(2).plus(probeTimeout);
+        this.clock = clock;
+    }
+
+    private static Map<String, BooleanSupplier> orderedProbes(AzureKeyVaultService keyVaultService,
+                                                              AzureBlobStorageService blobStorageService) {
+        Map<String, BooleanSupplier> checks = new LinkedHashMap<>();
+        checks.put("keyVault", keyVaultService::isHealthy);
+        checks.put("blobStorage", blobStorageService::isHealthy);
+        return checks;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Health check Azure w tle: refresh-interval={}, probe-timeout={}, probe'y={}",
+                refreshInterval, probeTimeout, probes.keySet());
+    }
+
+    /**
+     * Ostatni wynik z cache; pierwszy albo przeterminowany jest liczony od razu.
+     */
+    public HealthSnapshot current() {
+        HealthSnapshot current = snapshot;
+        if (current == null || current.checkedAt().plus(maxAge).isBefore(clock.instant())) {
+            return refresh();
+        }
+        return current;
+    }
+
+    /**
+     * Uruchamia wszystkie probe'y równolegle i czeka najwyżej {@code probe-timeout}.
+     */
+    public HealthSnapshot refresh() {
+        Map<String, CompletableFuture<ProbeResult>> running = new LinkedHashMap<>();
+        for (Probe probe : probes.values()) {
+            running.put(probe.name, probe.start());
+        }
+        Map<String, ProbeResult> results = new LinkedHashMap<>();
+        running.forEach((name, result) -> results.put(name, result.join()));
+        HealthSnapshot fresh = new HealthSnapshot(clock.instant(), Collections.unmodifiableMap(results));
+        HealthSnapshot previous = snapshot;
+        snapshot = fresh;
+        if (previous != null && previous.healthy() != fresh.healthy()) {
+            if (fresh.healthy()) {
+                log.info("✅ Zależności Azure znowu zdrowe");
+            } else {
+                log.warn("❌ Zależności Azure niezdrowe: {}", fresh.probes());
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Histogramy czasów probe'ów (od startu aplikacji).
+     */
+    public Map<String, LatencyHistogram.Snapshot> latencies() {
+        Map<String, LatencyHistogram.Snapshot> latencies = new LinkedHashMap<>();
+        probes.forEach((name, probe) -> latencies.put(name, probe.latency.snapshot()));
+        return latencies;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        probeExecutor.shutdownNow();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // wyjątek zatrzymałby harmonogram - kolejna runda spróbuje ponownie
+            log.error("❌ Odświeżenie health checku nie powiodło się: {}", e.getMessage());
+        }
+    }
+
+    private final class Probe {
+        private final String name;
+        private final BooleanSupplier check;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicReference<CompletableFuture<ProbeResult>> inFlight = new AtomicReference<>();
+
+        Probe(String name, BooleanSupplier check) {
+            this.name = name;
+            this.check = check;
+        }
+
+        /**
+         * Wynik trwającego albo nowego wywołania, ograniczony timeoutem.
+         * Timeout kończy tylko kopię - samo wywołanie dobiega końca w tle i zajmuje miejsce kolejnego.
+         */
+        CompletableFuture<ProbeResult> start() {
+            CompletableFuture<ProbeResult> current = inFlight.get();
+            if (current == null) {
+                CompletableFuture<ProbeResult> fresh = new CompletableFuture<>();
+                if (inFlight.compareAndSet(null, fresh)) {
+                    try {
+                        probeExecutor.execute(() -> {
+                            ProbeResult result = run();
+                            inFlight.set(null);
+                            fresh.complete(result);
+                        });
+                    } catch (RuntimeException e) {
+                        inFlight.set(null);
+                        fresh.complete(new ProbeResult(false, e.getMessage(), 0, clock.instant()));
+                    }
+                    current = fresh;
+                } else {
+                    current = inFlight.get();
+                    if (current == null) {
+                        return start(); // poprzednie wywołanie właśnie się skończyło
+                    }
+                }
+            }
+            ProbeResult timedOut = new ProbeResult(false, "timeout po " + probeTimeout.toMillis() + " ms",
+                    probeTimeout.toMillis(), clock.instant());
+            return current.copy().completeOnTimeout(timedOut, probeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        private ProbeResult run() {
+            long started = System.nanoTime();
+            boolean healthy;
+            String error = null;
+            try {
+                healthy = check.getAsBoolean();
+                if (!healthy) {
+                    error = "probe zgłosił niedostępność";
+                }
+            } catch (Exception e) {
+                healthy = false;
+                error = e.getMessage();
+            }
+            Duration took = Duration.ofNanos(System.nanoTime() - started);
+            latency.record(took);
+            return new ProbeResult(healthy, error, took.toMillis(), clock.instant());
+        }
+    }
+}
@@ -1,36 +1,173 @@
 package com.example.greeting.service;
 
-import com.azure.identity.DefaultAzureCredentialBuilder;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.http.HttpClient;
+import com.azure.security.keyvault.secrets.SecretAsyncClient;
 import com.azure.security.keyvault.secrets.SecretClient;
 import com.azure.security.keyvault.secrets.SecretClientBuilder;
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.ErrorLog;
+import com.example.greeting.logging.SampledLog;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 /**
  * Serwis do obsługi Azure Key Vault.
- * Używa Workload Identity (DefaultAzureCredential) do autoryzacji.
+ * Używa wspólnego credentiala (Workload Identity, {@code AzureCredentialConfiguration}) do autoryzacji
+ * i wspólnego transportu HTTP ({@code AzureHttpTransport}).
+ * Odczyty sekretów przechodzą przez {@link SecretCache} (TTL + refresh-ahead + single-flight),
+ * więc większość wywołań nie wykonuje round tripu do Key Vault.
+ * Round tripy są ograniczone przez {@link Bulkhead} ({@code azure.keyvault.bulkhead.*})
+ * i mierzone przez {@link AzureMetrics}; awaria Key Vault otwiera {@link CircuitBreaker}, a pobranie sekretu ma
+ * limit czasu i hedging ({@link TimeLimiter}, {@code azure.keyvault.resilience.*}).
+ * Stos reaktywny czyta przez {@link #getSecretAsync(String)} - ten sam cache, miss przez {@link SecretAsyncClient}.
  */
 @Service
 public class AzureKeyVaultService {
     
     private static final Logger log = LoggerFactory.getLogger(AzureKeyVaultService.class);
+    private static final ErrorLog errorLog = ErrorLog.of(log);
+    private static final SampledLog opLog = SampledLog.of(log);
     
     private final SecretClient secretClient;
+    private final SecretAsyncClient secretAsyncClient;
     private final String keyVaultUrl;
     
+    private final SecretCache secretCache;
+    private final ExecutorService refreshExecutor;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final TimeLimiter timeLimiter;
+    private final AzureMetrics metrics;
+    private final Map<String, CompletableFuture<String>> asyncInFlight = new ConcurrentHashMap<>();
+    
+    @Autowired
     public AzureKeyVaultService(
-            @Value("${azure.keyvault.url:https://hycomcminternal-kv.vault.azure.net}") String keyVaultUrl) {
+            @Value("${azure.keyvault.url:https://hycomcminternal-kv.vault.azure.net}") String keyVaultUrl,
+            @Value("${azure.keyvault.cache.ttl:5m}") Duration cacheTtl,
+            @Value("${azure.keyvault.cache.refresh-ahead:0.8}") double refreshAhead,
+            @Value("${azure.keyvault.cache.max-stale:30m}") Duration maxStale,
+            @Value("${azure.keyvault.cache.max-entries:256}") int maxEntries,
+            @Value("${azure.keyvault.cache.serve-stale-on-error:true}") boolean serveStaleOnError,
+            @Value("${azure.keyvault.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls,
+            @Value("${azure.keyvault.bulkhead.max-wait:50ms}") Duration maxWait,
+            @Value("${azure.keyvault.resilience.circuit-breaker.enabled:true}") boolean breakerEnabled,
+            @Value("${azure.keyvault.resilience.circuit-breaker.window-size:20}") int breakerWindowSize,
+            @Value("${azure.keyvault.resilience.circuit-breaker.minimum-calls:10}") int breakerMinimumCalls,
+            @Value("${azure.keyvault.resilience.circuit-breaker.failure-rate-threshold:50}") int breakerFailureRate,
+            @Value("${azure.keyvault.resilience.circuit-breaker.open-duration:10s}") Duration breakerOpenDuration,
+            @Value("${azure.keyvault.resilience.circuit-breaker.half-open-calls:2}") int breakerHalfOpenCalls,
+            @Value("${azure.keyvault.resilience.deadlines:getSecret=3s}") List<String> deadlines,
+            @Value("${azure.keyvault.resilience.hedging.enabled:true}") boolean hedgingEnabled,
+            @Value("${azure.keyvault.resilience.hedging.min-delay:20ms}") Duration hedgeMinDelay,
+            @Value("${azure.keyvault.resilience.hedging.budget:0.1}") double hedgeBudget,
+            TokenCredential credential,
+            HttpClient azureHttpClient,
+            MeterRegistry meterRegistry) {
+        this(secretClientBuilder(keyVaultUrl, credential, azureHttpClient), keyVaultUrl, Clock.systemUTC(),
+                cacheTtl, refreshAhead, maxStale, maxEntries, serveStaleOnError,
+                new Bulkhead("keyvault", maxConcurrentCalls, maxWait),
+                breakerEnabled
+                        ? new CircuitBreaker("keyvault", breakerWindowSize, breakerMinimumCalls, breakerFailureRate,
+                                breakerOpenDuration, breakerHalfOpenCalls)
+                        : CircuitBreaker.disabled("keyvault"),
+                new TimeLimiter("keyvault", TimeLimiter.parseDeadlines(deadlines), hedgingEnabled,
+                        hedgeMinDelay, hedgeBudget),
+                meterRegistry);
+    }
+    
+    private AzureKeyVaultService(SecretClientBuilder builder, String keyVaultUrl, Clock clock,
+                                 Duration cacheTtl, double refreshAhead, Duration maxStale,
+                                 int maxEntries, boolean serveStaleOnError, Bulkhead bulkhead,
+                                 CircuitBreaker circuitBreaker, TimeLimiter timeLimiter,
+                                 MeterRegistry meterRegistry) {
+        this(buildClient(builder::buildClient), buildClient(builder::buildAsyncClient), keyVaultUrl, clock,
+                cacheTtl, refreshAhead, maxStale, maxEntries, serveStaleOnError, bulkhead,
+                circuitBreaker, timeLimiter, meterRegistry);
+    }
+    
+    public AzureKeyVaultService(SecretClient secretClient, String keyVaultUrl, Clock clock,
+                         Duration cacheTtl, double refreshAhead, Duration maxStale,
+                         int maxEntries, boolean serveStaleOnError) {
+        this(secretClient, keyVaultUrl, clock, cacheTtl, refreshAhead, maxStale, maxEntries, serveStaleOnError,
+                Bulkhead.unbounded("keyvault"), new SimpleMeterRegistry());
+    }
+    
+    public AzureKeyVaultService(SecretClient secretClient, String keyVaultUrl, Clock clock,
+                         Duration cacheTtl, double refreshAhead, Duration maxStale,
+                         int maxEntries, boolean serveStaleOnError, Bulkhead bulkhead,
+                         MeterRegistry meterRegistry) {
+        this(secretClient, null, keyVaultUrl, clock, cacheTtl, refreshAhead, maxStale, maxEntries,
+                serveStaleOnError, bulkhead, meterRegistry);
+    }
+    
+    /**
+     * @param secretAsyncClient klient dla {@link #getSecretAsync(String)}; null - miss idzie przez
+     *                          {@code secretClient} na puli boundedElastic
+     */
+    public AzureKeyVaultService(SecretClient secretClient, SecretAsyncClient secretAsyncClient, String keyVaultUrl,
+                         Clock clock, Duration cacheTtl, double refreshAhead, Duration maxStale,
+                         int maxEntries, boolean serveStaleOnError, Bulkhead bulkhead,
+                         MeterRegistry meterRegistry) {
+        this(secretClient, secretAsyncClient, keyVaultUrl, clock, cacheTtl, refreshAhead, maxStale, maxEntries,
+                serveStaleOnError, bulkhead, CircuitBreaker.disabled("keyvault"), TimeLimiter.disabled("keyvault"),
+                meterRegistry);
+    }
+    
+    public AzureKeyVaultService(SecretClient secretClient, SecretAsyncClient secretAsyncClient, String keyVaultUrl,
+                         Clock clock, Duration cacheTtl, double refreshAhead, Duration maxStale,
+                         int maxEntries, boolean serveStaleOnError, Bulkhead bulkhead,
+                         CircuitBreaker circuitBreaker, TimeLimiter timeLimiter, MeterRegistry meterRegistry) {
+        this.secretClient = secretClient;
+        this.secretAsyncClient = secretAsyncClient;
         this.keyVaultUrl = keyVaultUrl;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.timeLimiter = timeLimiter;
+        this.metrics = new AzureMetrics(meterRegistry, "keyvault");
+        this.refreshExecutor = Executors.newFixedThreadPool(2, Thread.ofPlatform()
+                .name("kv-secret-refresh-", 0)
+                .daemon(true)
+                .factory());
+        this.secretCache = new SecretCache(this::fetchSecret, refreshExecutor, clock,
+                cacheTtl, refreshAhead, maxStale, maxEntries, serveStaleOnError);
+        log.info("Cache sekretów: ttl={}, refresh-ahead={}, max-entries={}, serve-stale-on-error={}",
+                cacheTtl, refreshAhead, maxEntries, serveStaleOnError);
+    }
+    
+    private static SecretClientBuilder secretClientBuilder(String keyVaultUrl, TokenCredential credential,
+                                                           HttpClient httpClient) {
         log.info("Inicjalizacja AzureKeyVaultService z URL: {}", keyVaultUrl);
-        
+        return new SecretClientBuilder()
+                .vaultUrl(keyVaultUrl)
+                .credential(credential)
+                .httpClient(httpClient);
+    }
+    
+    private static <T> T buildClient(Supplier<T> build) {
         try {
-            this.secretClient = new SecretClientBuilder()
-                    .vaultUrl(keyVaultUrl)
-                    .credential(new DefaultAzureCredentialBuilder().build())
-                    .buildClient();
-            log.info("✅ SecretClient zainicjalizowany pomyślnie");
+            T client = build.get();
+            log.info("✅ {} zainicjalizowany pomyślnie", client.getClass().getSimpleName());
+            return client;
         } catch (Exception e) {
             log.error("❌ Błąd inicjalizacji SecretClient: {}", e.getMessage());
             throw new RuntimeException("Nie można zainicjalizować Key Vault client", e);
@@ -38,22 +175,89 @@ public class AzureKeyVaultService {
     }
     
     /**
-     * Pobiera sekret z Key Vault.
+     * Pobiera sekret (z cache albo z Key Vault).
      * @param secretName nazwa sekretu
      * @return wartość sekretu
      */
     public String getSecret(String secretName) {
         try {
-            log.debug("Pobieranie sekretu: {}", secretName);
-            String secretValue = secretClient.getSecret(secretName).getValue();
-            log.info("✅ Sekret '{}' pobrany pomyślnie", secretName);
-            return secretValue;
+            return secretCache.get(secretName);
         } catch (Exception e) {
-            log.error("❌ Błąd pobierania sekretu '{}': {}", secretName, e.getMessage());
-            throw new RuntimeException("Nie można pobrać sekretu: " + secretName, e);
+            errorLog.error("❌ Błąd pobierania sekretu '{}': {}", secretName, e.getMessage());
+            throw ApiException.wrap("Nie można pobrać sekretu: " + secretName, e);
         }
     }
     
+    /**
+     * Wersja bez blokowania dla stosu reaktywnego: trafienie w cache od razu, miss przez
+     * {@link SecretAsyncClient} (równoległe missy tej samej nazwy łączone w jedno pobranie).
+     * Pobranie kończy się i trafia do cache także wtedy, gdy subskrybent anulował żądanie.
+     * @param secretName nazwa sekretu
+     * @return wartość sekretu
+     */
+    public Mono<String> getSecretAsync(String secretName) {
+        return Mono.defer(() -> {
+            String cached = secretCache.getIfPresent(secretName);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            CompletableFuture<String> own = new CompletableFuture<>();
+            CompletableFuture<String> existing = asyncInFlight.putIfAbsent(secretName, own);
+            if (existing == null) {
+                fetchSecretAsync(secretName).subscribe(
+                        value -> {
+                            asyncInFlight.remove(secretName, own);
+                            own.complete(value);
+                        },
+                        e -> {
+                            asyncInFlight.remove(secretName, own);
+                            own.completeExceptionally(e);
+                        });
+            }
+            return Mono.fromFuture(existing != null ? existing : own, true);
+        }).onErrorResume(e -> {
+            String stale = secretCache.getStale(secretName);
+            if (stale != null) {
+                return Mono.just(stale);
+            }
+            errorLog.error("❌ Błąd pobierania sekretu '{}': {}", secretName, e.getMessage());
+            return Mono.error(ApiException.wrap("Nie można pobrać sekretu: " + secretName, e));
+        });
+    }
+    
+    private Mono<String> fetchSecretAsync(String secretName) {
+        Mono<KeyVaultSecret> secret = secretAsyncClient != null
+                ? metrics.callAsync("getSecret", () -> bulkhead.callAsync(() -> circuitBreaker.callAsync(
+                        () -> timeLimiter.callAsync("getSecret", () -> secretAsyncClient.getSecret(secretName), true))))
+                : Mono.fromCallable(() -> hedgedCall("getSecret", () -> secretClient.getSecret(secretName)))
+                        .subscribeOn(Schedulers.boundedElastic());
+        return secret.map(value -> secretCache.put(secretName, value));
+    }
+    
+    /**
+     * Wymusza ponowne pobranie sekretu przy następnym odczycie.
+     * @param secretName nazwa sekretu
+     */
+    public void invalidateSecret(String secretName) {
+        secretCache.invalidate(secretName);
+    }
+    
+    /**
+     * Liczniki cache sekretów (hit/miss/refresh).
+     */
+    public SecretCache.Stats getCacheStats() {
+        return secretCache.stats();
+    }
+    
+    /**
+     * Faktyczny round trip do Key Vault - wołany wyłącznie przez {@link SecretCache}.
+     */
+    private KeyVaultSecret fetchSecret(String secretName) {
+        KeyVaultSecret secret = hedgedCall("getSecret", () -> secretClient.getSecret(secretName));
+        opLog.debug("getSecret", "✅ Sekret '{}' pobrany pomyślnie", secretName);
+        return secret;
+    }
+    
     /**
      * Sprawdza czy połączenie z Key Vault działa.
      * @return true jeśli połączenie działa
@@ -61,8 +265,8 @@ public class AzureKeyVaultService {
     public boolean isHealthy() {
         try {
             // Próba listowania sekretów (nie pobieramy wartości)
-            secretClient.listPropertiesOfSecrets().stream().findFirst();
-            log.info("✅ Key Vault health check OK");
+            call("health", () -> secretClient.listPropertiesOfSecrets().stream().findFirst());
+            opLog.debug("health", "✅ Key Vault health check OK");
             return true;
         } catch (Exception e) {
             log.error("❌ Key Vault health check FAILED: {}", e.getMessage());
@@ -70,8 +274,45 @@ public class AzureKeyVaultService {
         }
     }
     
+    /**
+     * Stan limitu równoległych wywołań Key Vault.
+     */
+    public Bulkhead.Stats getBulkheadStats() {
+        return bulkhead.stats();
+    }
+    
+    /**
+     * Stan circuit breakera Key Vault.
+     */
+    public CircuitBreaker.Stats getCircuitBreakerStats() {
+        return circuitBreaker.stats();
+    }
+    
+    /**
+     * Limity czasu i hedging operacji Key Vault.
+     */
+    public List<TimeLimiter.Stats> getTimeLimiterStats() {
+        return timeLimiter.stats();
+    }
+    
     public String getKeyVaultUrl() {
         return keyVaultUrl;
     }
+    
+    private <T> T call(String operation, Supplier<T> call) {
+        return metrics.call(operation, () -> bulkhead.call(() -> circuitBreaker.call(call)));
+    }
+    
+    /**
+     * Idempotentny odczyt - z limitem czasu i drugą próbą po p95.
+     */
+    private <T> T hedgedCall(String operation, Supplier<T> call) {
+        return call(operation, () -> timeLimiter.call(operation, call, true));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
 }
 
@@ -0,0 +1,112 @@
+package com.example.greeting.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Metryki wywołań Azure SDK jednej zależności.
+ * <ul>
+ *     <li>{@code azure.client.requests} (timer z histogramem) - tagi {@code dependency}, {@code operation},
+ *     {@code outcome} (success / error / rejected) i {@code exception},</li>
+ *     <li>{@code azure.client.transferred} (licznik bajtów) - tagi {@code dependency}, {@code operation},
+ *     {@code direction} (upload / download).</li>
+ * </ul>
+ */
+public class AzureMetrics {
+
+    public static final String REQUESTS = "azure.client.requests";
+    public static final String TRANSFERRED = "azure.client.transferred";
+
+    private final MeterRegistry registry;
+    private final String dependency;
+
+    public AzureMetrics(MeterRegistry registry, String dependency) {
+        this.registry = registry;
+        this.dependency = dependency;
+    }
+
+    /**
+     * Mierzy czas wywołania (łącznie z oczekiwaniem na pozwolenie bulkheadu).
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        long started = System.nanoTime();
+        String outcome = "success";
+        String exception = "none";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            record(operation, started, outcome, exception);
+        }
+    }
+
+    /**
+     * Wariant reaktywny - czas od subskrypcji do wyniku albo błędu (anulowanie nie jest mierzone).
+     */
+    public <T> Mono<T> callAsync(String operation, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return call.get()
+                    .doOnSuccess(value -> record(operation, started, "success", "none"))
+                    .doOnError(e -> record(operation, started, outcomeOf(e), e.getClass().getSimpleName()));
+        });
+    }
+
+    /**
+     * Wariant reaktywny dla strumieni - czas do ostatniego elementu.
+     */
+    public <T> Flux<T> streamAsync(String operation, Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            long started = System.nanoTime();
+            return call.get()
+                    .doOnComplete(() -> record(operation, started, "success", "none"))
+                    .doOnError(e -> record(operation, started, outcomeOf(e), e.getClass().getSimpleName()));
+        });
+    }
+
+    public void run(String operation, Runnable call) {
+        call(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * @param direction {@code upload} albo {@code download}
+     */
+    public void recordBytes(String operation, String direction, long bytes) {
+        Counter.builder(TRANSFERRED)
+                .description("Bajty przesłane do/z Azure")
+                .baseUnit("bytes")
+                .tag("dependency", dependency)
+                .tag("operation", operation)
+                .tag("direction", direction)
+                .register(registry)
+                .increment(bytes);
+    }
+
+    private static String outcomeOf(Throwable e) {
+        return e instanceof BulkheadFullException || e instanceof CircuitOpenException ? "rejected" : "error";
+    }
+
+    private void record(String operation, long started, String outcome, String exception) {
+        Timer.builder(REQUESTS)
+                .description("Czas wywołań Azure SDK")
+                .tag("dependency", dependency)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+}
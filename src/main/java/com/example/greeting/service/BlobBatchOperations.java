@@ -0,0 +1,216 @@
+package com.example.greeting.service;
+
+import com.azure.storage.blob.models.BlobProperties;
+import com.example.greeting.dto.BlobBatchItem;
+import com.example.greeting.dto.BlobInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Operacje zbiorcze na blobach z wynikiem per pozycja:
+ * <ul>
+ *     <li>usuwanie - Blob Batch API ({@link AzureBlobStorageService#deleteBlobs(List)}),</li>
+ *     <li>właściwości / istnienie i multi-get - pojedyncze wywołania wykonywane równolegle
+ *     na wątkach wirtualnych, najwyżej {@code max-parallelism} naraz na partię.</li>
+ * </ul>
+ * Każde wywołanie przechodzi przez bulkhead Blob Storage - przeciążenie daje 503 dla pozycji, nie dla całej partii.
+ * Metody {@code *Async} to odpowiedniki dla stosu reaktywnego na kliencie asynchronicznym (ten sam limit równoległości).
+ */
+@Service
+public class BlobBatchOperations {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobBatchOperations.class);
+
+    private final AzureBlobStorageService blobStorageService;
+    private final int maxParallelism;
+    private final long maxGetSize;
+
+    @Autowired
+    public BlobBatchOperations(
+            AzureBlobStorageService blobStorageService,
+            @Value("${azure.storage.batch.max-parallelism:16}") int maxParallelism,
+            @Value("${azure.storage.batch.max-get-size:4MB}") DataSize maxGetSize) {
+        if (maxParallelism < 1) {
+            throw new IllegalArgumentException("azure.storage.batch.max-parallelism musi być >= 1");
+        }
+        this.blobStorageService = blobStorageService;
+        this.maxParallelism = maxParallelism;
+        this.maxGetSize = maxGetSize.toBytes();
+        log.info("Operacje zbiorcze na blobach: max-parallelism={}, max-get-size={}", maxParallelism, maxGetSize);
+    }
+
+    /**
+     * Usuwa bloby partiami Blob Batch API.
+     * @return wynik dla każdej nazwy, w kolejności wejścia
+     */
+    public List<BlobBatchItem> deleteBlobs(List<String> blobNames) {
+        return blobStorageService.deleteBlobs(blobNames);
+    }
+
+    /**
+     * Właściwości blobów; nieistniejący blob to pozycja ze statusem 404.
+     * @return wynik dla każdej nazwy, w kolejności wejścia
+     */
+    public List<BlobBatchItem> getProperties(List<String> blobNames) {
+        BlobBatchItem[] results = new BlobBatchItem[blobNames.size()];
+        forEachParallel(blobNames, this::properties, (index, item) -> results[index] = item);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Pobiera treść blobów równolegle i przekazuje każdy wynik do {@code consumer} zaraz po ukończeniu
+     * (kolejność ukończenia, nie wejścia). {@code consumer} jest wołany na wątku wywołującym;
+     * w pamięci jest naraz najwyżej {@code max-parallelism} blobów.
+     * Blob większy niż {@code max-get-size} to pozycja ze statusem 413 (do pobrania przez /stream).
+     * Skompresowana treść jest dekodowana - limit dotyczy też rozmiaru po dekompresji.
+     */
+    public void download(List<String> blobNames, Consumer<BlobBatchItem> consumer) {
+        forEachParallel(blobNames, this::content, (index, item) -> consumer.accept(item));
+    }
+
+    /**
+     * Reaktywny odpowiednik {@link #getProperties(List)} - wyniki w kolejności wejścia.
+     */
+    public Flux<BlobBatchItem> getPropertiesAsync(List<String> blobNames) {
+        return Flux.fromIterable(blobNames).flatMapSequential(blobName ->
+                blobStorageService.getBlobPropertiesAsync(blobName)
+                        .map(properties -> BlobBatchItem.ok(blobName, 200, toBlobInfo(blobName, properties), null))
+                        .onErrorResume(e -> Mono.just(failed(blobName, e))), maxParallelism);
+    }
+
+    /**
+     * Reaktywny odpowiednik {@link #download(List, Consumer)} - wyniki w kolejności ukończenia.
+     * Rozmiar jest sprawdzany zapytaniem HEAD, więc blob większy niż {@code max-get-size} nie jest pobierany;
+     * GET jest warunkowy (ETag z HEAD), zmiana bloba w międzyczasie to pozycja ze statusem 412.
+     */
+    public Flux<BlobBatchItem> downloadAsync(List<String> blobNames) {
+        return Flux.fromIterable(blobNames).flatMap(this::contentAsync, maxParallelism);
+    }
+
+    private Mono<BlobBatchItem> contentAsync(String blobName) {
+        return blobStorageService.getBlobPropertiesAsync(blobName)
+                .flatMap(properties -> {
+                    if (properties.getBlobSize() > maxGetSize) {
+                        return Mono.just(tooLarge(blobName));
+                    }
+                    BlobInfo info = toBlobInfo(blobName, properties);
+                    return blobStorageService.downloadBlobAsync(blobName, null, properties.getETag())
+                            .collect(() -> new ByteArrayOutputStream((int) properties.getBlobSize()),
+                                    BlobBatchOperations::append)
+                            .map(out -> item(info, out.toByteArray()));
+                })
+                .onErrorResume(e -> Mono.just(failed(blobName, e)));
+    }
+
+    private static void append(ByteArrayOutputStream out, ByteBuffer buffer) {
+        byte[] chunk = new byte[buffer.remaining()];
+        buffer.get(chunk);
+        out.writeBytes(chunk);
+    }
+
+    private static BlobInfo toBlobInfo(String blobName, BlobProperties properties) {
+        return new BlobInfo(blobName, properties.getBlobSize(), properties.getETag(),
+                properties.getLastModified(), properties.getContentType(), properties.getContentEncoding());
+    }
+
+    /**
+     * Pozycja z treścią - skompresowana jest dekodowana (z limitem {@code max-get-size} po dekompresji).
+     */
+    private BlobBatchItem item(BlobInfo info, byte[] content) {
+        if (!BlobCompression.isGzip(info.contentEncoding())) {
+            return BlobBatchItem.ok(info.name(), 200, info, content);
+        }
+        byte[] decoded = BlobCompression.gunzip(content, maxGetSize);
+        return decoded != null ? BlobBatchItem.ok(info.name(), 200, info, decoded) : tooLarge(info.name());
+    }
+
+    private static BlobBatchItem failed(String blobName, Throwable e) {
+        return BlobBatchItem.failed(blobName, AzureBlobStorageService.statusOf(e), e.getMessage());
+    }
+
+    private BlobBatchItem tooLarge(String blobName) {
+        return BlobBatchItem.failed(blobName, 413,
+                "Blob większy niż " + maxGetSize + " B - pobierz go przez /azure/blobs/{blobName}/stream");
+    }
+
+    private BlobBatchItem properties(String blobName) {
+        try {
+            BlobProperties properties = blobStorageService.getBlobProperties(blobName);
+            return BlobBatchItem.ok(blobName, 200, toBlobInfo(blobName, properties), null);
+        } catch (Exception e) {
+            return failed(blobName, e);
+        }
+    }
+
+    private BlobBatchItem content(String blobName) {
+        try {
+            BlobProperties properties = blobStorageService.getBlobProperties(blobName);
+            if (properties.getBlobSize() > maxGetSize) {
+                return tooLarge(blobName);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) properties.getBlobSize());
+            blobStorageService.downloadBlob(blobName, out, null, properties.getETag());
+            return item(toBlobInfo(blobName, properties), out.toByteArray());
+        } catch (Exception e) {
+            return failed(blobName, e);
+        }
+    }
+
+    /**
+     * Przesuwane okno {@code maxParallelism} zadań: po odebraniu każdego wyniku startuje kolejne,
+     * więc wolny blob nie blokuje całej partii, a wyniki nie kumulują się w pamięci.
+     */
+    private void forEachParallel(List<String> blobNames, Function<String, BlobBatchItem> task,
+                                 BiConsumer<Integer, BlobBatchItem> consumer) {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletionService<Indexed> completion = new ExecutorCompletionService<>(executor);
+            int submitted = 0;
+            for (; submitted < Math.min(maxParallelism, blobNames.size()); submitted++) {
+                submit(completion, blobNames, submitted, task);
+            }
+            for (int received = 0; received < blobNames.size(); received++) {
+                Indexed result = completion.take().get();
+                consumer.accept(result.index(), result.item());
+                if (submitted < blobNames.size()) {
+                    submit(completion, blobNames, submitted++, task);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Przerwano operację zbiorczą na blobach", e);
+        } catch (ExecutionException e) {
+            // zadania same zamieniają błędy na pozycje - tu trafia tylko błąd programistyczny
+            throw new IllegalStateException("Błąd operacji zbiorczej na blobach", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void submit(CompletionService<Indexed> completion, List<String> blobNames, int index,
+                               Function<String, BlobBatchItem> task) {
+        String blobName = blobNames.get(index);
+        completion.submit(() -> new Indexed(index, task.apply(blobName)));
+    }
+
+    private record Indexed(int index, BlobBatchItem item) {}
+}
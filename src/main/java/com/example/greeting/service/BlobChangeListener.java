@@ -0,0 +1,18 @@
+package com.example.greeting.service;
+
+import com.example.greeting.dto.BlobInfo;
+
+/**
+ * Powiadomienie o udanym zapisie albo usunięciu bloba przez {@link AzureBlobStorageService}
+ * (rejestracja: {@link AzureBlobStorageService#addChangeListener(BlobChangeListener)}).
+ * Wołane w wątku operacji - implementacja musi być szybka; wyjątek jest logowany i nie psuje operacji.
+ */
+public interface BlobChangeListener {
+
+    /**
+     * Blob zapisany - {@code blob} ma ETag i czas modyfikacji z odpowiedzi Blob Storage.
+     */
+    void blobUpserted(BlobInfo blob);
+
+    void blobDeleted(String blobName);
+}
@@ -0,0 +1,214 @@
+package com.example.greeting.service;
+
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Kompresja treści blobów przy zapisie ({@code azure.storage.compression.*}).
+ * Kodek jest zapisywany we właściwości bloba {@code Content-Encoding}, więc odczyt wie, czy dekodować,
+ * a klient akceptujący gzip może dostać skompresowane bajty bez przepakowywania.
+ * Kompresowane są tylko typy z {@code content-types}; tekst zapisywany w całości także od {@code min-size}
+ * i tylko gdy wynik jest mniejszy.
+ */
+public final class BlobCompression {
+
+    public static final String GZIP = "gzip";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final boolean enabled;
+    private final long minSize;
+    private final List<MimeType> contentTypes;
+
+    public BlobCompression(boolean enabled, DataSize minSize, List<String> contentTypes) {
+        this.enabled = enabled;
+        this.minSize = minSize.toBytes();
+        this.contentTypes = contentTypes.stream()
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .map(MimeTypeUtils::parseMimeType)
+                .toList();
+    }
+
+    /**
+     * Bez kompresji - bloby są zapisywane jak dotąd, odczyt nadal dekoduje skompresowane.
+     */
+    public static BlobCompression disabled() {
+        return new BlobCompression(false, DataSize.ofBytes(0), List.of());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param size rozmiar treści albo -1, gdy nieznany (strumień)
+     */
+    boolean appliesTo(String contentType, long size) {
+        if (!enabled || contentType == null || (size >= 0 && size < minSize)) {
+            return false;
+        }
+        MimeType type;
+        try {
+            type = MimeTypeUtils.parseMimeType(contentType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return contentTypes.stream().anyMatch(accepted -> accepted.includes(type));
+    }
+
+    public static boolean isGzip(String contentEncoding) {
+        return contentEncoding != null && contentEncoding.trim().equalsIgnoreCase(GZIP);
+    }
+
+    static byte[] gzip(byte[] data) {
+        GzipEncoder encoder = new GzipEncoder();
+        ByteBuffer head = encoder.encode(ByteBuffer.wrap(data));
+        ByteBuffer tail = encoder.finish();
+        byte[] result = new byte[head.remaining() + tail.remaining()];
+        head.get(result, 0, head.remaining());
+        tail.get(result, result.length - tail.remaining(), tail.remaining());
+        return result;
+    }
+
+    /**
+     * Dekoduje całość; null gdy treść po rozpakowaniu przekracza {@code maxSize}
+     * (rozpakowanie jest przerywane - bez ryzyka "bomby" gzip w pamięci).
+     */
+    static byte[] gunzip(byte[] data, long maxSize) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data), BUFFER_SIZE)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                if (out.size() + (long) n > maxSize) {
+                    return null;
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Niepoprawna treść gzip", e);
+        }
+    }
+
+    /**
+     * Strumień skompresowany z {@code source} - w pamięci jest tylko bieżący fragment, nie cała treść.
+     */
+    static InputStream gzip(InputStream source) {
+        return new GzipInputStream(source);
+    }
+
+    /**
+     * Reaktywny odpowiednik {@link #gzip(InputStream)} - bufor wejściowy daje bufor skompresowany.
+     */
+    static Flux<ByteBuffer> gzip(Flux<ByteBuffer> source) {
+        return Flux.defer(() -> {
+            GzipEncoder encoder = new GzipEncoder();
+            return source.map(encoder::encode)
+                    .concatWith(Mono.fromCallable(encoder::finish))
+                    .filter(ByteBuffer::hasRemaining);
+        });
+    }
+
+    /**
+     * Kompresor przyrostowy: każde wywołanie oddaje to, co deflater zdążył wyprodukować.
+     */
+    private static final class GzipEncoder {
+        private final Sink sink = new Sink();
+        private final GZIPOutputStream gzip;
+
+        GzipEncoder() {
+            try {
+                gzip = new GZIPOutputStream(sink, BUFFER_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        ByteBuffer encode(ByteBuffer input) {
+            try {
+                if (input.hasArray()) {
+                    gzip.write(input.array(), input.arrayOffset() + input.position(), input.remaining());
+                } else {
+                    byte[] chunk = new byte[input.remaining()];
+                    input.duplicate().get(chunk);
+                    gzip.write(chunk);
+                }
+                return sink.drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        ByteBuffer finish() {
+            try {
+                gzip.finish();
+                return sink.drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class Sink extends ByteArrayOutputStream {
+        ByteBuffer drain() {
+            ByteBuffer out = ByteBuffer.wrap(toByteArray());
+            reset();
+            return out;
+        }
+    }
+
+    private static final class GzipInputStream extends InputStream {
+        private final InputStream source;
+        private final GzipEncoder encoder = new GzipEncoder();
+        private final byte[] chunk = new byte[BUFFER_SIZE];
+        private ByteBuffer pending = ByteBuffer.allocate(0);
+        private boolean finished;
+
+        GzipInputStream(InputStream source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (!pending.hasRemaining()) {
+                if (finished) {
+                    return -1;
+                }
+                int n = source.read(chunk);
+                if (n < 0) {
+                    pending = encoder.finish();
+                    finished = true;
+                } else {
+                    pending = encoder.encode(ByteBuffer.wrap(chunk, 0, n));
+                }
+            }
+            int count = Math.min(len, pending.remaining());
+            pending.get(b, off, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package com.example.greeting.service;
+
+import com.azure.storage.blob.models.BlobProperties;
+import com.example.greeting.dto.BlobInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache treści blobów przed {@link AzureBlobStorageService} (read-through), dwupoziomowy:
+ * <ul>
+ *     <li>heap - małe bloby w LRU ograniczonym łącznym rozmiarem,</li>
+ *     <li>dysk - większe bloby w plikach lokalnych mapowanych do pamięci (mmap), też LRU po rozmiarze.</li>
+ * </ul>
+ * Wpis starszy niż {@code revalidate-after} jest sprawdzany warunkowym GET-em z If-None-Match -
+ * przy 304 Blob Storage nie przesyła treści. ETag wpisu jest ETagiem bloba, więc klient może
+ * dalej rewalidować go sam (304 z kontrolera). Skompresowane bloby są trzymane w postaci skompresowanej
+ * ({@link CachedBlob#contentEncoding()}) - mniej pamięci i dysku, a klient z gzip dostaje je bez przepakowania.
+ * <p>
+ * Przed pierwszym pobraniem rozmiar jest sprawdzany we właściwościach bloba: blob większy niż
+ * {@code disk.max-entry-size} nie jest pobierany do cache ({@link Tier#NONE} bez treści) - wywołujący
+ * streamuje go prosto z Blob Storage. Pobieranie jest też przerywane po przekroczeniu tego limitu
+ * (blob urósł od sprawdzenia albo od ostatniej rewalidacji), więc mapowany plik nigdy nie jest większy.
+ */
+@Service
+public class BlobContentCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobContentCache.class);
+
+    private static final String FILE_SUFFIX = ".blob";
+
+    /**
+     * Poziom wpisu; {@link #NONE} - blob za duży na cache, bez treści (tylko metadane z właściwości).
+     */
+    public enum Tier { HEAP, DISK, NONE }
+
+    /**
+     * Treść bloba z cache. Bufor jest tylko do odczytu i należy do wywołującego (własna pozycja).
+     * @param contentEncoding kodek treści ({@code gzip}) albo null; {@code size} to rozmiar w tej postaci
+     * @param content treść albo null dla {@link Tier#NONE}
+     */
+    public record CachedBlob(String name, String eTag, String contentType, String contentEncoding, long size,
+                             Tier tier, ByteBuffer content, Instant validatedAt) {
+
+        public CachedBlob(String name, String eTag, String contentType, long size, Tier tier,
+                          ByteBuffer content, Instant validatedAt) {
+            this(name, eTag, contentType, null, size, tier, content, validatedAt);
+        }
+
+        /**
+         * Strumień treści z cache - nie dla {@link Tier#NONE}, którego treść trzeba pobrać z Blob Storage.
+         */
+        public InputStream openStream() {
+            if (content == null) {
+                throw new IllegalStateException("Blob '" + name + "' nie jest w cache (za duży)");
+            }
+            ByteBuffer buffer = content.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (!buffer.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, buffer.remaining());
+                    buffer.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public int available() {
+                    return buffer.remaining();
+                }
+            };
+        }
+
+        CachedBlob revalidated(Instant at) {
+            return new CachedBlob(name, eTag, contentType, contentEncoding, size, tier, content, at);
+        }
+
+        CachedBlob forReader() {
+            return content == null ? this : new CachedBlob(name, eTag, contentType, contentEncoding, size, tier,
+                    content.asReadOnlyBuffer(), validatedAt);
+        }
+    }
+
+    /**
+     * Migawka liczników cache.
+     * @param hits odczyty bez pobierania treści (świeży wpis albo 304 z Blob Storage)
+     * @param misses odczyty, które pobrały treść z Blob Storage
+     */
+    public record Stats(long hits, long misses, long revalidations, long notModified,
+                        long heapEvictions, long diskEvictions,
+                        int heapEntries, long heapBytes, int diskEntries, long diskBytes, double hitRatio) {}
+
+    private final AzureBlobStorageService blobStorageService;
+    private final boolean enabled;
+    private final Duration revalidateAfter;
+    private final Clock clock;
+    private final TierStore heap;
+    private final TierStore disk;
+    private final Path directory;
+
+    private final Map<String, CompletableFuture<CachedBlob>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    @Autowired
+    public BlobContentCache(
+            AzureBlobStorageService blobStorageService,
+            @Value("${azure.storage.cache.enabled:true}") boolean enabled,
+            @Value("${azure.storage.cache.revalidate-after:10s}") Duration revalidateAfter,
+            @Value("${azure.storage.cache.heap.max-size:32MB}") DataSize heapMaxSize,
+            @Value("${azure.storage.cache.heap.max-entry-size:256KB}") DataSize heapMaxEntrySize,
+            @Value("${azure.storage.cache.disk.directory:${java.io.tmpdir}/greeting-blob-cache}") Path directory,
+            @Value("${azure.storage.cache.disk.max-size:1GB}") DataSize diskMaxSize,
+            @Value("${azure.storage.cache.disk.max-entry-size:64MB}") DataSize diskMaxEntrySize,
+            MeterRegistry meterRegistry) {
+        this(blobStorageService, enabled, revalidateAfter, heapMaxSize, heapMaxEntrySize,
+                directory, diskMaxSize, diskMaxEntrySize, Clock.systemUTC(), meterRegistry);
+    }
+
+    public BlobContentCache(AzureBlobStorageService blobStorageService, boolean enabled, Duration revalidateAfter,
+                            DataSize heapMaxSize, DataSize heapMaxEntrySize,
+                            Path directory, DataSize diskMaxSize, DataSize diskMaxEntrySize,
+                            Clock clock, MeterRegistry meterRegistry) {
+        if (diskMaxEntrySize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "azure.storage.cache.disk.max-entry-size ponad 2 GB - tyle mapuje jeden plik");
+        }
+        this.blobStorageService = blobStorageService;
+        this.enabled = enabled;
+        this.revalidateAfter = revalidateAfter;
+        this.clock = clock;
+        this.heap = new TierStore(Tier.HEAP, heapMaxSize.toBytes(), heapMaxEntrySize.toBytes());
+        this.disk = new TierStore(Tier.DISK, diskMaxSize.toBytes(), diskMaxEntrySize.toBytes());
+        this.directory = directory;
+        if (enabled) {
+            prepareDirectory();
+            log.info("Cache treści blobów: heap={} (wpis do {}), dysk={} w {} (wpis do {}), revalidate-after={}",
+                    heapMaxSize, heapMaxEntrySize, diskMaxSize, directory, diskMaxEntrySize, revalidateAfter);
+        }
+        registerMetrics(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Treść bloba - z cache, po rewalidacji ETagiem albo pobrana z Blob Storage.
+     * Równoległe missy (i rewalidacje) tej samej nazwy wykonują jedno zapytanie.
+     */
+    public CachedBlob get(String blobName) {
+        CachedBlob cached = lookup(blobName);
+        if (cached != null && clock.instant().isBefore(cached.validatedAt().plus(revalidateAfter))) {
+            hits.incrementAndGet();
+            return cached.forReader();
+        }
+        CompletableFuture<CachedBlob> own = new CompletableFuture<>();
+        CompletableFuture<CachedBlob> existing = inFlight.putIfAbsent(blobName, own);
+        if (existing != null) {
+            return join(existing).forReader();
+        }
+        try {
+            CachedBlob loaded = load(blobName, cached);
+            own.complete(loaded);
+            return loaded.forReader();
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(blobName, own);
+        }
+    }
+
+    /**
+     * Usuwa wpis (np. po zapisie albo usunięciu bloba przez tę instancję).
+     */
+    public void invalidate(String blobName) {
+        heap.remove(blobName);
+        disk.remove(blobName);
+    }
+
+    public Stats stats() {
+        long h = hits.get();
+        long m = misses.get();
+        return new Stats(h, m, revalidations.get(), notModified.get(),
+                heap.evictions.get(), disk.evictions.get(),
+                heap.entryCount(), heap.bytes(), disk.entryCount(), disk.bytes(),
+                h + m == 0 ? 0.0 : (double) h / (h + m));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heap.clear();
+        disk.clear();
+    }
+
+    private CachedBlob lookup(String blobName) {
+        CachedBlob cached = heap.get(blobName);
+        return cached != null ? cached : disk.get(blobName);
+    }
+
+    private CachedBlob load(String blobName, CachedBlob cached) {
+        if (cached == null) {
+            // rozmiar przed pobraniem - za duży blob nie trafia na dysk ani do mmap
+            BlobProperties properties = blobStorageService.getBlobProperties(blobName);
+            if (properties.getBlobSize() > maxCachedBytes()) {
+                misses.incrementAndGet();
+                return uncached(blobName, properties);
+            }
+        }
+        SpillingOutputStream out = new SpillingOutputStream(heap.maxEntryBytes, maxCachedBytes());
+        BlobInfo info;
+        try {
+            if (cached != null) {
+                revalidations.incrementAndGet();
+            }
+            info = blobStorageService.downloadBlobIfNoneMatch(blobName, out, cached != null ? cached.eTag() : null);
+        } catch (RuntimeException e) {
+            out.discard();
+            if (isTooLarge(e)) {
+                // blob urósł od sprawdzenia rozmiaru albo od ostatniej rewalidacji
+                misses.incrementAndGet();
+                invalidate(blobName);
+                return uncached(blobName, blobStorageService.getBlobProperties(blobName));
+            }
+            if (AzureBlobStorageService.statusOf(e) == 404) {
+                invalidate(blobName); // blob usunięty - nie serwujemy starej treści
+            }
+            // inne błędy (przejściowe, pełny bulkhead) zostawiają wpis - następne żądanie znów rewaliduje
+            throw e;
+        }
+        if (info == null) {
+            out.discard();
+            notModified.incrementAndGet();
+            hits.incrementAndGet();
+            CachedBlob revalidated = cached.revalidated(clock.instant());
+            (cached.tier() == Tier.HEAP ? heap : disk).put(revalidated, null);
+            return revalidated;
+        }
+        misses.incrementAndGet();
+        invalidate(blobName);
+        return out.finish(info);
+    }
+
+    private long maxCachedBytes() {
+        return Math.min(disk.maxEntryBytes, disk.maxBytes);
+    }
+
+    private CachedBlob uncached(String blobName, BlobProperties properties) {
+        log.debug("Blob '{}' ({} bytes) za duży na cache - bez zapisu", blobName, properties.getBlobSize());
+        return new CachedBlob(blobName, properties.getETag(), properties.getContentType(),
+                properties.getContentEncoding(), properties.getBlobSize(), Tier.NONE, null, clock.instant());
+    }
+
+    private static boolean isTooLarge(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof EntryTooLargeException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void prepareDirectory() {
+        try {
+            Files.createDirectories(directory);
+            // pliki z poprzedniego uruchomienia nie są indeksowane - usuwamy je
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nie można przygotować katalogu cache blobów: " + directory, e);
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("blob.cache.requests", hits, AtomicLong::get)
+                .description("Odczyty blobów obsłużone z cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("blob.cache.requests", misses, AtomicLong::get)
+                .description("Odczyty blobów obsłużone z cache")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("blob.cache.revalidations", notModified, AtomicLong::get)
+                .description("Rewalidacje ETagiem zakończone 304")
+                .tag("result", "not-modified")
+                .register(registry);
+        Gauge.builder("blob.cache.hit.ratio", this, cache -> cache.stats().hitRatio())
+                .description("Udział odczytów bez pobierania treści z Blob Storage")
+                .register(registry);
+        for (TierStore tier : new TierStore[]{heap, disk}) {
+            String name = tier.tier.name().toLowerCase();
+            tier.evictionCounter = Counter.builder("blob.cache.evictions")
+                    .description("Wpisy usunięte z cache z powodu limitu rozmiaru")
+                    .tag("tier", name)
+                    .register(registry);
+            Gauge.builder("blob.cache.size", tier, TierStore::bytes)
+                    .description("Rozmiar treści w cache")
+                    .baseUnit("bytes")
+                    .tag("tier", name)
+                    .register(registry);
+            Gauge.builder("blob.cache.entries", tier, TierStore::entryCount)
+                    .description("Liczba wpisów w cache")
+                    .tag("tier", name)
+                    .register(registry);
+        }
+    }
+
+    private static CachedBlob join(CompletableFuture<CachedBlob> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Jeden poziom cache: LRU (LinkedHashMap w trybie access-order) ograniczone sumą rozmiarów.
+     * Operacje pod krótkim lockiem - bez I/O w sekcji krytycznej poza usuwaniem plików wyrzuconych wpisów.
+     */
+    private final class TierStore {
+        private final Tier tier;
+        private final long maxBytes;
+        private final long maxEntryBytes;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, CachedBlob> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<String, Path> files = new LinkedHashMap<>();
+        private final AtomicLong evictions = new AtomicLong();
+        private Counter evictionCounter;
+        private long bytes;
+
+        TierStore(Tier tier, long maxBytes, long maxEntryBytes) {
+            this.tier = tier;
+            this.maxBytes = maxBytes;
+            this.maxEntryBytes = maxEntryBytes;
+        }
+
+        CachedBlob get(String name) {
+            lock.lock();
+            try {
+                return entries.get(name);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(CachedBlob blob, Path file) {
+            lock.lock();
+            try {
+                CachedBlob previous = entries.put(blob.name(), blob);
+                if (previous != null) {
+                    bytes -= previous.size();
+                }
+                if (file != null) {
+                    Path previousFile = files.put(blob.name(), file);
+                    if (previousFile != null && !previousFile.equals(file)) {
+                        deleteQuietly(previousFile);
+                    }
+                }
+                bytes += blob.size();
+                Iterator<Map.Entry<String, CachedBlob>> eldest = entries.entrySet().iterator();
+                while (bytes > maxBytes && eldest.hasNext()) {
+                    Map.Entry<String, CachedBlob> victim = eldest.next();
+                    if (victim.getKey().equals(blob.name())) {
+                        continue;
+                    }
+                    eldest.remove();
+                    bytes -= victim.getValue().size();
+                    deleteQuietly(files.remove(victim.getKey()));
+                    evictions.incrementAndGet();
+                    if (evictionCounter != null) {
+                        evictionCounter.increment();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String name) {
+            lock.lock();
+            try {
+                CachedBlob removed = entries.remove(name);
+                if (removed != null) {
+                    bytes -= removed.size();
+                }
+                deleteQuietly(files.remove(name));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+                files.values().forEach(BlobContentCache::deleteQuietly);
+                files.clear();
+                bytes = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long bytes() {
+            lock.lock();
+            try {
+                return bytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int entryCount() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Pobieranie przekroczyło limit wpisu - przerywa transfer zamiast zapisywać resztę na dysk.
+     */
+    private static final class EntryTooLargeException extends IOException {
+        EntryTooLargeException(long limit) {
+            super("Blob większy niż limit wpisu cache (" + limit + " bytes)");
+        }
+    }
+
+    /**
+     * Bufor pobierania: do {@code heapLimit} bajtów w pamięci, powyżej przelewa treść do pliku
+     * w katalogu cache, a po {@code maxBytes} przerywa pobieranie ({@link EntryTooLargeException}).
+     */
+    private final class SpillingOutputStream extends OutputStream {
+        private final long heapLimit;
+        private final long maxBytes;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path file;
+        private OutputStream fileOut;
+        private long written;
+
+        SpillingOutputStream(long heapLimit, long maxBytes) {
+            this.heapLimit = heapLimit;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (written + len > maxBytes) {
+                throw new EntryTooLargeException(maxBytes);
+            }
+            written += len;
+            if (fileOut == null && memory.size() + (long) len > heapLimit) {
+                file = directory.resolve(UUID.randomUUID() + FILE_SUFFIX);
+                fileOut = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                memory.writeTo(fileOut);
+                memory = null;
+            }
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+            } else {
+                memory.write(b, off, len);
+            }
+        }
+
+        CachedBlob finish(BlobInfo info) {
+            Instant now = clock.instant();
+            if (fileOut == null) {
+                byte[] content = memory.toByteArray();
+                CachedBlob blob = new CachedBlob(info.name(), info.eTag(), info.contentType(), info.contentEncoding(),
+                        content.length, Tier.HEAP, ByteBuffer.wrap(content).asReadOnlyBuffer(), now);
+                if (content.length <= heap.maxEntryBytes) {
+                    heap.put(blob, null);
+                }
+                return blob;
+            }
+            try {
+                fileOut.close();
+                MappedByteBuffer mapped;
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                CachedBlob blob = new CachedBlob(info.name(), info.eTag(), info.contentType(),
+                        info.contentEncoding(), mapped.capacity(), Tier.DISK, mapped, now);
+                disk.put(blob, file);
+                return blob;
+            } catch (IOException e) {
+                discard();
+                throw new UncheckedIOException("Nie można zapisać bloba w cache dyskowym: " + info.name(), e);
+            }
+        }
+
+        void discard() {
+            if (fileOut != null) {
+                try {
+                    fileOut.close();
+                } catch (IOException ignored) {
+                    // plik i tak jest usuwany
+                }
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Nie można usunąć pliku cache {}: {}", file, e.getMessage());
+        }
+    }
+}
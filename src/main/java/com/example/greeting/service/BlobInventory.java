@@ -0,0 +1,1045 @@
+package com.example.greeting.service;
+
+import com.example.greeting.dto.BlobInfo;
+import com.example.greeting.dto.BlobPage;
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.ErrorType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lokalny indeks metadanych blobów kontenera (nazwa, rozmiar, ETag, czas modyfikacji, content type) -
+ * zapytania o prefiks, zakres nazw i statystyki bez listingu całego kontenera.
+ * <ul>
+ *     <li>migawka: posortowany plik mapowany do pamięci (mmap) z tablicą offsetów rekordów i sumami prefiksowymi
+ *     rozmiarów - wyszukiwanie binarne, liczba i rozmiar blobów w zakresie nazw w O(log n),</li>
+ *     <li>delta: zmiany od ostatniej migawki w pamięci - zapisy i usunięcia przez {@link AzureBlobStorageService}
+ *     ({@link BlobChangeListener}) i poprawki z uzgadniania; po {@code compact-threshold} zmianach
+ *     scalana do nowej migawki,</li>
+ *     <li>uzgadnianie w tle: co {@code reconcile-interval} kolejne {@code reconcile-pages} stron listingu
+ *     jest porównywanych z indeksem po ETagu - łapie zmiany spoza tej instancji; cały kontener
+ *     w kilku rundach, bez jednego długiego listingu.</li>
+ * </ul>
+ * Migawka przetrwa restart (plik w {@code directory}); bez niej indeks jest budowany w tle, a do końca
+ * budowy zapytania dostają 503. Nazwy są uporządkowane jak w listingu Blob Storage (bajty UTF-8).
+ * Plik migawki jest ograniczony do 2 GB (rząd 10 mln blobów), budowa trzyma w pamięci 12 B na blob.
+ */
+@Service
+public class BlobInventory implements BlobChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobInventory.class);
+
+    private static final int MAGIC = 0x42494E56; // "BINV"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final String FILE_SUFFIX = ".idx";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAX_SAMPLES = 100;
+
+    /** Kolejność nazw w indeksie: punkty kodowe, czyli kolejność bajtów UTF-8 - jak listing Blob Storage. */
+    static final Comparator<String> NAME_ORDER = BlobInventory::compareNames;
+
+    /**
+     * Liczba i łączny rozmiar blobów (rozmiar w Blob Storage, dla skompresowanych - po kompresji).
+     * @param prefix prefiks nazw albo null dla całego kontenera
+     */
+    public record Totals(String prefix, long count, long totalSize) {}
+
+    /**
+     * Stan indeksu.
+     * @param pendingChanges zmiany w pamięci, jeszcze nie scalone do migawki
+     * @param builtAt ostatnia pełna budowa z listingu
+     * @param reconciledChanges poprawki z uzgadniania i sprawdzania (zmiany spoza tej instancji)
+     */
+    public record Status(boolean enabled, boolean ready, boolean rebuilding, long blobs, long totalSize,
+                         int snapshotBlobs, int pendingChanges, long fileBytes, Instant builtAt,
+                         Instant lastReconciledAt, long reconcileCycles, long reconciledChanges) {}
+
+    /**
+     * Różnica między indeksem a Blob Storage.
+     * @param kind {@code missing} (brak w indeksie), {@code stale} (brak w Storage), {@code changed} (inny ETag)
+     */
+    public record Difference(String name, String kind) {}
+
+    /**
+     * Wynik sprawdzenia spójności indeksu z listingiem.
+     * @param samples najwyżej {@value #MAX_SAMPLES} pierwszych różnic
+     */
+    public record ConsistencyReport(String prefix, boolean consistent, long listed, long indexed,
+                                    long missing, long stale, long changed, boolean repaired,
+                                    List<Difference> samples, long durationMs) {}
+
+    /**
+     * Zmiana od migawki; {@code blob == null} oznacza usunięcie.
+     * @param sequence kolejność zmian - poprawka z listingu nie nadpisuje zmiany nowszej niż ten listing
+     */
+    private record Change(BlobInfo blob, long sequence) {}
+
+    private final AzureBlobStorageService blobStorageService;
+    private final boolean enabled;
+    private final Path directory;
+    private final Path file;
+    private final int pageSize;
+    private final Duration reconcileInterval;
+    private final int reconcilePages;
+    private final int compactThreshold;
+    private final Clock clock;
+
+    private final ConcurrentSkipListMap<String, Change> delta = new ConcurrentSkipListMap<>(NAME_ORDER);
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder changesSinceCompaction = new LongAdder();
+    // budowa, kompakcja i uzgadnianie wykluczają się; zapytania i zapisy działają obok nich
+    private final ReentrantLock maintenance = new ReentrantLock();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final AtomicBoolean compactionRequested = new AtomicBoolean();
+    private final AtomicLong reconcileCycles = new AtomicLong();
+    private final AtomicLong reconciledChanges = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("blob-inventory").daemon(true).factory());
+
+    private volatile Segment segment;
+    private volatile boolean rebuilding;
+    private volatile Instant lastReconciledAt;
+    // kursor uzgadniania (pod maintenance): token kolejnej strony i ostatnia nazwa poprzedniej
+    private String reconcileToken;
+    private String reconcileAfter;
+
+    @Autowired
+    public BlobInventory(
+            AzureBlobStorageService blobStorageService,
+            @Value("${azure.storage.inventory.enabled:false}") boolean enabled,
+            @Value("${azure.storage.inventory.directory:${java.io.tmpdir}/greeting-blob-inventory}") Path directory,
+            @Value("${azure.storage.inventory.page-size:5000}") int pageSize,
+            @Value("${azure.storage.inventory.reconcile-interval:1m}") Duration reconcileInterval,
+            @Value("${azure.storage.inventory.reconcile-pages:10}") int reconcilePages,
+            @Value("${azure.storage.inventory.compact-threshold:10000}") int compactThreshold,
+            MeterRegistry meterRegistry) {
+        this(blobStorageService, enabled, directory, pageSize, reconcileInterval, reconcilePages, compactThreshold,
+                Clock.systemUTC(), meterRegistry);
+    }
+
+    public BlobInventory(AzureBlobStorageService blobStorageService, boolean enabled, Path directory, int pageSize,
+                         Duration reconcileInterval, int reconcilePages, int compactThreshold,
+                         Clock clock, MeterRegistry meterRegistry) {
+        if (pageSize < 1 || pageSize > 5000) {
+            throw new IllegalArgumentException("page-size musi być w przedziale 1..5000");
+        }
+        if (reconcilePages < 1 || compactThreshold < 1) {
+            throw new IllegalArgumentException("reconcile-pages i compact-threshold muszą być >= 1");
+        }
+        if (reconcileInterval.isNegative() || reconcileInterval.isZero()) {
+            throw new IllegalArgumentException("reconcile-interval musi być dodatni");
+        }
+        this.blobStorageService = blobStorageService;
+        this.enabled = enabled;
+        this.directory = directory;
+        // osobny plik na kontener - zmiana konfiguracji nie podmieni indeksu cudzym
+        this.file = directory.resolve(blobStorageService.getAccountName() + "-"
+                + blobStorageService.getContainerName() + FILE_SUFFIX);
+        this.pageSize = pageSize;
+        this.reconcileInterval = reconcileInterval;
+        this.reconcilePages = reconcilePages;
+        this.compactThreshold = compactThreshold;
+        this.clock = clock;
+        if (enabled) {
+            prepareDirectory();
+            segment = load(file);
+            blobStorageService.addChangeListener(this);
+            log.info("Indeks blobów: plik {}, reconcile-interval={} ({} stron po {}), compact-threshold={}",
+                    file, reconcileInterval, reconcilePages, pageSize, compactThreshold);
+        }
+        registerMetrics(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (segment == null) {
+            requestRebuild();
+        }
+        scheduler.scheduleWithFixedDelay(this::maintainQuietly, reconcileInterval.toMillis(),
+                reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && segment != null;
+    }
+
+    @Override
+    public void blobUpserted(BlobInfo blob) {
+        if (enabled) {
+            record(blob.name(), blob);
+        }
+    }
+
+    @Override
+    public void blobDeleted(String blobName) {
+        if (enabled) {
+            record(blobName, null);
+        }
+    }
+
+    /**
+     * Bloby z indeksu w kolejności nazw.
+     * @param prefix prefiks nazwy (może być null)
+     * @param from pierwsza nazwa zakresu, włącznie (może być null); także kontynuacja poprzedniej strony
+     * @param to koniec zakresu, wyłącznie (może być null)
+     * @return strona blobów; {@code continuationToken} to {@code from} następnej strony (null gdy ostatnia)
+     */
+    public BlobPage find(String prefix, String from, String to, int maxResults) {
+        Segment current = requireReady();
+        String p = blankToNull(prefix);
+        String lower = maxName(p, blankToNull(from));
+        byte[] upper = minBound(p != null ? prefixEnd(p) : null, blankToNull(to) != null ? utf8(to) : null);
+        Cursor cursor = new Cursor(current, lower, upper, Long.MAX_VALUE);
+        List<BlobInfo> blobs = new ArrayList<>(Math.min(maxResults, 1024));
+        for (BlobInfo blob = cursor.next(); blob != null; blob = cursor.next()) {
+            if (blobs.size() == maxResults) {
+                return new BlobPage(blobs, blob.name());
+            }
+            blobs.add(blob);
+        }
+        return new BlobPage(blobs, null);
+    }
+
+    /**
+     * Liczba i łączny rozmiar blobów o prefiksie - z sum prefiksowych migawki, poprawione o zmiany w pamięci.
+     */
+    public Totals totals(String prefix) {
+        return totals(requireReady(), blankToNull(prefix));
+    }
+
+    public Status status() {
+        Segment current = segment;
+        Totals totals = current != null ? totals(current, null) : new Totals(null, 0, 0);
+        return new Status(enabled, current != null, rebuilding || rebuildRequested.get(),
+                totals.count(), totals.totalSize(),
+                current != null ? current.count : 0, delta.size(), current != null ? current.fileBytes : 0,
+                current != null ? current.builtAt : null, lastReconciledAt,
+                reconcileCycles.get(), reconciledChanges.get());
+    }
+
+    /**
+     * Zleca pełną przebudowę w tle (jedna na raz).
+     * @return false gdy przebudowa już czeka albo trwa
+     */
+    public boolean requestRebuild() {
+        requireEnabled();
+        if (!rebuildRequested.compareAndSet(false, true)) {
+            return false;
+        }
+        if (!submit(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("❌ Przebudowa indeksu blobów nie powiodła się: {}", e.getMessage());
+            } finally {
+                rebuildRequested.set(false);
+            }
+        })) {
+            rebuildRequested.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Pełna przebudowa z listingu kontenera (strumieniowo - w pamięci jest jedna strona listingu).
+     * Zmiany zapisane w trakcie przebudowy zostają w delcie i przykrywają wynik listingu.
+     */
+    public void rebuild() {
+        requireEnabled();
+        maintenance.lock();
+        rebuilding = true;
+        try {
+            long started = System.nanoTime();
+            long upTo = sequence.get();
+            List<BlobInfo> unordered = new ArrayList<>();
+            Segment built;
+            try (SegmentWriter writer = new SegmentWriter(directory, clock.instant())) {
+                blobStorageService.forEachBlobPage(null, pageSize, page -> {
+                    for (BlobInfo blob : page) {
+                        if (!writer.add(blob)) {
+                            unordered.add(blob);
+                        }
+                    }
+                });
+                built = writer.finish(file);
+            }
+            install(built, upTo);
+            // nazwa spoza kolejności listingu trafia do delty - następna kompakcja wstawi ją na miejsce
+            unordered.forEach(blob -> repair(blob.name(), blob, upTo));
+            reconcileToken = null;
+            reconcileAfter = null;
+            log.info("✅ Indeks blobów zbudowany: {} blobów ({} B) w {} ms", built.count, built.totalSize,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nie można zapisać indeksu blobów: " + file, e);
+        } finally {
+            rebuilding = false;
+            maintenance.unlock();
+        }
+    }
+
+    /**
+     * Jedna runda uzgadniania: kolejne {@code reconcile-pages} stron listingu od miejsca, w którym skończyła
+     * poprzednia. Blob spoza indeksu, z innym ETagiem albo usunięty poza tą instancją jest poprawiany w delcie.
+     * @return liczba poprawek (0 także gdy trwa przebudowa albo kompakcja)
+     */
+    public int reconcile() {
+        requireEnabled();
+        if (!maintenance.tryLock()) {
+            return 0;
+        }
+        try {
+            if (segment == null) {
+                return 0;
+            }
+            int fixed = 0;
+            for (int i = 0; i < reconcilePages; i++) {
+                long upTo = sequence.get();
+                BlobPage page = blobStorageService.listBlobs(null, pageSize, reconcileToken);
+                boolean last = page.continuationToken() == null;
+                if (!page.blobs().isEmpty() || last) {
+                    // strona obejmuje nazwy (poprzednia strona, ostatnia nazwa tej strony]; ostatnia - do końca
+                    String through = last ? null : page.blobs().get(page.blobs().size() - 1).name();
+                    fixed += reconcileRange(page.blobs(), reconcileAfter, through, upTo);
+                    reconcileAfter = through;
+                }
+                reconcileToken = page.continuationToken();
+                if (last) {
+                    reconcileCycles.incrementAndGet();
+                    break;
+                }
+            }
+            lastReconciledAt = clock.instant();
+            reconciledChanges.addAndGet(fixed);
+            if (fixed > 0) {
+                log.info("Uzgadnianie indeksu blobów: {} zmian spoza tej instancji", fixed);
+            }
+            return fixed;
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    /**
+     * Scala zmiany z pamięci do nowej migawki (zapis do pliku tymczasowego i atomowa podmiana).
+     */
+    public void compact() {
+        requireEnabled();
+        maintenance.lock();
+        try {
+            Segment current = segment;
+            if (current == null || delta.isEmpty()) {
+                return;
+            }
+            long started = System.nanoTime();
+            long upTo = sequence.get();
+            changesSinceCompaction.reset();
+            Segment compacted;
+            try (SegmentWriter writer = new SegmentWriter(directory, current.builtAt)) {
+                Cursor cursor = new Cursor(current, null, null, upTo);
+                for (BlobInfo blob = cursor.next(); blob != null; blob = cursor.next()) {
+                    writer.add(blob);
+                }
+                compacted = writer.finish(file);
+            }
+            install(compacted, upTo);
+            log.debug("Kompakcja indeksu blobów: {} blobów w {} ms", compacted.count,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nie można zapisać indeksu blobów: " + file, e);
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    /**
+     * Porównuje indeks z pełnym listingiem (prefiksu) - złączenie dwóch posortowanych strumieni,
+     * w pamięci jest jedna strona listingu. Zapisy w trakcie sprawdzania mogą dać pojedyncze fałszywe różnice.
+     * @param repair czy poprawić różnice w indeksie (jak uzgadnianie)
+     */
+    public ConsistencyReport check(String prefix, boolean repair) {
+        Segment current = requireReady();
+        long started = System.nanoTime();
+        String p = blankToNull(prefix);
+        Comparison comparison = new Comparison(new Cursor(current, p, p != null ? prefixEnd(p) : null, Long.MAX_VALUE),
+                repair, sequence.get());
+        long listed = blobStorageService.forEachBlobPage(p, pageSize, page -> page.forEach(comparison::listed));
+        comparison.finish();
+        if (repair) {
+            reconciledChanges.addAndGet(comparison.repaired);
+        }
+        boolean consistent = comparison.missing == 0 && comparison.stale == 0 && comparison.changed == 0;
+        if (!consistent) {
+            log.warn("Indeks blobów niespójny (prefix: {}): {} brakujących, {} nieaktualnych, {} zmienionych{}",
+                    p, comparison.missing, comparison.stale, comparison.changed, repair ? " - poprawione" : "");
+        }
+        return new ConsistencyReport(p, consistent, listed, comparison.indexed, comparison.missing, comparison.stale,
+                comparison.changed, repair, comparison.samples,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        // zapisy tej instancji trafiają do pliku - po restarcie nie czekają na uzgadnianie
+        if (enabled && segment != null && !delta.isEmpty() && maintenance.tryLock()) {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                log.warn("Nie udało się zapisać zmian indeksu blobów przy zamykaniu: {}", e.getMessage());
+            } finally {
+                maintenance.unlock();
+            }
+        }
+    }
+
+    private void record(String name, BlobInfo blob) {
+        Change change = new Change(blob, sequence.incrementAndGet());
+        delta.merge(name, change, (current, fresh) -> current.sequence() > fresh.sequence() ? current : fresh);
+        changesSinceCompaction.increment();
+        if (changesSinceCompaction.sum() >= compactThreshold && segment != null
+                && compactionRequested.compareAndSet(false, true)) {
+            if (!submit(() -> {
+                try {
+                    compact();
+                } catch (Exception e) {
+                    log.error("❌ Kompakcja indeksu blobów nie powiodła się: {}", e.getMessage());
+                } finally {
+                    compactionRequested.set(false);
+                }
+            })) {
+                compactionRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Poprawka ze stanu Blob Storage odczytanego po zmianie {@code upTo} - nie nadpisuje nowszego zapisu.
+     * @return czy poprawka została zapisana
+     */
+    private boolean repair(String name, BlobInfo blob, long upTo) {
+        boolean[] applied = new boolean[1];
+        delta.compute(name, (key, current) -> {
+            applied[0] = current == null || current.sequence() <= upTo;
+            return applied[0] ? new Change(blob, sequence.incrementAndGet()) : current;
+        });
+        if (applied[0]) {
+            changesSinceCompaction.increment();
+        }
+        return applied[0];
+    }
+
+    private int reconcileRange(List<BlobInfo> listed, String after, String through, long upTo) {
+        Map<String, BlobInfo> remaining = new HashMap<>(listed.size() * 2);
+        listed.forEach(blob -> remaining.put(blob.name(), blob));
+        byte[] to = through != null ? successor(utf8(through)) : null;
+        Cursor cursor = new Cursor(segment, after, to, Long.MAX_VALUE);
+        int fixed = 0;
+        for (BlobInfo indexed = cursor.next(); indexed != null; indexed = cursor.next()) {
+            if (indexed.name().equals(after)) {
+                continue;
+            }
+            BlobInfo actual = remaining.remove(indexed.name());
+            if (actual == null) {
+                fixed += repair(indexed.name(), null, upTo) ? 1 : 0;
+            } else if (!sameETag(actual.eTag(), indexed.eTag())) {
+                fixed += repair(actual.name(), actual, upTo) ? 1 : 0;
+            }
+        }
+        for (BlobInfo actual : remaining.values()) {
+            fixed += repair(actual.name(), actual, upTo) ? 1 : 0;
+        }
+        return fixed;
+    }
+
+    /**
+     * Nowa migawka zawiera zmiany do {@code upTo} - usuwamy je z delty dopiero po podmianie,
+     * więc zapytanie w międzyczasie widzi je w jednym albo drugim miejscu.
+     */
+    private void install(Segment fresh, long upTo) {
+        segment = fresh;
+        for (Map.Entry<String, Change> entry : delta.entrySet()) {
+            if (entry.getValue().sequence() <= upTo) {
+                delta.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private Totals totals(Segment current, String prefix) {
+        int lo = prefix != null ? current.lowerBound(utf8(prefix)) : 0;
+        int hi = prefix != null ? current.lowerBound(prefixEnd(prefix)) : current.count;
+        long count = hi - lo;
+        long size = current.cumulativeSize(hi) - current.cumulativeSize(lo);
+        Map<String, Change> pending = prefix != null ? delta.tailMap(prefix, true) : delta;
+        for (Map.Entry<String, Change> entry : pending.entrySet()) {
+            if (prefix != null && !entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            int index = current.find(utf8(entry.getKey()));
+            if (index >= 0) {
+                count--;
+                size -= current.size(index);
+            }
+            BlobInfo blob = entry.getValue().blob();
+            if (blob != null) {
+                count++;
+                size += blob.size();
+            }
+        }
+        return new Totals(prefix, count, size);
+    }
+
+    private void maintainQuietly() {
+        try {
+            if (segment == null) {
+                requestRebuild();
+                return;
+            }
+            reconcile();
+            if (changesSinceCompaction.sum() >= compactThreshold) {
+                compact();
+            }
+        } catch (Exception e) {
+            // wyjątek zatrzymałby harmonogram - kolejna runda spróbuje ponownie
+            log.error("❌ Uzgadnianie indeksu blobów nie powiodło się: {}", e.getMessage());
+        }
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            scheduler.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false; // zamykanie aplikacji
+        }
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new ApiException(ErrorType.NOT_FOUND, "Indeks blobów jest wyłączony (azure.storage.inventory.enabled)");
+        }
+    }
+
+    private Segment requireReady() {
+        requireEnabled();
+        Segment current = segment;
+        if (current == null) {
+            throw new ApiException(ErrorType.OVERLOADED, "Indeks blobów jest w trakcie budowy - spróbuj ponownie później");
+        }
+        return current;
+    }
+
+    private void prepareDirectory() {
+        try {
+            Files.createDirectories(directory);
+            // przerwany zapis migawki z poprzedniego uruchomienia
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nie można przygotować katalogu indeksu blobów: " + directory, e);
+        }
+    }
+
+    private static Segment load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            Segment loaded = Segment.open(file);
+            log.info("✅ Indeks blobów wczytany z {}: {} blobów (zbudowany {})", file, loaded.count, loaded.builtAt);
+            return loaded;
+        } catch (IOException e) {
+            log.warn("Pomijam uszkodzony plik indeksu blobów {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("blob.inventory.blobs", this, inventory -> inventory.isReady() ? inventory.status().blobs() : Double.NaN)
+                .description("Liczba blobów w lokalnym indeksie")
+                .register(registry);
+        Gauge.builder("blob.inventory.pending.changes", delta, Map::size)
+                .description("Zmiany w pamięci, jeszcze nie scalone do migawki indeksu")
+                .register(registry);
+        FunctionCounter.builder("blob.inventory.reconciled.changes", reconciledChanges, AtomicLong::get)
+                .description("Poprawki indeksu z uzgadniania z listingiem (zmiany spoza tej instancji)")
+                .register(registry);
+    }
+
+    static int compareNames(String a, String b) {
+        int i = 0;
+        while (i < a.length() && i < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(i);
+            if (x != y) {
+                return Integer.compare(x, y);
+            }
+            i += Character.charCount(x);
+        }
+        return Integer.compare(a.length(), b.length());
+    }
+
+    /**
+     * Listing zwraca ETag bez cudzysłowów, a odpowiedź na zapis - w cudzysłowach.
+     */
+    static boolean sameETag(String a, String b) {
+        return a != null && b != null && unquote(a).equals(unquote(b));
+    }
+
+    private static String unquote(String eTag) {
+        return eTag.length() >= 2 && eTag.startsWith("\"") && eTag.endsWith("\"") ? eTag.substring(1, eTag.length() - 1) : eTag;
+    }
+
+    private static byte[] utf8(String name) {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Najmniejszy klucz większy od wszystkich nazw z prefiksem - UTF-8 nie zawiera bajtu 0xFF,
+     * więc wystarczy zwiększyć ostatni bajt.
+     */
+    private static byte[] prefixEnd(String prefix) {
+        byte[] end = utf8(prefix);
+        end[end.length - 1]++;
+        return end;
+    }
+
+    /** Najmniejszy klucz większy od {@code key}. */
+    private static byte[] successor(byte[] key) {
+        return Arrays.copyOf(key, key.length + 1);
+    }
+
+    private static String maxName(String a, String b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return compareNames(a, b) >= 0 ? a : b;
+    }
+
+    private static byte[] minBound(byte[] a, byte[] b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return Arrays.compareUnsigned(a, b) <= 0 ? a : b;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Scalony widok migawki i delty w zakresie [{@code from}, {@code to}) - zmiana przykrywa wpis migawki
+     * o tej samej nazwie, usunięcie go ukrywa. Zmiany nowsze niż {@code maxSequence} są pomijane.
+     */
+    private final class Cursor {
+        private final Segment source;
+        private final byte[] to;
+        private final long maxSequence;
+        private final Iterator<Map.Entry<String, Change>> changes;
+        private final int end;
+        private int index;
+        private byte[] changeKey;
+        private Change change;
+
+        Cursor(Segment source, String from, byte[] to, long maxSequence) {
+            this.source = source;
+            this.to = to;
+            this.maxSequence = maxSequence;
+            this.index = from != null ? source.lowerBound(utf8(from)) : 0;
+            this.end = to != null ? source.lowerBound(to) : source.count;
+            this.changes = (from != null ? delta.tailMap(from, true) : delta).entrySet().iterator();
+            advanceChange();
+        }
+
+        /**
+         * @return kolejny blob albo null na końcu zakresu
+         */
+        BlobInfo next() {
+            while (true) {
+                boolean stored = index < end;
+                if (!stored && change == null) {
+                    return null;
+                }
+                int order = !stored ? 1 : change == null ? -1 : source.compareName(index, changeKey);
+                if (order < 0) {
+                    return source.read(index++);
+                }
+                if (order == 0) {
+                    index++;
+                }
+                BlobInfo blob = change.blob();
+                advanceChange();
+                if (blob != null) {
+                    return blob;
+                }
+            }
+        }
+
+        private void advanceChange() {
+            change = null;
+            while (changes.hasNext()) {
+                Map.Entry<String, Change> entry = changes.next();
+                byte[] key = utf8(entry.getKey());
+                if (to != null && Arrays.compareUnsigned(key, to) >= 0) {
+                    return;
+                }
+                if (entry.getValue().sequence() <= maxSequence) {
+                    changeKey = key;
+                    change = entry.getValue();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Złączenie posortowanego listingu z kursorem indeksu.
+     */
+    private final class Comparison {
+        private final Cursor cursor;
+        private final boolean repair;
+        private final long upTo;
+        private final List<Difference> samples = new ArrayList<>();
+        private BlobInfo indexedBlob;
+        private long indexed;
+        private long missing;
+        private long stale;
+        private long changed;
+        private long repaired;
+
+        Comparison(Cursor cursor, boolean repair, long upTo) {
+            this.cursor = cursor;
+            this.repair = repair;
+            this.upTo = upTo;
+            advance();
+        }
+
+        void listed(BlobInfo actual) {
+            while (indexedBlob != null && compareNames(indexedBlob.name(), actual.name()) < 0) {
+                stale++;
+                difference(indexedBlob.name(), "stale", null);
+                advance();
+            }
+            if (indexedBlob != null && indexedBlob.name().equals(actual.name())) {
+                if (!sameETag(indexedBlob.eTag(), actual.eTag())) {
+                    changed++;
+                    difference(actual.name(), "changed", actual);
+                }
+                advance();
+            } else {
+                missing++;
+                difference(actual.name(), "missing", actual);
+            }
+        }
+
+        void finish() {
+            while (indexedBlob != null) {
+                stale++;
+                difference(indexedBlob.name(), "stale", null);
+                advance();
+            }
+        }
+
+        private void advance() {
+            indexedBlob = cursor.next();
+            if (indexedBlob != null) {
+                indexed++;
+            }
+        }
+
+        private void difference(String name, String kind, BlobInfo actual) {
+            if (samples.size() < MAX_SAMPLES) {
+                samples.add(new Difference(name, kind));
+            }
+            if (repair && repair(name, actual, upTo)) {
+                repaired++;
+            }
+        }
+    }
+
+    /**
+     * Plik migawki (tylko do odczytu, mmap):
+     * <pre>
+     * nagłówek (32 B): magic, wersja, liczba blobów, 0, łączny rozmiar, czas budowy (epoch ms)
+     * offsety rekordów: int[count] (względem początku rekordów)
+     * sumy prefiksowe rozmiarów: long[count + 1]
+     * rekordy w kolejności nazw: nazwa (u16 + UTF-8), rozmiar, lastModified (epoch ms), ETag, content type,
+     *                            content encoding (i16 + UTF-8, -1 = null)
+     * </pre>
+     * Odczyty są bezwzględne (bez pozycji bufora), więc migawka jest bezpieczna dla wielu wątków.
+     */
+    private static final class Segment {
+        private final MappedByteBuffer buffer;
+        private final int count;
+        private final long totalSize;
+        private final Instant builtAt;
+        private final int recordsBase;
+        private final long fileBytes;
+
+        private Segment(MappedByteBuffer buffer, int count, long totalSize, Instant builtAt, int recordsBase,
+                        long fileBytes) {
+            this.buffer = buffer;
+            this.count = count;
+            this.totalSize = totalSize;
+            this.builtAt = builtAt;
+            this.recordsBase = recordsBase;
+            this.fileBytes = fileBytes;
+        }
+
+        static Segment open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < HEADER_SIZE + 8 || size > Integer.MAX_VALUE) {
+                    throw new IOException("nieprawidłowy rozmiar pliku: " + size);
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new IOException("nieznany format pliku");
+                }
+                int count = buffer.getInt(8);
+                long recordsBase = HEADER_SIZE + 4L * count + 8L * (count + 1);
+                if (count < 0 || recordsBase > size) {
+                    throw new IOException("nieprawidłowa liczba rekordów: " + count);
+                }
+                return new Segment(buffer, count, buffer.getLong(16), Instant.ofEpochMilli(buffer.getLong(24)),
+                        (int) recordsBase, size);
+            }
+        }
+
+        int lowerBound(byte[] key) {
+            int lo = 0;
+            int hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareName(mid, key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        int find(byte[] key) {
+            int index = lowerBound(key);
+            return index < count && compareName(index, key) == 0 ? index : -1;
+        }
+
+        int compareName(int index, byte[] key) {
+            int position = offset(index);
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            position += 2;
+            int common = Math.min(length, key.length);
+            for (int i = 0; i < common; i++) {
+                int order = Integer.compare(buffer.get(position + i) & 0xFF, key[i] & 0xFF);
+                if (order != 0) {
+                    return order;
+                }
+            }
+            return Integer.compare(length, key.length);
+        }
+
+        long cumulativeSize(int index) {
+            return buffer.getLong(HEADER_SIZE + 4 * count + 8 * index);
+        }
+
+        long size(int index) {
+            int position = offset(index);
+            return buffer.getLong(position + 2 + Short.toUnsignedInt(buffer.getShort(position)));
+        }
+
+        BlobInfo read(int index) {
+            ByteBuffer in = buffer.duplicate().position(offset(index));
+            byte[] name = new byte[Short.toUnsignedInt(in.getShort())];
+            in.get(name);
+            long size = in.getLong();
+            long lastModified = in.getLong();
+            String eTag = readString(in);
+            String contentType = readString(in);
+            String contentEncoding = readString(in);
+            return new BlobInfo(new String(name, StandardCharsets.UTF_8), size, eTag,
+                    lastModified != NO_TIMESTAMP ? Instant.ofEpochMilli(lastModified).atOffset(ZoneOffset.UTC) : null,
+                    contentType, contentEncoding);
+        }
+
+        private int offset(int index) {
+            return recordsBase + buffer.getInt(HEADER_SIZE + 4 * index);
+        }
+
+        private static String readString(ByteBuffer in) {
+            int length = in.getShort();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Zapis migawki: rekordy strumieniowo do pliku tymczasowego, potem nagłówek z offsetami i sumami
+     * do docelowego pliku tymczasowego, doklejenie rekordów i atomowa podmiana.
+     */
+    private static final class SegmentWriter implements Closeable {
+        private final Path records;
+        private final DataOutputStream out;
+        private final Instant builtAt;
+        private int[] offsets = new int[1024];
+        private long[] cumulative = new long[1025];
+        private int count;
+        private long written;
+        private byte[] last;
+
+        SegmentWriter(Path directory, Instant builtAt) throws IOException {
+            this.records = Files.createTempFile(directory, "records-", TEMP_SUFFIX);
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(records), 64 * 1024));
+            this.builtAt = builtAt;
+        }
+
+        /**
+         * @return false gdy nazwa nie jest większa od poprzedniej - wpis trzeba dodać inną drogą
+         */
+        boolean add(BlobInfo blob) {
+            byte[] name = utf8(blob.name());
+            if (last != null && Arrays.compareUnsigned(name, last) <= 0) {
+                return false;
+            }
+            if (written > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Indeks blobów przekracza 2 GB");
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                cumulative = Arrays.copyOf(cumulative, count * 2 + 1);
+            }
+            try {
+                offsets[count] = (int) written;
+                out.writeShort(name.length);
+                out.write(name);
+                out.writeLong(blob.size());
+                out.writeLong(blob.lastModified() != null ? blob.lastModified().toInstant().toEpochMilli() : NO_TIMESTAMP);
+                written += 2 + name.length + 16
+                        + writeString(blob.eTag()) + writeString(blob.contentType()) + writeString(blob.contentEncoding());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cumulative[count + 1] = cumulative[count] + blob.size();
+            count++;
+            last = name;
+            return true;
+        }
+
+        Segment finish(Path target) throws IOException {
+            out.close();
+            long recordsBase = HEADER_SIZE + 4L * count + 8L * (count + 1);
+            if (recordsBase + written > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Indeks blobów przekracza 2 GB");
+            }
+            Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream header = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeInt(count);
+                header.writeInt(0);
+                header.writeLong(cumulative[count]);
+                header.writeLong(builtAt.toEpochMilli());
+                for (int i = 0; i < count; i++) {
+                    header.writeInt(offsets[i]);
+                }
+                for (int i = 0; i <= count; i++) {
+                    header.writeLong(cumulative[i]);
+                }
+                header.flush();
+                try (FileChannel source = FileChannel.open(records, StandardOpenOption.READ)) {
+                    long position = 0;
+                    while (position < written) {
+                        position += source.transferTo(position, written - position, channel);
+                    }
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return Segment.open(target);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+            Files.deleteIfExists(records);
+        }
+
+        private int writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeShort(-1);
+                return 2;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Za długa wartość w indeksie blobów: " + bytes.length + " B");
+            }
+            out.writeShort(bytes.length);
+            out.write(bytes);
+            return 2 + bytes.length;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.greeting.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Limit równoległych wywołań jednej zależności (Key Vault, Blob Storage) oparty o semafor.
+ * <p>
+ * Wolny backend może zająć najwyżej {@code maxConcurrentCalls} wątków - kolejne wywołania czekają
+ * co najwyżej {@code maxWait}, a potem dostają {@link BulkheadFullException} (HTTP 503),
+ * zamiast blokować wątki obsługujące pozostałe endpointy.
+ */
+public class Bulkhead {
+
+    private static final Logger log = LoggerFactory.getLogger(Bulkhead.class);
+
+    /**
+     * Migawka stanu limitu.
+     */
+    public record Stats(String name, int maxConcurrentCalls, int inUse, long rejected) {}
+
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, int maxConcurrentCalls, Duration maxWait) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("max-concurrent-calls musi być >= 1");
+        }
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("max-wait nie może być ujemny");
+        }
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    /**
+     * Limit bez ograniczenia - dla testów i narzędzi, które same kontrolują równoległość.
+     */
+    public static Bulkhead unbounded(String name) {
+        return new Bulkhead(name, Integer.MAX_VALUE, Duration.ZERO);
+    }
+
+    /**
+     * Wykonuje {@code call} z zajętym pozwoleniem.
+     * @throws BulkheadFullException gdy pozwolenie nie zwolniło się w czasie {@code maxWait}
+     */
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable call) {
+        acquire();
+        try {
+            call.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Wariant reaktywny: pozwolenie jest brane przy subskrypcji bez czekania (wątku event loop
+     * nie wolno blokować) i zwalniane po zakończeniu, błędzie albo anulowaniu.
+     * Brak wolnego pozwolenia to sygnał błędu {@link BulkheadFullException}.
+     */
+    public <T> Mono<T> callAsync(Supplier<Mono<T>> call) {
+        return Mono.using(this::acquireNow, permit -> call.get(), permit -> permits.release());
+    }
+
+    /**
+     * Jak {@link #callAsync(Supplier)} - pozwolenie jest zajęte do końca strumienia.
+     */
+    public <T> Flux<T> streamAsync(Supplier<Flux<T>> call) {
+        return Flux.using(this::acquireNow, permit -> call.get(), permit -> permits.release());
+    }
+
+    public Stats stats() {
+        return new Stats(name, maxConcurrentCalls, maxConcurrentCalls - permits.availablePermits(), rejected.get());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void acquire() {
+        boolean acquired;
+        try {
+            acquired = maxWaitNanos == 0
+                    ? permits.tryAcquire()
+                    : permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(name, "przerwano oczekiwanie na pozwolenie");
+        }
+        if (!acquired) {
+            throw rejected();
+        }
+    }
+
+    private Bulkhead acquireNow() {
+        if (!permits.tryAcquire()) {
+            throw rejected();
+        }
+        return this;
+    }
+
+    private BulkheadFullException rejected() {
+        long count = rejected.incrementAndGet();
+        log.debug("Limit równoległych wywołań '{}' wyczerpany ({}), odrzucono już {} wywołań",
+                name, maxConcurrentCalls, count);
+        return new BulkheadFullException(name, "wszystkie " + maxConcurrentCalls + " pozwolenia zajęte");
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.greeting.service;
+
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.ErrorType;
+
+/**
+ * Zależność Azure ma już maksymalną liczbę równoległych wywołań - żądanie zostało odrzucone
+ * bez czekania na wolny backend (mapowane na HTTP 503). Jak każdy {@link ApiException} bez stack trace'u -
+ * przy przeciążeniu powstaje przy każdym odrzuconym żądaniu.
+ */
+public class BulkheadFullException extends ApiException {
+
+    private final String dependency;
+
+    public BulkheadFullException(String dependency, String reason) {
+        super(ErrorType.OVERLOADED, "Zależność '" + dependency + "' jest przeciążona: " + reason);
+        this.dependency = dependency;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.greeting.service;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Strumienie wywołującego przekazywane do Azure SDK (wejście uploadu, wyjście downloadu).
+ * Ich błąd - np. klient przerwał pobieranie /stream - jest oznaczany {@link Failure}, żeby
+ * {@link CircuitBreaker} nie liczył go jako awarii Storage.
+ */
+final class CallerStreams {
+
+    /**
+     * Błąd odczytu albo zapisu po stronie wywołującego (przyczyna zostaje w łańcuchu).
+     */
+    static final class Failure extends IOException {
+        Failure(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    private CallerStreams() {
+    }
+
+    static OutputStream guard(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    out.write(b);
+                } catch (IOException e) {
+                    throw new Failure(e);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    out.write(b, off, len);
+                } catch (IOException e) {
+                    throw new Failure(e);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    throw new Failure(e);
+                }
+            }
+
+            @Override
+            public void close() {
+                // strumień należy do wywołującego
+            }
+        };
+    }
+
+    static InputStream guard(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                try {
+                    return in.read();
+                } catch (IOException e) {
+                    throw new Failure(e);
+                }
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                try {
+                    return in.read(b, off, len);
+                } catch (IOException e) {
+                    throw new Failure(e);
+                }
+            }
+
+            @Override
+            public void close() {
+                // strumień należy do wywołującego
+            }
+        };
+    }
+}
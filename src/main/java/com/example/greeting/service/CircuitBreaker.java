@@ -0,0 +1,283 @@
+package com.example.greeting.service;
+
+import com.azure.core.exception.HttpResponseException;
+import com.example.greeting.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker jednej zależności Azure (CLOSED / OPEN / HALF_OPEN) z przesuwanym oknem
+ * ostatnich {@code windowSize} wywołań.
+ * <p>
+ * Gdy w oknie jest co najmniej {@code minimumCalls} wywołań, a odsetek błędów sięga
+ * {@code failureRateThreshold}, obwód się otwiera: przez {@code openDuration} wywołania dostają od razu
+ * {@link CircuitOpenException} (HTTP 503) zamiast czekać na timeout niedziałającej zależności.
+ * Potem {@code halfOpenCalls} próbnych wywołań decyduje - wszystkie udane zamykają obwód, jeden błąd
+ * otwiera go ponownie.
+ * <p>
+ * Błędem są timeouty, błędy I/O wywołania i odpowiedzi 5xx/408/429. Odpowiedź 4xx (np. 404 brak bloba),
+ * błąd strumienia wywołującego (klient przerwał transfer) i błędy lokalnego kodu to działająca zależność,
+ * a odrzucenia lokalne ({@link ApiException} przeciążenia) nie są liczone wcale.
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Migawka stanu obwodu.
+     * @param failureRate odsetek błędów w oknie (0-100), -1 gdy w oknie jest mniej niż minimum wywołań
+     */
+    public record Stats(String name, State state, int failureRate, int bufferedCalls, long notPermitted) {}
+
+    private enum Outcome { SUCCESS, FAILURE, IGNORED }
+
+    private final String name;
+    private final boolean enabled;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // okno i przejścia stanów pod monitorem obiektu - sekcja krytyczna jest krótsza niż jakikolwiek round trip
+    private final boolean[] window;
+    private int windowIndex;
+    private int buffered;
+    private int failures;
+    private volatile State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+    private final LongAdder notPermitted = new LongAdder();
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          Duration openDuration, int halfOpenCalls) {
+        this(name, true, windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, boolean enabled, int windowSize, int minimumCalls, int failureRateThreshold,
+                   Duration openDuration, int halfOpenCalls, LongSupplier nanoClock) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Wymagane 1 <= minimum-calls <= window-size");
+        }
+        if (failureRateThreshold < 1 || failureRateThreshold > 100) {
+            throw new IllegalArgumentException("failure-rate-threshold musi być w przedziale 1..100");
+        }
+        if (halfOpenCalls < 1) {
+            throw new IllegalArgumentException("half-open-calls musi być >= 1");
+        }
+        this.name = name;
+        this.enabled = enabled;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Obwód, który nigdy się nie otwiera - dla testów i narzędzi.
+     */
+    public static CircuitBreaker disabled(String name) {
+        return new CircuitBreaker(name, false, 1, 1, 100, Duration.ZERO, 1, System::nanoTime);
+    }
+
+    /**
+     * Wykonuje {@code call}, jeśli obwód na to pozwala, i zapisuje wynik w oknie.
+     * @throws CircuitOpenException gdy obwód jest otwarty (albo wyczerpano próbne wywołania half-open)
+     */
+    public <T> T call(Supplier<T> call) {
+        long permit = acquire();
+        try {
+            T result = call.get();
+            record(permit, Outcome.SUCCESS);
+            return result;
+        } catch (RuntimeException | Error e) {
+            record(permit, classify(e));
+            throw e;
+        }
+    }
+
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Wariant reaktywny: zgoda sprawdzana przy subskrypcji, wynik zapisywany po zakończeniu albo błędzie
+     * (anulowanie nie jest ani sukcesem, ani błędem).
+     */
+    public <T> Mono<T> callAsync(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long permit = acquire();
+            return call.get()
+                    .doOnSuccess(value -> record(permit, Outcome.SUCCESS))
+                    .doOnError(e -> record(permit, classify(e)))
+                    .doOnCancel(() -> record(permit, Outcome.IGNORED));
+        });
+    }
+
+    /**
+     * Jak {@link #callAsync(Supplier)} - sukcesem jest dopiero koniec strumienia.
+     */
+    public <T> Flux<T> streamAsync(Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            long permit = acquire();
+            return call.get()
+                    .doOnComplete(() -> record(permit, Outcome.SUCCESS))
+                    .doOnError(e -> record(permit, classify(e)))
+                    .doOnCancel(() -> record(permit, Outcome.IGNORED));
+        });
+    }
+
+    public synchronized Stats stats() {
+        int rate = buffered >= minimumCalls ? failures * 100 / buffered : -1;
+        return new Stats(name, currentState(), rate, buffered, notPermitted.sum());
+    }
+
+    public State getState() {
+        return currentState();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Czy błąd świadczy o niedziałającej zależności - rozstrzyga pierwsza rozpoznana przyczyna w łańcuchu.
+     */
+    static boolean isDependencyFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CallerStreams.Failure) {
+                return false;
+            }
+            if (cause instanceof HttpResponseException http && http.getResponse() != null) {
+                int status = http.getResponse().getStatusCode();
+                return status >= 500 || status == 408 || status == 429;
+            }
+            if (cause instanceof DeadlineExceededException || cause instanceof TimeoutException
+                    || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Outcome classify(Throwable e) {
+        if (e instanceof BulkheadFullException || e instanceof CircuitOpenException) {
+            return Outcome.IGNORED;
+        }
+        return isDependencyFailure(e) ? Outcome.FAILURE : Outcome.SUCCESS;
+    }
+
+    /**
+     * @return generacja stanu, w której wywołanie dostało zgodę - wynik z innej generacji jest pomijany
+     */
+    private long acquire() {
+        if (!enabled) {
+            return 0;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    notPermitted.increment();
+                    throw new CircuitOpenException(name);
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenInFlight >= halfOpenCalls) {
+                    notPermitted.increment();
+                    throw new CircuitOpenException(name);
+                }
+                halfOpenInFlight++;
+            }
+            return generation;
+        }
+    }
+
+    private void record(long permit, Outcome outcome) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (permit != generation) {
+                return; // wywołanie sprzed zmiany stanu
+            }
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight--;
+                if (outcome == Outcome.FAILURE) {
+                    transitionTo(State.OPEN);
+                } else if (outcome == Outcome.SUCCESS && ++halfOpenSucceeded >= halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                }
+                return;
+            }
+            if (state != State.CLOSED || outcome == Outcome.IGNORED) {
+                return;
+            }
+            boolean failed = outcome == Outcome.FAILURE;
+            if (buffered == window.length) {
+                if (window[windowIndex]) {
+                    failures--;
+                }
+            } else {
+                buffered++;
+            }
+            window[windowIndex] = failed;
+            if (failed) {
+                failures++;
+            }
+            windowIndex = (windowIndex + 1) % window.length;
+            if (failed && buffered >= minimumCalls && failures * 100 >= failureRateThreshold * buffered) {
+                log.warn("❌ Circuit breaker '{}' otwarty: {} błędów w ostatnich {} wywołaniach", name, failures, buffered);
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Wywoływane pod monitorem.
+     */
+    private void transitionTo(State next) {
+        generation++;
+        state = next;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        switch (next) {
+            case OPEN -> openedAt = nanoClock.getAsLong();
+            case HALF_OPEN -> log.info("Circuit breaker '{}' half-open - {} próbnych wywołań", name, halfOpenCalls);
+            case CLOSED -> {
+                buffered = 0;
+                failures = 0;
+                windowIndex = 0;
+                log.info("✅ Circuit breaker '{}' zamknięty", name);
+            }
+        }
+    }
+
+    /**
+     * Otwarty obwód po {@code openDuration} jest raportowany jako HALF_OPEN, zanim przejdzie przez niego wywołanie.
+     */
+    private synchronized State currentState() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+}
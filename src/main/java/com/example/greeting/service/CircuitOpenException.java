@@ -0,0 +1,22 @@
+package com.example.greeting.service;
+
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.ErrorType;
+
+/**
+ * Circuit breaker zależności Azure jest otwarty - żądanie odrzucono bez round tripu
+ * (mapowane na HTTP 503, jak {@link BulkheadFullException}).
+ */
+public class CircuitOpenException extends ApiException {
+
+    private final String dependency;
+
+    public CircuitOpenException(String dependency) {
+        super(ErrorType.OVERLOADED, "Zależność '" + dependency + "' jest niedostępna: circuit breaker otwarty");
+        this.dependency = dependency;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.greeting.service;
+
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.ErrorType;
+
+import java.time.Duration;
+
+/**
+ * Wywołanie zależności Azure nie skończyło się w limicie czasu operacji ({@link TimeLimiter}) - mapowane na HTTP 504.
+ */
+public class DeadlineExceededException extends ApiException {
+
+    private final String dependency;
+    private final String operation;
+
+    public DeadlineExceededException(String dependency, String operation, Duration deadline) {
+        super(ErrorType.GATEWAY_TIMEOUT, "Zależność '" + dependency + "' nie odpowiedziała w czasie " + deadline.toMillis()
+                + " ms (operacja " + operation + ")");
+        this.dependency = dependency;
+        this.operation = operation;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.greeting.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Prosty histogram czasów odpowiedzi o stałych kubełkach (ms), bezpieczny wątkowo i bez alokacji
+ * przy zapisie. Percentyle są szacowane górną granicą kubełka - wystarczające do diagnostyki probe'ów.
+ */
+public class LatencyHistogram {
+
+    /** Górne granice kubełków w milisekundach; ostatni kubełek (+Inf) jest niejawny. */
+    private static final long[] BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    /**
+     * Migawka histogramu.
+     * @param buckets liczba pomiarów w kubełku, klucz to górna granica ("le") w ms albo "+Inf"
+     */
+    public record Snapshot(long count, long sumMs, long maxMs,
+                           long p50Ms, long p95Ms, long p99Ms, Map<String, Long> buckets) {}
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    public void record(Duration latency) {
+        long ms = Math.max(0, latency.toMillis());
+        counts.incrementAndGet(bucketIndex(ms));
+        count.incrementAndGet();
+        sumMs.addAndGet(ms);
+        maxMs.accumulateAndGet(ms, Math::max);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < copy.length; i++) {
+            buckets.put(i < BOUNDS_MS.length ? String.valueOf(BOUNDS_MS[i]) : "+Inf", copy[i]);
+        }
+        long max = maxMs.get();
+        return new Snapshot(total, sumMs.get(), max,
+                percentile(copy, total, 0.50, max),
+                percentile(copy, total, 0.95, max),
+                percentile(copy, total, 0.99, max),
+                buckets);
+    }
+
+    private static int bucketIndex(long ms) {
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            if (ms <= BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS_MS.length;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // granica kubełka nie może przekroczyć faktycznego maksimum
+                return i < BOUNDS_MS.length ? Math.min(BOUNDS_MS[i], max) : max;
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.greeting.service;
+
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+import com.example.greeting.exception.ErrorLog;
+import com.example.greeting.logging.LogRedaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Ograniczony cache sekretów Key Vault w pamięci procesu.
+ * <ul>
+ *     <li>TTL per wpis + śledzenie wersji sekretu,</li>
+ *     <li>asynchroniczne odświeżanie przed wygaśnięciem (refresh-ahead),</li>
+ *     <li>równoległe missy dla tej samej nazwy łączone w jedno pobranie (single-flight),</li>
+ *     <li>opcjonalne serwowanie przeterminowanej wartości, gdy Key Vault nie odpowiada.</li>
+ * </ul>
+ */
+public class SecretCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SecretCache.class);
+    private static final ErrorLog errorLog = ErrorLog.of(log);
+
+    record Entry(String value, String version, Instant loadedAt, Instant refreshAt, Instant expiresAt) {}
+
+    /**
+     * Migawka liczników cache.
+     */
+    public record Stats(long hits, long misses, long refreshes, long refreshFailures,
+                        long versionChanges, long staleServed, long evictions, int size) {}
+
+    private final Function<String, KeyVaultSecret> loader;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    private final Duration ttl;
+    private final Duration refreshAhead;
+    private final Duration maxStale;
+    private final int maxEntries;
+    private final boolean serveStaleOnError;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private final AtomicLong versionChanges = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param refreshAheadRatio ułamek TTL (0..1], po którym trafienie w cache uruchamia odświeżenie w tle
+     */
+    SecretCache(Function<String, KeyVaultSecret> loader,
+                Executor refreshExecutor,
+                Clock clock,
+                Duration ttl,
+                double refreshAheadRatio,
+                Duration maxStale,
+                int maxEntries,
+                boolean serveStaleOnError) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL cache sekretów musi być dodatni");
+        }
+        if (refreshAheadRatio <= 0 || refreshAheadRatio > 1) {
+            throw new IllegalArgumentException("refresh-ahead musi być w przedziale (0, 1]");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("max-entries musi być >= 1");
+        }
+        this.loader = Objects.requireNonNull(loader);
+        this.refreshExecutor = Objects.requireNonNull(refreshExecutor);
+        this.clock = Objects.requireNonNull(clock);
+        this.ttl = ttl;
+        this.refreshAhead = Duration.ofMillis((long) (ttl.toMillis() * refreshAheadRatio));
+        this.maxStale = maxStale;
+        this.maxEntries = maxEntries;
+        this.serveStaleOnError = serveStaleOnError;
+    }
+
+    /**
+     * Zwraca wartość sekretu z cache albo pobiera ją z Key Vault.
+     * Wyjątek loadera jest propagowany, chyba że można zaserwować przeterminowaną wartość.
+     */
+    String get(String name) {
+        Instant now = clock.instant();
+        Entry entry = entries.get(name);
+
+        if (entry != null && now.isBefore(entry.expiresAt())) {
+            hits.incrementAndGet();
+            if (!now.isBefore(entry.refreshAt())) {
+                refreshAsync(name);
+            }
+            return entry.value();
+        }
+
+        misses.incrementAndGet();
+        try {
+            return load(name).value();
+        } catch (RuntimeException e) {
+            if (entry != null && serveStaleOnError && now.isBefore(entry.expiresAt().plus(maxStale))) {
+                staleServed.incrementAndGet();
+                errorLog.warn("Key Vault niedostępny - serwuję przeterminowaną wartość sekretu '{}' (wersja {})",
+                        name, entry.version());
+                return entry.value();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Ścieżka bez blokowania (klient reaktywny): wartość z cache albo null przy missie,
+     * który wywołujący uzupełnia sam przez {@link #put(String, KeyVaultSecret)}.
+     * Trafienie po progu refresh-ahead uruchamia odświeżenie w tle, tak jak {@link #get(String)}.
+     */
+    String getIfPresent(String name) {
+        Instant now = clock.instant();
+        Entry entry = entries.get(name);
+        if (entry != null && now.isBefore(entry.expiresAt())) {
+            hits.incrementAndGet();
+            if (!now.isBefore(entry.refreshAt())) {
+                refreshAsync(name);
+            }
+            return entry.value();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Zapisuje sekret pobrany poza cache.
+     * @return wartość sekretu
+     */
+    String put(String name, KeyVaultSecret secret) {
+        return store(name, secret).value();
+    }
+
+    /**
+     * Przeterminowana wartość do zaserwowania po błędzie Key Vault albo null,
+     * gdy {@code serve-stale-on-error} jest wyłączone lub wpis jest starszy niż {@code max-stale}.
+     */
+    String getStale(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || !serveStaleOnError || !clock.instant().isBefore(entry.expiresAt().plus(maxStale))) {
+            return null;
+        }
+        staleServed.incrementAndGet();
+        errorLog.warn("Key Vault niedostępny - serwuję przeterminowaną wartość sekretu '{}' (wersja {})",
+                name, entry.version());
+        return entry.value();
+    }
+
+    /**
+     * Usuwa wpis - następne wywołanie {@link #get(String)} pobierze sekret ponownie.
+     */
+    void invalidate(String name) {
+        entries.remove(name);
+    }
+
+    Stats stats() {
+        return new Stats(hits.get(), misses.get(), refreshes.get(), refreshFailures.get(),
+                versionChanges.get(), staleServed.get(), evictions.get(), entries.size());
+    }
+
+    private Entry load(String name) {
+        CompletableFuture<Entry> own = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = inFlight.putIfAbsent(name, own);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            Entry loaded = fetch(name);
+            own.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(name, own);
+        }
+    }
+
+    private void refreshAsync(String name) {
+        CompletableFuture<Entry> own = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(name, own) != null) {
+            return; // odświeżenie (albo miss) dla tej nazwy już trwa
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    own.complete(fetch(name));
+                    refreshes.incrementAndGet();
+                } catch (RuntimeException e) {
+                    refreshFailures.incrementAndGet();
+                    errorLog.warn("Odświeżenie sekretu '{}' w tle nie powiodło się: {}", name, e.getMessage());
+                    own.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(name, own);
+                }
+            });
+        } catch (RuntimeException e) {
+            // executor odrzucił zadanie (np. przy zamykaniu) - obecna wartość nadal jest ważna
+            inFlight.remove(name, own);
+            own.completeExceptionally(e);
+        }
+    }
+
+    private Entry fetch(String name) {
+        return store(name, loader.apply(name));
+    }
+
+    private Entry store(String name, KeyVaultSecret secret) {
+        Instant loadedAt = clock.instant();
+        String version = secret.getProperties() != null ? secret.getProperties().getVersion() : null;
+        Entry fresh = new Entry(secret.getValue(), version, loadedAt, loadedAt.plus(refreshAhead), loadedAt.plus(ttl));
+        LogRedaction.registerSecret(secret.getValue());
+
+        Entry previous = entries.put(name, fresh);
+        if (previous != null && !Objects.equals(previous.version(), version)) {
+            versionChanges.incrementAndGet();
+            log.info("Sekret '{}' zmienił wersję: {} -> {}", name, previous.version(), version);
+        }
+        if (previous == null) {
+            evictIfNeeded();
+        }
+        return fresh;
+    }
+
+    private void evictIfNeeded() {
+        while (entries.size() > maxEntries) {
+            String oldest = null;
+            Instant oldestLoadedAt = Instant.MAX;
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (e.getValue().loadedAt().isBefore(oldestLoadedAt)) {
+                    oldest = e.getKey();
+                    oldestLoadedAt = e.getValue().loadedAt();
+                }
+            }
+            if (oldest == null || entries.remove(oldest) == null) {
+                return;
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static Entry join(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+}
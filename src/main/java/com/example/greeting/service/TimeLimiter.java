@@ -0,0 +1,342 @@
+package com.example.greeting.service;
+
+import org.springframework.boot.convert.DurationStyle;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limity czasu operacji jednej zależności Azure i hedging odczytów.
+ * <p>
+ * Operacja z limitem ({@code deadlines}, np. {@code exists=2s}) po jego upływie kończy się
+ * {@link DeadlineExceededException} (HTTP 504), a wywołanie SDK jest przerywane - wątek żądania nie czeka
+ * na domyślne timeouty klienta HTTP. Operacje bez limitu (transfery strumieniowe) wykonują się bez zmian.
+ * <p>
+ * Hedging (tylko odczyty idempotentne, wskazane przez wywołującego): gdy pierwsza próba trwa dłużej niż
+ * p95 ostatnich udanych wywołań tej operacji, startuje druga, a wygrywa pierwsza udana odpowiedź.
+ * Druga próba nie jest retry - błąd jedynej trwającej próby kończy wywołanie. Dodatkowych prób jest najwyżej
+ * {@code hedgeBudget} wszystkich wywołań, więc awaria zależności nie podwaja ruchu.
+ */
+public class TimeLimiter {
+
+    /**
+     * Liczniki jednej operacji.
+     * @param hedgeDelayMs bieżące opóźnienie drugiej próby (p95), -1 przed zebraniem próbek
+     */
+    public record Stats(String operation, long deadlineMs, long hedgeDelayMs, long calls, long hedges,
+                        long hedgeWins, long deadlineExceeded) {}
+
+    // wirtualne wątki - próba zablokowana na wolnym backendzie nie zajmuje wątku platformy
+    private static final ExecutorService ATTEMPTS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("azure-call-", 0).factory());
+
+    private static final int SAMPLES = 128;
+    private static final int MIN_SAMPLES = 32;
+    private static final int RECOMPUTE_EVERY = 16;
+    // każde wywołanie dodaje kredyt, druga próba kosztuje 1/budget kredytów
+    private static final long CREDIT = 1_000;
+    private static final long MAX_CREDITS = 100 * CREDIT;
+
+    private final String dependency;
+    private final Map<String, Duration> deadlines;
+    private final boolean hedging;
+    private final long minHedgeDelayNanos;
+    private final long hedgeCost;
+    private final AtomicLong credits = new AtomicLong();
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    /**
+     * @param deadlines    limity czasu według nazwy operacji (jak w metryce {@code azure.client.requests})
+     * @param hedging      czy {@code hedged} wywołania wysyłają drugą próbę
+     * @param minHedgeDelay dolna granica opóźnienia drugiej próby (p95 bardzo szybkiej operacji bywa bliskie zera)
+     * @param hedgeBudget  najwyższy udział drugich prób we wszystkich wywołaniach (0-1)
+     */
+    public TimeLimiter(String dependency, Map<String, Duration> deadlines, boolean hedging,
+                       Duration minHedgeDelay, double hedgeBudget) {
+        if (hedging && (hedgeBudget <= 0 || hedgeBudget > 1)) {
+            throw new IllegalArgumentException("hedging.budget musi być w przedziale (0, 1]");
+        }
+        deadlines.forEach((operation, deadline) -> {
+            if (deadline.isNegative() || deadline.isZero()) {
+                throw new IllegalArgumentException("Limit czasu operacji '" + operation + "' musi być dodatni");
+            }
+        });
+        this.dependency = dependency;
+        this.deadlines = Map.copyOf(deadlines);
+        this.hedging = hedging;
+        this.minHedgeDelayNanos = minHedgeDelay.toNanos();
+        this.hedgeCost = hedging ? Math.round(CREDIT / hedgeBudget) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Bez limitów i hedgingu - dla testów i narzędzi.
+     */
+    public static TimeLimiter disabled(String dependency) {
+        return new TimeLimiter(dependency, Map.of(), false, Duration.ZERO, 1);
+    }
+
+    /**
+     * Parsuje limity w postaci {@code operacja=czas} (np. {@code download=5s}, {@code exists=500ms}).
+     */
+    public static Map<String, Duration> parseDeadlines(List<String> entries) {
+        Map<String, Duration> deadlines = new LinkedHashMap<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Limit czasu musi mieć postać operacja=czas: " + entry);
+            }
+            deadlines.put(entry.substring(0, separator).trim(),
+                    DurationStyle.detectAndParse(entry.substring(separator + 1).trim()));
+        }
+        return deadlines;
+    }
+
+    /**
+     * Wykonuje {@code call} z limitem czasu operacji (jeśli jest), opcjonalnie z drugą próbą.
+     * Bez limitu i drugiej próby wywołanie idzie na wątku wołającego.
+     * @param hedged czy operacja jest idempotentnym odczytem, który można wysłać dwa razy
+     * @throws DeadlineExceededException gdy żadna próba nie skończyła się w limicie
+     */
+    public <T> T call(String operation, Supplier<T> call, boolean hedged) {
+        Operation op = operation(operation);
+        op.calls.increment();
+        earnCredit();
+        long hedgeDelay = hedged ? hedgeDelayNanos(op) : -1;
+        if (op.deadlineNanos <= 0 && hedgeDelay < 0) {
+            return op.timed(call);
+        }
+        long started = System.nanoTime();
+        long deadlineAt = op.deadlineNanos > 0 ? started + op.deadlineNanos : Long.MAX_VALUE;
+        long hedgeAt = hedgeDelay >= 0 ? started + hedgeDelay : Long.MAX_VALUE;
+        CompletionService<T> completion = new ExecutorCompletionService<>(ATTEMPTS);
+        List<Future<T>> attempts = new ArrayList<>(2);
+        attempts.add(completion.submit(() -> op.timed(call)));
+        Future<T> hedge = null;
+        int pending = 1;
+        try {
+            while (true) {
+                long wakeAt = Math.min(deadlineAt, hedgeAt);
+                Future<T> finished = wakeAt == Long.MAX_VALUE
+                        ? completion.take()
+                        : completion.poll(wakeAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (finished != null) {
+                    pending--;
+                    try {
+                        T result = finished.get();
+                        if (finished == hedge) {
+                            op.hedgeWins.increment();
+                        }
+                        return result;
+                    } catch (ExecutionException e) {
+                        if (pending == 0) {
+                            throw unwrap(e);
+                        }
+                        continue; // druga próba jeszcze trwa
+                    }
+                }
+                long now = System.nanoTime();
+                if (deadlineAt != Long.MAX_VALUE && now - deadlineAt >= 0) {
+                    throw op.deadlineExceeded();
+                }
+                if (hedgeAt != Long.MAX_VALUE && now - hedgeAt >= 0) {
+                    hedgeAt = Long.MAX_VALUE;
+                    if (spendCredit()) {
+                        op.hedges.increment();
+                        hedge = completion.submit(() -> op.timed(call));
+                        attempts.add(hedge);
+                        pending++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Przerwano oczekiwanie na operację " + operation, e);
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    /**
+     * Wariant reaktywny - limit przez {@link Mono#timeout}, druga próba jako druga subskrypcja
+     * (przegrana jest anulowana). Nic nie blokuje wątku.
+     */
+    public <T> Mono<T> callAsync(String operation, Supplier<Mono<T>> call, boolean hedged) {
+        return Mono.defer(() -> {
+            Operation op = operation(operation);
+            op.calls.increment();
+            earnCredit();
+            long hedgeDelay = hedged ? hedgeDelayNanos(op) : -1;
+            Mono<T> result = hedgeDelay < 0 ? op.timedAsync(call) : hedgedAsync(op, call, hedgeDelay);
+            return op.deadlineNanos > 0
+                    ? result.timeout(Duration.ofNanos(op.deadlineNanos), Mono.defer(() -> Mono.<T>error(op.deadlineExceeded())))
+                    : result;
+        });
+    }
+
+    public List<Stats> stats() {
+        return operations.values().stream()
+                .map(op -> new Stats(op.name, TimeUnit.NANOSECONDS.toMillis(op.deadlineNanos),
+                        op.p95Nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(Math.max(op.p95Nanos, minHedgeDelayNanos)),
+                        op.calls.sum(), op.hedges.sum(), op.hedgeWins.sum(), op.deadlineExceeded.sum()))
+                .sorted((a, b) -> a.operation().compareTo(b.operation()))
+                .toList();
+    }
+
+    private <T> Mono<T> hedgedAsync(Operation op, Supplier<Mono<T>> call, long hedgeDelay) {
+        return Mono.create(sink -> {
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicInteger pending = new AtomicInteger(1);
+            Disposable.Composite attempts = Disposables.composite();
+            sink.onDispose(attempts);
+            attempts.add(subscribeAttempt(op, call, sink, done, pending, false));
+            attempts.add(Schedulers.parallel().schedule(() -> {
+                if (!done.get() && spendCredit()) {
+                    op.hedges.increment();
+                    pending.incrementAndGet();
+                    attempts.add(subscribeAttempt(op, call, sink, done, pending, true));
+                }
+            }, hedgeDelay, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private static <T> Disposable subscribeAttempt(Operation op, Supplier<Mono<T>> call, MonoSink<T> sink,
+                                                   AtomicBoolean done, AtomicInteger pending, boolean hedge) {
+        return op.timedAsync(call)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .subscribe(
+                        value -> {
+                            if (done.compareAndSet(false, true)) {
+                                if (hedge) {
+                                    op.hedgeWins.increment();
+                                }
+                                sink.success(value.orElse(null));
+                            }
+                        },
+                        error -> {
+                            if (pending.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                                sink.error(error);
+                            }
+                        });
+    }
+
+    private long hedgeDelayNanos(Operation op) {
+        if (!hedging || op.p95Nanos < 0) {
+            return -1;
+        }
+        long delay = Math.max(op.p95Nanos, minHedgeDelayNanos);
+        return op.deadlineNanos > 0 && delay >= op.deadlineNanos ? -1 : delay;
+    }
+
+    private void earnCredit() {
+        if (hedging && credits.get() < MAX_CREDITS) {
+            credits.addAndGet(CREDIT);
+        }
+    }
+
+    private boolean spendCredit() {
+        long available;
+        do {
+            available = credits.get();
+            if (available < hedgeCost) {
+                return false;
+            }
+        } while (!credits.compareAndSet(available, available - hedgeCost));
+        return true;
+    }
+
+    private Operation operation(String name) {
+        return operations.computeIfAbsent(name, key -> new Operation(key, deadlines.get(key)));
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * Limit, p95 z ostatnich {@value #SAMPLES} udanych wywołań (przeliczane co {@value #RECOMPUTE_EVERY}) i liczniki.
+     */
+    private final class Operation {
+        final String name;
+        final long deadlineNanos;
+        final LongAdder calls = new LongAdder();
+        final LongAdder hedges = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        final LongAdder deadlineExceeded = new LongAdder();
+        final long[] samples = new long[SAMPLES];
+        final AtomicLong recorded = new AtomicLong();
+        volatile long p95Nanos = -1;
+
+        Operation(String name, Duration deadline) {
+            this.name = name;
+            this.deadlineNanos = deadline != null ? deadline.toNanos() : 0;
+        }
+
+        <T> T timed(Supplier<T> call) {
+            long started = System.nanoTime();
+            T result = call.get();
+            record(System.nanoTime() - started);
+            return result;
+        }
+
+        <T> Mono<T> timedAsync(Supplier<Mono<T>> call) {
+            return Mono.defer(() -> {
+                long started = System.nanoTime();
+                return call.get().doOnSuccess(value -> record(System.nanoTime() - started));
+            });
+        }
+
+        DeadlineExceededException deadlineExceeded() {
+            deadlineExceeded.increment();
+            return new DeadlineExceededException(dependency, name, Duration.ofNanos(deadlineNanos));
+        }
+
+        /**
+         * Wyścigi zapisów do bufora tylko przybliżają próbkę - do opóźnienia drugiej próby to wystarcza.
+         */
+        private void record(long nanos) {
+            long n = recorded.getAndIncrement();
+            samples[(int) (n % SAMPLES)] = nanos;
+            long count = n + 1;
+            if (count >= MIN_SAMPLES && count % RECOMPUTE_EVERY == 0) {
+                int size = (int) Math.min(count, SAMPLES);
+                long[] sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+                p95Nanos = sorted[(int) Math.ceil(size * 0.95) - 1];
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.greeting;
+
+import com.example.greeting.config.ConcurrencyLimitFilter;
+import com.example.greeting.support.FakeAzureConfiguration;
+import com.example.greeting.support.InMemoryBlobStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Nasycony Blob Storage (4 żądania naraz po 25 ms, reszta w kolejce) i 160 klientów blobów:
+ * bez limitu każde żądanie czekałoby w kolejce backendu ~1 s. Adaptacyjny limit grupy {@code blobs}
+ * (opóźnienie bez obciążenia ~25 ms, tolerancja 2x) ma utrzymać p99 obsłużonych żądań poniżej połowy tego czasu (nadmiar dostaje szybkie 503),
+ * a {@code /greeting} ma nie odczuć przeciążenia. Bulkhead Storage jest tu celowo luźny.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "azure.storage.cache.enabled=false",
+        "fake.azure.bulkhead.max-concurrent-calls=1000",
+        "azure.storage.resilience.hedging.enabled=false", // druga próba w kolejce nasyconego backendu to tylko obciążenie
+        "greeting.concurrency-limit.blobs.min-limit=2",
+        "greeting.concurrency-limit.blobs.latency-threshold=10ms", // poniżej czasu obsługi - decyduje kolejka w backendzie
+        "greeting.concurrency-limit.sample-window=25ms", // okno ~ czas obsługi w backendzie - limit zbiega w rozgrzewce
+        "logging.level.com.example.greeting=WARN",
+        "logging.level.com.azure=WARN"
+})
+@Import(FakeAzureConfiguration.class)
+class ConcurrencyLimitUnderSlowBackendTest {
+
+    private static final int BACKEND_CAPACITY = 4;
+    private static final Duration BACKEND_LATENCY = Duration.ofMillis(25);
+    private static final int BLOB_CLIENTS = 160;
+    private static final int GREETING_CLIENTS = 4;
+    /** Czas w kolejce backendu, gdyby wszyscy klienci byli wpuszczeni naraz. */
+    private static final Duration UNLIMITED_QUEUEING = BACKEND_LATENCY.multipliedBy(BLOB_CLIENTS / BACKEND_CAPACITY);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private InMemoryBlobStorage storage;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @AfterEach
+    void resetBackend() {
+        storage.setLatency(Duration.ZERO);
+        storage.setCapacity(0);
+    }
+
+    @Test
+    void shedsExcessBlobRequestsAndKeepsP99Bounded() throws Exception {
+        storage.put("hot.txt", "gorący blob".getBytes(StandardCharsets.UTF_8), "text/plain");
+        storage.setCapacity(BACKEND_CAPACITY);
+        storage.setLatency(BACKEND_LATENCY);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicBoolean measuring = new AtomicBoolean();
+        ConcurrentLinkedQueue<Long> blobLatencies = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> greetingLatencies = new ConcurrentLinkedQueue<>();
+        AtomicLong rejected = new AtomicLong();
+        ExecutorService load = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < BLOB_CLIENTS; i++) {
+            load.submit(() -> {
+                while (!stop.get()) {
+                    long started = System.nanoTime();
+                    int status = send("/azure/blobs/hot.txt").statusCode();
+                    long elapsed = System.nanoTime() - started;
+                    if (status == 200 && measuring.get()) {
+                        blobLatencies.add(elapsed);
+                    } else if (status == 503) {
+                        rejected.incrementAndGet();
+                        Thread.sleep(50); // klient respektuje Retry-After (skrócony na potrzeby testu)
+                    }
+                }
+                return null;
+            });
+        }
+        List<Thread> greetingClients = new ArrayList<>();
+        for (int i = 0; i < GREETING_CLIENTS; i++) {
+            greetingClients.add(Thread.ofPlatform().start(() -> {
+                while (!stop.get()) {
+                    long started = System.nanoTime();
+                    assertThat(send("/greeting?name=marek").statusCode()).isEqualTo(200);
+                    if (measuring.get()) {
+                        greetingLatencies.add(System.nanoTime() - started);
+                    }
+                }
+            }));
+        }
+        try {
+            Thread.sleep(2000); // limit schodzi z max-limit do poziomu, który backend obsługuje w tolerancji
+            measuring.set(true);
+            Thread.sleep(3000);
+        } finally {
+            stop.set(true);
+            load.shutdown();
+            assertThat(load.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+            for (Thread greetingClient : greetingClients) {
+                greetingClient.join();
+            }
+        }
+
+        double blobP99 = p99Millis(blobLatencies);
+        double greetingP99 = p99Millis(greetingLatencies);
+        double blobLimit = meterRegistry.get(ConcurrencyLimitFilter.LIMIT).tag("group", "blobs").gauge().value();
+        assertThat(blobLatencies).as("obsłużone żądania blobów").isNotEmpty();
+        assertThat(rejected.get()).as("nadmiar dostaje 503").isPositive();
+        assertThat(blobLimit).as("limit blobów po adaptacji").isLessThan(BLOB_CLIENTS);
+        assertThat(concurrencyLimitFilter.stats())
+                .filteredOn(stats -> stats.name().equals("blobs"))
+                .singleElement()
+                .satisfies(stats -> assertThat(stats.rejected()).isPositive());
+        assertThat(blobP99)
+                .as("p99 blobów %.0f ms (bez limitu kolejka ~%d ms)", blobP99, UNLIMITED_QUEUEING.toMillis())
+                .isLessThan(UNLIMITED_QUEUEING.toMillis() / 2.0);
+        assertThat(greetingP99).as("p99 /greeting %.1f ms", greetingP99).isLessThan(100);
+    }
+
+    private static double p99Millis(ConcurrentLinkedQueue<Long> latencies) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(0.99 * sorted.length) - 1)] / 1e6;
+    }
+
+    private HttpResponse<String> send(String path) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+            return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Żądanie " + path + " nie powiodło się", e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.greeting;
+
+import com.example.greeting.service.AzureBlobStorageService;
+import com.example.greeting.support.FakeAzureConfiguration;
+import com.example.greeting.support.InMemoryBlobStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test obciążeniowy trybu wątków wirtualnych: Blob Storage odpowiada z opóźnieniem 300 ms
+ * i jest zasypywany żądaniami, a przepustowość {@code GET /greeting} ma pozostać stabilna.
+ * Nadmiarowe wywołania Storage są odcinane przez bulkhead (16 pozwoleń, 503), zamiast zajmować wątki.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "azure.storage.cache.enabled=false", // każde GET ma trafiać do wolnego Storage, nie do cache
+        "logging.level.com.example.greeting=WARN",
+        "logging.level.com.azure=WARN"
+})
+@Import(FakeAzureConfiguration.class)
+class GreetingUnderSlowBlobStorageTest {
+
+    private static final Duration BLOB_LATENCY = Duration.ofMillis(300);
+    private static final Duration WINDOW = Duration.ofMillis(1500);
+    private static final int GREETING_CLIENTS = 8;
+    private static final int BLOB_CLIENTS = 48;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AzureBlobStorageService blobStorageService;
+
+    @Autowired
+    private InMemoryBlobStorage storage;
+
+    private final HttpClient greetingClient = HttpClient.newHttpClient();
+    private final HttpClient blobClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void greetingThroughputStaysStableWhileBlobStorageIsSlow() throws Exception {
+        storage.put("slow.txt", "wolny backend".getBytes(StandardCharsets.UTF_8), "text/plain");
+        storage.setLatency(BLOB_LATENCY);
+        measureGreetings(Duration.ofMillis(500)); // rozgrzewka JIT i połączeń
+        double baseline = measureGreetings(WINDOW);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong blobOk = new AtomicLong();
+        AtomicLong blobRejected = new AtomicLong();
+        ExecutorService blobLoad = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < BLOB_CLIENTS; i++) {
+            blobLoad.submit(() -> {
+                while (!stop.get()) {
+                    int status = send(blobClient, "/azure/blobs/slow.txt").statusCode();
+                    if (status == 200) {
+                        blobOk.incrementAndGet();
+                    } else if (status == 503) {
+                        blobRejected.incrementAndGet();
+                        Thread.sleep(250); // klient respektuje Retry-After (skrócony na potrzeby testu)
+                    }
+                }
+                return null;
+            });
+        }
+        double underLoad;
+        try {
+            Thread.sleep(BLOB_LATENCY.toMillis()); // wszystkie pozwolenia bulkheadu zajęte
+            underLoad = measureGreetings(WINDOW);
+        } finally {
+            stop.set(true);
+            blobLoad.shutdown();
+            assertThat(blobLoad.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(blobOk.get()).as("wolne wywołania w ramach limitu kończą się sukcesem").isPositive();
+        assertThat(blobRejected.get()).as("nadmiarowe wywołania dostają 503").isPositive();
+        assertThat(blobStorageService.getBulkheadStats().rejected()).isPositive();
+        assertThat(underLoad)
+                .as("greeting req/s pod obciążeniem (%.0f) vs bez obciążenia (%.0f)", underLoad, baseline)
+                .isGreaterThan(baseline * 0.5);
+    }
+
+    /**
+     * @return przepustowość GET /greeting w żądaniach na sekundę
+     */
+    private double measureGreetings(Duration window) throws Exception {
+        AtomicLong completed = new AtomicLong();
+        long deadline = System.nanoTime() + window.toNanos();
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < GREETING_CLIENTS; i++) {
+            clients.add(Thread.ofPlatform().start(() -> {
+                while (System.nanoTime() < deadline) {
+                    HttpResponse<String> response = send(greetingClient, "/greeting?name=marek");
+                    assertThat(response.statusCode()).isEqualTo(200);
+                    completed.incrementAndGet();
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        return completed.get() * 1_000.0 / window.toMillis();
+    }
+
+    private HttpResponse<String> send(HttpClient client, String path) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+            return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Żądanie " + path + " nie powiodło się", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.greeting;
+
+import com.example.greeting.support.FakeAzureConfiguration;
+import com.example.greeting.support.InMemoryBlobStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Metryki HTTP, wywołań Azure i błędów są dostępne do scrapowania na /actuator/prometheus.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+@Import(FakeAzureConfiguration.class)
+class PrometheusMetricsTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private InMemoryBlobStorage storage;
+
+    @Test
+    void exposesEndpointAzureAndErrorMetrics() {
+        storage.put("hello.txt", "hello".getBytes(StandardCharsets.UTF_8), "text/plain");
+
+        rest.getForEntity("/greeting?name=marek", String.class);
+        rest.getForEntity("/azure/blobs/hello.txt", String.class);
+        rest.getForEntity("/azure/secrets/greeting-db-username", String.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        rest.postForEntity("/azure/blobs/upload.txt", new HttpEntity<>("12345678", headers), String.class);
+        rest.getForEntity("/azure/blobs?maxResults=abc", String.class);
+
+        String scrape = rest.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .containsPattern("http_server_requests_seconds_count\\{.*uri=\"/greeting\"")
+                .containsPattern("http_server_requests_seconds_count\\{.*uri=\"/azure/blobs/\\{blobName}\"")
+                .containsPattern("azure_client_requests_seconds_bucket\\{.*operation=\"download\"")
+                .containsPattern("azure_client_requests_seconds_count\\{.*dependency=\"keyvault\".*operation=\"getSecret\"")
+                .containsPattern("azure_client_requests_seconds_count\\{.*operation=\"upload\"")
+                .containsPattern("azure_client_transferred_bytes_total\\{.*direction=\"download\".*} 5.0")
+                .containsPattern("azure_client_transferred_bytes_total\\{.*direction=\"upload\".*} 8.0")
+                .containsPattern("greeting_errors_total\\{.*exception=\"MethodArgumentTypeMismatchException\"");
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.greeting;
+
+import com.example.greeting.support.FakeAzureConfiguration;
+import com.example.greeting.support.InMemoryBlobStorage;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency vs memory of the two web stacks serving {@code GET /azure/blobs/{name}/stream}
+ * against {@link InMemoryBlobStorage} with injected latency (so requests pile up in flight).
+ * Each variant runs in its own JVM with the same {@code -Xmx}: servlet on virtual threads,
+ * servlet on the classic Tomcat pool and reactive (WebFlux). Not a unit test - run by hand:
+ * <pre>
+ * mvn -q -DskipTests test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-classpath %classpath com.example.greeting.WebStackComparison 2000 256 200"
+ * </pre>
+ * Arguments: concurrent clients, blob size in KB, storage latency in ms. The load client runs in the
+ * measured JVM on virtual threads and is identical for every variant; peak threads are platform threads.
+ */
+public final class WebStackComparison {
+
+    private static final String HEAP = "-Xmx512m";
+    private static final String BLOB = "payload.bin";
+    private static final int REQUESTS_PER_CLIENT = 3;
+
+    private WebStackComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--variant")) {
+            runVariant(args[1], Arrays.copyOfRange(args, 2, args.length));
+            return;
+        }
+        String[] load = args.length > 0 ? args : new String[]{"2000", "256", "200"};
+        System.out.printf("%d klientów x %d żądań, blob %s KB, opóźnienie storage %s ms, %s%n",
+                Integer.parseInt(load[0]), REQUESTS_PER_CLIENT, load[1], load[2], HEAP);
+        System.out.printf("%-18s %8s %8s %10s %10s %10s %12s %12s%n",
+                "stos", "ok", "błędy", "req/s", "p50 ms", "p99 ms", "wątki max", "heap max MB");
+        for (String variant : List.of("servlet-virtual", "servlet-pool", "reactive")) {
+            System.out.println(fork(variant, load));
+        }
+    }
+
+    private static String fork(String variant, String[] load) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java, HEAP, "-cp", System.getProperty("java.class.path"),
+                WebStackComparison.class.getName(), "--variant", variant));
+        command.addAll(List.of(load));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            return String.format("%-18s błąd:%n%s", variant, output);
+        }
+        String[] lines = output.strip().split("\n");
+        return lines[lines.length - 1];
+    }
+
+    private static void runVariant(String variant, String[] load) throws Exception {
+        int clients = Integer.parseInt(load[0]);
+        byte[] payload = new byte[Integer.parseInt(load[1]) * 1024];
+        Duration latency = Duration.ofMillis(Long.parseLong(load[2]));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(GreetingApplication.class)
+                .sources(FakeAzureConfiguration.class)
+                .properties(
+                        "spring.main.web-application-type=" + (variant.equals("reactive") ? "reactive" : "servlet"),
+                        "spring.threads.virtual.enabled=" + variant.equals("servlet-virtual"),
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "azure.credential.prewarm-scopes=",
+                        "azure.http.prewarm-endpoints=",
+                        "azure.storage.cache.enabled=false",
+                        "greeting.concurrency-limit.enabled=false",
+                        "fake.azure.bulkhead.max-concurrent-calls=" + clients * 2)
+                .run();
+        try {
+            InMemoryBlobStorage storage = context.getBean(InMemoryBlobStorage.class);
+            storage.put(BLOB, payload, "application/octet-stream");
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/azure/blobs/" + BLOB + "/stream");
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            load(client, uri, Math.min(clients, 64), Duration.ZERO, storage); // rozgrzewka JIT i połączeń
+            System.gc();
+            System.out.println(load(client, uri, clients, latency, storage).format(variant));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result load(HttpClient client, URI uri, int clients, Duration latency,
+                               InMemoryBlobStorage storage) throws Exception {
+        storage.setLatency(latency);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicInteger peakThreads = new AtomicInteger();
+        AtomicLong peakHeap = new AtomicLong();
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long[] latencies = new long[clients * REQUESTS_PER_CLIENT];
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long started;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int offset = c * REQUESTS_PER_CLIENT;
+                executor.submit(() -> {
+                    start.await();
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(uri).build(),
+                                    HttpResponse.BodyHandlers.ofInputStream());
+                            try (InputStream body = response.body()) {
+                                body.transferTo(OutputStream.nullOutputStream());
+                            }
+                            (response.statusCode() == 200 ? ok : failed).incrementAndGet();
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                        }
+                        latencies[offset + r] = System.nanoTime() - t0;
+                    }
+                    return null;
+                });
+            }
+            started = System.nanoTime();
+            start.countDown();
+        }
+        long elapsed = System.nanoTime() - started;
+        sampler.interrupt();
+        sampler.join();
+        storage.setLatency(Duration.ZERO);
+        Arrays.sort(latencies);
+        return new Result(ok.get(), failed.get(), elapsed, latencies, peakThreads.get(), peakHeap.get());
+    }
+
+    private record Result(int ok, int failed, long elapsedNanos, long[] sortedLatencies,
+                          int peakThreads, long peakHeapBytes) {
+
+        String format(String variant) {
+            return String.format("%-18s %8d %8d %10.0f %10.1f %10.1f %12d %12d", variant, ok, failed,
+                    (ok + failed) / (elapsedNanos / 1e9), percentile(0.50), percentile(0.99),
+                    peakThreads, peakHeapBytes / (1024 * 1024));
+        }
+
+        private double percentile(double p) {
+            int index = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
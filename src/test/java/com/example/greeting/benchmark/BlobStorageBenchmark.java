@@ -0,0 +1,94 @@
+package com.example.greeting.benchmark;
+
+import com.example.greeting.service.AzureBlobStorageService;
+import com.example.greeting.support.InMemoryBlobStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload/download przez {@link AzureBlobStorageService} i prawdziwy klient SDK
+ * na {@link InMemoryBlobStorage} - mierzy narzut serwisu + SDK, bez sieci.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlobStorageBenchmark {
+
+    @Param({"1024", "65536", "1048576", "16777216"})
+    private int payloadSize;
+
+    private AzureBlobStorageService service;
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        InMemoryBlobStorage storage = new InMemoryBlobStorage();
+        service = new AzureBlobStorageService(storage.containerClient(), "fake", InMemoryBlobStorage.CONTAINER,
+                DataSize.ofMegabytes(4), 4, DataSize.ofMegabytes(4));
+        char[] chars = new char[payloadSize];
+        Arrays.fill(chars, 'x');
+        text = new String(chars);
+        bytes = text.getBytes(StandardCharsets.UTF_8);
+        service.uploadBlob("read.txt", text);
+    }
+
+    @Benchmark
+    public void uploadText() {
+        service.uploadBlob("write.txt", text);
+    }
+
+    @Benchmark
+    public long uploadStream() {
+        return service.uploadBlob("write.bin", new ByteArrayInputStream(bytes), "application/octet-stream");
+    }
+
+    @Benchmark
+    public String downloadText() {
+        return service.downloadBlob("read.txt");
+    }
+
+    @Benchmark
+    public void downloadStream(Blackhole blackhole) {
+        service.downloadBlob("read.txt", new BlackholeOutputStream(blackhole), null, null);
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.greeting.benchmark;
+
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Koszt budowy body błędu w {@link GlobalExceptionHandler#handleAny}.
+ * {@code badRequest} i {@code serverError} używają gotowych wyjątków - mierzą wyłącznie ścieżkę handlera.
+ * {@code failingDependency*} to 100% błędów zależności: serwis opakowuje wyjątek SDK i handler składa odpowiedź
+ * przy każdym wywołaniu; wariant {@code legacy} opakowuje jak dawniej - w RuntimeException ze stack trace'em.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorHandlingBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+    private Exception badRequest;
+    private Exception serverError;
+    private Exception sdkFailure;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/azure/blobs/missing.txt");
+        badRequest = new IllegalArgumentException("Param 'name' nie może być null");
+        serverError = new RuntimeException("Nie można pobrać blob: missing.txt");
+        sdkFailure = new IllegalStateException("Status code 500, InternalError");
+    }
+
+    @Benchmark
+    public ResponseEntity<?> badRequest() {
+        return handler.handleAny(badRequest, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> serverError() {
+        return handler.handleAny(serverError, request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ResponseEntity<?> failingDependency() {
+        return handler.handleAny(ApiException.wrap("Nie można pobrać blob: missing.txt", sdkFailure), request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ResponseEntity<?> failingDependencyLegacy() {
+        return handler.handleAny(new RuntimeException("Nie można pobrać blob: missing.txt", sdkFailure), request);
+    }
+}
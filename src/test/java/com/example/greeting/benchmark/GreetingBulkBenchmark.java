@@ -0,0 +1,77 @@
+package com.example.greeting.benchmark;
+
+import com.example.greeting.controller.BulkGreetingController;
+import com.example.greeting.controller.GreetingController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Przepustowość w imionach na sekundę: {@code GET /greeting} wołany raz na imię
+ * vs {@code POST /greetings} z {@value #NAMES} imionami w jednym żądaniu.
+ * Oba warianty przechodzą przez pełny dispatch Spring MVC (MockMvc, bez sieci) -
+ * w produkcji bulk oszczędza dodatkowo round trip HTTP na każde imię.
+ * <pre>mvn -Pjmh -DskipTests clean verify -Djmh.includes=GreetingBulkBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GreetingBulkBenchmark {
+
+    static final int NAMES = 1000;
+
+    private MockMvc mockMvc;
+    private String[] names;
+    private byte[] bulkBody;
+
+    @Setup
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new GreetingController(1024, 64),
+                new BulkGreetingController(1024, 64, new ObjectMapper())).build();
+        names = IntStream.range(0, NAMES).mapToObj(i -> "user-" + i).toArray(String[]::new);
+        bulkBody = IntStream.range(0, NAMES).mapToObj(i -> "\"" + names[i] + "\"")
+                .collect(Collectors.joining(",", "[", "]"))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public int singleName() throws Exception {
+        int bytes = 0;
+        for (String name : names) {
+            bytes += mockMvc.perform(get("/greeting").param("name", name))
+                    .andReturn().getResponse().getContentAsByteArray().length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public int bulk() throws Exception {
+        return mockMvc.perform(post("/greetings").contentType(MediaType.APPLICATION_JSON).content(bulkBody))
+                .andReturn().getResponse().getContentAsByteArray().length;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.greeting.benchmark;
+
+import com.example.greeting.controller.GreetingJsonEncoder;
+import com.example.greeting.dto.Greeting;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /greeting: dotychczasowa ścieżka (konkatenacja + rekord + Jackson) vs {@link GreetingJsonEncoder}.
+ * Alokacje: {@code gc.alloc.rate.norm} z profilera gc; p99: tryb SampleTime.
+ * <pre>mvn -Pjmh -DskipTests clean verify -Djmh.includes=GreetingEncodingBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GreetingEncodingBenchmark {
+
+    /** world = odpowiedź prekomputowana, marek = trafienie w LRU, long = imię spoza cache. */
+    @Param({"world", "marek", "long"})
+    private String variant;
+
+    private String name;
+    private ObjectMapper objectMapper;
+    private GreetingJsonEncoder encoder;
+
+    @Setup
+    public void setUp() {
+        name = switch (variant) {
+            case "long" -> "Konstantynopolitańczykowianeczka-".repeat(3);
+            default -> variant;
+        };
+        objectMapper = new ObjectMapper();
+        encoder = new GreetingJsonEncoder(1024, 64);
+    }
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new Greeting("hello you " + name));
+    }
+
+    @Benchmark
+    public byte[] preEncoded() {
+        return encoder.encode(name);
+    }
+}
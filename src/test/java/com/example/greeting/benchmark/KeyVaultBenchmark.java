@@ -0,0 +1,61 @@
+package com.example.greeting.benchmark;
+
+import com.example.greeting.service.AzureKeyVaultService;
+import com.example.greeting.support.InMemoryKeyVault;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AzureKeyVaultService#getSecret} na prawdziwym SecretClient podpiętym pod {@link InMemoryKeyVault}:
+ * trafienie w cache vs pełny round trip przez pipeline SDK (invalidate przed każdym odczytem).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyVaultBenchmark {
+
+    private AzureKeyVaultService service;
+
+    @Setup
+    public void setUp() {
+        InMemoryKeyVault vault = new InMemoryKeyVault();
+        vault.put("greeting-db-password", "s3cr3t-value");
+        service = new AzureKeyVaultService(vault.secretClient(), InMemoryKeyVault.VAULT_URL, Clock.systemUTC(),
+                Duration.ofMinutes(5), 0.8, Duration.ofMinutes(30), 256, true);
+        service.getSecret("greeting-db-password");
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String cachedHit() {
+        return service.getSecret("greeting-db-password");
+    }
+
+    @Benchmark
+    public String sdkRoundTrip() {
+        service.invalidateSecret("greeting-db-password");
+        return service.getSecret("greeting-db-password");
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.greeting.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.example.greeting.logging.JsonLogEncoder;
+import com.example.greeting.logging.RingBufferAppender;
+import com.example.greeting.logging.SampledLog;
+import com.example.greeting.service.AzureBlobStorageService;
+import com.example.greeting.support.InMemoryBlobStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Przepustowość odczytu bloba ({@link AzureBlobStorageService#downloadBlob} na {@link InMemoryBlobStorage})
+ * i samego wpisu {@link SampledLog} przy różnych trybach logowania operacji (DEBUG w {@code com.example.greeting}):
+ * <ul>
+ *     <li>{@code off} - logi sukcesu wyłączone (INFO), punkt odniesienia,</li>
+ *     <li>{@code sync-text} / {@code sync-json} - synchroniczny zapis do pliku, wzorzec tekstowy albo JSON,</li>
+ *     <li>{@code async-json} - JSON przez {@link RingBufferAppender},</li>
+ *     <li>{@code async-json-sampled} - jak wyżej, 1% logów sukcesu.</li>
+ * </ul>
+ * Zapis do pliku tymczasowego (prawdziwe I/O, bez zaśmiecania wyjścia JMH). Tryby asynchroniczne mogą porzucać
+ * wpisy przy pełnym buforze - liczba porzuconych jest drukowana na koniec pomiaru; wynik bez niej nie mówi wszystkiego.
+ * <pre>mvn -Pjmh -DskipTests clean verify -Djmh.includes=LoggingBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%t] %-40.40logger{39} : %m%n";
+
+    @Param({"off", "sync-text", "sync-json", "async-json", "async-json-sampled"})
+    private String mode;
+
+    private final SampledLog sampledLog = SampledLog.of(LoggerFactory.getLogger("com.example.greeting.benchmark"));
+    private AzureBlobStorageService service;
+    private Logger applicationLogger;
+    private Appender<ILoggingEvent> appender;
+    private Path logFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        InMemoryBlobStorage storage = new InMemoryBlobStorage();
+        storage.put("read.txt", "x".repeat(1024).getBytes(StandardCharsets.UTF_8), "text/plain");
+        service = new AzureBlobStorageService(storage.containerClient(), "fake", InMemoryBlobStorage.CONTAINER,
+                DataSize.ofMegabytes(4), 4, DataSize.ofMegabytes(4));
+
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        applicationLogger = context.getLogger("com.example.greeting");
+        applicationLogger.setAdditive(false);
+        applicationLogger.setLevel(mode.equals("off") ? Level.INFO : Level.DEBUG);
+        SampledLog.configure(mode.equals("async-json-sampled") ? 0.01 : 1.0, Map.of());
+        if (mode.equals("off")) {
+            return;
+        }
+        logFile = Files.createTempFile("logging-benchmark", ".log");
+        Appender<ILoggingEvent> file = fileAppender(context,
+                mode.endsWith("text") ? textEncoder(context) : jsonEncoder(context));
+        if (mode.startsWith("async")) {
+            RingBufferAppender async = new RingBufferAppender();
+            async.setContext(context);
+            async.setName("benchmark");
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        } else {
+            appender = file;
+        }
+        applicationLogger.addAppender(appender);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (appender instanceof RingBufferAppender async) {
+            System.out.printf("%n%s: porzucone wpisy %d%n", mode, async.droppedCount());
+        }
+        if (appender != null) {
+            applicationLogger.detachAppender(appender);
+            appender.stop();
+        }
+        applicationLogger.setLevel(null);
+        applicationLogger.setAdditive(true);
+        SampledLog.configure(1.0, Map.of());
+        if (logFile != null) {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String downloadText() {
+        return service.downloadBlob("read.txt");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void successLogOnly() {
+        sampledLog.debug("download", "✅ Blob '{}' downloaded pomyślnie ({} bytes)", "read.txt", 1024);
+    }
+
+    private Appender<ILoggingEvent> fileAppender(LoggerContext context, Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setName("benchmark-file");
+        file.setFile(logFile.toString());
+        file.setAppend(false);
+        file.setEncoder(encoder);
+        file.start();
+        return file;
+    }
+
+    private static Encoder<ILoggingEvent> textEncoder(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    private static Encoder<ILoggingEvent> jsonEncoder(LoggerContext context) {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.setService("greeting-service");
+        encoder.start();
+        return encoder;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.greeting.config;
+
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Transport na lokalnym serwerze HTTP (JDK {@link HttpServer}) - połączenia rozpoznawane po porcie klienta.
+ */
+class AzureHttpTransportTest {
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private String baseUrl;
+    private AzureHttpTransport transport;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            if (exchange.getRequestURI().getPath().startsWith("/slow") || "HEAD".equals(exchange.getRequestMethod())) {
+                sleep(exchange.getRequestURI().getPath().startsWith("/slow") ? 1_000 : 100);
+            }
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(401, -1);
+            } else {
+                byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (transport != null) {
+            transport.close();
+        }
+        server.stop(0);
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    void prewarmedConnectionsAreReusedByLaterRequests() {
+        transport = transport("prewarm", 4, Duration.ofSeconds(5));
+
+        assertThat(transport.prewarm(List.of(baseUrl, " "), 2).block()).isEqualTo(2);
+        assertThat(clientPorts).hasSize(2);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(get("/data")).isEqualTo("ok");
+        }
+        assertThat(clientPorts).as("kolejne żądania na otwartych połączeniach").hasSize(2);
+    }
+
+    @Test
+    void prewarmSurvivesUnreachableEndpoint() {
+        transport = transport("unreachable", 4, Duration.ofSeconds(5));
+
+        assertThat(transport.prewarm(List.of("http://127.0.0.1:1", baseUrl), 1).block()).isEqualTo(1);
+    }
+
+    @Test
+    void limitsConnectionsPerHost() {
+        transport = transport("limited", 1, Duration.ofSeconds(5));
+
+        List<String> bodies = Flux.range(0, 3)
+                .flatMap(i -> transport.httpClient().send(new HttpRequest(HttpMethod.GET, baseUrl + "/slow/" + i))
+                        .flatMap(HttpResponse::getBodyAsString))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(bodies).containsOnly("ok").hasSize(3);
+        assertThat(clientPorts).as("żądania czekają na jedyne połączenie").hasSize(1);
+        assertThat(registry.find("reactor.netty.connection.provider.max.connections").tag("name", "limited").gauge())
+                .isNotNull()
+                .satisfies(gauge -> assertThat(gauge.value()).isEqualTo(1.0));
+    }
+
+    @Test
+    void failsSlowResponseAfterResponseTimeout() {
+        transport = transport("timeout", 4, Duration.ofMillis(200));
+        long started = System.nanoTime();
+
+        assertThatThrownBy(() -> get("/slow")).isInstanceOf(Exception.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(900));
+    }
+
+    private AzureHttpTransport transport(String name, int maxConnections, Duration responseTimeout) {
+        return new AzureHttpTransport(name, new AzureHttpTransport.Settings(maxConnections, 100, Duration.ofSeconds(5),
+                Duration.ofSeconds(60), Duration.ofMinutes(10), Duration.ofSeconds(30),
+                Duration.ofSeconds(2), Duration.ofSeconds(5), responseTimeout, Duration.ofSeconds(5), false));
+    }
+
+    private String get(String path) {
+        try (HttpResponse response = transport.httpClient().send(new HttpRequest(HttpMethod.GET, baseUrl + path)).block()) {
+            return response.getBodyAsString().block();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
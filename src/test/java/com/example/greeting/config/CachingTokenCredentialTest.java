@@ -0,0 +1,139 @@
+package com.example.greeting.config;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class CachingTokenCredentialTest {
+
+    private static final String VAULT = "https://vault.azure.net/.default";
+    private static final String STORAGE = "https://storage.azure.com/.default";
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile boolean failing;
+    private final TokenCredential stub = request -> {
+        int call = calls.incrementAndGet();
+        if (failing) {
+            return Mono.error(new IllegalStateException("Entra ID niedostępne"));
+        }
+        AccessToken token = new AccessToken("token-" + call, clock.instant().plus(Duration.ofHours(1)).atOffset(ZoneOffset.UTC));
+        return latency.isZero() ? Mono.just(token) : Mono.delay(latency).thenReturn(token);
+    };
+    private final CachingTokenCredential credential =
+            new CachingTokenCredential(stub, clock, Duration.ofMinutes(5), "tenant-1");
+
+    @AfterEach
+    void tearDown() {
+        credential.close();
+    }
+
+    @Test
+    void sharesOneTokenAcrossConcurrentCallersAndDefaultTenant() {
+        latency = Duration.ofMillis(200);
+
+        List<AccessToken> tokens = Mono.zip(
+                credential.getToken(request(VAULT, null)),
+                credential.getToken(request(VAULT, null)),
+                credential.getToken(request(VAULT, "tenant-1"))
+        ).map(t -> List.of(t.getT1(), t.getT2(), t.getT3())).block();
+
+        assertThat(tokens).extracting(AccessToken::getToken).containsOnly("token-1");
+        assertThat(credential.getToken(request(VAULT, null)).block().getToken()).isEqualTo("token-1");
+        assertThat(calls.get()).isEqualTo(1);
+
+        assertThat(credential.getToken(request(STORAGE, null)).block().getToken()).isEqualTo("token-2");
+        assertThat(credential.getToken(request(VAULT, "other-tenant")).block().getToken()).isEqualTo("token-3");
+    }
+
+    @Test
+    void refreshesInBackgroundBeforeExpiry() {
+        credential.getToken(request(VAULT, null)).block();
+
+        clock.advance(Duration.ofMinutes(56));
+        latency = Duration.ofMillis(200);
+        AccessToken served = credential.getToken(request(VAULT, null)).block();
+
+        assertThat(served.getToken()).isEqualTo("token-1"); // obecny token, bez czekania na odświeżenie
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> "token-2".equals(credential.getToken(request(VAULT, null)).block().getToken()));
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void fetchesExpiredTokenAgainAndPropagatesFailure() {
+        credential.getToken(request(VAULT, null)).block();
+
+        clock.advance(Duration.ofMinutes(60));
+        failing = true;
+
+        assertThatThrownBy(() -> credential.getToken(request(VAULT, null)).block())
+                .hasMessageContaining("Entra ID");
+    }
+
+    @Test
+    void prewarmsTokensInBackground() {
+        latency = Duration.ofMillis(100);
+
+        credential.prewarm(List.of(VAULT, STORAGE, " "));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> calls.get() == 2);
+        credential.getToken(request(VAULT, null)).block();
+        credential.getToken(request(STORAGE, null)).block();
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void bypassesCacheForClaimsChallenge() {
+        credential.getToken(request(VAULT, null)).block();
+
+        AccessToken challenged = credential.getToken(request(VAULT, null).setClaims("{\"access_token\":{}}")).block();
+
+        assertThat(challenged.getToken()).isEqualTo("token-2");
+        assertThat(credential.getToken(request(VAULT, null)).block().getToken()).isEqualTo("token-2");
+    }
+
+    private static TokenRequestContext request(String scope, String tenantId) {
+        return new TokenRequestContext().addScopes(scope).setTenantId(tenantId);
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.greeting.config;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.example.greeting.service.AzureKeyVaultService;
+import com.example.greeting.support.InMemoryKeyVault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Czas startu: sekrety pobierane równolegle przez jeden wspólny, wstępnie rozgrzany credential
+ * (stub z opóźnieniem zamiast Entra ID) zamiast kolejno, każdy z własnym round tripem.
+ */
+class KeyVaultSecretsLoaderTest {
+
+    private static final Duration VAULT_LATENCY = Duration.ofMillis(200);
+    private static final Duration TOKEN_LATENCY = Duration.ofMillis(300);
+    private static final List<String> SECRETS = List.of("db-username", "db-password", "api-key", "smtp-password");
+
+    private final InMemoryKeyVault vault = new InMemoryKeyVault();
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final TokenCredential slowCredential = request -> {
+        tokenRequests.incrementAndGet();
+        return Mono.delay(TOKEN_LATENCY).thenReturn(new AccessToken("fake-token", OffsetDateTime.now().plusHours(1)));
+    };
+    private final CachingTokenCredential credential =
+            new CachingTokenCredential(slowCredential, Clock.systemUTC(), Duration.ofMinutes(5), InMemoryKeyVault.TENANT_ID);
+    private final AzureKeyVaultService keyVaultService = new AzureKeyVaultService(vault.secretClient(credential),
+            InMemoryKeyVault.VAULT_URL, Clock.systemUTC(), Duration.ofMinutes(5), 0.8, Duration.ofMinutes(30), 256, true);
+
+    @AfterEach
+    void tearDown() {
+        keyVaultService.shutdown();
+        credential.close();
+    }
+
+    @Test
+    void loadsSecretsInParallelWithOneSharedToken() {
+        SECRETS.forEach(name -> vault.put(name, "value-of-" + name));
+        vault.setLatency(VAULT_LATENCY);
+        KeyVaultSecretsLoader loader = new KeyVaultSecretsLoader(keyVaultService, SECRETS, Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        credential.prewarm(List.of(InMemoryKeyVault.SCOPE));
+        loader.run(null);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // kolejno: challenge + token + jeden GET na sekret
+        Duration sequential = TOKEN_LATENCY.plus(VAULT_LATENCY.multipliedBy(SECRETS.size() + 1));
+        assertThat(elapsed).isLessThan(sequential);
+        assertThat(tokenRequests.get()).isEqualTo(1);
+        SECRETS.forEach(name -> assertThat(vault.reads(name)).isEqualTo(1));
+        assertThat(keyVaultService.getSecret("api-key")).isEqualTo("value-of-api-key");
+    }
+
+    @Test
+    void failsStartupWhenSecretIsMissing() {
+        vault.put("db-username", "greeting");
+        KeyVaultSecretsLoader loader = new KeyVaultSecretsLoader(keyVaultService,
+                List.of("db-username", "missing"), Duration.ofSeconds(10));
+
+        assertThatThrownBy(() -> loader.run(null))
+                .hasMessageContaining("Key Vault secrets are not accessible")
+                .cause().hasMessageContaining("missing");
+    }
+}
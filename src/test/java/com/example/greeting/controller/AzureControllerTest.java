@@ -0,0 +1,537 @@
+package com.example.greeting.controller;
+
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.example.greeting.dto.BlobBatchItem;
+import com.example.greeting.dto.BlobInfo;
+import com.example.greeting.dto.BlobPage;
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.ErrorType;
+import com.example.greeting.service.AsyncBlobWriter;
+import com.example.greeting.service.AzureBlobStorageService;
+import com.example.greeting.service.AzureHealthMonitor;
+import com.example.greeting.service.AzureKeyVaultService;
+import com.example.greeting.service.BlobBatchOperations;
+import com.example.greeting.service.BlobContentCache;
+import com.example.greeting.service.BlobInventory;
+import com.example.greeting.service.BulkheadFullException;
+import com.example.greeting.service.CircuitBreaker;
+import com.example.greeting.service.CircuitOpenException;
+import com.example.greeting.service.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AzureController.class)
+public class AzureControllerTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AzureKeyVaultService keyVaultService;
+
+    @MockitoBean
+    private AzureBlobStorageService blobStorageService;
+
+    @MockitoBean
+    private AzureHealthMonitor healthMonitor;
+
+    @MockitoBean
+    private AsyncBlobWriter asyncBlobWriter;
+
+    @MockitoBean
+    private BlobContentCache blobContentCache;
+
+    @MockitoBean
+    private BlobBatchOperations blobBatchOperations;
+
+    @MockitoBean
+    private BlobInventory blobInventory;
+
+    @Test
+    void acceptsAsyncWriteWithTrackingId() throws Exception {
+        when(asyncBlobWriter.isEnabled()).thenReturn(true);
+        when(asyncBlobWriter.submit("note.txt", "hello")).thenReturn(new AsyncBlobWriter.WriteStatus(
+                "t-1", "note.txt", AsyncBlobWriter.State.QUEUED, false, 5, null, Instant.now(), null));
+
+        mockMvc.perform(post("/azure/blobs/note.txt").contentType(MediaType.TEXT_PLAIN).content("hello"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/azure/blob-writes/t-1"))
+                .andExpect(jsonPath("$.trackingId").value("t-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+        verify(blobStorageService, never()).uploadBlob(any(String.class), any(String.class));
+    }
+
+    @Test
+    void rejectsAsyncWriteWith503WhenQueueIsFull() throws Exception {
+        when(asyncBlobWriter.isEnabled()).thenReturn(true);
+        when(asyncBlobWriter.submit("note.txt", "hello"))
+                .thenThrow(new BulkheadFullException("blob-write-queue", "kolejka zapisów pełna"));
+
+        mockMvc.perform(post("/azure/blobs/note.txt").contentType(MediaType.TEXT_PLAIN).content("hello"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void reportsAsyncWriteStatus() throws Exception {
+        when(asyncBlobWriter.getStatus("t-1")).thenReturn(new AsyncBlobWriter.WriteStatus(
+                "t-1", "note.txt", AsyncBlobWriter.State.SUCCEEDED, true, 5, null, Instant.now(), Instant.now()));
+
+        mockMvc.perform(get("/azure/blob-writes/t-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.coalesced").value(true));
+        mockMvc.perform(get("/azure/blob-writes/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void healthAndReadinessServeCachedProbeResults() throws Exception {
+        Instant checkedAt = Instant.parse("2025-01-01T00:00:00Z");
+        Map<String, AzureHealthMonitor.ProbeResult> probes = new LinkedHashMap<>();
+        probes.put("keyVault", new AzureHealthMonitor.ProbeResult(true, null, 12, checkedAt));
+        probes.put("blobStorage", new AzureHealthMonitor.ProbeResult(false, "timeout po 2000 ms", 2000, checkedAt));
+        when(healthMonitor.current()).thenReturn(new AzureHealthMonitor.HealthSnapshot(checkedAt, probes));
+        when(healthMonitor.latencies()).thenReturn(Map.of());
+        when(blobStorageService.getCircuitBreakerStats()).thenReturn(
+                new CircuitBreaker.Stats("blob-storage", CircuitBreaker.State.OPEN, 80, 20, 7));
+
+        mockMvc.perform(get("/azure/health"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("DEGRADED"))
+                .andExpect(jsonPath("$.keyVault.healthy").value(true))
+                .andExpect(jsonPath("$.blobStorage.error").value("timeout po 2000 ms"))
+                .andExpect(jsonPath("$.blobStorage.circuitBreaker.state").value("OPEN"))
+                .andExpect(jsonPath("$.blobStorage.circuitBreaker.notPermitted").value(7));
+        mockMvc.perform(get("/azure/health/readiness"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("DOWN"))
+                .andExpect(jsonPath("$.probes.blobStorage").value(false));
+        mockMvc.perform(get("/azure/health/liveness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+
+        verify(keyVaultService, never()).isHealthy();
+        verify(blobStorageService, never()).isHealthy();
+    }
+
+    @Test
+    void streamsUploadBodyToService() throws Exception {
+        when(blobStorageService.uploadBlob(eq("data.bin"), any(InputStream.class), eq("application/octet-stream")))
+                .thenAnswer(inv -> (long) inv.getArgument(1, InputStream.class).readAllBytes().length);
+
+        mockMvc.perform(post("/azure/blobs/data.bin/stream")
+                        .contentType("application/octet-stream")
+                        .content(CONTENT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value("20"));
+    }
+
+    @Test
+    void servesCachedBlobWithETagAndAnswers304ForMatchingIfNoneMatch() throws Exception {
+        when(blobContentCache.isEnabled()).thenReturn(true);
+        when(blobContentCache.get("data.txt")).thenAnswer(inv -> new BlobContentCache.CachedBlob("data.txt",
+                "\"0x1\"", "text/plain", CONTENT.length, BlobContentCache.Tier.HEAP,
+                ByteBuffer.wrap(CONTENT).asReadOnlyBuffer(), Instant.now()));
+
+        mockMvc.perform(get("/azure/blobs/data.txt"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0x1\""))
+                .andExpect(content().bytes(CONTENT));
+
+        mockMvc.perform(get("/azure/blobs/data.txt").header(HttpHeaders.IF_NONE_MATCH, "\"0x1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0x1\""))
+                .andExpect(content().bytes(new byte[0]));
+        verify(blobStorageService, never()).downloadBlob("data.txt");
+    }
+
+    @Test
+    void streamsBlobTooLargeForCacheStraightFromStorage() throws Exception {
+        when(blobContentCache.isEnabled()).thenReturn(true);
+        when(blobContentCache.get("big.txt")).thenReturn(new BlobContentCache.CachedBlob("big.txt", "\"0x3\"",
+                "text/plain", CONTENT.length, BlobContentCache.Tier.NONE, null, Instant.now()));
+        when(blobStorageService.openBlob("big.txt", "\"0x3\"")).thenReturn(new ByteArrayInputStream(CONTENT));
+
+        mockMvc.perform(get("/azure/blobs/big.txt"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0x3\""))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void servesCompressedCachedBlobAsIsOnlyToGzipClients() throws Exception {
+        byte[] gzipped = gzip(CONTENT);
+        when(blobContentCache.isEnabled()).thenReturn(true);
+        when(blobContentCache.get("data.txt")).thenAnswer(inv -> new BlobContentCache.CachedBlob("data.txt",
+                "\"0x1\"", "text/plain", "gzip", gzipped.length, BlobContentCache.Tier.HEAP,
+                ByteBuffer.wrap(gzipped).asReadOnlyBuffer(), Instant.now()));
+
+        mockMvc.perform(get("/azure/blobs/data.txt").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, gzipped.length))
+                .andExpect(content().bytes(gzipped));
+
+        mockMvc.perform(get("/azure/blobs/data.txt").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void streamsCompressedBlobWholeAndDecodesForClientsWithoutGzip() throws Exception {
+        byte[] gzipped = gzip(CONTENT);
+        BlobProperties properties = mock(BlobProperties.class);
+        when(properties.getBlobSize()).thenReturn((long) gzipped.length);
+        when(properties.getETag()).thenReturn("\"0x2\"");
+        when(properties.getContentType()).thenReturn("application/json");
+        when(properties.getContentEncoding()).thenReturn("gzip");
+        when(blobStorageService.getBlobProperties("data.json")).thenReturn(properties);
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(1).write(gzipped);
+            return null;
+        }).when(blobStorageService).downloadBlob(eq("data.json"), any(OutputStream.class), any(), eq("\"0x2\""));
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(1).write(CONTENT);
+            return (long) CONTENT.length;
+        }).when(blobStorageService).downloadBlobDecoded(eq("data.json"), any(OutputStream.class), eq("\"0x2\""));
+
+        MvcResult passThrough = mockMvc.perform(get("/azure/blobs/data.json/stream")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                        .header(HttpHeaders.RANGE, "bytes=0-3"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(passThrough))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "none"))
+                .andExpect(content().bytes(gzipped));
+
+        MvcResult decoded = mockMvc.perform(get("/azure/blobs/data.json/stream")).andReturn();
+        mockMvc.perform(asyncDispatch(decoded))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void parsesAcceptEncoding() {
+        assertThat(AzureController.acceptsGzip("gzip")).isTrue();
+        assertThat(AzureController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(AzureController.acceptsGzip("*")).isTrue();
+        assertThat(AzureController.acceptsGzip(null)).isFalse();
+        assertThat(AzureController.acceptsGzip("br, identity")).isFalse();
+        assertThat(AzureController.acceptsGzip("gzip; q=0.000")).isFalse();
+    }
+
+    @Test
+    void invalidatesCachedBlobAfterUpload() throws Exception {
+        mockMvc.perform(post("/azure/blobs/data.txt").contentType(MediaType.TEXT_PLAIN).content("hello"))
+                .andExpect(status().isOk());
+
+        verify(blobContentCache).invalidate("data.txt");
+    }
+
+    @Test
+    void bulkDeleteReportsPerItemResultsAndInvalidatesDeletedBlobs() throws Exception {
+        when(blobBatchOperations.deleteBlobs(List.of("a.txt", "b.txt"))).thenReturn(List.of(
+                BlobBatchItem.ok("a.txt", 202, null, null),
+                BlobBatchItem.failed("b.txt", 404, "Nie można usunąć blob: b.txt (HTTP 404)")));
+
+        mockMvc.perform(post("/azure/blob-batch/delete").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"names\":[\"a.txt\",\"b.txt\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value(202))
+                .andExpect(jsonPath("$.results[1].status").value(404))
+                .andExpect(jsonPath("$.results[1].error").value(containsString("b.txt")));
+
+        verify(blobContentCache).invalidate("a.txt");
+        verify(blobContentCache, never()).invalidate("b.txt");
+    }
+
+    @Test
+    void rejectsEmptyBatch() throws Exception {
+        mockMvc.perform(post("/azure/blob-batch/properties").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"names\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("urn:greeting:problem:bad-request"))
+                .andExpect(jsonPath("$.detail").value(containsString("names")));
+    }
+
+    @Test
+    void streamsMultiGetAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BlobBatchItem> consumer = invocation.getArgument(1);
+            consumer.accept(BlobBatchItem.ok("a.txt", 200, new BlobInfo("a.txt", 2, "\"0x1\"", null, "text/plain"),
+                    "hi".getBytes(StandardCharsets.UTF_8)));
+            consumer.accept(BlobBatchItem.failed("b.txt", 404, "brak"));
+            return null;
+        }).when(blobBatchOperations).download(eq(List.of("a.txt", "b.txt")), any());
+
+        MvcResult result = mockMvc.perform(post("/azure/blob-batch/get").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"names\":[\"a.txt\",\"b.txt\"]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"name\":\"a.txt\",\"status\":200,\"blob\":{\"name\":\"a.txt\",\"size\":2,\"eTag\":\"\\\"0x1\\\"\","
+                                + "\"lastModified\":null,\"contentType\":\"text/plain\"},\"content\":\"aGk=\"}\n"
+                                + "{\"name\":\"b.txt\",\"status\":404,\"error\":\"brak\"}\n"));
+    }
+
+    @Test
+    void answers503WithRetryAfterWhenDependencyIsOverloaded() throws Exception {
+        when(blobStorageService.downloadBlob("data.txt")).thenThrow(new RuntimeException("Nie można pobrać blob: data.txt",
+                new BulkheadFullException("blob-storage", "wszystkie 64 pozwolenia zajęte")));
+
+        mockMvc.perform(get("/azure/blobs/data.txt"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.detail").value(containsString("blob-storage")))
+                .andExpect(jsonPath("$.instance").value("/azure/blobs/data.txt"));
+    }
+
+    @Test
+    void answers503WhenCircuitIsOpenAnd504WhenDeadlineIsExceeded() throws Exception {
+        when(blobStorageService.downloadBlob("data.txt")).thenThrow(ApiException.wrap("Nie można pobrać blob: data.txt",
+                new CircuitOpenException("blob-storage")));
+        when(blobStorageService.downloadBlob("slow.txt")).thenThrow(ApiException.wrap("Nie można pobrać blob: slow.txt",
+                new DeadlineExceededException("blob-storage", "download", Duration.ofSeconds(5))));
+
+        mockMvc.perform(get("/azure/blobs/data.txt"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.detail").value(containsString("circuit breaker")));
+        mockMvc.perform(get("/azure/blobs/slow.txt"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.type").value(ErrorType.GATEWAY_TIMEOUT.type()))
+                .andExpect(jsonPath("$.detail").value(containsString("5000 ms")));
+    }
+
+    @Test
+    void servesIndexQueriesAndAnswers503WhileIndexIsBuilding() throws Exception {
+        when(blobInventory.find("logs/", null, null, 2)).thenReturn(new BlobPage(List.of(
+                new BlobInfo("logs/a", 1, "\"0x1\"", null, "text/plain"),
+                new BlobInfo("logs/b", 2, "\"0x2\"", null, "text/plain")), "logs/c"));
+        when(blobInventory.totals("logs/"))
+                .thenThrow(new ApiException(ErrorType.OVERLOADED, "Indeks blobów jest w trakcie budowy"));
+        when(blobInventory.requestRebuild()).thenReturn(true);
+
+        mockMvc.perform(get("/azure/blob-index").param("prefix", "logs/").param("maxResults", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.blobs[1].name").value("logs/b"))
+                .andExpect(jsonPath("$.next").value("logs/c"));
+        mockMvc.perform(get("/azure/blob-index/stats").param("prefix", "logs/"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.detail").value(containsString("budowy")));
+        mockMvc.perform(post("/azure/blob-index/rebuild"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.started").value(true));
+    }
+
+    @Test
+    void answersProblemJsonWith404WhenBlobIsMissing() throws Exception {
+        when(blobStorageService.getBlobProperties("gone.bin"))
+                .thenThrow(new ApiException(ErrorType.NOT_FOUND, "Nie można pobrać właściwości blob: gone.bin"));
+
+        mockMvc.perform(get("/azure/blobs/gone.bin/stream"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("urn:greeting:problem:not-found"))
+                .andExpect(jsonPath("$.title").value("Nie znaleziono"))
+                .andExpect(jsonPath("$.detail").value(containsString("gone.bin")))
+                .andExpect(jsonPath("$.timestamp").exists());
+    }
+
+    @Test
+    void streamsWholeBlobWithoutRange() throws Exception {
+        stubBlob();
+
+        MvcResult result = mockMvc.perform(get("/azure/blobs/data.bin/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0x1\""))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void servesSingleByteRange() throws Exception {
+        stubBlob();
+
+        MvcResult result = mockMvc.perform(get("/azure/blobs/data.bin/stream")
+                        .header(HttpHeaders.RANGE, "bytes=10-14"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-14/20"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("abcde"));
+    }
+
+    @Test
+    void servesSuffixRange() throws Exception {
+        stubBlob();
+
+        MvcResult result = mockMvc.perform(get("/azure/blobs/data.bin/stream")
+                        .header(HttpHeaders.RANGE, "bytes=-3"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 17-19/20"))
+                .andExpect(content().string("hij"));
+    }
+
+    @Test
+    void rejectsUnsatisfiableRange() throws Exception {
+        stubBlob();
+
+        mockMvc.perform(get("/azure/blobs/data.bin/stream")
+                        .header(HttpHeaders.RANGE, "bytes=50-60"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+    }
+
+    @Test
+    void listsOnePageWithContinuationToken() throws Exception {
+        when(blobStorageService.getContainerName()).thenReturn("container");
+        when(blobStorageService.listBlobs("logs/", 2, "token-1")).thenReturn(new BlobPage(List.of(
+                new BlobInfo("logs/a", 10, "\"0x1\"", OffsetDateTime.parse("2025-01-01T10:00:00Z"), "text/plain"),
+                new BlobInfo("logs/b", 20, "\"0x2\"", OffsetDateTime.parse("2025-01-01T11:00:00Z"), "text/plain")),
+                "token-2"));
+
+        mockMvc.perform(get("/azure/blobs")
+                        .param("prefix", "logs/")
+                        .param("maxResults", "2")
+                        .param("continuationToken", "token-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.blobs[1].name").value("logs/b"))
+                .andExpect(jsonPath("$.blobs[1].size").value(20))
+                .andExpect(jsonPath("$.continuationToken").value("token-2"));
+    }
+
+    @Test
+    void rejectsTooLargePage() throws Exception {
+        mockMvc.perform(get("/azure/blobs").param("maxResults", "10000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(containsString("maxResults")));
+    }
+
+    @Test
+    void streamsListingAsNdjson() throws Exception {
+        when(blobStorageService.forEachBlobPage(eq("logs/"), eq(1000), any())).thenAnswer(inv -> {
+            Consumer<List<BlobInfo>> consumer = inv.getArgument(2);
+            consumer.accept(List.of(new BlobInfo("logs/a", 10, "\"0x1\"", null, "text/plain")));
+            consumer.accept(List.of(new BlobInfo("logs/b", 20, "\"0x2\"", null, "text/plain")));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/azure/blobs")
+                        .param("prefix", "logs/")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"name\":\"logs/a\",\"size\":10,\"eTag\":\"\\\"0x1\\\"\",\"lastModified\":null,\"contentType\":\"text/plain\"}\n"
+                                + "{\"name\":\"logs/b\",\"size\":20,\"eTag\":\"\\\"0x2\\\"\",\"lastModified\":null,\"contentType\":\"text/plain\"}\n"));
+    }
+
+    @Test
+    void defaultsToJsonListingForWildcardAccept() throws Exception {
+        when(blobStorageService.listBlobs(null, 1000, null)).thenReturn(new BlobPage(List.of(), null));
+
+        mockMvc.perform(get("/azure/blobs").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private void stubBlob() {
+        BlobProperties properties = mock(BlobProperties.class);
+        when(properties.getBlobSize()).thenReturn((long) CONTENT.length);
+        when(properties.getETag()).thenReturn("\"0x1\"");
+        when(properties.getContentType()).thenReturn("application/octet-stream");
+        when(blobStorageService.getBlobProperties("data.bin")).thenReturn(properties);
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(1);
+            BlobRange range = inv.getArgument(2);
+            long offset = range != null ? range.getOffset() : 0;
+            long count = range != null && range.getCount() != null ? range.getCount() : CONTENT.length - offset;
+            out.write(CONTENT, (int) offset, (int) count);
+            return null;
+        }).when(blobStorageService).downloadBlob(eq("data.bin"), any(OutputStream.class), any(), eq("\"0x1\""));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.greeting.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GreetingController do porównania linii z odpowiedzią GET /greeting
+@WebMvcTest({BulkGreetingController.class, GreetingController.class})
+class BulkGreetingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void greetsEachNameFromJsonArrayAsNdjson() throws Exception {
+        byte[] single = mockMvc.perform(get("/greeting").param("name", "\"ża\"\n"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String body = mockMvc.perform(post("/greetings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"marek\", \"world\", \"\\\"ża\\\"\\n\"]"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(body.split("\n")).containsExactly(
+                "{\"greeting\":\"hello you marek\"}",
+                "{\"greeting\":\"hello you world\"}",
+                new String(single, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void greetsEachNameFromNdjson() throws Exception {
+        mockMvc.perform(post("/greetings")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("\"anna\"\n\"jan\"\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"greeting\":\"hello you anna\"}\n{\"greeting\":\"hello you jan\"}\n"));
+    }
+
+    @Test
+    void emptyArrayGivesEmptyBody() throws Exception {
+        mockMvc.perform(post("/greetings").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void rejectsInvalidInputBeforeAnythingWasSent() throws Exception {
+        mockMvc.perform(post("/greetings").contentType(MediaType.APPLICATION_JSON).content("[\"marek\", 42]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(containsString("VALUE_NUMBER_INT")));
+    }
+
+    @Test
+    void endsWithErrorLineWhenResponseIsAlreadyCommitted() throws Exception {
+        // ~5000 B powitań przekracza bufor odpowiedzi (4096 B) - nagłówki 200 już wysłane
+        String names = IntStream.range(0, 200).mapToObj(i -> "\"user-" + i + "\"").collect(Collectors.joining(","));
+
+        String body = mockMvc.perform(post("/greetings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + names + ", {\"name\": \"x\"}]"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(201);
+        assertThat(lines[199]).isEqualTo("{\"greeting\":\"hello you user-199\"}");
+        assertThat(lines[200]).startsWith("{\"error\":\"Niepoprawna lista imion");
+    }
+}
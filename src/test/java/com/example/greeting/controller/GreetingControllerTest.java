@@ -30,4 +30,12 @@ public class GreetingControllerTest {
                 .andExpect(jsonPath("$.greeting").value("hello you world"));
     }
 
+    @Test
+    void escapesNameAsJson() throws Exception {
+        mockMvc.perform(get("/greeting").param("name", "\"ża\"\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"))
+                .andExpect(content().string("{\"greeting\":\"hello you \\\"ża\\\"\\n\"}"))
+                .andExpect(jsonPath("$.greeting").value("hello you \"ża\"\n"));
+    }
 }
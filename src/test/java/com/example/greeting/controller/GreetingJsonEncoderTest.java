@@ -0,0 +1,40 @@
+package com.example.greeting.controller;
+
+import com.example.greeting.dto.Greeting;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GreetingJsonEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GreetingJsonEncoder encoder = new GreetingJsonEncoder(2, 8);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"world", "marek", "", "Zażółć", "quote\"back\\slash", "tab\tnew\nline\r",
+            "ctrl\u0000\u0001\u001f\b\f", "emoji 😀!", "€uro", "slash/</script>"})
+    void producesSameBytesAsJackson(String name) throws Exception {
+        byte[] expected = objectMapper.writeValueAsBytes(new Greeting("hello you " + name));
+
+        assertThat(encoder.encode(name)).isEqualTo(expected);
+    }
+
+    @Test
+    void reusesEncodedResponses() {
+        assertThat(encoder.encode("world")).isSameAs(encoder.encode("world"));
+        assertThat(encoder.encode("marek")).isSameAs(encoder.encode("marek"));
+    }
+
+    @Test
+    void keepsCacheBounded() {
+        encoder.encode("a");
+        encoder.encode("b");
+        encoder.encode("c");
+        encoder.encode("far-too-long-to-cache");
+
+        assertThat(encoder.cachedNames()).isEqualTo(2);
+    }
+}
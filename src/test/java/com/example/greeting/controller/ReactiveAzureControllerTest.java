@@ -0,0 +1,156 @@
+package com.example.greeting.controller;
+
+import com.example.greeting.dto.BlobInfo;
+import com.example.greeting.support.FakeAzureConfiguration;
+import com.example.greeting.support.InMemoryBlobStorage;
+import com.example.greeting.support.InMemoryKeyVault;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Endpointy /azure na stosie reaktywnym (Netty + klienty asynchroniczne Azure) na fałszywym Azure.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "logging.level.com.azure=WARN"
+})
+@Import(FakeAzureConfiguration.class)
+class ReactiveAzureControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private InMemoryBlobStorage storage;
+
+    @Autowired
+    private InMemoryKeyVault vault;
+
+    @Test
+    void readsSecretThroughAsyncClient() {
+        vault.put("reactive-secret", "wartość");
+
+        client.get().uri("/azure/secrets/reactive-secret").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.value").isEqualTo("wartość");
+        client.get().uri("/azure/secrets/reactive-secret").exchange().expectStatus().isOk();
+
+        assertThat(vault.reads("reactive-secret")).isEqualTo(1);
+        client.get().uri("/azure/secrets/missing").exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody().jsonPath("$.instance").isEqualTo("/azure/secrets/missing");
+    }
+
+    @Test
+    void streamsUploadAndRangedDownload() {
+        byte[] payload = new byte[100 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 31);
+        }
+
+        client.post().uri("/azure/blobs/reactive.bin/stream")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .bodyValue(payload)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size").isEqualTo(String.valueOf(payload.length));
+        assertThat(storage.content("reactive.bin")).isEqualTo(payload);
+
+        byte[] range = client.get().uri("/azure/blobs/reactive.bin/stream")
+                .header(HttpHeaders.RANGE, "bytes=1000-1099")
+                .exchange()
+                .expectStatus().isEqualTo(206)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 1000-1099/" + payload.length)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertThat(range).isEqualTo(Arrays.copyOfRange(payload, 1000, 1100));
+
+        client.get().uri("/azure/blobs/missing.bin/stream").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void keepsTextAndListingApiOfServletStack() {
+        storage.put("reactive-b.txt", "b".getBytes(StandardCharsets.UTF_8), "text/plain");
+
+        client.post().uri("/azure/blobs/reactive-a.txt")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue("zażółć")
+                .exchange()
+                .expectStatus().isOk();
+        client.get().uri("/azure/blobs/reactive-a.txt").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("zażółć");
+
+        List<BlobInfo> listed = client.get().uri("/azure/blobs?prefix=reactive-")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BlobInfo.class).getResponseBody().collectList().block();
+        assertThat(listed).extracting(BlobInfo::name).containsExactly("reactive-a.txt", "reactive-b.txt");
+
+        client.post().uri("/azure/blob-batch/properties")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"names\":[\"reactive-b.txt\",\"missing.txt\"]}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.results[0].status").isEqualTo(200)
+                .jsonPath("$.results[1].status").isEqualTo(404);
+
+        client.delete().uri("/azure/blobs/reactive-b.txt").exchange().expectStatus().isOk();
+        assertThat(storage.names()).doesNotContain("reactive-b.txt");
+    }
+
+    @Test
+    void passesCompressedBlobThroughOrDecodesItByAcceptEncoding() throws IOException {
+        byte[] json = "{\"greeting\":\"zażółć\"}".repeat(200).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        }
+        storage.put("reactive-compressed.json", gzipped.toByteArray(), "application/json", "gzip");
+        // wstrzyknięty klient ma compress(true) - sam dekoduje gzip i usuwa Content-Encoding
+        WebTestClient plain = WebTestClient.bindToServer(new ReactorClientHttpConnector(HttpClient.create()))
+                .baseUrl("http://localhost:" + port)
+                .build();
+
+        byte[] raw = plain.get().uri("/azure/blobs/reactive-compressed.json/stream")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertThat(raw).isEqualTo(gzipped.toByteArray());
+
+        byte[] decoded = plain.get().uri("/azure/blobs/reactive-compressed.json/stream")
+                .header(HttpHeaders.ACCEPT_ENCODING, "identity")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertThat(decoded).isEqualTo(json);
+    }
+}
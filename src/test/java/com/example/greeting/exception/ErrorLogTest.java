@@ -0,0 +1,74 @@
+package com.example.greeting.exception;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(ErrorLogTest.class.getName() + ".storm");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void attach() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detach() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void logsBurstThenSamplesAndReportsSuppressedCount() {
+        ErrorLog errorLog = new ErrorLog(logger, 3, 10, Duration.ofHours(1));
+
+        for (int i = 0; i < 23; i++) {
+            errorLog.error("❌ Błąd downloadu blob '{}': {}", "a.txt", "timeout");
+        }
+
+        // 3 z burstu, potem co 10.: 13. i 23. wywołanie
+        List<String> messages = appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertThat(messages).hasSize(5);
+        assertThat(messages.get(0)).isEqualTo("❌ Błąd downloadu blob 'a.txt': timeout");
+        assertThat(messages.get(3)).endsWith("(pominięto 9 podobnych wpisów)");
+        assertThat(messages.get(4)).endsWith("(pominięto 9 podobnych wpisów)");
+        assertThat(errorLog.suppressedCount()).isEqualTo(18);
+    }
+
+    @Test
+    void limitsEachMessageSeparatelyAndKeepsThrowable() {
+        ErrorLog errorLog = new ErrorLog(logger, 1, 1000, Duration.ofHours(1));
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        errorLog.error("❌ A {}", "x", failure);
+        errorLog.error("❌ A {}", "x", failure);
+        errorLog.warn("B {}", "y");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly("❌ A x", "B y");
+        assertThat(appender.list.get(0).getThrowableProxy().getMessage()).isEqualTo("boom");
+    }
+
+    @Test
+    void opensNewWindowAfterItExpires() throws InterruptedException {
+        ErrorLog errorLog = new ErrorLog(logger, 1, 1000, Duration.ofMillis(20));
+
+        errorLog.error("❌ C");
+        errorLog.error("❌ C");
+        Thread.sleep(40);
+        errorLog.error("❌ C");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("❌ C", "❌ C (pominięto 1 podobnych wpisów)");
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.greeting.exception;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpResponse;
+import com.example.greeting.service.BulkheadFullException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.ErrorResponseException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProblemResponsesTest {
+
+    private static final Clock FIXED = Clock.fixed(Instant.parse("2025-01-01T10:15:30.750Z"), ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProblemResponses problems = new ProblemResponses(new CoarseClock(FIXED, Duration.ofSeconds(1)));
+
+    @Test
+    void buildsRfc7807BodyFromTemplate() throws Exception {
+        JsonNode body = objectMapper.readTree(problems.body(ErrorType.NOT_FOUND, "Brak \"a\\b\"\n", "/azure/blobs/a"));
+
+        assertThat(body.get("type").asText()).isEqualTo("urn:greeting:problem:not-found");
+        assertThat(body.get("title").asText()).isEqualTo("Nie znaleziono");
+        assertThat(body.get("status").asInt()).isEqualTo(404);
+        assertThat(body.get("detail").asText()).isEqualTo("Brak \"a\\b\"\n");
+        assertThat(body.get("instance").asText()).isEqualTo("/azure/blobs/a");
+        assertThat(body.get("timestamp").asText()).isEqualTo("2025-01-01T10:15:30Z");
+    }
+
+    @Test
+    void fallsBackToTitleWithoutDetail() throws Exception {
+        JsonNode body = objectMapper.readTree(problems.body(ErrorType.INTERNAL, null, null));
+
+        assertThat(body.get("detail").asText()).isEqualTo("Błąd serwera");
+        assertThat(body.get("instance").asText()).isEmpty();
+    }
+
+    @Test
+    void addsRetryAfterOnlyWhenOverloaded() {
+        ResponseEntity<byte[]> overloaded = problems.entity(ErrorType.OVERLOADED, "x", "/greeting");
+        ResponseEntity<byte[]> badRequest = problems.entity(ErrorType.BAD_REQUEST, "x", "/greeting");
+
+        assertThat(overloaded.getStatusCode().value()).isEqualTo(503);
+        assertThat(overloaded.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON);
+        assertThat(overloaded.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(badRequest.getHeaders().containsKey(HttpHeaders.RETRY_AFTER)).isFalse();
+    }
+
+    @Test
+    void writesSameBodyToServletResponse() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        problems.write(response, ErrorType.OVERLOADED, "Limit wyczerpany", "/azure/blobs/a");
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getContentAsByteArray())
+                .isEqualTo(problems.body(ErrorType.OVERLOADED, "Limit wyczerpany", "/azure/blobs/a"));
+    }
+
+    @Test
+    void classifiesExceptionsAlongCauseChain() {
+        assertThat(ErrorType.of(new IllegalArgumentException("x"))).isEqualTo(ErrorType.BAD_REQUEST);
+        assertThat(ErrorType.of(new RuntimeException("x", new BulkheadFullException("kv", "pełno"))))
+                .isEqualTo(ErrorType.OVERLOADED);
+        assertThat(ErrorType.of(ApiException.wrap("x", new BulkheadFullException("kv", "pełno"))))
+                .isEqualTo(ErrorType.OVERLOADED);
+        assertThat(ErrorType.of(new IllegalStateException("x"))).isEqualTo(ErrorType.INTERNAL);
+    }
+
+    @Test
+    void keepsOriginalClientErrorStatus() throws Exception {
+        assertThat(ErrorType.of(new ErrorResponseException(HttpStatus.PRECONDITION_FAILED)))
+                .isSameAs(ErrorType.PRECONDITION_FAILED);
+        assertThat(ErrorType.of(new ErrorResponseException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)))
+                .isSameAs(ErrorType.RANGE_NOT_SATISFIABLE);
+        assertThat(ErrorType.of(ApiException.wrap("x", azure(404)))).isSameAs(ErrorType.NOT_FOUND);
+        assertThat(ErrorType.of(ApiException.wrap("x", azure(409)))).isSameAs(ErrorType.CONFLICT);
+        assertThat(ErrorType.of(ApiException.wrap("x", azure(412)))).isSameAs(ErrorType.PRECONDITION_FAILED);
+        assertThat(ErrorType.of(ApiException.wrap("x", azure(429)))).isSameAs(ErrorType.OVERLOADED);
+        assertThat(ErrorType.of(ApiException.wrap("x", azure(408)))).isSameAs(ErrorType.GATEWAY_TIMEOUT);
+        assertThat(ErrorType.of(ApiException.wrap("x", azure(502)))).isSameAs(ErrorType.INTERNAL);
+        // 401/403 z Azure to błędna konfiguracja tożsamości usługi, nie uwierzytelnienia klienta
+        assertThat(ErrorType.of(ApiException.wrap("x", azure(401)))).isSameAs(ErrorType.BAD_GATEWAY);
+        assertThat(ErrorType.of(ApiException.wrap("x", azure(403)))).isSameAs(ErrorType.BAD_GATEWAY);
+        assertThat(ErrorType.of(ApiException.wrap("x", azure(400)))).isSameAs(ErrorType.BAD_GATEWAY);
+        assertThat(ErrorType.BAD_GATEWAY.status()).isEqualTo(502);
+
+        ErrorType teapot = ErrorType.forStatus(418);
+        assertThat(teapot).isSameAs(ErrorType.forStatus(418));
+        assertThat(teapot.status()).isEqualTo(418);
+        JsonNode body = objectMapper.readTree(problems.body(teapot, null, "/greeting"));
+        assertThat(body.get("type").asText()).isEqualTo("urn:greeting:problem:http-418");
+        assertThat(body.get("status").asInt()).isEqualTo(418);
+    }
+
+    private static HttpResponseException azure(int status) {
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatusCode()).thenReturn(status);
+        return new HttpResponseException("azure " + status, response, null);
+    }
+
+    @Test
+    void expectedFailuresCarryNoStackTrace() {
+        assertThat(ApiException.badRequest("x").getStackTrace()).isEmpty();
+        assertThat(new BulkheadFullException("kv", "pełno").getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void coarseClockFormatsOncePerPeriod() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:15:30.100Z"));
+        CoarseClock coarse = new CoarseClock(clock, Duration.ofSeconds(1));
+
+        String first = coarse.timestamp();
+        clock.now = Instant.parse("2025-01-01T10:15:30.900Z");
+        assertThat(coarse.timestamp()).isSameAs(first).isEqualTo("2025-01-01T10:15:30Z");
+        clock.now = Instant.parse("2025-01-01T10:15:31.000Z");
+        assertThat(coarse.timestamp()).isEqualTo("2025-01-01T10:15:31Z");
+    }
+
+    private static final class MutableClock extends Clock {
+        volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.greeting.load;
+
+import com.example.greeting.GreetingApplication;
+import com.example.greeting.support.FakeAzureConfiguration;
+import com.example.greeting.support.InMemoryBlobStorage;
+import com.example.greeting.support.InMemoryKeyVault;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test obciążeniowy całego stosu: {@link GreetingApplication} na losowym porcie, prawdziwy HTTP, wątki serwera
+ * i klienci Azure SDK na {@link InMemoryKeyVault} / {@link InMemoryBlobStorage} z opóźnieniem i wstrzykiwanymi
+ * błędami. Mieszanka {@link Workload} w pętli otwartej i zamkniętej; przebieg oblewa przekroczenie {@link Slo},
+ * histogramy HDR lądują w {@code target/load-reports/<faza>}. Poza zwykłym {@code mvn test} (tag {@code load}):
+ * <pre>
+ * mvn -Pload test -Dload.duration=60s -Dload.open.rate=500 -Dload.slo.p99=100ms
+ * </pre>
+ * Wszystkie parametry: {@link LoadSettings}.
+ */
+@Tag("load")
+class EndToEndLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EndToEndLoadTest.class);
+    private static final LoadSettings SETTINGS = LoadSettings.fromSystemProperties();
+
+    private static ConfigurableApplicationContext context;
+    private static LoadDriver driver;
+
+    @BeforeAll
+    static void startApplication() {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.main.web-application-type=" + SETTINGS.stack(),
+                "spring.threads.virtual.enabled=" + SETTINGS.virtualThreads(),
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "logging.level.com.example.greeting=WARN",
+                "logging.level.com.example.greeting.load=INFO",
+                "azure.credential.prewarm-scopes=",
+                "azure.http.prewarm-endpoints=",
+                "fake.azure.bulkhead.max-concurrent-calls=256"));
+        properties.addAll(SETTINGS.appProperties());
+        context = new SpringApplicationBuilder(GreetingApplication.class)
+                .sources(FakeAzureConfiguration.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+
+        InMemoryBlobStorage storage = context.getBean(InMemoryBlobStorage.class);
+        InMemoryKeyVault vault = context.getBean(InMemoryKeyVault.class);
+        Workload.seed(storage, vault);
+        storage.setLatency(SETTINGS.storageLatency());
+        storage.setFailureRate(SETTINGS.storageFailureRate());
+        vault.setLatency(SETTINGS.vaultLatency());
+        vault.setFailureRate(SETTINGS.vaultFailureRate());
+
+        URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        driver = new LoadDriver(client, Workload.mixed(baseUri, SETTINGS.mix()));
+        // rozgrzewka JIT, połączeń i cache'y aplikacji - wynik pomijany
+        driver.closedLoop("warmup", SETTINGS.closedLoopUsers(), SETTINGS.warmup());
+    }
+
+    @AfterAll
+    static void stopApplication() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void openLoopMixedWorkloadMeetsSlo() throws IOException {
+        PhaseResult result = driver.openLoop("open-loop", SETTINGS.openLoopRate(), SETTINGS.duration(),
+                SETTINGS.maxInFlight());
+
+        assertMeets(result, SETTINGS.openLoopSlo());
+    }
+
+    @Test
+    void closedLoopMixedWorkloadMeetsSlo() throws IOException {
+        PhaseResult result = driver.closedLoop("closed-loop", SETTINGS.closedLoopUsers(), SETTINGS.duration());
+
+        assertMeets(result, SETTINGS.closedLoopSlo());
+    }
+
+    private static void assertMeets(PhaseResult result, Slo slo) throws IOException {
+        Path reports = result.writeReports(SETTINGS.reportDirectory());
+        log.info("Wynik fazy {} (raporty HDR: {}):{}{}", result.name(), reports.toAbsolutePath(),
+                System.lineSeparator(), result.summary());
+        assertThat(result.requests()).as("żądania w fazie %s", result.name()).isPositive();
+        assertThat(slo.violations(result))
+                .as("SLO fazy %s %s, raporty HDR: %s", result.name(), slo, reports.toAbsolutePath())
+                .isEmpty();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.greeting.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generator obciążenia na wątkach wirtualnych, oba modele:
+ * <ul>
+ *   <li>pętla otwarta - żądania startują w stałym rytmie niezależnie od odpowiedzi, opóźnienie liczone od
+ *       zaplanowanego startu (bez coordinated omission: zator po stronie serwera widać w percentylach);</li>
+ *   <li>pętla zamknięta - N użytkowników wysyła kolejne żądanie zaraz po odpowiedzi na poprzednie,
+ *       przepustowość wynika z opóźnień.</li>
+ * </ul>
+ */
+final class LoadDriver {
+
+    private final HttpClient client;
+    private final Workload workload;
+
+    LoadDriver(HttpClient client, Workload workload) {
+        this.client = client;
+        this.workload = workload;
+    }
+
+    /**
+     * Stałe tempo {@code ratePerSecond} przez {@code duration}. Gdy w locie jest już {@code maxInFlight} żądań,
+     * kolejne jest porzucane (liczone jako błąd) - generator nie rośnie bez końca przy zatkanym serwerze.
+     */
+    PhaseResult openLoop(String name, double ratePerSecond, Duration duration, int maxInFlight) {
+        PhaseResult result = new PhaseResult(name, workload.operationNames());
+        long interval = (long) (1e9 / ratePerSecond);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long started = System.nanoTime();
+        long end = started + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = started; intended < end; intended += interval) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!inFlight.tryAcquire()) {
+                    result.dropped();
+                    continue;
+                }
+                Workload.Request request = workload.next();
+                long scheduled = intended;
+                executor.execute(() -> {
+                    try {
+                        send(request, scheduled, result);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        result.finish(System.nanoTime() - started);
+        return result;
+    }
+
+    /** {@code users} równoległych klientów bez przerw między żądaniami przez {@code duration}. */
+    PhaseResult closedLoop(String name, int users, Duration duration) {
+        PhaseResult result = new PhaseResult(name, workload.operationNames());
+        long started = System.nanoTime();
+        long end = started + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        send(workload.next(), System.nanoTime(), result);
+                    }
+                });
+            }
+        }
+        result.finish(System.nanoTime() - started);
+        return result;
+    }
+
+    private void send(Workload.Request request, long startNanos, PhaseResult result) {
+        int status;
+        try {
+            status = client.send(request.request(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 0;
+        }
+        result.record(request.operation(), status, System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.greeting.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parametry testu obciążeniowego z właściwości systemowych {@code load.*} (Maven przekazuje {@code -D} do testów).
+ * Domyślne progi SLO są zachowawcze, żeby przebieg przechodził na współdzielonym runnerze CI -
+ * przed porównaniem wydań warto je zawęzić do wartości zmierzonych na docelowej maszynie.
+ *
+ * @param stack           {@code servlet} albo {@code reactive}
+ * @param appProperties   dodatkowe właściwości aplikacji: {@code -Dload.app.<klucz>=<wartość>}
+ */
+record LoadSettings(String stack,
+                    boolean virtualThreads,
+                    Duration warmup,
+                    Duration duration,
+                    double openLoopRate,
+                    int maxInFlight,
+                    int closedLoopUsers,
+                    Duration storageLatency,
+                    Duration vaultLatency,
+                    double storageFailureRate,
+                    double vaultFailureRate,
+                    Map<String, Integer> mix,
+                    Slo openLoopSlo,
+                    Slo closedLoopSlo,
+                    Path reportDirectory,
+                    List<String> appProperties) {
+
+    private static final String APP_PREFIX = "load.app.";
+
+    static LoadSettings fromSystemProperties() {
+        double rate = number("load.open.rate", 200);
+        Duration p50 = duration("load.slo.p50", "25ms");
+        Duration p99 = duration("load.slo.p99", "250ms");
+        double maxErrorRate = number("load.slo.max-error-rate", 0.01);
+        return new LoadSettings(
+                System.getProperty("load.stack", "servlet"),
+                Boolean.parseBoolean(System.getProperty("load.virtual-threads", "true")),
+                duration("load.warmup", "5s"),
+                duration("load.duration", "20s"),
+                rate,
+                (int) number("load.open.max-in-flight", 2_000),
+                (int) number("load.closed.users", 32),
+                duration("load.storage.latency", "5ms"),
+                duration("load.vault.latency", "10ms"),
+                number("load.storage.failure-rate", 0.001),
+                number("load.vault.failure-rate", 0.001),
+                mix(System.getProperty("load.mix")),
+                new Slo(p50, p99, number("load.open.slo.min-throughput", rate * 0.95), maxErrorRate),
+                new Slo(p50, p99, number("load.closed.slo.min-throughput", 200), maxErrorRate),
+                Path.of(System.getProperty("load.report-dir", "target/load-reports")),
+                readAppProperties());
+    }
+
+    private static Duration duration(String key, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(key, defaultValue));
+    }
+
+    private static double number(String key, double defaultValue) {
+        String value = System.getProperty(key);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    /** {@code greeting:50,secret:30,health:20}; brak - {@link Workload#DEFAULT_MIX}. */
+    private static Map<String, Integer> mix(String value) {
+        if (value == null || value.isBlank()) {
+            return Workload.DEFAULT_MIX;
+        }
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("load.mix: oczekiwano operacja:waga, jest '" + entry + "'");
+            }
+            mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+
+    private static List<String> readAppProperties() {
+        List<String> properties = new ArrayList<>();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith(APP_PREFIX))
+                .sorted()
+                .forEach(key -> properties.add(key.substring(APP_PREFIX.length()) + "=" + System.getProperty(key)));
+        return properties;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.greeting.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wynik jednej fazy: histogram HDR opóźnień (w mikrosekundach) i liczniki odpowiedzi per operacja.
+ * Zapis jest bezpieczny z wielu wątków; odczyty po {@link #finish(long)}.
+ */
+final class PhaseResult {
+
+    private final String name;
+    private final Map<String, OperationStats> operations = new LinkedHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private long elapsedNanos;
+
+    PhaseResult(String name, Collection<String> operationNames) {
+        this.name = name;
+        operationNames.forEach(operation -> operations.put(operation, new OperationStats()));
+    }
+
+    String name() {
+        return name;
+    }
+
+    /** Status 2xx to sukces; cokolwiek innego (także 0 - błąd połączenia) liczy się jako błąd. */
+    void record(String operation, int status, long latencyNanos) {
+        OperationStats stats = operations.get(operation);
+        stats.latency.recordValue(Math.max(1, latencyNanos / 1_000));
+        (status >= 200 && status < 300 ? stats.ok : stats.errors).increment();
+    }
+
+    /** Żądanie pętli otwartej, którego nie wysłano - limit żądań w locie wyczerpany. */
+    void dropped() {
+        dropped.increment();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    Histogram total() {
+        Histogram total = new Histogram(3);
+        operations.values().forEach(stats -> total.add(stats.latency));
+        return total;
+    }
+
+    long requests() {
+        return operations.values().stream().mapToLong(stats -> stats.ok.sum() + stats.errors.sum()).sum();
+    }
+
+    long errors() {
+        return operations.values().stream().mapToLong(stats -> stats.errors.sum()).sum();
+    }
+
+    /** Udane żądania na sekundę. */
+    double throughput() {
+        return elapsedNanos > 0 ? (requests() - errors()) / (elapsedNanos / 1e9) : 0;
+    }
+
+    /** Błędy i porzucone żądania względem wszystkich zaplanowanych. */
+    double errorRate() {
+        long planned = requests() + dropped.sum();
+        return planned > 0 ? (double) (errors() + dropped.sum()) / planned : 0;
+    }
+
+    String summary() {
+        StringBuilder summary = new StringBuilder(String.format("%s: %d żądań, %d błędów, %d porzuconych, %.1f req/s%n",
+                name, requests(), errors(), dropped.sum(), throughput()));
+        summary.append(String.format("%-12s %8s %8s %10s %10s %10s %10s%n",
+                "operacja", "ok", "błędy", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        operations.forEach((operation, stats) -> summary.append(line(operation, stats.ok.sum(), stats.errors.sum(),
+                stats.latency)));
+        return summary.append(line("razem", requests() - errors(), errors(), total())).toString();
+    }
+
+    /**
+     * Rozkłady percentyli w formacie .hgrm (wartości w ms, do wczytania w HdrHistogram plotter)
+     * - jeden plik na operację i {@code all.hgrm} - oraz podsumowanie, w katalogu {@code <directory>/<faza>}.
+     */
+    Path writeReports(Path directory) throws IOException {
+        Path phase = Files.createDirectories(directory.resolve(name));
+        for (Map.Entry<String, OperationStats> entry : operations.entrySet()) {
+            writeDistribution(phase.resolve(entry.getKey() + ".hgrm"), entry.getValue().latency);
+        }
+        writeDistribution(phase.resolve("all.hgrm"), total());
+        Files.writeString(phase.resolve("summary.txt"), summary());
+        return phase;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+
+    private static String line(String operation, long ok, long errors, Histogram latency) {
+        return String.format("%-12s %8d %8d %10.1f %10.1f %10.1f %10.1f%n", operation, ok, errors,
+                latency.getValueAtPercentile(50.0) / 1e3, latency.getValueAtPercentile(90.0) / 1e3,
+                latency.getValueAtPercentile(99.0) / 1e3, latency.getMaxValue() / 1e3);
+    }
+
+    private static final class OperationStats {
+        final Histogram latency = new ConcurrentHistogram(3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+}
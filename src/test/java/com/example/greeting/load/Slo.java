@@ -0,0 +1,34 @@
+package com.example.greeting.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progi SLO jednej fazy testu obciążeniowego - przekroczenie któregokolwiek oblewa przebieg.
+ * Percentyle liczone z histogramu wszystkich operacji, przepustowość z udanych żądań.
+ */
+record Slo(Duration p50, Duration p99, double minThroughput, double maxErrorRate) {
+
+    List<String> violations(PhaseResult result) {
+        Histogram all = result.total();
+        List<String> violations = new ArrayList<>();
+        check(violations, "p50", all.getValueAtPercentile(50.0), p50);
+        check(violations, "p99", all.getValueAtPercentile(99.0), p99);
+        if (result.throughput() < minThroughput) {
+            violations.add(String.format("przepustowość %.1f req/s < %.1f req/s", result.throughput(), minThroughput));
+        }
+        if (result.errorRate() > maxErrorRate) {
+            violations.add(String.format("błędy %.2f%% > %.2f%%", result.errorRate() * 100, maxErrorRate * 100));
+        }
+        return violations;
+    }
+
+    private static void check(List<String> violations, String percentile, long micros, Duration limit) {
+        if (micros > limit.toNanos() / 1_000) {
+            violations.add(String.format("%s %.1f ms > %d ms", percentile, micros / 1e3, limit.toMillis()));
+        }
+    }
+}
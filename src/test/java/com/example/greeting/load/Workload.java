@@ -0,0 +1,138 @@
+package com.example.greeting.load;
+
+import com.example.greeting.support.InMemoryBlobStorage;
+import com.example.greeting.support.InMemoryKeyVault;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Mieszanka żądań testu obciążeniowego - operacja losowana według wag przy każdym żądaniu.
+ * Odczyty trafiają w bloby i sekrety zasiane przez {@link #seed}, zapisy w osobną pulę nazw,
+ * żeby nie unieważniały cache'u odczytów.
+ */
+final class Workload {
+
+    /** Domyślne wagi; nadpisywane przez {@code -Dload.mix=greeting:50,secret:50}. */
+    static final Map<String, Integer> DEFAULT_MIX = defaultMix();
+
+    private static final int READ_BLOBS = 100;
+    private static final int WRITE_BLOBS = 100;
+    private static final int SECRETS = 20;
+    private static final int NAMES = 1_000;
+    private static final byte[] BLOB_CONTENT = "x".repeat(4 * 1024).getBytes(StandardCharsets.UTF_8);
+    private static final String WRITE_CONTENT = "y".repeat(512);
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final List<Operation> operations;
+    private final int[] cumulativeWeights;
+
+    private Workload(List<Operation> operations) {
+        this.operations = operations;
+        this.cumulativeWeights = new int[operations.size()];
+        int sum = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            sum += operations.get(i).weight();
+            cumulativeWeights[i] = sum;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("Suma wag mieszanki musi być dodatnia");
+        }
+    }
+
+    /**
+     * Mieszanka po {@code /greeting}, {@code /azure/blobs/**}, {@code /azure/secrets/**} i {@code /azure/health}.
+     */
+    static Workload mixed(URI baseUri, Map<String, Integer> weights) {
+        Map<String, Function<ThreadLocalRandom, HttpRequest>> known = new LinkedHashMap<>();
+        known.put("greeting", random -> get(baseUri, "/greeting?name=load-" + random.nextInt(NAMES)));
+        known.put("blob-read", random -> get(baseUri, "/azure/blobs/" + readBlob(random)));
+        known.put("blob-stream", random -> get(baseUri, "/azure/blobs/" + readBlob(random) + "/stream"));
+        known.put("blob-list", random -> get(baseUri, "/azure/blobs?prefix=load-read-&maxResults=50"));
+        known.put("blob-write", random -> HttpRequest.newBuilder(
+                        baseUri.resolve("/azure/blobs/load-write-" + random.nextInt(WRITE_BLOBS)))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "text/plain; charset=utf-8")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(WRITE_CONTENT))
+                .build());
+        known.put("secret", random -> get(baseUri, "/azure/secrets/load-secret-" + random.nextInt(SECRETS)));
+        known.put("health", random -> get(baseUri, "/azure/health"));
+
+        List<Operation> operations = new ArrayList<>();
+        weights.forEach((name, weight) -> {
+            Function<ThreadLocalRandom, HttpRequest> request = known.get(name);
+            if (request == null) {
+                throw new IllegalArgumentException("Nieznana operacja '" + name + "', dostępne: " + known.keySet());
+            }
+            if (weight > 0) {
+                operations.add(new Operation(name, weight, request));
+            }
+        });
+        return new Workload(operations);
+    }
+
+    /** Dane, których potrzebują odczyty mieszanki. */
+    static void seed(InMemoryBlobStorage storage, InMemoryKeyVault vault) {
+        for (int i = 0; i < READ_BLOBS; i++) {
+            storage.put("load-read-" + i, BLOB_CONTENT, "text/plain");
+        }
+        for (int i = 0; i < SECRETS; i++) {
+            vault.put("load-secret-" + i, "value-" + i);
+        }
+    }
+
+    List<String> operationNames() {
+        return operations.stream().map(Operation::name).toList();
+    }
+
+    /** Losuje operację według wag i buduje jej żądanie. */
+    Request next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= point) {
+            index++;
+        }
+        Operation operation = operations.get(index);
+        return new Request(operation.name(), operation.request().apply(random));
+    }
+
+    private static String readBlob(ThreadLocalRandom random) {
+        return "load-read-" + random.nextInt(READ_BLOBS);
+    }
+
+    private static HttpRequest get(URI baseUri, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Accept", path.startsWith("/azure/blobs/") ? "*/*" : "application/json")
+                .GET()
+                .build();
+    }
+
+    private static Map<String, Integer> defaultMix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("greeting", 40);
+        mix.put("blob-read", 20);
+        mix.put("blob-stream", 5);
+        mix.put("blob-list", 5);
+        mix.put("blob-write", 10);
+        mix.put("secret", 15);
+        mix.put("health", 5);
+        return mix;
+    }
+
+    private record Operation(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+    }
+
+    record Request(String operation, HttpRequest request) {
+    }
+}
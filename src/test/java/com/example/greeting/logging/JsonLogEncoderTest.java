@@ -0,0 +1,82 @@
+package com.example.greeting.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.KeyValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLogEncoderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final JsonLogEncoder encoder = new JsonLogEncoder();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void writesOneJsonLinePerEventWithMdcAndKeyValuePairs() throws Exception {
+        encoder.setService("greeting-service");
+        LoggingEvent event = event(Level.INFO, "✅ Blob '{}' uploaded pomyślnie ({} bytes)", null, "a.txt", 5);
+        event.addKeyValuePair(new KeyValuePair("operation", "upload"));
+        event.setMDCPropertyMap(Map.of("traceId", "abc123"));
+
+        String line = new String(encoder.encode(event), StandardCharsets.UTF_8);
+
+        assertThat(line).endsWith("}\n").doesNotContain("\n{");
+        JsonNode json = mapper.readTree(line);
+        assertThat(json.get("@timestamp").asText()).isNotBlank();
+        assertThat(json.get("level").asText()).isEqualTo("INFO");
+        assertThat(json.get("logger").asText()).isEqualTo("json-test");
+        assertThat(json.get("service").asText()).isEqualTo("greeting-service");
+        assertThat(json.get("message").asText()).isEqualTo("✅ Blob 'a.txt' uploaded pomyślnie (5 bytes)");
+        assertThat(json.get("operation").asText()).isEqualTo("upload");
+        assertThat(json.get("traceId").asText()).isEqualTo("abc123");
+        assertThat(json.has("error")).isFalse();
+    }
+
+    @Test
+    void redactsSecretsInMessageFieldsAndStackTrace() throws Exception {
+        String secret = "kv-value-" + System.nanoTime();
+        LogRedaction.registerSecret(secret);
+        LoggingEvent event = event(Level.ERROR, "Połączenie {} przez {}",
+                new IllegalStateException("odrzucono hasło " + secret),
+                "DefaultEndpointsProtocol=https;AccountName=acc;AccountKey=c2VjcmV0;EndpointSuffix=core.windows.net",
+                "https://acc.blob.core.windows.net/c/a.txt?sv=2024-08-04&sig=abc%2Fdef&se=2030");
+        event.setMDCPropertyMap(Map.of("dbPassword", "hunter2", "secretName", "greeting-db-password"));
+
+        JsonNode json = mapper.readTree(encoder.encode(event));
+
+        assertThat(json.get("message").asText())
+                .contains("AccountKey=***;EndpointSuffix=core.windows.net")
+                .contains("sig=***&se=2030")
+                .doesNotContain("c2VjcmV0", "abc%2Fdef");
+        assertThat(json.get("dbPassword").asText()).isEqualTo(LogRedaction.MASK);
+        assertThat(json.get("secretName").asText()).isEqualTo("greeting-db-password");
+        assertThat(json.get("error").get("type").asText()).isEqualTo(IllegalStateException.class.getName());
+        assertThat(json.get("error").get("message").asText()).isEqualTo("odrzucono hasło ***");
+        assertThat(json.get("error").get("stack_trace").asText()).doesNotContain(secret).contains("JsonLogEncoderTest");
+    }
+
+    @Test
+    void masksAuthorizationHeadersAndKeepsShortValues() {
+        LogRedaction.registerSecret("greeting"); // za krótki - zwykłe słowa zostają
+
+        assertThat(LogRedaction.redact("Authorization: Bearer eyJhbGciOi.x.y, status=401"))
+                .isEqualTo("Authorization: ***, status=401");
+        assertThat(LogRedaction.redact("{\"password\":\"s3cr3t\",\"user\":\"greeting\"}"))
+                .isEqualTo("{\"password\":\"***\",\"user\":\"greeting\"}");
+        assertThat(LogRedaction.isSensitiveKey("sas-token")).isTrue();
+        assertThat(LogRedaction.isSensitiveKey("secretName")).isFalse();
+    }
+
+    private LoggingEvent event(Level level, String format, Throwable throwable, Object... args) {
+        return new LoggingEvent(JsonLogEncoderTest.class.getName(), context.getLogger("json-test"), level, format,
+                throwable, args);
+    }
+}
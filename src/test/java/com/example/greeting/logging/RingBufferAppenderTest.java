@@ -0,0 +1,136 @@
+package com.example.greeting.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.status.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RingBufferAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("ring-buffer-test");
+    private final CollectingAppender target = new CollectingAppender();
+    private final RingBufferAppender appender = new RingBufferAppender();
+
+    {
+        context.setMDCAdapter(new LogbackMDCAdapter()); // jak w kontekście skonfigurowanym przez SLF4J
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.gate.countDown();
+        appender.stop();
+    }
+
+    @Test
+    void deliversEveryEventInPerThreadOrderAndFlushesOnStop() {
+        start(1024);
+
+        try (ExecutorService producers = Executors.newFixedThreadPool(4)) {
+            for (int p = 0; p < 4; p++) {
+                int producer = p;
+                producers.execute(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        logger.info("{}:{}", producer, i);
+                    }
+                });
+            }
+        }
+        appender.stop();
+
+        assertThat(target.messages).hasSize(4_000);
+        for (int p = 0; p < 4; p++) {
+            String prefix = p + ":";
+            List<String> own = target.messages.stream().filter(message -> message.startsWith(prefix)).toList();
+            assertThat(own).hasSize(1_000);
+            assertThat(own.get(999)).isEqualTo(prefix + 999);
+            assertThat(own).isSortedAccordingTo((a, b) ->
+                    Integer.compare(Integer.parseInt(a.substring(2)), Integer.parseInt(b.substring(2))));
+        }
+        assertThat(appender.droppedCount()).isZero();
+    }
+
+    @Test
+    void dropsInfoWhenFullButWritesWarningsSynchronously() throws InterruptedException {
+        target.gate = new CountDownLatch(1);
+        start(4);
+        logger.info("blocking");
+        await().atMost(Duration.ofSeconds(5)).until(() -> appender.queued() == 0); // zapis "blocking" czeka na bramce
+        for (int i = 0; i < 4; i++) {
+            logger.info("queued-{}", i);
+        }
+
+        logger.info("dropped");
+        Thread warning = Thread.ofVirtual().start(() -> logger.warn("warning"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> appender.writtenSynchronouslyCount() == 1);
+        target.gate.countDown();
+        warning.join();
+        appender.stop();
+
+        assertThat(appender.droppedCount()).isEqualTo(1);
+        assertThat(target.messages).containsExactlyInAnyOrder(
+                "blocking", "queued-0", "queued-1", "queued-2", "queued-3", "warning");
+    }
+
+    @Test
+    void keepsEventsWhenDeferredPreparationFails() {
+        LoggerContext bare = new LoggerContext(); // bez adaptera MDC - przygotowanie wpisu rzuca NPE
+        Logger bareLogger = bare.getLogger("ring-buffer-test");
+        start(bare, bareLogger, 16);
+
+        bareLogger.info("first");
+        bareLogger.info("second");
+        appender.stop();
+
+        assertThat(target.messages).containsExactly("first", "second");
+        assertThat(bare.getStatusManager().getCopyOfStatusList())
+                .filteredOn(status -> status.getLevel() == Status.ERROR)
+                .hasSize(1);
+    }
+
+    private void start(int bufferSize) {
+        start(context, logger, bufferSize);
+    }
+
+    private void start(LoggerContext context, Logger logger, int bufferSize) {
+        target.setContext(context);
+        target.start();
+        appender.setContext(context);
+        appender.setName("test");
+        appender.setBufferSize(bufferSize);
+        appender.addAppender(target);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    private static final class CollectingAppender extends AppenderBase<ILoggingEvent> {
+
+        final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(event.getFormattedMessage());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.greeting.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SampledLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SampledLogTest.class.getName() + ".sampled");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final SampledLog sampledLog = SampledLog.of(logger);
+
+    @BeforeEach
+    void attach() {
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(ch.qos.logback.classic.Level.DEBUG);
+    }
+
+    @AfterEach
+    void detach() {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+        SampledLog.configure(1.0, Map.of());
+    }
+
+    @Test
+    void samplesPerOperationAndTagsEntriesWithOperation() {
+        SampledLog.configure(0.5, SampledLog.parseRates(List.of("download=0", " upload = 1.0", "")));
+
+        for (int i = 0; i < 10_000; i++) {
+            sampledLog.debug("download", "✅ Blob '{}' downloaded", "a.txt");
+            sampledLog.debug("upload", "✅ Blob '{}' uploaded", "a.txt");
+            sampledLog.debug("list", "✅ Wylistowano {} blobów", 3);
+        }
+
+        assertThat(count("downloaded")).isZero();
+        assertThat(count("uploaded")).isEqualTo(10_000);
+        assertThat(count("Wylistowano")).isBetween(4_000L, 6_000L);
+        assertThat(appender.list.get(0).getKeyValuePairs())
+                .singleElement()
+                .satisfies(pair -> {
+                    assertThat(pair.key).isEqualTo("operation");
+                    assertThat(pair.value).isIn("upload", "list");
+                });
+    }
+
+    @Test
+    void skipsEverythingWhenLevelIsDisabled() {
+        logger.setLevel(ch.qos.logback.classic.Level.INFO);
+
+        sampledLog.debug("upload", "✅ Blob '{}' uploaded", "a.txt");
+        sampledLog.info("upload", "Blob '{}' zapisany", "a.txt");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly("Blob 'a.txt' zapisany");
+    }
+
+    @Test
+    void rejectsMalformedRates() {
+        assertThatThrownBy(() -> SampledLog.parseRates(List.of("download")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SampledLog.parseRates(List.of("download=2")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private long count(String fragment) {
+        return appender.list.stream().filter(event -> event.getFormattedMessage().contains(fragment)).count();
+    }
+}
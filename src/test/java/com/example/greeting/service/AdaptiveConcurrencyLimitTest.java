@@ -0,0 +1,165 @@
+package com.example.greeting.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long NO_LOAD = Duration.ofMillis(20).toNanos();
+    private static final long QUEUED = Duration.ofMillis(45).toNanos(); // > 2 x NO_LOAD
+
+    private static final Duration WINDOW = Duration.ofMillis(50);
+    private static final Duration BASELINE_WINDOW = WINDOW.multipliedBy(4);
+
+    private long now;
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("blobs", 2, 10, Duration.ofMillis(5),
+            2.0, 0.5, WINDOW, BASELINE_WINDOW, () -> now);
+
+    @Test
+    void rejectsImmediatelyAboveLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.stats()).isEqualTo(new AdaptiveConcurrencyLimit.Stats("blobs", 10, 10, 1));
+    }
+
+    @Test
+    void backsOffWhenLatencyExceedsToleranceOverNoLoadBaselineAndRecoversAdditively() {
+        window(10, NO_LOAD);
+        assertThat(limit.stats().limit()).as("nie rośnie ponad max-limit").isEqualTo(10);
+
+        window(10, QUEUED);
+        assertThat(limit.stats().limit()).isEqualTo(5);
+        window(5, QUEUED);
+        window(2, QUEUED);
+        assertThat(limit.stats().limit()).as("nie schodzi poniżej min-limit").isEqualTo(2);
+
+        for (int round = 0; round < 3; round++) {
+            window(limit.stats().limit(), Duration.ofMillis(35).toNanos()); // w tolerancji, bez odrzuceń
+        }
+        assertThat(limit.stats().limit()).isEqualTo(5);
+        assertThat(limit.stats().inFlight()).isZero();
+    }
+
+    @Test
+    void backsOffAtMostOncePerSampleWindow() {
+        window(10, NO_LOAD);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        now += WINDOW.toNanos();
+        for (int i = 0; i < 10; i++) {
+            limit.release(QUEUED); // jedna fala wolnych odpowiedzi
+        }
+
+        assertThat(limit.stats().limit()).isEqualTo(5);
+    }
+
+    @Test
+    void backsOffFromPeakInFlightWhenBelowLimit() {
+        window(10, NO_LOAD);
+        window(4, QUEUED);
+
+        assertThat(limit.stats().limit()).as("4 * 0.5, a nie 10 * 0.5").isEqualTo(2);
+    }
+
+    @Test
+    void growsWhileRejectingOnlyCloseToNoLoadLatency() {
+        window(10, NO_LOAD);
+        window(8, QUEUED); // 10 -> 4
+
+        window(4, Duration.ofMillis(35).toNanos(), true);
+        assertThat(limit.stats().limit()).as("35 ms - powyżej połowy tolerancji").isEqualTo(4);
+
+        window(4, Duration.ofMillis(25).toNanos(), true);
+        assertThat(limit.stats().limit()).isEqualTo(5);
+        assertThat(limit.stats().rejected()).isEqualTo(2);
+    }
+
+    @Test
+    void latencyThresholdIgnoresNoiseOfVeryFastRequests() {
+        window(10, Duration.ofMillis(1).toNanos());
+        window(10, Duration.ofMillis(4).toNanos()); // 4 x bazowe, ale poniżej progu 5 ms
+
+        assertThat(limit.stats().limit()).isEqualTo(10);
+    }
+
+    @Test
+    void baselineFollowsPermanentlySlowerDependency() {
+        window(10, NO_LOAD);
+        for (int i = 0; i < 6; i++) {
+            window(limit.stats().limit(), 3 * NO_LOAD);
+        }
+        assertThat(limit.stats().limit()).as("wciąż względem minimum z poprzedniego okna bazowego").isEqualTo(2);
+
+        window(2, 3 * NO_LOAD);
+        assertThat(limit.stats().limit()).as("minimum z ostatniego okna bazowego to 60 ms").isEqualTo(3);
+    }
+
+    @Test
+    void unsampledReleaseOnlyReactsToOverload() {
+        window(10, NO_LOAD);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        now += WINDOW.toNanos();
+        limit.releaseUnsampled(false); // długi transfer - bez zmiany limitu
+        assertThat(limit.stats().limit()).isEqualTo(10);
+
+        limit.releaseUnsampled(true); // 503 z bulkheadu
+        assertThat(limit.stats().limit()).isEqualTo(4);
+        for (int i = 0; i < 8; i++) {
+            limit.releaseUnsampled(false);
+        }
+        assertThat(limit.stats()).isEqualTo(new AdaptiveConcurrencyLimit.Stats("blobs", 4, 0, 0));
+    }
+
+    @Test
+    void validatesBounds() {
+        assertThatThrownBy(() -> newLimit(0, 10, 2.0, 0.9, WINDOW))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> newLimit(5, 4, 2.0, 0.9, WINDOW))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> newLimit(1, 4, 1.0, 0.9, WINDOW))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> newLimit(1, 4, 2.0, 1.0, WINDOW))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> newLimit(1, 4, 2.0, 0.9, Duration.ofMillis(-1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> newLimit(1, 4, 2.0, 0.9, BASELINE_WINDOW.plusMillis(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AdaptiveConcurrencyLimit newLimit(int min, int max, double tolerance, double backoffRatio,
+                                                     Duration sampleWindow) {
+        return new AdaptiveConcurrencyLimit("x", min, max, Duration.ofMillis(1), tolerance, backoffRatio,
+                sampleWindow, BASELINE_WINDOW);
+    }
+
+    private void window(int concurrent, long latencyNanos) {
+        window(concurrent, latencyNanos, false);
+    }
+
+    /**
+     * Jedno okno próbek: {@code concurrent} żądań naraz, ostatnie zakończenie po upływie okna zamyka je.
+     */
+    private void window(int concurrent, long latencyNanos, boolean rejectOne) {
+        for (int i = 0; i < concurrent; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        if (rejectOne) {
+            assertThat(limit.tryAcquire()).isFalse();
+        }
+        for (int i = 0; i < concurrent - 1; i++) {
+            limit.release(latencyNanos);
+        }
+        now += WINDOW.toNanos();
+        limit.release(latencyNanos);
+    }
+}
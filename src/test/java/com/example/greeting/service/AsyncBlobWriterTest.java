@@ -0,0 +1,123 @@
+package com.example.greeting.service;
+
+import com.example.greeting.support.InMemoryBlobStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class AsyncBlobWriterTest {
+
+    private final InMemoryBlobStorage storage = new InMemoryBlobStorage();
+    private final AzureBlobStorageService service = new AzureBlobStorageService(storage.containerClient(),
+            "fake", InMemoryBlobStorage.CONTAINER, DataSize.ofMegabytes(1), 2, DataSize.ofMegabytes(1));
+    private AsyncBlobWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void writesInBackgroundAndReportsOutcome() {
+        writer = newWriter(2, 100, DataSize.ofMegabytes(1));
+
+        AsyncBlobWriter.WriteStatus accepted = writer.submit("note.txt", "zażółć");
+
+        assertThat(accepted.state()).isEqualTo(AsyncBlobWriter.State.QUEUED);
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> writer.getStatus(accepted.trackingId()).state() == AsyncBlobWriter.State.SUCCEEDED);
+        assertThat(new String(storage.content("note.txt"), StandardCharsets.UTF_8)).isEqualTo("zażółć");
+        assertThat(writer.getStatus(accepted.trackingId()).completedAt()).isNotNull();
+    }
+
+    @Test
+    void coalescesQueuedWritesToSameBlob() {
+        storage.setLatency(Duration.ofMillis(300));
+        writer = newWriter(1, 100, DataSize.ofMegabytes(1));
+
+        AsyncBlobWriter.WriteStatus blocker = writer.submit("first.txt", "zajmuje jedynego workera");
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> writer.getStatus(blocker.trackingId()).state() == AsyncBlobWriter.State.IN_PROGRESS);
+        List<AsyncBlobWriter.WriteStatus> versions = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            versions.add(writer.submit("counter.txt", "v" + i));
+        }
+        long requestsBefore = storage.requestCount();
+
+        AsyncBlobWriter.WriteStatus last = versions.get(2);
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> writer.getStatus(last.trackingId()).state() == AsyncBlobWriter.State.SUCCEEDED);
+
+        assertThat(new String(storage.content("counter.txt"), StandardCharsets.UTF_8)).isEqualTo("v3");
+        assertThat(storage.requestCount() - requestsBefore).isEqualTo(1);
+        assertThat(writer.getStatus(versions.get(0).trackingId()).coalesced()).isTrue();
+        assertThat(writer.getStatus(versions.get(0).trackingId()).state()).isEqualTo(AsyncBlobWriter.State.SUCCEEDED);
+        assertThat(writer.getStatus(last.trackingId()).coalesced()).isFalse();
+    }
+
+    @Test
+    void rejectsWritesWhenQueueIsFull() {
+        storage.setLatency(Duration.ofMillis(500));
+        writer = newWriter(1, 2, DataSize.ofMegabytes(1));
+
+        AsyncBlobWriter.WriteStatus blocker = writer.submit("a.txt", "a");
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> writer.getStatus(blocker.trackingId()).state() == AsyncBlobWriter.State.IN_PROGRESS);
+        writer.submit("b.txt", "b");
+        writer.submit("c.txt", "c");
+
+        assertThatThrownBy(() -> writer.submit("d.txt", "d"))
+                .isInstanceOf(BulkheadFullException.class)
+                .hasMessageContaining("kolejka zapisów pełna");
+        assertThat(writer.getQueuedWrites()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsWritesOverByteBudget() {
+        storage.setLatency(Duration.ofMillis(500));
+        writer = newWriter(1, 100, DataSize.ofBytes(10));
+
+        AsyncBlobWriter.WriteStatus blocker = writer.submit("a.txt", "a");
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> writer.getStatus(blocker.trackingId()).state() == AsyncBlobWriter.State.IN_PROGRESS);
+        writer.submit("b.txt", "0123456789");
+
+        assertThatThrownBy(() -> writer.submit("c.txt", "x")).isInstanceOf(BulkheadFullException.class);
+    }
+
+    @Test
+    void flushesPendingWritesOnShutdown() {
+        storage.setLatency(Duration.ofMillis(50));
+        writer = newWriter(2, 100, DataSize.ofMegabytes(1));
+        for (int i = 0; i < 10; i++) {
+            writer.submit("batch/" + i + ".txt", "wpis " + i);
+        }
+
+        writer.shutdown();
+
+        assertThat(storage.names()).hasSize(10);
+        assertThat(writer.getQueuedWrites()).isZero();
+        assertThatThrownBy(() -> writer.submit("late.txt", "za późno"))
+                .isInstanceOf(BulkheadFullException.class)
+                .hasMessageContaining("zamykana");
+    }
+
+    private AsyncBlobWriter newWriter(int workers, int maxQueuedWrites, DataSize maxQueuedBytes) {
+        return new AsyncBlobWriter(service, true, workers, maxQueuedWrites, maxQueuedBytes, 1000,
+                Duration.ofSeconds(10), Clock.systemUTC(), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.greeting.service;
+
+import com.azure.storage.blob.models.BlobRange;
+import com.example.greeting.dto.BlobInfo;
+import com.example.greeting.dto.BlobPage;
+import com.example.greeting.support.InMemoryBlobStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AzureBlobStorageServiceTest {
+
+    private final InMemoryBlobStorage storage = new InMemoryBlobStorage();
+    private final AzureBlobStorageService service = new AzureBlobStorageService(storage.containerClient(),
+            "fake", InMemoryBlobStorage.CONTAINER, DataSize.ofKilobytes(64), 2, DataSize.ofKilobytes(64));
+
+    @Test
+    void streamsUploadInBlocksAndDownloadsRanges() {
+        byte[] payload = new byte[300 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 7);
+        }
+
+        long uploaded = service.uploadBlob("data.bin", new ByteArrayInputStream(payload), "application/octet-stream");
+
+        assertThat(uploaded).isEqualTo(payload.length);
+        assertThat(storage.content("data.bin")).isEqualTo(payload);
+        assertThat(storage.requestCount()).isGreaterThan(2); // put block x N + put block list
+
+        ByteArrayOutputStream whole = new ByteArrayOutputStream();
+        service.downloadBlob("data.bin", whole, null, null);
+        assertThat(whole.toByteArray()).isEqualTo(payload);
+
+        ByteArrayOutputStream range = new ByteArrayOutputStream();
+        service.downloadBlob("data.bin", range, new BlobRange(1000, 10L), null);
+        assertThat(range.toByteArray()).isEqualTo(Arrays.copyOfRange(payload, 1000, 1010));
+    }
+
+    @Test
+    void keepsTextApiCompatible() {
+        service.uploadBlob("hello.txt", "zażółć gęślą jaźń");
+
+        assertThat(service.downloadBlob("hello.txt")).isEqualTo("zażółć gęślą jaźń");
+        assertThat(service.getBlobProperties("hello.txt").getBlobSize())
+                .isEqualTo("zażółć gęślą jaźń".getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void pagesThroughBlobsWithContinuationToken() {
+        for (int i = 0; i < 5; i++) {
+            storage.put("logs/" + i + ".txt", ("line " + i).getBytes(StandardCharsets.UTF_8), "text/plain");
+        }
+        storage.put("other.txt", new byte[1], "text/plain");
+
+        BlobPage first = service.listBlobs("logs/", 2, null);
+        BlobPage second = service.listBlobs("logs/", 2, first.continuationToken());
+        BlobPage last = service.listBlobs("logs/", 2, second.continuationToken());
+
+        assertThat(first.blobs()).extracting(BlobInfo::name).containsExactly("logs/0.txt", "logs/1.txt");
+        assertThat(second.blobs()).extracting(BlobInfo::name).containsExactly("logs/2.txt", "logs/3.txt");
+        assertThat(last.blobs()).extracting(BlobInfo::name).containsExactly("logs/4.txt");
+        assertThat(last.continuationToken()).isNull();
+
+        BlobInfo blob = first.blobs().get(0);
+        assertThat(blob.size()).isEqualTo(6);
+        assertThat(blob.eTag()).isNotBlank();
+        assertThat(blob.lastModified()).isNotNull();
+        assertThat(blob.contentType()).isEqualTo("text/plain");
+    }
+
+    @Test
+    void visitsContainerPageByPage() {
+        for (int i = 0; i < 7; i++) {
+            storage.put("blob-" + i, new byte[i], "application/octet-stream");
+        }
+        List<Integer> pageSizes = new ArrayList<>();
+
+        long total = service.forEachBlobPage(null, 3, page -> pageSizes.add(page.size()));
+
+        assertThat(total).isEqualTo(7);
+        assertThat(pageSizes).containsExactly(3, 3, 1);
+    }
+
+    @Test
+    void streamsUploadAndRangedDownloadThroughAsyncClient() {
+        byte[] payload = new byte[200 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 13);
+        }
+        Flux<ByteBuffer> chunks = Flux.range(0, 10)
+                .map(i -> ByteBuffer.wrap(payload, i * 20 * 1024, 20 * 1024));
+
+        Long uploaded = service.uploadBlobAsync("data.bin", chunks, "application/octet-stream").block();
+
+        assertThat(uploaded).isEqualTo(payload.length);
+        assertThat(storage.content("data.bin")).isEqualTo(payload);
+        assertThat(service.getBlobPropertiesAsync("data.bin").block().getContentType())
+                .isEqualTo("application/octet-stream");
+
+        ByteArrayOutputStream range = new ByteArrayOutputStream();
+        service.downloadBlobAsync("data.bin", new BlobRange(5000, 100L), null)
+                .doOnNext(buffer -> {
+                    byte[] chunk = new byte[buffer.remaining()];
+                    buffer.get(chunk);
+                    range.writeBytes(chunk);
+                })
+                .blockLast();
+        assertThat(range.toByteArray()).isEqualTo(Arrays.copyOfRange(payload, 5000, 5100));
+    }
+
+    @Test
+    void asyncTextApiAndListingMatchBlockingOnes() {
+        service.uploadBlobAsync("logs/a.txt", "zażółć").block();
+        storage.put("logs/b.txt", new byte[2], "text/plain");
+        storage.put("other.txt", new byte[1], "text/plain");
+
+        assertThat(service.downloadBlobAsync("logs/a.txt").block()).isEqualTo("zażółć");
+        assertThat(service.listBlobsAsync("logs/", 1, null).block().blobs())
+                .extracting(BlobInfo::name).containsExactly("logs/a.txt");
+        assertThat(service.streamBlobsAsync("logs/", 1).map(BlobInfo::name).collectList().block())
+                .containsExactly("logs/a.txt", "logs/b.txt");
+
+        service.deleteBlobAsync("logs/a.txt").block();
+        assertThat(storage.names()).containsExactlyInAnyOrder("logs/b.txt", "other.txt");
+    }
+
+    @Test
+    void compressesTextAndStreamsOfCompressibleTypes() throws Exception {
+        AzureBlobStorageService compressing = new AzureBlobStorageService(storage.containerClient(),
+                "fake", InMemoryBlobStorage.CONTAINER, DataSize.ofKilobytes(64), 2, DataSize.ofKilobytes(64),
+                Bulkhead.unbounded("blob-storage"),
+                new BlobCompression(true, DataSize.ofKilobytes(1), List.of("text/*", "application/json")),
+                new SimpleMeterRegistry());
+        String text = "zażółć gęślą jaźń\n".repeat(1000);
+        byte[] json = "{\"id\":1}\n".repeat(30_000).getBytes(StandardCharsets.UTF_8); // > block size
+
+        compressing.uploadBlob("big.txt", text);
+        compressing.uploadBlob("small.txt", "krótki");
+        long uploaded = compressing.uploadBlob("data.json", new ByteArrayInputStream(json), "application/json");
+        compressing.uploadBlob("data.bin", new ByteArrayInputStream(json), "application/octet-stream");
+
+        assertThat(storage.contentEncoding("big.txt")).isEqualTo("gzip");
+        assertThat(storage.size("big.txt")).isLessThan(text.length());
+        assertThat(storage.contentEncoding("small.txt")).isNull();
+        assertThat(storage.contentEncoding("data.bin")).isNull();
+        assertThat(uploaded).isEqualTo(json.length);
+        assertThat(storage.contentEncoding("data.json")).isEqualTo("gzip");
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(storage.content("data.json"))).readAllBytes())
+                .isEqualTo(json);
+
+        // odczyt dekoduje niezależnie od ustawienia kompresji
+        assertThat(service.downloadBlob("big.txt")).isEqualTo(text);
+        assertThat(service.downloadBlobAsync("big.txt").block()).isEqualTo(text);
+        assertThat(service.downloadBlob("small.txt")).isEqualTo("krótki");
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        assertThat(service.downloadBlobDecoded("data.json", decoded, null)).isEqualTo(json.length);
+        assertThat(decoded.toByteArray()).isEqualTo(json);
+        assertThat(service.listBlobs("data.", 10, null).blobs())
+                .extracting(BlobInfo::contentEncoding).containsExactly(null, "gzip");
+    }
+
+    @Test
+    void compressesAsyncUploadsOfCompressibleTypes() {
+        AzureBlobStorageService compressing = new AzureBlobStorageService(storage.containerClient(),
+                "fake", InMemoryBlobStorage.CONTAINER, DataSize.ofKilobytes(64), 2, DataSize.ofKilobytes(64),
+                new Bulkhead("blob-storage", 4, Duration.ofMillis(100)),
+                new BlobCompression(true, DataSize.ofKilobytes(1), List.of("application/x-ndjson")),
+                new SimpleMeterRegistry());
+        byte[] line = "{\"greeting\":\"Hello\"}\n".getBytes(StandardCharsets.UTF_8);
+        Flux<ByteBuffer> data = Flux.range(0, 10_000).map(i -> ByteBuffer.wrap(line));
+
+        compressing.uploadBlobAsync("greetings.ndjson", data, "application/x-ndjson").block();
+
+        assertThat(storage.contentEncoding("greetings.ndjson")).isEqualTo("gzip");
+        assertThat(storage.size("greetings.ndjson")).isLessThan(line.length * 10_000L / 10);
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        assertThat(service.downloadBlobDecoded("greetings.ndjson", decoded, null)).isEqualTo(line.length * 10_000L);
+    }
+
+    /**
+     * Memory ceiling: 512 MB up and down through a JVM with a 96 MB heap.
+     */
+    @Test
+    void streamsPayloadsLargerThanHeap() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Xmx96m",
+                "-cp", System.getProperty("java.class.path"),
+                StreamingMemoryCeiling.class.getName(), "512")
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertThat(process.waitFor(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).as(output).isZero();
+        assertThat(output).contains("OK " + DataSize.ofMegabytes(512).toBytes());
+    }
+}
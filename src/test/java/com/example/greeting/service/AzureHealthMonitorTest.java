@@ -0,0 +1,126 @@
+package com.example.greeting.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AzureHealthMonitorTest {
+
+    private AzureHealthMonitor monitor;
+
+    @AfterEach
+    void tearDown() {
+        if (monitor != null) {
+            monitor.shutdown();
+        }
+    }
+
+    @Test
+    void runsProbesConcurrently() {
+        Map<String, BooleanSupplier> checks = new LinkedHashMap<>();
+        checks.put("keyVault", () -> sleep(300));
+        checks.put("blobStorage", () -> sleep(300));
+        monitor = new AzureHealthMonitor(checks, Duration.ofMinutes(1), Duration.ofSeconds(5), Clock.systemUTC());
+
+        long started = System.nanoTime();
+        AzureHealthMonitor.HealthSnapshot snapshot = monitor.refresh();
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(snapshot.healthy()).isTrue();
+        assertThat(snapshot.probes()).containsOnlyKeys("keyVault", "blobStorage");
+        assertThat(tookMs).isLessThan(550);
+    }
+
+    @Test
+    void servesCachedResultWithoutCallingAzure() {
+        AtomicInteger calls = new AtomicInteger();
+        monitor = new AzureHealthMonitor(Map.of("keyVault", () -> calls.incrementAndGet() > 0),
+                Duration.ofMinutes(1), Duration.ofSeconds(1), Clock.systemUTC());
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(monitor.current().healthy()).isTrue();
+        }
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(monitor.latencies().get("keyVault").count()).isEqualTo(1);
+    }
+
+    @Test
+    void marksSlowProbeAsTimedOutAndDoesNotPileUpCalls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Map<String, BooleanSupplier> checks = new LinkedHashMap<>();
+        checks.put("keyVault", () -> {
+            calls.incrementAndGet();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        checks.put("blobStorage", () -> true);
+        monitor = new AzureHealthMonitor(checks, Duration.ofMinutes(1), Duration.ofMillis(100), Clock.systemUTC());
+
+        AzureHealthMonitor.HealthSnapshot first = monitor.refresh();
+        AzureHealthMonitor.HealthSnapshot second = monitor.refresh();
+
+        assertThat(first.healthy()).isFalse();
+        assertThat(first.probe("keyVault").error()).contains("timeout");
+        assertThat(first.probe("blobStorage").healthy()).isTrue();
+        assertThat(second.probe("keyVault").healthy()).isFalse();
+        assertThat(calls.get()).isEqualTo(1);
+
+        release.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> monitor.refresh().healthy());
+    }
+
+    @Test
+    void reportsProbeExceptionAsUnhealthy() {
+        monitor = new AzureHealthMonitor(Map.of("blobStorage", () -> {
+            throw new IllegalStateException("403 AuthorizationFailure");
+        }), Duration.ofMinutes(1), Duration.ofSeconds(1), Clock.systemUTC());
+
+        AzureHealthMonitor.ProbeResult result = monitor.refresh().probe("blobStorage");
+
+        assertThat(result.healthy()).isFalse();
+        assertThat(result.error()).isEqualTo("403 AuthorizationFailure");
+    }
+
+    @Test
+    void histogramEstimatesPercentilesFromBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(Duration.ofMillis(3));
+        }
+        histogram.record(Duration.ofMillis(400));
+        histogram.record(Duration.ofMillis(20_000));
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(100);
+        assertThat(snapshot.p50Ms()).isEqualTo(5);
+        assertThat(snapshot.p99Ms()).isEqualTo(500);
+        assertThat(snapshot.maxMs()).isEqualTo(20_000);
+        assertThat(snapshot.buckets().get("+Inf")).isEqualTo(1);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
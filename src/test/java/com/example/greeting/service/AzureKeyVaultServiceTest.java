@@ -0,0 +1,267 @@
+package com.example.greeting.service;
+
+import com.azure.security.keyvault.secrets.SecretAsyncClient;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+import com.example.greeting.support.InMemoryKeyVault;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AzureKeyVaultServiceTest {
+
+    private final SecretClient secretClient = mock(SecretClient.class);
+    private final SecretAsyncClient secretAsyncClient = mock(SecretAsyncClient.class);
+    private final MutableClock clock = new MutableClock();
+    private AzureKeyVaultService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void servesRepeatedReadsFromCache() {
+        when(secretClient.getSecret("db-user")).thenReturn(new KeyVaultSecret("db-user", "marek"));
+        service = newService(Duration.ofMinutes(5), true);
+
+        assertThat(service.getSecret("db-user")).isEqualTo("marek");
+        assertThat(service.getSecret("db-user")).isEqualTo("marek");
+        assertThat(service.getSecret("db-user")).isEqualTo("marek");
+
+        verify(secretClient, times(1)).getSecret("db-user");
+        assertThat(service.getCacheStats().misses()).isEqualTo(1);
+        assertThat(service.getCacheStats().hits()).isEqualTo(2);
+    }
+
+    @Test
+    void refetchesAfterTtlExpires() {
+        when(secretClient.getSecret("db-user"))
+                .thenReturn(new KeyVaultSecret("db-user", "v1"))
+                .thenReturn(new KeyVaultSecret("db-user", "v2"));
+        service = newService(Duration.ofMinutes(5), true);
+
+        assertThat(service.getSecret("db-user")).isEqualTo("v1");
+        clock.advance(Duration.ofMinutes(6));
+        assertThat(service.getSecret("db-user")).isEqualTo("v2");
+
+        assertThat(service.getCacheStats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void refreshesAheadOfExpiryInBackground() {
+        when(secretClient.getSecret("db-user"))
+                .thenReturn(new KeyVaultSecret("db-user", "v1"))
+                .thenReturn(new KeyVaultSecret("db-user", "v2"));
+        service = newService(Duration.ofMinutes(5), true);
+
+        service.getSecret("db-user");
+        clock.advance(Duration.ofMinutes(4)); // za progiem refresh-ahead (80% TTL), ale przed wygaśnięciem
+
+        assertThat(service.getSecret("db-user")).isEqualTo("v1");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> service.getCacheStats().refreshes() == 1);
+        assertThat(service.getSecret("db-user")).isEqualTo("v2");
+        assertThat(service.getCacheStats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void mergesConcurrentMissesIntoSingleFetch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(secretClient.getSecret("db-user")).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new KeyVaultSecret("db-user", "marek");
+        });
+        service = newService(Duration.ofMinutes(5), true);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> service.getSecret("db-user")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("marek");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(secretClient, times(1)).getSecret(anyString());
+    }
+
+    @Test
+    void servesStaleValueWhenKeyVaultFails() {
+        when(secretClient.getSecret("db-user"))
+                .thenReturn(new KeyVaultSecret("db-user", "marek"))
+                .thenThrow(new IllegalStateException("429 Too Many Requests"));
+        service = newService(Duration.ofMinutes(5), true);
+
+        service.getSecret("db-user");
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThat(service.getSecret("db-user")).isEqualTo("marek");
+        assertThat(service.getCacheStats().staleServed()).isEqualTo(1);
+    }
+
+    @Test
+    void propagatesErrorWhenServeStaleIsDisabled() {
+        when(secretClient.getSecret("db-user"))
+                .thenReturn(new KeyVaultSecret("db-user", "marek"))
+                .thenThrow(new IllegalStateException("429 Too Many Requests"));
+        service = newService(Duration.ofMinutes(5), false);
+
+        service.getSecret("db-user");
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThatThrownBy(() -> service.getSecret("db-user"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("db-user");
+    }
+
+    @Test
+    void evictsOldestEntryWhenFull() {
+        when(secretClient.getSecret(anyString()))
+                .thenAnswer(inv -> new KeyVaultSecret(inv.getArgument(0), "value"));
+        service = new AzureKeyVaultService(secretClient, "https://fake.vault.azure.net", clock,
+                Duration.ofMinutes(5), 0.8, Duration.ofMinutes(30), 2, true);
+
+        service.getSecret("a");
+        clock.advance(Duration.ofSeconds(1));
+        service.getSecret("b");
+        clock.advance(Duration.ofSeconds(1));
+        service.getSecret("c");
+
+        assertThat(service.getCacheStats().size()).isEqualTo(2);
+        assertThat(service.getCacheStats().evictions()).isEqualTo(1);
+        service.getSecret("a");
+        verify(secretClient, times(2)).getSecret("a");
+    }
+
+    @Test
+    void readsThroughRealSecretClientAgainstInMemoryVault() {
+        InMemoryKeyVault vault = new InMemoryKeyVault();
+        vault.put("db-user", "marek");
+        service = new AzureKeyVaultService(vault.secretClient(), InMemoryKeyVault.VAULT_URL, clock,
+                Duration.ofMinutes(5), 0.8, Duration.ofMinutes(30), 256, true);
+
+        assertThat(service.getSecret("db-user")).isEqualTo("marek");
+        assertThat(service.getSecret("db-user")).isEqualTo("marek");
+        assertThat(service.isHealthy()).isTrue();
+
+        assertThat(vault.reads("db-user")).isEqualTo(1);
+        assertThatThrownBy(() -> service.getSecret("missing")).hasMessageContaining("missing");
+    }
+
+    @Test
+    void asyncReadsShareCacheWithBlockingReads() {
+        InMemoryKeyVault vault = new InMemoryKeyVault();
+        vault.put("db-user", "marek");
+        service = new AzureKeyVaultService(vault.secretClient(), vault.secretAsyncClient(), InMemoryKeyVault.VAULT_URL,
+                clock, Duration.ofMinutes(5), 0.8, Duration.ofMinutes(30), 256, true,
+                Bulkhead.unbounded("keyvault"), new SimpleMeterRegistry());
+
+        assertThat(service.getSecretAsync("db-user").block()).isEqualTo("marek");
+        assertThat(service.getSecretAsync("db-user").block()).isEqualTo("marek");
+        assertThat(service.getSecret("db-user")).isEqualTo("marek");
+
+        assertThat(vault.reads("db-user")).isEqualTo(1);
+        assertThat(service.getCacheStats().misses()).isEqualTo(1);
+        assertThat(service.getCacheStats().hits()).isEqualTo(2);
+        assertThatThrownBy(() -> service.getSecretAsync("missing").block()).hasMessageContaining("missing");
+    }
+
+    @Test
+    void mergesConcurrentAsyncMissesIntoSingleFetch() {
+        Sinks.One<KeyVaultSecret> response = Sinks.one();
+        when(secretAsyncClient.getSecret("db-user")).thenReturn(response.asMono());
+        service = newAsyncService(true);
+
+        List<Mono<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(service.getSecretAsync("db-user").cache());
+            results.get(i).subscribe();
+        }
+        response.tryEmitValue(new KeyVaultSecret("db-user", "marek"));
+
+        assertThat(results).allSatisfy(result -> assertThat(result.block(Duration.ofSeconds(5))).isEqualTo("marek"));
+        verify(secretAsyncClient, times(1)).getSecret(anyString());
+        assertThat(service.getSecretAsync("db-user").block()).isEqualTo("marek");
+        verify(secretAsyncClient, times(1)).getSecret(anyString());
+    }
+
+    @Test
+    void asyncServesStaleValueWhenKeyVaultFails() {
+        when(secretAsyncClient.getSecret("db-user"))
+                .thenReturn(Mono.just(new KeyVaultSecret("db-user", "marek")))
+                .thenReturn(Mono.error(new IllegalStateException("429 Too Many Requests")));
+        service = newAsyncService(true);
+
+        service.getSecretAsync("db-user").block();
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThat(service.getSecretAsync("db-user").block()).isEqualTo("marek");
+        assertThat(service.getCacheStats().staleServed()).isEqualTo(1);
+    }
+
+    private AzureKeyVaultService newAsyncService(boolean serveStale) {
+        return new AzureKeyVaultService(secretClient, secretAsyncClient, "https://fake.vault.azure.net", clock,
+                Duration.ofMinutes(5), 0.8, Duration.ofMinutes(30), 256, serveStale,
+                Bulkhead.unbounded("keyvault"), new SimpleMeterRegistry());
+    }
+
+    private AzureKeyVaultService newService(Duration ttl, boolean serveStale) {
+        return new AzureKeyVaultService(secretClient, "https://fake.vault.azure.net", clock,
+                ttl, 0.8, Duration.ofMinutes(30), 256, serveStale);
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
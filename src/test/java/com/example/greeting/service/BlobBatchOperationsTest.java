@@ -0,0 +1,110 @@
+package com.example.greeting.service;
+
+import com.example.greeting.dto.BlobBatchItem;
+import com.example.greeting.support.InMemoryBlobStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlobBatchOperationsTest {
+
+    private final InMemoryBlobStorage storage = new InMemoryBlobStorage();
+    private final AzureBlobStorageService service = new AzureBlobStorageService(storage.containerClient(),
+            "fake", InMemoryBlobStorage.CONTAINER, DataSize.ofMegabytes(1), 2, DataSize.ofMegabytes(1));
+    private final BlobBatchOperations operations = new BlobBatchOperations(service, 4, DataSize.ofKilobytes(1));
+
+    @Test
+    void deletesInChunksAndReportsMissingBlobsPerItem() {
+        List<String> names = IntStream.range(0, 300).mapToObj(i -> "logs/" + i + ".txt").toList();
+        names.forEach(name -> storage.put(name, new byte[1], "text/plain"));
+        List<String> request = new ArrayList<>(names);
+        request.add("missing.txt");
+        long requestsBefore = storage.requestCount();
+
+        List<BlobBatchItem> results = operations.deleteBlobs(request);
+
+        assertThat(storage.requestCount() - requestsBefore).isEqualTo(2); // 256 + 45 operacji
+        assertThat(results).hasSize(301);
+        assertThat(results.subList(0, 300)).allSatisfy(item -> assertThat(item.status()).isEqualTo(202));
+        assertThat(results.get(300).name()).isEqualTo("missing.txt");
+        assertThat(results.get(300).status()).isEqualTo(404);
+        assertThat(results.get(300).succeeded()).isFalse();
+        assertThat(storage.names()).isEmpty();
+    }
+
+    @Test
+    void checksPropertiesInParallelKeepingInputOrder() {
+        storage.put("a.txt", "aaa".getBytes(StandardCharsets.UTF_8), "text/plain");
+        storage.put("c.txt", "c".getBytes(StandardCharsets.UTF_8), "text/plain");
+        storage.setLatency(Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        List<BlobBatchItem> results = operations.getProperties(List.of("a.txt", "b.txt", "c.txt", "d.txt"));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(results).extracting(BlobBatchItem::name).containsExactly("a.txt", "b.txt", "c.txt", "d.txt");
+        assertThat(results).extracting(BlobBatchItem::status).containsExactly(200, 404, 200, 404);
+        assertThat(results.get(0).blob().size()).isEqualTo(3);
+        assertThat(results.get(0).blob().eTag()).isNotBlank();
+        assertThat(elapsed).isLessThan(Duration.ofMillis(400)); // 4 zapytania po 100 ms równolegle
+    }
+
+    @Test
+    void downloadsContentAndRejectsOversizedBlobs() {
+        storage.put("small.txt", "zażółć".getBytes(StandardCharsets.UTF_8), "text/plain");
+        storage.put("big.bin", new byte[2048], "application/octet-stream");
+
+        List<BlobBatchItem> results = new ArrayList<>();
+        operations.download(List.of("small.txt", "big.bin", "missing.txt"), results::add);
+
+        assertThat(results).hasSize(3);
+        BlobBatchItem small = find(results, "small.txt");
+        assertThat(new String(small.content(), StandardCharsets.UTF_8)).isEqualTo("zażółć");
+        assertThat(small.blob().contentType()).isEqualTo("text/plain");
+        assertThat(find(results, "big.bin").status()).isEqualTo(413);
+        assertThat(find(results, "big.bin").content()).isNull();
+        assertThat(find(results, "missing.txt").status()).isEqualTo(404);
+    }
+
+    @Test
+    void asyncVariantsMatchBlockingOnes() {
+        storage.put("small.txt", "zażółć".getBytes(StandardCharsets.UTF_8), "text/plain");
+        storage.put("big.bin", new byte[2048], "application/octet-stream");
+        List<String> names = List.of("small.txt", "big.bin", "missing.txt");
+
+        assertThat(operations.getPropertiesAsync(names).collectList().block())
+                .extracting(BlobBatchItem::status).containsExactly(200, 200, 404);
+
+        List<BlobBatchItem> results = operations.downloadAsync(names).collectList().block();
+        assertThat(results).hasSize(3);
+        assertThat(new String(find(results, "small.txt").content(), StandardCharsets.UTF_8)).isEqualTo("zażółć");
+        assertThat(find(results, "big.bin").status()).isEqualTo(413);
+        assertThat(find(results, "missing.txt").status()).isEqualTo(404);
+    }
+
+    @Test
+    void decodesCompressedContentWithinSizeLimit() {
+        byte[] text = "zażółć ".repeat(50).getBytes(StandardCharsets.UTF_8);
+        storage.put("text.txt", BlobCompression.gzip(text), "text/plain", "gzip");
+        storage.put("bomb.txt", BlobCompression.gzip(new byte[64 * 1024]), "text/plain", "gzip");
+
+        List<BlobBatchItem> results = new ArrayList<>();
+        operations.download(List.of("text.txt", "bomb.txt"), results::add);
+
+        assertThat(find(results, "text.txt").content()).isEqualTo(text);
+        assertThat(find(results, "text.txt").blob().contentEncoding()).isEqualTo("gzip");
+        assertThat(find(results, "bomb.txt").status()).isEqualTo(413); // 64 KB po rozpakowaniu > max-get-size
+        assertThat(operations.downloadAsync(List.of("text.txt")).blockFirst().content()).isEqualTo(text);
+    }
+
+    private static BlobBatchItem find(List<BlobBatchItem> results, String name) {
+        return results.stream().filter(item -> item.name().equals(name)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.greeting.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlobCompressionTest {
+
+    private static final byte[] TEXT = "zażółć gęślą jaźń\n".repeat(5000).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void appliesOnlyToConfiguredTypesAboveMinSize() {
+        BlobCompression compression = new BlobCompression(true, DataSize.ofKilobytes(1),
+                List.of("text/*", " application/json", ""));
+
+        assertThat(compression.appliesTo("text/plain; charset=utf-8", 2048)).isTrue();
+        assertThat(compression.appliesTo("application/json", -1)).isTrue();
+        assertThat(compression.appliesTo("text/plain", 100)).isFalse();
+        assertThat(compression.appliesTo("image/png", 2048)).isFalse();
+        assertThat(compression.appliesTo("nie typ", 2048)).isFalse();
+        assertThat(compression.appliesTo(null, 2048)).isFalse();
+        assertThat(BlobCompression.disabled().appliesTo("text/plain", 2048)).isFalse();
+    }
+
+    @Test
+    void streamingEncodersProduceValidGzip() throws Exception {
+        byte[] fromStream = BlobCompression.gzip(new ByteArrayInputStream(TEXT)).readAllBytes();
+
+        ByteArrayOutputStream fromFlux = new ByteArrayOutputStream();
+        Flux<ByteBuffer> chunks = Flux.range(0, TEXT.length / 1000 + 1)
+                .map(i -> ByteBuffer.wrap(TEXT, i * 1000, Math.min(1000, TEXT.length - i * 1000)));
+        BlobCompression.gzip(chunks).toIterable().forEach(buffer -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            fromFlux.writeBytes(bytes);
+        });
+
+        assertThat(fromStream.length).isLessThan(TEXT.length / 10);
+        assertThat(BlobCompression.gunzip(fromStream, TEXT.length)).isEqualTo(TEXT);
+        assertThat(BlobCompression.gunzip(fromFlux.toByteArray(), TEXT.length)).isEqualTo(TEXT);
+        assertThat(BlobCompression.gunzip(BlobCompression.gzip(TEXT), TEXT.length)).isEqualTo(TEXT);
+        assertThat(BlobCompression.gunzip(BlobCompression.gzip(new byte[0]), 0)).isEmpty();
+    }
+
+    @Test
+    void stopsDecodingAboveLimitAndRejectsInvalidInput() {
+        assertThat(BlobCompression.gunzip(BlobCompression.gzip(TEXT), TEXT.length - 1)).isNull();
+        assertThatThrownBy(() -> BlobCompression.gunzip(TEXT, TEXT.length))
+                .isInstanceOf(UncheckedIOException.class);
+        assertThat(BlobCompression.isGzip(" GZIP")).isTrue();
+        assertThat(BlobCompression.isGzip("br")).isFalse();
+        assertThat(BlobCompression.isGzip(null)).isFalse();
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.greeting.service;
+
+import com.example.greeting.support.InMemoryBlobStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlobContentCacheTest {
+
+    private final InMemoryBlobStorage storage = new InMemoryBlobStorage();
+    private final AzureBlobStorageService service = new AzureBlobStorageService(storage.containerClient(),
+            "fake", InMemoryBlobStorage.CONTAINER, DataSize.ofMegabytes(1), 2, DataSize.ofMegabytes(1));
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path directory;
+
+    private BlobContentCache cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void servesFreshEntryWithoutCallingStorageAndRevalidatesStaleOneWithEtag() throws IOException {
+        storage.put("note.txt", "zażółć".getBytes(StandardCharsets.UTF_8), "text/plain");
+        cache = newCache(DataSize.ofKilobytes(4));
+
+        BlobContentCache.CachedBlob first = cache.get("note.txt");
+        long requestsAfterMiss = storage.requestCount();
+        BlobContentCache.CachedBlob fresh = cache.get("note.txt");
+
+        assertThat(first.tier()).isEqualTo(BlobContentCache.Tier.HEAP);
+        assertThat(read(fresh)).isEqualTo("zażółć");
+        assertThat(fresh.eTag()).isEqualTo(first.eTag());
+        assertThat(storage.requestCount()).isEqualTo(requestsAfterMiss);
+
+        clock.advance(Duration.ofSeconds(11));
+        long bytesSentBefore = storage.bytesSent();
+        BlobContentCache.CachedBlob revalidated = cache.get("note.txt");
+
+        assertThat(read(revalidated)).isEqualTo("zażółć");
+        assertThat(storage.requestCount()).isEqualTo(requestsAfterMiss + 1);
+        assertThat(storage.bytesSent()).isEqualTo(bytesSentBefore); // 304 bez treści
+        BlobContentCache.Stats stats = cache.stats();
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(2);
+        assertThat(stats.notModified()).isEqualTo(1);
+        assertThat(stats.hitRatio()).isEqualTo(2.0 / 3);
+        assertThat(registry.get("blob.cache.requests").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void refetchesChangedBlobAfterRevalidation() throws IOException {
+        storage.put("note.txt", "v1".getBytes(StandardCharsets.UTF_8), "text/plain");
+        cache = newCache(DataSize.ofKilobytes(4));
+        String oldETag = cache.get("note.txt").eTag();
+
+        storage.put("note.txt", "v2".getBytes(StandardCharsets.UTF_8), "text/plain");
+        clock.advance(Duration.ofSeconds(11));
+        BlobContentCache.CachedBlob changed = cache.get("note.txt");
+
+        assertThat(read(changed)).isEqualTo("v2");
+        assertThat(changed.eTag()).isNotEqualTo(oldETag);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+        assertThat(cache.stats().heapEntries()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsLargeBlobsInMappedFilesOnDisk() throws IOException {
+        byte[] payload = new byte[8 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 31);
+        }
+        storage.put("data.bin", payload, "application/octet-stream");
+        cache = newCache(DataSize.ofKilobytes(4));
+
+        BlobContentCache.CachedBlob blob = cache.get("data.bin");
+
+        assertThat(blob.tier()).isEqualTo(BlobContentCache.Tier.DISK);
+        assertThat(blob.size()).isEqualTo(payload.length);
+        try (InputStream in = cache.get("data.bin").openStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(payload);
+        }
+        assertThat(cacheFiles()).hasSize(1);
+
+        cache.invalidate("data.bin");
+
+        assertThat(cacheFiles()).isEmpty();
+        assertThat(cache.stats().diskBytes()).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesOverSizeLimit() {
+        for (String name : new String[]{"a.txt", "b.txt", "c.txt"}) {
+            storage.put(name, new byte[400], "text/plain");
+        }
+        cache = newCache(DataSize.ofBytes(1000));
+
+        cache.get("a.txt");
+        cache.get("b.txt");
+        cache.get("a.txt"); // b.txt staje się najdawniej używanym
+        cache.get("c.txt");
+
+        BlobContentCache.Stats stats = cache.stats();
+        assertThat(stats.heapEntries()).isEqualTo(2);
+        assertThat(stats.heapBytes()).isEqualTo(800);
+        assertThat(stats.heapEvictions()).isEqualTo(1);
+        assertThat(registry.get("blob.cache.evictions").tag("tier", "heap").counter().count()).isEqualTo(1);
+
+        long requestsBefore = storage.requestCount();
+        cache.get("a.txt");
+        assertThat(storage.requestCount()).isEqualTo(requestsBefore);
+    }
+
+    @Test
+    void dropsEntryWhenBlobDisappears() {
+        storage.put("gone.txt", "x".getBytes(StandardCharsets.UTF_8), "text/plain");
+        cache = newCache(DataSize.ofKilobytes(4));
+        cache.get("gone.txt");
+
+        service.deleteBlob("gone.txt");
+        clock.advance(Duration.ofSeconds(11));
+
+        assertThatThrownBy(() -> cache.get("gone.txt")).hasMessageContaining("gone.txt");
+        assertThat(cache.stats().heapEntries()).isZero();
+    }
+
+    @Test
+    void keepsEntryWhenRevalidationFailsTransiently() throws IOException {
+        storage.put("busy.txt", "x".getBytes(StandardCharsets.UTF_8), "text/plain");
+        cache = newCache(DataSize.ofKilobytes(4));
+        cache.get("busy.txt");
+
+        storage.setFailureRate(1.0);
+        clock.advance(Duration.ofSeconds(11));
+        assertThatThrownBy(() -> cache.get("busy.txt")).hasMessageContaining("busy.txt");
+        assertThat(cache.stats().heapEntries()).isEqualTo(1);
+
+        storage.setFailureRate(0);
+        assertThat(read(cache.get("busy.txt"))).isEqualTo("x");
+        assertThat(cache.stats().notModified()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotDownloadBlobsOverDiskEntryLimit() throws IOException {
+        storage.put("big.bin", new byte[16 * 1024], "application/octet-stream");
+        cache = newCache(DataSize.ofKilobytes(4), DataSize.ofKilobytes(8));
+        long bytesSentBefore = storage.bytesSent();
+
+        BlobContentCache.CachedBlob blob = cache.get("big.bin");
+
+        assertThat(blob.tier()).isEqualTo(BlobContentCache.Tier.NONE);
+        assertThat(blob.size()).isEqualTo(16 * 1024);
+        assertThat(blob.eTag()).isNotBlank();
+        assertThat(storage.bytesSent()).as("tylko właściwości, bez treści").isEqualTo(bytesSentBefore);
+        assertThatThrownBy(blob::openStream).isInstanceOf(IllegalStateException.class);
+        assertThat(cacheFiles()).isEmpty();
+        assertThat(cache.stats().diskEntries()).isZero();
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void stopsDownloadWhenChangedBlobOutgrowsDiskEntryLimit() throws IOException {
+        storage.put("grows.bin", new byte[6 * 1024], "application/octet-stream");
+        cache = newCache(DataSize.ofKilobytes(4), DataSize.ofKilobytes(8));
+        assertThat(cache.get("grows.bin").tier()).isEqualTo(BlobContentCache.Tier.DISK);
+
+        storage.put("grows.bin", new byte[64 * 1024], "application/octet-stream");
+        clock.advance(Duration.ofSeconds(11));
+        BlobContentCache.CachedBlob grown = cache.get("grows.bin");
+
+        assertThat(grown.tier()).isEqualTo(BlobContentCache.Tier.NONE);
+        assertThat(grown.size()).isEqualTo(64 * 1024);
+        assertThat(cacheFiles()).as("przerwany plik i stara wersja usunięte").isEmpty();
+        assertThat(cache.stats().diskBytes()).isZero();
+    }
+
+    @Test
+    void rejectsDiskEntryLimitAboveSingleMapping() {
+        assertThatThrownBy(() -> newCache(DataSize.ofKilobytes(4), DataSize.ofGigabytes(3)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("max-entry-size");
+    }
+
+    private BlobContentCache newCache(DataSize heapMaxSize) {
+        return newCache(heapMaxSize, DataSize.ofMegabytes(1));
+    }
+
+    private BlobContentCache newCache(DataSize heapMaxSize, DataSize diskMaxEntrySize) {
+        return new BlobContentCache(service, true, Duration.ofSeconds(10),
+                heapMaxSize, DataSize.ofKilobytes(1), directory, DataSize.ofMegabytes(1), diskMaxEntrySize,
+                clock, registry);
+    }
+
+    private List<Path> cacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static String read(BlobContentCache.CachedBlob blob) throws IOException {
+        try (InputStream in = blob.openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
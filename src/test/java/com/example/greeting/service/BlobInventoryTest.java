@@ -0,0 +1,206 @@
+package com.example.greeting.service;
+
+import com.example.greeting.dto.BlobInfo;
+import com.example.greeting.dto.BlobPage;
+import com.example.greeting.exception.ApiException;
+import com.example.greeting.exception.ErrorType;
+import com.example.greeting.support.InMemoryBlobStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class BlobInventoryTest {
+
+    private final InMemoryBlobStorage storage = new InMemoryBlobStorage();
+    private final AzureBlobStorageService service = service();
+    /** Zapisy "spoza instancji" - ten sam Storage, bez indeksu. */
+    private final AzureBlobStorageService outside = service();
+
+    @TempDir
+    Path directory;
+
+    private BlobInventory inventory;
+
+    @AfterEach
+    void tearDown() {
+        if (inventory != null) {
+            inventory.shutdown();
+        }
+    }
+
+    @Test
+    void servesPrefixRangeAndTotalsFromIndexWithoutCallingStorage() {
+        put("logs/2025/a.txt", 10);
+        put("logs/2025/b.txt", 20);
+        put("logs/2026/c.txt", 30);
+        put("logs/zażółć.txt", 40);
+        put("other.txt", 5);
+        inventory = newInventory(5000, 10);
+        inventory.rebuild();
+        long requests = storage.requestCount();
+
+        assertThat(names(inventory.find("logs/2025/", null, null, 100))).containsExactly("logs/2025/a.txt", "logs/2025/b.txt");
+        assertThat(names(inventory.find(null, "logs/2025/b", "logs/2026/d", 100)))
+                .containsExactly("logs/2025/b.txt", "logs/2026/c.txt");
+        assertThat(inventory.totals("logs/")).isEqualTo(new BlobInventory.Totals("logs/", 4, 100));
+        assertThat(inventory.totals(null)).isEqualTo(new BlobInventory.Totals(null, 5, 105));
+
+        BlobPage first = inventory.find("logs/", null, null, 3);
+        assertThat(first.continuationToken()).isEqualTo("logs/zażółć.txt");
+        assertThat(names(inventory.find("logs/", first.continuationToken(), null, 3))).containsExactly("logs/zażółć.txt");
+
+        BlobInfo indexed = inventory.find("other", null, null, 1).blobs().get(0);
+        assertThat(indexed.size()).isEqualTo(5);
+        assertThat(indexed.contentType()).isEqualTo("text/plain");
+        assertThat(indexed.eTag()).isNotBlank();
+        assertThat(indexed.lastModified()).isNotNull();
+        assertThat(storage.requestCount()).isEqualTo(requests);
+    }
+
+    @Test
+    void writesThroughServiceUpdateIndexAndSurviveRestart() {
+        put("a.txt", 1);
+        put("b.txt", 2);
+        inventory = newInventory(5000, 10);
+        inventory.rebuild();
+
+        service.uploadBlob("c.txt", "hello");
+        service.deleteBlob("a.txt");
+
+        assertThat(names(inventory.find(null, null, null, 100))).containsExactly("b.txt", "c.txt");
+        assertThat(inventory.totals(null).totalSize()).isEqualTo(2 + 5);
+        assertThat(inventory.status().pendingChanges()).isEqualTo(2);
+        assertThat(inventory.check(null, false).consistent()).isTrue();
+
+        inventory.shutdown(); // kompakcja zapisuje zmiany do migawki
+        long requests = storage.requestCount();
+        inventory = newInventory(5000, 10);
+
+        assertThat(inventory.isReady()).isTrue();
+        assertThat(inventory.status().snapshotBlobs()).isEqualTo(2);
+        assertThat(names(inventory.find(null, null, null, 100))).containsExactly("b.txt", "c.txt");
+        assertThat(storage.requestCount()).as("wczytanie z pliku bez listingu").isEqualTo(requests);
+    }
+
+    @Test
+    void compactsInBackgroundAfterThresholdKeepingLaterChangesInMemory() {
+        inventory = newInventory(5000, 3);
+        inventory.rebuild();
+
+        for (int i = 0; i < 3; i++) {
+            service.uploadBlob("n" + i, "x".repeat(i + 1));
+        }
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                inventory.status().snapshotBlobs() == 3 && inventory.status().pendingChanges() == 0);
+        service.deleteBlob("n0");
+
+        assertThat(inventory.status().pendingChanges()).isEqualTo(1);
+        assertThat(inventory.totals("n")).isEqualTo(new BlobInventory.Totals("n", 2, 2 + 3));
+    }
+
+    @Test
+    void reconcilesOutsideChangesPageByPage() {
+        for (int i = 0; i < 6; i++) {
+            put("blob-" + i, 10);
+        }
+        inventory = newInventory(2, 100);
+        inventory.rebuild();
+
+        outside.uploadBlob("blob-1", "changed");
+        outside.deleteBlob("blob-3");
+        outside.uploadBlob("blob-3a", "new");
+        outside.deleteBlob("blob-5");
+        assertThat(inventory.totals(null).count()).isEqualTo(6);
+
+        int fixed = 0;
+        while (inventory.status().reconcileCycles() == 0) {
+            fixed += inventory.reconcile(); // jedna strona (2 bloby) na rundę
+        }
+
+        assertThat(fixed).isEqualTo(4);
+        assertThat(names(inventory.find(null, null, null, 100))).containsExactlyElementsOf(storage.names());
+        assertThat(inventory.find("blob-1", null, null, 1).blobs().get(0).size()).isEqualTo(7);
+        assertThat(inventory.check(null, false).consistent()).isTrue();
+        assertThat(inventory.status().reconciledChanges()).isEqualTo(4);
+    }
+
+    @Test
+    void checkReportsDifferencesAndRepairsOnRequest() {
+        put("keep.txt", 1);
+        put("gone.txt", 1);
+        put("edited.txt", 1);
+        inventory = newInventory(5000, 10);
+        inventory.rebuild();
+        outside.deleteBlob("gone.txt");
+        outside.uploadBlob("edited.txt", "v2");
+        outside.uploadBlob("added.txt", "new");
+
+        BlobInventory.ConsistencyReport report = inventory.check(null, false);
+
+        assertThat(report.consistent()).isFalse();
+        assertThat(report.listed()).isEqualTo(3);
+        assertThat(report.indexed()).isEqualTo(3);
+        assertThat(report.missing()).isEqualTo(1);
+        assertThat(report.stale()).isEqualTo(1);
+        assertThat(report.changed()).isEqualTo(1);
+        assertThat(report.samples()).containsExactlyInAnyOrder(
+                new BlobInventory.Difference("added.txt", "missing"),
+                new BlobInventory.Difference("gone.txt", "stale"),
+                new BlobInventory.Difference("edited.txt", "changed"));
+        assertThat(inventory.check(null, true).repaired()).isTrue();
+        assertThat(inventory.check(null, false).consistent()).isTrue();
+        assertThat(inventory.check("keep", false).listed()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsQueriesBeforeBuildAndWhenDisabled() {
+        inventory = newInventory(5000, 10);
+
+        assertThatThrownBy(() -> inventory.totals(null))
+                .isInstanceOfSatisfying(ApiException.class, e -> assertThat(e.getType()).isEqualTo(ErrorType.OVERLOADED));
+
+        BlobInventory disabled = new BlobInventory(service, false, directory, 5000, Duration.ofMinutes(1), 10, 10,
+                Clock.systemUTC(), new SimpleMeterRegistry());
+        assertThatThrownBy(() -> disabled.find(null, null, null, 10))
+                .isInstanceOfSatisfying(ApiException.class, e -> assertThat(e.getType()).isEqualTo(ErrorType.NOT_FOUND));
+        assertThat(disabled.status().enabled()).isFalse();
+    }
+
+    @Test
+    void ordersNamesLikeUtf8Bytes() {
+        // U+FF5E (3 bajty UTF-8) < U+1F600 (4 bajty), choć w UTF-16 surogat 0xD83D < 0xFF5E
+        assertThat(BlobInventory.compareNames("～", "😀")).isNegative();
+        assertThat(BlobInventory.compareNames("a", "ab")).isNegative();
+        assertThat(BlobInventory.sameETag("\"0x8DC1\"", "0x8DC1")).isTrue();
+    }
+
+    private BlobInventory newInventory(int pageSize, int compactThreshold) {
+        return new BlobInventory(service, true, directory, pageSize, Duration.ofMinutes(1), 1, compactThreshold,
+                Clock.systemUTC(), new SimpleMeterRegistry());
+    }
+
+    private void put(String name, int size) {
+        storage.put(name, "x".repeat(size).getBytes(StandardCharsets.UTF_8), "text/plain");
+    }
+
+    private static List<String> names(BlobPage page) {
+        return page.blobs().stream().map(BlobInfo::name).toList();
+    }
+
+    private AzureBlobStorageService service() {
+        return new AzureBlobStorageService(storage.containerClient(), "fake", InMemoryBlobStorage.CONTAINER,
+                DataSize.ofMegabytes(1), 2, DataSize.ofMegabytes(1));
+    }
+}
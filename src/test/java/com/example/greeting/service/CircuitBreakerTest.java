@@ -0,0 +1,157 @@
+package com.example.greeting.service;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpResponse;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.Disposable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker("blob-storage", true, 10, 4, 50,
+            Duration.ofSeconds(10), 2, now::get);
+
+    @Test
+    void opensWhenFailureRateReachesThresholdAndRejectsWithoutCalling() {
+        succeed();
+        succeed();
+        fail();
+        assertThat(breaker.getState()).as("za mało wywołań w oknie").isEqualTo(CircuitBreaker.State.CLOSED);
+        fail();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        AtomicLong calls = new AtomicLong();
+        assertThatThrownBy(() -> breaker.call(calls::incrementAndGet))
+                .isInstanceOf(CircuitOpenException.class)
+                .hasMessageContaining("blob-storage");
+        assertThat(calls).hasValue(0);
+        assertThat(breaker.stats().notPermitted()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorsAndLocalRejectionsDoNotOpenCircuit() {
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> breaker.call(() -> {
+                throw new HttpResponseException("brak", response(404), null);
+            })).isInstanceOf(HttpResponseException.class);
+            assertThatThrownBy(() -> breaker.call(() -> {
+                throw new BulkheadFullException("blob-storage", "pełny");
+            })).isInstanceOf(BulkheadFullException.class);
+        }
+
+        CircuitBreaker.Stats stats = breaker.stats();
+        assertThat(stats.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(stats.failureRate()).isZero();
+        assertThat(stats.bufferedCalls()).as("odrzucenia lokalne nie trafiają do okna").isEqualTo(10);
+    }
+
+    @Test
+    void countsOnlyDependencyIoTimeoutsAndServerErrors() {
+        assertThat(CircuitBreaker.isDependencyFailure(new UncheckedIOException(new IOException("connection reset"))))
+                .isTrue();
+        assertThat(CircuitBreaker.isDependencyFailure(new DeadlineExceededException("blob-storage", "download",
+                Duration.ofSeconds(5)))).isTrue();
+        assertThat(CircuitBreaker.isDependencyFailure(new HttpResponseException("busy", response(503), null))).isTrue();
+        assertThat(CircuitBreaker.isDependencyFailure(new HttpResponseException("throttled", response(429), null)))
+                .isTrue();
+
+        // klient przerwał /stream - zapis do strumienia wywołującego, nie awaria Storage
+        IOException clientAbort = new IOException("Broken pipe");
+        assertThat(CircuitBreaker.isDependencyFailure(new UncheckedIOException(new CallerStreams.Failure(clientAbort))))
+                .isFalse();
+        assertThat(CircuitBreaker.isDependencyFailure(new IllegalStateException("błąd lokalny"))).isFalse();
+        assertThat(CircuitBreaker.isDependencyFailure(new HttpResponseException("brak", response(404), null)))
+                .isFalse();
+    }
+
+    @Test
+    void guardedStreamsMarkCallerFailures() {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> CallerStreams.guard(broken).write(new byte[8], 0, 8))
+                .isInstanceOf(CallerStreams.Failure.class)
+                .hasRootCauseMessage("Broken pipe");
+    }
+
+    @Test
+    void halfOpenClosesAfterSuccessfulTrialCallsAndReopensOnFailure() {
+        openCircuit();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        fail();
+        assertThat(breaker.getState()).as("błąd próbnego wywołania").isEqualTo(CircuitBreaker.State.OPEN);
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        succeed();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed();
+        assertThat(breaker.stats()).isEqualTo(new CircuitBreaker.Stats("blob-storage", CircuitBreaker.State.CLOSED, -1, 0, 0));
+    }
+
+    @Test
+    void halfOpenLimitsTrialCallsInFlight() {
+        openCircuit();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        Disposable cancelled = breaker.callAsync(Mono::never).subscribe();
+        cancelled.dispose(); // anulowana próba zwalnia miejsce
+        breaker.callAsync(Mono::never).subscribe();
+        breaker.callAsync(Mono::never).subscribe();
+
+        assertThatThrownBy(() -> breaker.callAsync(() -> Mono.just("x")).block())
+                .isInstanceOf(CircuitOpenException.class);
+    }
+
+    @Test
+    void disabledNeverOpens() {
+        CircuitBreaker disabled = CircuitBreaker.disabled("keyvault");
+        for (int i = 0; i < 100; i++) {
+            assertThatThrownBy(() -> disabled.run(() -> {
+                throw new IllegalStateException("awaria");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(disabled.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() {
+        assertThat(breaker.call(() -> "ok")).isEqualTo("ok");
+    }
+
+    private void fail() {
+        assertThatThrownBy(() -> breaker.run(() -> {
+            throw new UncheckedIOException(new IOException("connection reset"));
+        })).isInstanceOf(UncheckedIOException.class);
+    }
+
+    private static HttpResponse response(int status) {
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatusCode()).thenReturn(status);
+        return response;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.greeting.service;
+
+import com.azure.storage.blob.models.BlobRange;
+import com.example.greeting.support.InMemoryBlobStorage;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Child-process entry point for {@link AzureBlobStorageServiceTest#streamsPayloadsLargerThanHeap()}.
+ * Runs under a small {@code -Xmx}: streams {@code args[0]} MB up and down through the real SDK
+ * against {@link InMemoryBlobStorage} in discard mode. Any buffering of the whole payload ends in
+ * {@link OutOfMemoryError} and a non-zero exit code.
+ */
+public final class StreamingMemoryCeiling {
+
+    private StreamingMemoryCeiling() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long size = DataSize.ofMegabytes(Long.parseLong(args[0])).toBytes();
+        InMemoryBlobStorage storage = new InMemoryBlobStorage(true);
+        AzureBlobStorageService service = new AzureBlobStorageService(storage.containerClient(),
+                "fake", InMemoryBlobStorage.CONTAINER, DataSize.ofMegabytes(4), 4, DataSize.ofMegabytes(4));
+
+        long uploaded = service.uploadBlob("big.bin", new PatternInputStream(size), "application/octet-stream");
+        if (uploaded != size || storage.size("big.bin") != size) {
+            throw new IllegalStateException("upload size mismatch: " + uploaded + " / " + storage.size("big.bin"));
+        }
+
+        storage.putSynthetic("big.bin", size);
+        PatternVerifyingOutputStream out = new PatternVerifyingOutputStream(0);
+        service.downloadBlob("big.bin", out, null, null);
+        if (out.position != size) {
+            throw new IllegalStateException("download size mismatch: " + out.position);
+        }
+
+        long offset = size / 3;
+        PatternVerifyingOutputStream ranged = new PatternVerifyingOutputStream(offset);
+        service.downloadBlob("big.bin", ranged, new BlobRange(offset, 1024L * 1024), null);
+        if (ranged.position != offset + 1024L * 1024) {
+            throw new IllegalStateException("ranged download size mismatch: " + (ranged.position - offset));
+        }
+        System.out.println("OK " + size);
+    }
+
+    /** Generates the synthetic pattern on the fly - never holds more than the caller's buffer. */
+    static final class PatternInputStream extends InputStream {
+        private final long size;
+        private long position;
+
+        PatternInputStream(long size) {
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            return position < size ? InMemoryBlobStorage.patternByte(position++) & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= size) {
+                return -1;
+            }
+            int n = (int) Math.min(len, size - position);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = InMemoryBlobStorage.patternByte(position++);
+            }
+            return n;
+        }
+    }
+
+    static final class PatternVerifyingOutputStream extends OutputStream {
+        private long position;
+
+        PatternVerifyingOutputStream(long start) {
+            this.position = start;
+        }
+
+        @Override
+        public void write(int b) {
+            verify((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = 0; i < len; i++) {
+                verify(b[off + i]);
+            }
+        }
+
+        private void verify(byte b) {
+            if (b != InMemoryBlobStorage.patternByte(position)) {
+                throw new IllegalStateException("content mismatch at offset " + position);
+            }
+            position++;
+        }
+    }
+}
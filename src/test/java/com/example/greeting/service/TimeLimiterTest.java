@@ -0,0 +1,143 @@
+package com.example.greeting.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeLimiterTest {
+
+    private final TimeLimiter limiter = new TimeLimiter("blob-storage",
+            Map.of("exists", Duration.ofSeconds(2), "getProperties", Duration.ofMillis(100)),
+            true, Duration.ofMillis(50), 0.1);
+
+    @Test
+    void parsesDeadlines() {
+        assertThat(TimeLimiter.parseDeadlines(List.of("download=5s", " exists = 500ms", "")))
+                .containsExactly(Map.entry("download", Duration.ofSeconds(5)), Map.entry("exists", Duration.ofMillis(500)));
+        assertThatThrownBy(() -> TimeLimiter.parseDeadlines(List.of("5s")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void interruptsCallAfterDeadline() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        long started = System.nanoTime();
+
+        assertThatThrownBy(() -> limiter.call("getProperties", () -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "za późno";
+        }, false)).isInstanceOf(DeadlineExceededException.class)
+                .hasMessageContaining("100 ms");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).as("wywołanie przerwane").isTrue();
+        assertThat(stats("getProperties").deadlineExceeded()).isEqualTo(1);
+    }
+
+    @Test
+    void operationWithoutDeadlineRunsOnCallerThread() {
+        Thread caller = Thread.currentThread();
+
+        assertThat(limiter.call("upload", () -> Thread.currentThread() == caller, false)).isTrue();
+    }
+
+    @Test
+    void hedgesSlowReadAfterWarmUpAndTakesFirstAnswer() {
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+        long started = System.nanoTime();
+
+        String result = limiter.call("exists", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(1_500); // wolna pierwsza próba
+                return "primary";
+            }
+            return "hedge";
+        }, true);
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+        TimeLimiter.Stats stats = stats("exists");
+        assertThat(stats.hedges()).isEqualTo(1);
+        assertThat(stats.hedgeWins()).isEqualTo(1);
+        assertThat(stats.hedgeDelayMs()).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void failedOnlyAttemptIsNotRetried() {
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> limiter.call("exists", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("503");
+        }, true)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void hedgeBudgetLimitsExtraAttempts() {
+        warmUp(); // 40 wywołań - kredyt na 4 drugie próby
+        for (int i = 0; i < 8; i++) {
+            limiter.call("exists", () -> {
+                sleep(150);
+                return true;
+            }, true);
+        }
+
+        assertThat(stats("exists").hedges()).isBetween(1L, 5L);
+    }
+
+    @Test
+    void hedgesReactiveReadWithoutBlocking() {
+        for (int i = 0; i < 40; i++) {
+            limiter.callAsync("exists", () -> Mono.just(true), true).block();
+        }
+        AtomicInteger attempts = new AtomicInteger();
+
+        Boolean result = limiter.callAsync("exists", () -> attempts.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(1_500)).map(tick -> false)
+                : Mono.just(true), true).block(Duration.ofSeconds(1));
+
+        assertThat(result).isTrue();
+        assertThat(stats("exists").hedgeWins()).isEqualTo(1);
+    }
+
+    @Test
+    void reactiveDeadline() {
+        assertThatThrownBy(() -> limiter.callAsync("getProperties", Mono::never, false).block())
+                .isInstanceOf(DeadlineExceededException.class);
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < 40; i++) {
+            limiter.call("exists", () -> true, true);
+        }
+    }
+
+    private TimeLimiter.Stats stats(String operation) {
+        return limiter.stats().stream().filter(s -> s.operation().equals(operation)).findFirst().orElseThrow();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
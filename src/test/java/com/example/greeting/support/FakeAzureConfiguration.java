@@ -0,0 +1,56 @@
+package com.example.greeting.support;
+
+import com.example.greeting.service.AzureBlobStorageService;
+import com.example.greeting.service.AzureKeyVaultService;
+import com.example.greeting.service.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Replaces the Azure-backed services with ones wired to {@link InMemoryKeyVault} and
+ * {@link InMemoryBlobStorage}, so a full application context can start without Azure.
+ * The fakes are beans too - tests can seed data or inject latency through them.
+ * Both bulkheads allow {@code fake.azure.bulkhead.max-concurrent-calls} calls (default 16).
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class FakeAzureConfiguration {
+
+    @Bean
+    public InMemoryKeyVault inMemoryKeyVault() {
+        InMemoryKeyVault vault = new InMemoryKeyVault();
+        vault.put("greeting-db-username", "greeting");
+        vault.put("greeting-db-password", "secret");
+        return vault;
+    }
+
+    @Bean
+    public InMemoryBlobStorage inMemoryBlobStorage() {
+        return new InMemoryBlobStorage();
+    }
+
+    @Bean
+    @Primary
+    public AzureKeyVaultService fakeKeyVaultService(InMemoryKeyVault vault, MeterRegistry meterRegistry,
+            @Value("${fake.azure.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls) {
+        return new AzureKeyVaultService(vault.secretClient(), vault.secretAsyncClient(),
+                InMemoryKeyVault.VAULT_URL, Clock.systemUTC(),
+                Duration.ofMinutes(5), 0.8, Duration.ofMinutes(30), 256, true,
+                new Bulkhead("keyvault", maxConcurrentCalls, Duration.ofMillis(20)), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public AzureBlobStorageService fakeBlobStorageService(InMemoryBlobStorage storage, MeterRegistry meterRegistry,
+            @Value("${fake.azure.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls) {
+        return new AzureBlobStorageService(storage.containerClient(), "fake", InMemoryBlobStorage.CONTAINER,
+                DataSize.ofMegabytes(8), 4, DataSize.ofMegabytes(8),
+                new Bulkhead("blob-storage", maxConcurrentCalls, Duration.ofMillis(20)), meterRegistry);
+    }
+}
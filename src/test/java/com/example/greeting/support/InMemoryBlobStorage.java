@@ -0,0 +1,673 @@
+package com.example.greeting.support;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.common.policy.RequestRetryOptions;
+import com.azure.storage.common.policy.RetryPolicyType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory Blob Storage stand-in plugged in at the azure-core {@link HttpClient} level, so the real
+ * {@code BlobContainerClient} / {@code BlobClient} code paths (chunking, ranges, retries, XML parsing)
+ * are exercised without network access.
+ * <p>
+ * Supports the subset of the Blob REST API the service uses: put blob, put block / block list,
+ * get (ranged), head, delete, container properties, flat listing and batch (delete sub-requests only). With {@code discardContent}
+ * uploads are only counted and downloads are served from a deterministic synthetic pattern,
+ * so multi-hundred-MB transfers do not need multi-hundred-MB of test heap.
+ */
+public class InMemoryBlobStorage implements HttpClient {
+
+    public static final String ACCOUNT_ENDPOINT = "https://fake.blob.core.windows.net";
+    public static final String CONTAINER = "container";
+
+    private static final HttpHeaderName X_MS_RANGE = HttpHeaderName.fromString("x-ms-range");
+    private static final HttpHeaderName X_MS_BLOB_TYPE = HttpHeaderName.fromString("x-ms-blob-type");
+    private static final HttpHeaderName X_MS_ERROR_CODE = HttpHeaderName.fromString("x-ms-error-code");
+    private static final HttpHeaderName X_MS_BLOB_CONTENT_TYPE = HttpHeaderName.fromString("x-ms-blob-content-type");
+    private static final HttpHeaderName X_MS_BLOB_CONTENT_ENCODING = HttpHeaderName.fromString("x-ms-blob-content-encoding");
+    private static final HttpHeaderName X_MS_REQUEST_SERVER_ENCRYPTED = HttpHeaderName.fromString("x-ms-request-server-encrypted");
+    private static final String X_MS_META_PREFIX = "x-ms-meta-";
+    private static final DateTimeFormatter RFC_1123 = DateTimeFormatter.RFC_1123_DATE_TIME;
+    private static final Pattern BLOCK_ID = Pattern.compile("<(?:Latest|Committed|Uncommitted)>([^<]+)</");
+    private static final Pattern BATCH_CONTENT_ID = Pattern.compile("(?mi)^Content-ID:\\s*(\\d+)");
+    private static final Pattern BATCH_REQUEST_LINE = Pattern.compile("(?m)^(DELETE) (\\S+) HTTP/1\\.1");
+    private static final int CHUNK = 64 * 1024;
+    private static final byte[] PATTERN = new byte[CHUNK + 251];
+
+    static {
+        for (int i = 0; i < PATTERN.length; i++) {
+            PATTERN[i] = (byte) (i % 251);
+        }
+    }
+
+    private final boolean discardContent;
+    private final NavigableMap<String, StoredBlob> blobs = new ConcurrentSkipListMap<>();
+    private final Map<String, Map<String, StoredBlob>> stagedBlocks = new ConcurrentHashMap<>();
+    private final AtomicLong etagSequence = new AtomicLong(0x8DC000000000000L);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong injectedFailures = new AtomicLong();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double failureRate;
+    private long[] serverFreeAt = new long[0];
+
+    public InMemoryBlobStorage() {
+        this(false);
+    }
+
+    public InMemoryBlobStorage(boolean discardContent) {
+        this.discardContent = discardContent;
+    }
+
+    /**
+     * Builds a real {@link BlobContainerClient} wired to this stand-in (no retries, fake SAS).
+     */
+    public BlobContainerClient containerClient() {
+        return new BlobContainerClientBuilder()
+                .endpoint(ACCOUNT_ENDPOINT + "/" + CONTAINER)
+                .sasToken("sv=2024-08-04&sig=fake")
+                .httpClient(this)
+                .retryOptions(new RequestRetryOptions(RetryPolicyType.FIXED, 1, 30, null, null, null))
+                .buildClient();
+    }
+
+    /** Fixed latency added to every request (simulates a slow backend). */
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Fraction of requests (0..1) answered with {@code 503 ServerBusy} instead of being served,
+     * after the usual latency - the way a throttled storage account fails.
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * Simulates a saturated backend: at most {@code servers} requests are served at once, each taking
+     * the configured latency, and the rest queue - so latency grows with the number of requests in flight.
+     * 0 (the default) means unlimited capacity: every request waits exactly the latency.
+     */
+    public synchronized void setCapacity(int servers) {
+        this.serverFreeAt = new long[servers];
+    }
+
+    public void put(String name, byte[] content, String contentType) {
+        put(name, content, contentType, null);
+    }
+
+    /** Stores already encoded content, e.g. gzip bytes with {@code contentEncoding = "gzip"}. */
+    public void put(String name, byte[] content, String contentType, String contentEncoding) {
+        blobs.put(name, new StoredBlob(content, content.length, nextEtag(), now(), contentType, Map.of(),
+                contentEncoding));
+    }
+
+    /** Registers a blob of the given size whose content is the synthetic pattern (never materialized). */
+    public void putSynthetic(String name, long size) {
+        blobs.put(name, new StoredBlob(null, size, nextEtag(), now(), "application/octet-stream", Map.of(), null));
+    }
+
+    public boolean contains(String name) {
+        return blobs.containsKey(name);
+    }
+
+    public List<String> names() {
+        return new ArrayList<>(blobs.keySet());
+    }
+
+    public long size(String name) {
+        return blobs.get(name).size;
+    }
+
+    public byte[] content(String name) {
+        return blobs.get(name).data;
+    }
+
+    public String contentType(String name) {
+        return blobs.get(name).contentType;
+    }
+
+    public String contentEncoding(String name) {
+        return blobs.get(name).contentEncoding;
+    }
+
+    public Map<String, String> metadata(String name) {
+        return blobs.get(name).metadata;
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long injectedFailures() {
+        return injectedFailures.get();
+    }
+
+    public long bytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    /** Expected byte at the given offset of a synthetic blob. */
+    public static byte patternByte(long offset) {
+        return (byte) (offset % 251);
+    }
+
+    @Override
+    public Mono<HttpResponse> send(HttpRequest request) {
+        requests.incrementAndGet();
+        boolean fail = failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+        Mono<HttpResponse> response = readBody(request).map(body -> {
+            if (fail) {
+                injectedFailures.incrementAndGet();
+                return error(request, 503, "ServerBusy");
+            }
+            return handle(request, body);
+        });
+        Duration delay = delayFor(latency);
+        return delay.isZero() ? response : response.delaySubscription(delay);
+    }
+
+    private synchronized Duration delayFor(Duration latency) {
+        if (serverFreeAt.length == 0 || latency.isZero()) {
+            return latency;
+        }
+        int earliest = 0;
+        for (int i = 1; i < serverFreeAt.length; i++) {
+            if (serverFreeAt[i] < serverFreeAt[earliest]) {
+                earliest = i;
+            }
+        }
+        long now = System.nanoTime();
+        serverFreeAt[earliest] = Math.max(now, serverFreeAt[earliest]) + latency.toNanos();
+        return Duration.ofNanos(serverFreeAt[earliest] - now);
+    }
+
+    private Mono<Body> readBody(HttpRequest request) {
+        Flux<ByteBuffer> flux = request.getBody();
+        if (flux == null) {
+            return Mono.just(new Body(new byte[0], 0));
+        }
+        String query = request.getUrl().getQuery();
+        boolean control = query != null && (query.contains("comp=blocklist") || query.contains("comp=batch"));
+        if (discardContent && !control) {
+            return flux.reduce(0L, (count, buffer) -> count + buffer.remaining())
+                    .map(count -> new Body(null, count));
+        }
+        return flux.collect(ByteArrayOutputStream::new, (out, buffer) -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            out.writeBytes(bytes);
+        }).map(out -> new Body(out.toByteArray(), out.size()));
+    }
+
+    private HttpResponse handle(HttpRequest request, Body body) {
+        bytesReceived.addAndGet(body.length());
+        String path = request.getUrl().getPath();
+        Map<String, String> query = parseQuery(request.getUrl().getQuery());
+        String prefix = "/" + CONTAINER;
+        if (!path.startsWith(prefix)) {
+            return error(request, 404, "ContainerNotFound");
+        }
+        String blobName = path.length() > prefix.length() + 1
+                ? URLDecoder.decode(path.substring(prefix.length() + 1), StandardCharsets.UTF_8)
+                : null;
+
+        if (blobName == null) {
+            if ("list".equals(query.get("comp"))) {
+                return list(request, query);
+            }
+            if ("batch".equals(query.get("comp"))) {
+                return batch(request, body);
+            }
+            return containerProperties(request);
+        }
+        return switch (request.getHttpMethod()) {
+            case PUT -> put(request, blobName, query, body);
+            case GET, HEAD -> get(request, blobName);
+            case DELETE -> delete(request, blobName);
+            default -> error(request, 405, "UnsupportedHttpVerb");
+        };
+    }
+
+    private HttpResponse put(HttpRequest request, String blobName, Map<String, String> query, Body body) {
+        String comp = query.get("comp");
+        if ("block".equals(comp)) {
+            stagedBlocks.computeIfAbsent(blobName, n -> new ConcurrentHashMap<>())
+                    .put(query.get("blockid"), new StoredBlob(body.data(), body.length(), null, null, null, Map.of(), null));
+            return respond(request, 201, new HttpHeaders().set(X_MS_REQUEST_SERVER_ENCRYPTED, "true"), null);
+        }
+
+        StoredBlob previous = blobs.get(blobName);
+        if (!conditionsMet(request, previous)) {
+            return error(request, 412, "ConditionNotMet");
+        }
+
+        byte[] data;
+        long size;
+        if ("blocklist".equals(comp)) {
+            Map<String, StoredBlob> staged = stagedBlocks.getOrDefault(blobName, Map.of());
+            Matcher matcher = BLOCK_ID.matcher(new String(body.data() != null ? body.data() : new byte[0], StandardCharsets.UTF_8));
+            ByteArrayOutputStream assembled = discardContent ? null : new ByteArrayOutputStream();
+            size = 0;
+            while (matcher.find()) {
+                StoredBlob block = staged.get(matcher.group(1));
+                if (block == null) {
+                    return error(request, 400, "InvalidBlockList");
+                }
+                size += block.size;
+                if (assembled != null) {
+                    assembled.writeBytes(block.data);
+                }
+            }
+            stagedBlocks.remove(blobName);
+            data = assembled != null ? assembled.toByteArray() : null;
+        } else if ("BlockBlob".equals(request.getHeaders().getValue(X_MS_BLOB_TYPE))) {
+            data = body.data();
+            size = body.length();
+        } else {
+            return error(request, 400, "UnsupportedHeader");
+        }
+
+        String contentType = firstNonNull(request.getHeaders().getValue(X_MS_BLOB_CONTENT_TYPE),
+                "BlockBlob".equals(request.getHeaders().getValue(X_MS_BLOB_TYPE))
+                        ? request.getHeaders().getValue(HttpHeaderName.CONTENT_TYPE) : null,
+                "application/octet-stream");
+        StoredBlob stored = new StoredBlob(data, size, nextEtag(), now(), contentType,
+                metadataOf(request), request.getHeaders().getValue(X_MS_BLOB_CONTENT_ENCODING));
+        blobs.put(blobName, stored);
+
+        HttpHeaders headers = new HttpHeaders()
+                .set(HttpHeaderName.ETAG, stored.etag)
+                .set(HttpHeaderName.LAST_MODIFIED, RFC_1123.format(stored.lastModified))
+                .set(X_MS_REQUEST_SERVER_ENCRYPTED, "true");
+        return respond(request, 201, headers, null);
+    }
+
+    private HttpResponse get(HttpRequest request, String blobName) {
+        StoredBlob blob = blobs.get(blobName);
+        if (blob == null) {
+            return error(request, 404, "BlobNotFound");
+        }
+        if (!conditionsMet(request, blob)) {
+            return error(request, 412, "ConditionNotMet");
+        }
+        String ifNoneMatch = request.getHeaders().getValue(HttpHeaderName.IF_NONE_MATCH);
+        if (ifNoneMatch != null && etagMatches(ifNoneMatch, blob.etag)) {
+            return respond(request, 304, blobHeaders(blob), null);
+        }
+
+        HttpHeaders headers = blobHeaders(blob);
+        if (request.getHttpMethod() == HttpMethod.HEAD) {
+            headers.set(HttpHeaderName.CONTENT_LENGTH, String.valueOf(blob.size));
+            return respond(request, 200, headers, null);
+        }
+
+        String range = firstNonNull(request.getHeaders().getValue(X_MS_RANGE),
+                request.getHeaders().getValue(HttpHeaderName.RANGE), null);
+        long start = 0;
+        long end = blob.size - 1;
+        int status = 200;
+        if (range != null) {
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            start = Long.parseLong(bounds[0]);
+            if (!bounds[1].isEmpty()) {
+                end = Math.min(Long.parseLong(bounds[1]), blob.size - 1);
+            }
+            if (start >= blob.size) {
+                return error(request, 416, "InvalidRange");
+            }
+            status = 206;
+            headers.set(HttpHeaderName.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + blob.size);
+        }
+        long length = Math.max(0, end - start + 1);
+        headers.set(HttpHeaderName.CONTENT_LENGTH, String.valueOf(length));
+        return respond(request, status, headers, content(blob, start, length));
+    }
+
+    private HttpResponse delete(HttpRequest request, String blobName) {
+        StoredBlob blob = blobs.get(blobName);
+        if (blob == null) {
+            return error(request, 404, "BlobNotFound");
+        }
+        if (!conditionsMet(request, blob)) {
+            return error(request, 412, "ConditionNotMet");
+        }
+        blobs.remove(blobName);
+        return respond(request, 202, new HttpHeaders(), null);
+    }
+
+    /**
+     * Container-scoped Blob Batch: multipart/mixed body of sub-requests, answered with a
+     * multipart/mixed body of sub-responses matched by Content-ID.
+     */
+    private HttpResponse batch(HttpRequest request, Body body) {
+        String contentType = request.getHeaders().getValue(HttpHeaderName.CONTENT_TYPE);
+        String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length());
+        String payload = new String(body.data(), StandardCharsets.UTF_8);
+        String responseBoundary = "batchresponse_" + System.nanoTime();
+        StringBuilder out = new StringBuilder();
+        for (String part : payload.split(Pattern.quote("--" + boundary))) {
+            Matcher contentId = BATCH_CONTENT_ID.matcher(part);
+            Matcher requestLine = BATCH_REQUEST_LINE.matcher(part);
+            if (!contentId.find() || !requestLine.find()) {
+                continue;
+            }
+            String path = requestLine.group(2);
+            int queryStart = path.indexOf('?');
+            if (queryStart >= 0) {
+                path = path.substring(0, queryStart);
+            }
+            String prefix = "/" + CONTAINER + "/";
+            String blobName = URLDecoder.decode(path.startsWith(prefix) ? path.substring(prefix.length()) : path.substring(1),
+                    StandardCharsets.UTF_8);
+            boolean deleted = blobs.remove(blobName) != null;
+            out.append("--").append(responseBoundary).append("\r\n")
+                    .append("Content-Type: application/http\r\n")
+                    .append("Content-ID: ").append(contentId.group(1)).append("\r\n\r\n");
+            if (deleted) {
+                out.append("HTTP/1.1 202 Accepted\r\n")
+                        .append("x-ms-delete-type-permanent: true\r\n")
+                        .append("x-ms-request-id: fake-").append(System.nanoTime()).append("\r\n")
+                        .append("x-ms-version: 2024-08-04\r\n\r\n");
+            } else {
+                String xml = "<?xml version=\"1.0\" encoding=\"utf-8\"?><Error><Code>BlobNotFound</Code>"
+                        + "<Message>The specified blob does not exist.</Message></Error>";
+                out.append("HTTP/1.1 404 The specified blob does not exist.\r\n")
+                        .append("x-ms-error-code: BlobNotFound\r\n")
+                        .append("x-ms-request-id: fake-").append(System.nanoTime()).append("\r\n")
+                        .append("x-ms-version: 2024-08-04\r\n")
+                        .append("Content-Type: application/xml\r\n")
+                        .append("Content-Length: ").append(xml.length()).append("\r\n\r\n")
+                        .append(xml).append("\r\n");
+            }
+        }
+        out.append("--").append(responseBoundary).append("--\r\n");
+
+        byte[] bytes = out.toString().getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders()
+                .set(HttpHeaderName.CONTENT_TYPE, "multipart/mixed; boundary=" + responseBoundary)
+                .set(HttpHeaderName.CONTENT_LENGTH, String.valueOf(bytes.length));
+        return respond(request, 202, headers, Flux.just(ByteBuffer.wrap(bytes)));
+    }
+
+    private HttpResponse containerProperties(HttpRequest request) {
+        HttpHeaders headers = new HttpHeaders()
+                .set(HttpHeaderName.ETAG, "\"0x8DC0000CONTAINER\"")
+                .set(HttpHeaderName.LAST_MODIFIED, RFC_1123.format(now()));
+        return respond(request, 200, headers, null);
+    }
+
+    private HttpResponse list(HttpRequest request, Map<String, String> query) {
+        String prefix = query.getOrDefault("prefix", "");
+        String marker = query.get("marker");
+        int maxResults = Integer.parseInt(query.getOrDefault("maxresults", "5000"));
+
+        NavigableMap<String, StoredBlob> view = marker != null ? blobs.tailMap(marker, true) : blobs;
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>")
+                .append("<EnumerationResults ServiceEndpoint=\"").append(ACCOUNT_ENDPOINT).append("/\" ContainerName=\"")
+                .append(CONTAINER).append("\">")
+                .append("<Prefix>").append(escape(prefix)).append("</Prefix>")
+                .append("<MaxResults>").append(maxResults).append("</MaxResults><Blobs>");
+        int count = 0;
+        String nextMarker = null;
+        for (Map.Entry<String, StoredBlob> entry : view.entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                if (entry.getKey().compareTo(prefix) > 0) {
+                    break;
+                }
+                continue;
+            }
+            if (count == maxResults) {
+                nextMarker = entry.getKey();
+                break;
+            }
+            StoredBlob blob = entry.getValue();
+            xml.append("<Blob><Name>").append(escape(entry.getKey())).append("</Name><Properties>")
+                    .append("<Creation-Time>").append(RFC_1123.format(blob.lastModified)).append("</Creation-Time>")
+                    .append("<Last-Modified>").append(RFC_1123.format(blob.lastModified)).append("</Last-Modified>")
+                    .append("<Etag>").append(escape(blob.etag)).append("</Etag>")
+                    .append("<Content-Length>").append(blob.size).append("</Content-Length>")
+                    .append("<Content-Type>").append(escape(blob.contentType)).append("</Content-Type>")
+                    .append(blob.contentEncoding != null
+                            ? "<Content-Encoding>" + escape(blob.contentEncoding) + "</Content-Encoding>" : "")
+                    .append("<BlobType>BlockBlob</BlobType></Properties>");
+            if (!blob.metadata.isEmpty() && query.getOrDefault("include", "").contains("metadata")) {
+                xml.append("<Metadata>");
+                blob.metadata.forEach((k, v) -> xml.append('<').append(k).append('>').append(escape(v))
+                        .append("</").append(k).append('>'));
+                xml.append("</Metadata>");
+            }
+            xml.append("</Blob>");
+            count++;
+        }
+        xml.append("</Blobs><NextMarker>").append(nextMarker != null ? escape(nextMarker) : "")
+                .append("</NextMarker></EnumerationResults>");
+
+        byte[] bytes = xml.toString().getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders()
+                .set(HttpHeaderName.CONTENT_TYPE, "application/xml")
+                .set(HttpHeaderName.CONTENT_LENGTH, String.valueOf(bytes.length));
+        return respond(request, 200, headers, Flux.just(ByteBuffer.wrap(bytes)));
+    }
+
+    private Flux<ByteBuffer> content(StoredBlob blob, long start, long length) {
+        return Flux.<ByteBuffer, Long>generate(() -> 0L, (sent, sink) -> {
+            if (sent >= length) {
+                sink.complete();
+                return sent;
+            }
+            int chunk = (int) Math.min(CHUNK, length - sent);
+            long offset = start + sent;
+            ByteBuffer buffer = blob.data != null
+                    ? ByteBuffer.wrap(blob.data, (int) offset, chunk)
+                    : ByteBuffer.wrap(PATTERN, (int) (offset % 251), chunk);
+            sink.next(buffer.slice().asReadOnlyBuffer());
+            return sent + chunk;
+        }).doOnNext(buffer -> bytesSent.addAndGet(buffer.remaining()));
+    }
+
+    private HttpHeaders blobHeaders(StoredBlob blob) {
+        HttpHeaders headers = new HttpHeaders()
+                .set(HttpHeaderName.ETAG, blob.etag)
+                .set(HttpHeaderName.LAST_MODIFIED, RFC_1123.format(blob.lastModified))
+                .set(HttpHeaderName.CONTENT_TYPE, blob.contentType)
+                .set(HttpHeaderName.ACCEPT_RANGES, "bytes")
+                .set(X_MS_BLOB_TYPE, "BlockBlob")
+                .set(HttpHeaderName.fromString("x-ms-creation-time"), RFC_1123.format(blob.lastModified));
+        if (blob.contentEncoding != null) {
+            headers.set(HttpHeaderName.CONTENT_ENCODING, blob.contentEncoding);
+        }
+        blob.metadata.forEach((k, v) -> headers.set(HttpHeaderName.fromString(X_MS_META_PREFIX + k), v));
+        return headers;
+    }
+
+    private static boolean conditionsMet(HttpRequest request, StoredBlob current) {
+        String ifMatch = request.getHeaders().getValue(HttpHeaderName.IF_MATCH);
+        if (ifMatch != null && !ifMatch.equals("*") && (current == null || !etagMatches(ifMatch, current.etag))) {
+            return false;
+        }
+        String ifNoneMatch = request.getHeaders().getValue(HttpHeaderName.IF_NONE_MATCH);
+        return request.getHttpMethod() != HttpMethod.PUT
+                || ifNoneMatch == null
+                || current == null
+                || !etagMatches(ifNoneMatch, current.etag);
+    }
+
+    /**
+     * Compares a conditional header with a stored ETag the way the service does: {@code *} matches any blob
+     * and quotes are not significant (the SDK sends back the unquoted value from response headers).
+     */
+    private static boolean etagMatches(String condition, String etag) {
+        return condition.equals("*") || unquote(condition).equals(unquote(etag));
+    }
+
+    private static String unquote(String etag) {
+        return etag.length() >= 2 && etag.startsWith("\"") && etag.endsWith("\"")
+                ? etag.substring(1, etag.length() - 1) : etag;
+    }
+
+    private static Map<String, String> metadataOf(HttpRequest request) {
+        Map<String, String> metadata = new LinkedHashMap<>();
+        request.getHeaders().stream()
+                .filter(h -> h.getName().toLowerCase().startsWith(X_MS_META_PREFIX))
+                .forEach(h -> metadata.put(h.getName().substring(X_MS_META_PREFIX.length()).toLowerCase(), h.getValue()));
+        return metadata;
+    }
+
+    private HttpResponse error(HttpRequest request, int status, String code) {
+        HttpHeaders headers = new HttpHeaders().set(X_MS_ERROR_CODE, code);
+        if (request.getHttpMethod() == HttpMethod.HEAD) {
+            return respond(request, status, headers, null);
+        }
+        byte[] xml = ("<?xml version=\"1.0\" encoding=\"utf-8\"?><Error><Code>" + code
+                + "</Code><Message>" + code + "</Message></Error>").getBytes(StandardCharsets.UTF_8);
+        headers.set(HttpHeaderName.CONTENT_TYPE, "application/xml")
+                .set(HttpHeaderName.CONTENT_LENGTH, String.valueOf(xml.length));
+        return respond(request, status, headers, Flux.just(ByteBuffer.wrap(xml)));
+    }
+
+    private static HttpResponse respond(HttpRequest request, int status, HttpHeaders headers, Flux<ByteBuffer> body) {
+        headers.set(HttpHeaderName.X_MS_REQUEST_ID, "fake-" + System.nanoTime())
+                .set(HttpHeaderName.fromString("x-ms-version"), "2024-08-04")
+                .set(HttpHeaderName.DATE, RFC_1123.format(now()));
+        if (body == null && headers.getValue(HttpHeaderName.CONTENT_LENGTH) == null) {
+            headers.set(HttpHeaderName.CONTENT_LENGTH, "0");
+        }
+        return new FakeResponse(request, status, headers, body != null ? body : Flux.empty());
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private String nextEtag() {
+        return "\"0x" + Long.toHexString(etagSequence.incrementAndGet()).toUpperCase() + "\"";
+    }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC).withNano(0);
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    @SafeVarargs
+    private static <T> T firstNonNull(T... values) {
+        for (T value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private record Body(byte[] data, long length) {}
+
+    private record StoredBlob(byte[] data, long size, String etag, OffsetDateTime lastModified,
+                              String contentType, Map<String, String> metadata, String contentEncoding) {}
+
+    private static final class FakeResponse extends HttpResponse {
+        private final int status;
+        private final HttpHeaders headers;
+        private final Flux<ByteBuffer> body;
+
+        FakeResponse(HttpRequest request, int status, HttpHeaders headers, Flux<ByteBuffer> body) {
+            super(request);
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return status;
+        }
+
+        @Override
+        @Deprecated
+        public String getHeaderValue(String name) {
+            return getHeaderValue(HttpHeaderName.fromString(name));
+        }
+
+        @Override
+        public String getHeaderValue(HttpHeaderName name) {
+            return headers.getValue(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return body;
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return body.collect(ByteArrayOutputStream::new, (out, buffer) -> {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.duplicate().get(bytes);
+                out.writeBytes(bytes);
+            }).map(ByteArrayOutputStream::toByteArray);
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return getBodyAsString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return getBodyAsByteArray().map(bytes -> new String(bytes, charset));
+        }
+    }
+}
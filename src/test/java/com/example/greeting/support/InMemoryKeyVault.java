@@ -0,0 +1,233 @@
+package com.example.greeting.support;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.FixedDelayOptions;
+import com.azure.core.http.policy.RetryOptions;
+import com.azure.security.keyvault.secrets.SecretAsyncClient;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.SecretClientBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory Key Vault (secrets) stand-in plugged in at the azure-core {@link HttpClient} level.
+ * Implements the bearer challenge handshake, {@code GET /secrets/{name}} and {@code GET /secrets},
+ * so a real {@link SecretClient} can be used in tests and benchmarks without network access.
+ */
+public class InMemoryKeyVault implements HttpClient {
+
+    public static final String VAULT_URL = "https://fake.vault.azure.net";
+
+    /** Credential that never touches Entra ID. */
+    public static final TokenCredential STATIC_CREDENTIAL = request ->
+            Mono.just(new AccessToken("fake-token", OffsetDateTime.now().plusHours(1)));
+
+    /** Tenant and scope the bearer challenge asks the client to get a token for. */
+    public static final String TENANT_ID = "00000000-0000-0000-0000-000000000000";
+    public static final String SCOPE = "https://vault.azure.net/.default";
+
+    private static final String CHALLENGE = "Bearer authorization=\"https://login.microsoftonline.com/"
+            + TENANT_ID + "\", resource=\"https://vault.azure.net\"";
+
+    private static final String ATTRIBUTES =
+            "{\"enabled\":true,\"created\":1735689600,\"updated\":1735689600,\"recoveryLevel\":\"Recoverable\"}";
+
+    private final Map<String, Secret> secrets = new ConcurrentSkipListMap<>();
+    private final Map<String, AtomicLong> reads = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedFailures = new AtomicLong();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double failureRate;
+
+    public SecretClient secretClient() {
+        return secretClient(STATIC_CREDENTIAL);
+    }
+
+    /** Same as {@link #secretClient()}, authenticating with the given credential. */
+    public SecretClient secretClient(TokenCredential credential) {
+        return builder(credential).buildClient();
+    }
+
+    /** Async counterpart of {@link #secretClient()} backed by the same fake vault. */
+    public SecretAsyncClient secretAsyncClient() {
+        return builder(STATIC_CREDENTIAL).buildAsyncClient();
+    }
+
+    private SecretClientBuilder builder(TokenCredential credential) {
+        return new SecretClientBuilder()
+                .vaultUrl(VAULT_URL)
+                .credential(credential)
+                .httpClient(this)
+                .retryOptions(new RetryOptions(new FixedDelayOptions(0, Duration.ofMillis(1))));
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Fraction of authenticated requests (0..1) answered with {@code 503 ServiceUnavailable}
+     * instead of being served; the bearer challenge itself never fails.
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    /** Stores a new version of the secret. */
+    public void put(String name, String value) {
+        secrets.put(name, new Secret(value, UUID.randomUUID().toString().replace("-", "")));
+    }
+
+    public void remove(String name) {
+        secrets.remove(name);
+    }
+
+    /** Number of successful {@code GET /secrets/{name}} calls for the secret. */
+    public long reads(String name) {
+        AtomicLong count = reads.get(name);
+        return count != null ? count.get() : 0;
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long injectedFailures() {
+        return injectedFailures.get();
+    }
+
+    @Override
+    public Mono<HttpResponse> send(HttpRequest request) {
+        requests.incrementAndGet();
+        Mono<HttpResponse> response = Mono.fromSupplier(() -> handle(request));
+        Duration delay = latency;
+        return delay.isZero() ? response : response.delaySubscription(delay);
+    }
+
+    private HttpResponse handle(HttpRequest request) {
+        if (request.getHeaders().getValue(HttpHeaderName.AUTHORIZATION) == null) {
+            return respond(request, 401, new HttpHeaders().set(HttpHeaderName.WWW_AUTHENTICATE, CHALLENGE), null);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            injectedFailures.incrementAndGet();
+            return error(request, 503, "ServiceUnavailable");
+        }
+        String path = request.getUrl().getPath();
+        if (request.getHttpMethod() != HttpMethod.GET || !path.startsWith("/secrets")) {
+            return error(request, 400, "BadParameter");
+        }
+        String[] segments = path.substring("/secrets".length()).split("/");
+        if (segments.length < 2 || segments[1].isEmpty()) {
+            return list(request);
+        }
+        String name = segments[1];
+        Secret secret = secrets.get(name);
+        if (secret == null) {
+            return error(request, 404, "SecretNotFound");
+        }
+        reads.computeIfAbsent(name, n -> new AtomicLong()).incrementAndGet();
+        return json(request, "{\"value\":" + quote(secret.value())
+                + ",\"id\":" + quote(VAULT_URL + "/secrets/" + name + "/" + secret.version())
+                + ",\"attributes\":" + ATTRIBUTES + "}");
+    }
+
+    private HttpResponse list(HttpRequest request) {
+        StringBuilder body = new StringBuilder("{\"value\":[");
+        boolean first = true;
+        for (String name : secrets.keySet()) {
+            body.append(first ? "" : ",")
+                    .append("{\"id\":").append(quote(VAULT_URL + "/secrets/" + name))
+                    .append(",\"attributes\":").append(ATTRIBUTES).append('}');
+            first = false;
+        }
+        return json(request, body.append("],\"nextLink\":null}").toString());
+    }
+
+    private HttpResponse error(HttpRequest request, int status, String code) {
+        return json(request, status, "{\"error\":{\"code\":\"" + code + "\",\"message\":\"" + code + "\"}}");
+    }
+
+    private HttpResponse json(HttpRequest request, String body) {
+        return json(request, 200, body);
+    }
+
+    private HttpResponse json(HttpRequest request, int status, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders()
+                .set(HttpHeaderName.CONTENT_TYPE, "application/json; charset=utf-8")
+                .set(HttpHeaderName.CONTENT_LENGTH, String.valueOf(bytes.length));
+        return respond(request, status, headers, bytes);
+    }
+
+    private static HttpResponse respond(HttpRequest request, int status, HttpHeaders headers, byte[] body) {
+        headers.set(HttpHeaderName.X_MS_REQUEST_ID, "fake-" + System.nanoTime());
+        byte[] bytes = body != null ? body : new byte[0];
+        return new HttpResponse(request) {
+            @Override
+            public int getStatusCode() {
+                return status;
+            }
+
+            @Override
+            @Deprecated
+            public String getHeaderValue(String name) {
+                return getHeaderValue(HttpHeaderName.fromString(name));
+            }
+
+            @Override
+            public String getHeaderValue(HttpHeaderName name) {
+                return headers.getValue(name);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public Flux<ByteBuffer> getBody() {
+                return Flux.just(ByteBuffer.wrap(bytes));
+            }
+
+            @Override
+            public Mono<byte[]> getBodyAsByteArray() {
+                return Mono.just(bytes);
+            }
+
+            @Override
+            public Mono<String> getBodyAsString() {
+                return getBodyAsString(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public Mono<String> getBodyAsString(Charset charset) {
+                return Mono.just(new String(bytes, charset));
+            }
+        };
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private record Secret(String value, String version) {}
+}